@@ -11,6 +11,7 @@ create table media_content
     data_content          longtext                                                                      null,
     user_id               varchar(255)                                                                  null,
     checksum              varchar(64)                                                                   null,
+    phash                 bigint                                                                        null,
     llm_description       text                                                                          null,
     llm_moderation_status enum ('PENDING', 'APPROVED', 'REJECTED', 'FLAGGED') default 'PENDING'         null,
     rejection_reason      text                                                                          null,
@@ -26,6 +27,16 @@ create table media_content
 create index idx_media_content_id
     on media_content (id);
 
+-- 去重以唯一索引为准，Bloom 过滤器只用来省掉大部分查询
+create unique index uk_media_content_checksum
+    on media_content (checksum);
+
+create index idx_media_content_created_at
+    on media_content (created_at);
+
+create index idx_media_content_updated_at
+    on media_content (updated_at, id);
+
 
 drop table if exists config;
 create table config
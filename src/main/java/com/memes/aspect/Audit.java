@@ -18,7 +18,9 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.memes.mapper.RequestLogMapper;
 import com.memes.model.pojo.RequestLog;
+import com.memes.model.transport.RequestLogRecord;
 import com.memes.util.GsonUtil;
+import com.memes.util.SegmentLog;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
@@ -39,6 +41,7 @@ public class Audit {
 
     private final MeterRegistry registry;
     private final RequestLogMapper requestLogMapper;
+    private final SegmentLog requestLogSegments;
     private static final ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
 
     private static final ThreadLocal<String> THREAD_LOCAL_UUID = ThreadLocal.withInitial(() -> ANONYMOUS);
@@ -47,7 +50,8 @@ public class Audit {
         return THREAD_LOCAL_UUID.get();
     }
 
-    @Pointcut("execution(* com.memes.controller..*.*(..))")
+    // 媒体文件下载量大且不需要审计
+    @Pointcut("execution(* com.memes.controller..*.*(..)) && !within(com.memes.controller.LocalMediaController)")
     public void controller() {
         // 切点定义
     }
@@ -79,7 +83,8 @@ public class Audit {
             long duration = System.currentTimeMillis() - startTime;
             THREAD_LOCAL_UUID.remove();
 
-            pool.execute(() -> saveRequestLog(context, startTime, duration));
+            getOrCreateTimer(context.classMethod).record(Duration.ofMillis(duration));
+            appendRequestLog(context, startTime, duration);
         }
     }
 
@@ -96,17 +101,43 @@ public class Audit {
         return new RequestContext(classMethod, url, method, parameterMap, clientIp, userAgent, referer, uuid);
     }
 
+    /**
+     * 审计日志追加到本地段文件，由 RequestLogShipper 批量写入数据库，数据库不可用时日志会在磁盘上积压而不影响请求
+     */
+    private void appendRequestLog(RequestContext context, long startTime, long duration) {
+        RequestLogRecord record = RequestLogRecord
+            .newBuilder()
+            .setUrl(RequestLog.fit(context.url, RequestLog.URL_LENGTH))
+            .setMethod(context.method.toUpperCase())
+            .setIp(nullToEmpty(context.clientIp))
+            .setUserAgent(nullToEmpty(RequestLog.fit(context.userAgent, RequestLog.USER_AGENT_LENGTH)))
+            .setRefer(nullToEmpty(RequestLog.fit(context.referer, RequestLog.REFER_LENGTH)))
+            .setParameterMap(nullToEmpty(GsonUtil.toJson(context.parameterMap)))
+            .setUuid(nullToEmpty(RequestLog.fitUuid(context.uuid)))
+            .setTimecost((int) duration)
+            .setTimestamp(startTime)
+            .setInstanceUuid(INSTANCE_UUID)
+            .build();
+        try {
+            requestLogSegments.append(record.toByteArray());
+        } catch (Exception e) {
+            // 本地磁盘写失败时退回到直接写库
+            log.error("Failed to append request log for {}, falling back to database: {}", context.url, e.getMessage());
+            pool.execute(() -> saveRequestLog(context, startTime, duration));
+        }
+    }
+
     private void saveRequestLog(RequestContext context, long startTime, long duration) {
         try {
             RequestLog logEntry = RequestLog
                 .builder()
-                .url(context.url)
+                .url(RequestLog.fit(context.url, RequestLog.URL_LENGTH))
                 .method(RequestLog.HttpMethod.valueOf(context.method.toUpperCase()))
                 .ip(context.clientIp)
-                .userAgent(context.userAgent)
-                .refer(context.referer)
+                .userAgent(RequestLog.fit(context.userAgent, RequestLog.USER_AGENT_LENGTH))
+                .refer(RequestLog.fit(context.referer, RequestLog.REFER_LENGTH))
                 .parameterMap(GsonUtil.toJson(context.parameterMap))
-                .uuid(context.uuid)
+                .uuid(RequestLog.fitUuid(context.uuid))
                 .timecost((int) duration)
                 .timestamp(startTime)
                 .instanceUuid(INSTANCE_UUID)
@@ -114,14 +145,15 @@ public class Audit {
                 .build();
 
             requestLogMapper.insert(logEntry);
-
-            // 记录请求计时器指标
-            getOrCreateTimer(context.classMethod).record(Duration.ofMillis(duration));
         } catch (Exception e) {
             log.error("Failed to save request log for {}: {}", context.url, e.getMessage(), e);
         }
     }
 
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
     private Timer getOrCreateTimer(String classMethod) {
         return TIMER_CACHE
             .computeIfAbsent(
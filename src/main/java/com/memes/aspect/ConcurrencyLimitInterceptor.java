@@ -0,0 +1,99 @@
+package com.memes.aspect;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.memes.exception.AppException;
+import com.memes.util.GradientConcurrencyLimiter;
+import com.memes.util.GradientConcurrencyLimiter.Priority;
+import com.memes.util.ResourceChecker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 控制器前的自适应并发限制。开启虚拟线程后 Tomcat 几乎不限制并发，流量突增时所有请求都会打到 MySQL， 这里根据观测到的耗时学习健康的并发上限，超出的请求直接返回
+ * 503，按优先级先拒绝普通请求。
+ * <p>
+ * 管理接口和上传接口同样占用名额，但不计入耗时样本：它们的耗时取决于数据量和客户端网速，不反映排队情况。 流式导出在 {@link com.memes.config.WebMvcConfig}
+ * 中整个排除，下载期间不占名额。
+ */
+@Slf4j
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+    private static final String TOKEN_HEADER = "token";
+    private static final String GET_METHOD = "GET";
+    private static final String POST_METHOD = "POST";
+    private static final List<String> HIGH_PRIORITY_PATHS = List.of("/api/submission", "/api/submission/pinned");
+    private static final List<String> UPLOAD_PATHS = List.of("/api/media", "/api/media/batch", "/api/media/direct/complete");
+
+    private final GradientConcurrencyLimiter limiter;
+    private final String localToken;
+    private final List<String> adminPathPrefixes;
+    private final Map<Priority, Counter> shedCounters = new EnumMap<>(Priority.class);
+
+    public ConcurrencyLimitInterceptor(GradientConcurrencyLimiter limiter, String localToken, List<String> adminPathPrefixes,
+        MeterRegistry registry) {
+        this.limiter = limiter;
+        this.localToken = localToken;
+        this.adminPathPrefixes = adminPathPrefixes;
+        registry.gauge("memes.concurrency.limit", limiter, GradientConcurrencyLimiter::getLimit);
+        registry.gauge("memes.concurrency.inflight", limiter, GradientConcurrencyLimiter::getInFlight);
+        for (Priority priority : Priority.values()) {
+            shedCounters.put(priority, registry.counter("memes.concurrency.shed", "priority", priority.name()));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull Object handler) {
+        String url = request.getRequestURI();
+        if (ResourceChecker.isStaticResource(url)) {
+            return true;
+        }
+        Priority priority = priorityOf(request, url);
+        if (!limiter.tryAcquire(priority)) {
+            shedCounters.get(priority).increment();
+            log.warn("Shedding {} request {} {}, limit: {}, inflight: {}", priority, request.getMethod(), url, limiter.getLimit(),
+                limiter.getInFlight());
+            response.setHeader("Retry-After", "1");
+            throw AppException.overloaded();
+        }
+        // 不计入样本的请求记为 -1，结束时只释放名额
+        request.setAttribute(START_ATTRIBUTE, priority == Priority.ADMIN || isUpload(request, url) ? -1L : System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response,
+        @NotNull Object handler, Exception ex) {
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        request.removeAttribute(START_ATTRIBUTE);
+        // 出错的请求耗时不代表正常的排队情况，只释放名额
+        boolean healthy = start >= 0 && ex == null && response.getStatus() < 500;
+        limiter.release(healthy ? System.nanoTime() - start : -1);
+    }
+
+    private static boolean isUpload(HttpServletRequest request, String url) {
+        return POST_METHOD.equals(request.getMethod()) && UPLOAD_PATHS.contains(url);
+    }
+
+    private Priority priorityOf(HttpServletRequest request, String url) {
+        if (adminPathPrefixes.stream().anyMatch(url::startsWith) || localToken.equals(request.getHeader(TOKEN_HEADER))) {
+            return Priority.ADMIN;
+        }
+        if (GET_METHOD.equals(request.getMethod()) && HIGH_PRIORITY_PATHS.contains(url)) {
+            return Priority.HIGH;
+        }
+        return Priority.DEFAULT;
+    }
+}
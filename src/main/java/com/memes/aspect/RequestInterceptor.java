@@ -1,14 +1,17 @@
 package com.memes.aspect;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.jetbrains.annotations.NotNull;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import com.memes.config.AppConfig;
+import com.memes.config.ConfigSnapshot;
 import com.memes.exception.AppException;
 import com.memes.util.Preconditions;
 import com.memes.util.ResourceChecker;
+import com.memes.util.TokenBucketLimiter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -20,6 +23,22 @@ public class RequestInterceptor implements HandlerInterceptor {
     private static final String TOKEN_HEADER = "token";
     private static final String UUID_HEADER = "uuid";
     private static final String OPTIONS_METHOD = "OPTIONS";
+    private static final String POST_METHOD = "POST";
+    private static final String MEDIA_UPLOAD_PATH = "/api/media";
+    private static final String DIRECT_UPLOAD_PATH = "/api/media/direct";
+    private static final String BATCH_UPLOAD_PATH = "/api/media/batch";
+    private static final String SUBMISSION_PATH_PREFIX = "/api/submission/";
+    private static final String FEEDBACK_PATH_SEGMENT = "/feedback/";
+    private static final int RATE_LIMIT_MAX_KEYS = 200_000;
+    private static final List<String> RATE_LIMIT_KEYS = List
+        .of(
+            "ratelimit.media.upload.per.minute",
+            "ratelimit.media.upload.burst",
+            "ratelimit.media.batch.per.minute",
+            "ratelimit.media.batch.burst",
+            "ratelimit.feedback.per.minute",
+            "ratelimit.feedback.burst",
+            "ratelimit.ip.multiplier");
 
     private final AppConfig config;
     private final String localToken;
@@ -27,11 +46,15 @@ public class RequestInterceptor implements HandlerInterceptor {
 
     private final String activeProfile;
 
+    private final TokenBucketLimiter rateLimiter = new TokenBucketLimiter(RATE_LIMIT_MAX_KEYS);
+
     public RequestInterceptor(AppConfig config, String localToken, List<String> adminPathPrefixes, String activeProfile) {
         this.config = config;
         this.localToken = localToken;
         this.adminPathPrefixes = adminPathPrefixes;
         this.activeProfile = activeProfile;
+        // 桶里的 TAT 是按旧的发放间隔推进的，阈值变化后清空，否则调高限额后已经被限流的键还要等旧的间隔
+        RATE_LIMIT_KEYS.forEach(key -> config.addListener(key, (changed, oldValue, newValue) -> rateLimiter.clear()));
     }
 
     @Override
@@ -51,6 +74,9 @@ public class RequestInterceptor implements HandlerInterceptor {
 
         // 3. Validate UUID
         validateUuid(uuid);
+
+        // 4. Throttle public write endpoints，remoteAddr 已由 RemoteIpValve 还原成 nginx 之前的客户端地址
+        checkRateLimit(url, method, uuid, request.getRemoteAddr(), response);
         return true;
     }
 
@@ -67,7 +93,7 @@ public class RequestInterceptor implements HandlerInterceptor {
     }
 
     private void checkServerStatus() {
-        if (config.isServerDown()) {
+        if (config.snapshot().isServerDown()) {
             log.warn("Server is down manually, rejecting request...");
             throw AppException.serverDown();
         }
@@ -77,6 +103,51 @@ public class RequestInterceptor implements HandlerInterceptor {
         Preconditions.checkStringNotEmpty(uuid, AppException.invalidParam("uuid"));
     }
 
+    /**
+     * 上传和点赞/点踩按 uuid 和 IP 分别限流，超限时返回 429 并带上 Retry-After
+     */
+    private void checkRateLimit(String url, String method, String uuid, String ip, HttpServletResponse response) {
+        if (!POST_METHOD.equals(method)) {
+            return;
+        }
+        // 同一个请求的限额取自同一个快照
+        ConfigSnapshot snapshot = config.snapshot();
+        String route;
+        int perMinute;
+        int burst;
+        // 直传在申请凭证时计数，完成接口只接受签发过的凭证
+        if (MEDIA_UPLOAD_PATH.equals(url) || DIRECT_UPLOAD_PATH.equals(url)) {
+            route = "media";
+            perMinute = snapshot.getMediaUploadPerMinute();
+            burst = snapshot.getMediaUploadBurst();
+        } else if (BATCH_UPLOAD_PATH.equals(url)) {
+            route = "media_batch";
+            perMinute = snapshot.getMediaBatchUploadPerMinute();
+            burst = snapshot.getMediaBatchUploadBurst();
+        } else if (url.startsWith(SUBMISSION_PATH_PREFIX) && url.contains(FEEDBACK_PATH_SEGMENT)) {
+            route = "feedback";
+            perMinute = snapshot.getFeedbackPerMinute();
+            burst = snapshot.getFeedbackBurst();
+        } else {
+            return;
+        }
+        // 先按 IP 限流：uuid 是客户端随意填写的请求头，只有 IP 放行的请求才会新建 uuid 的桶，更换 uuid 也绕不过 IP 的限额
+        long waitNanos = 0;
+        if (ip != null) {
+            int multiplier = Math.max(1, snapshot.getIpLimitMultiplier());
+            waitNanos = rateLimiter.tryAcquire(route + ":i:" + ip, perMinute * multiplier, burst * multiplier);
+        }
+        if (waitNanos == 0) {
+            waitNanos = rateLimiter.tryAcquire(route + ":u:" + uuid, perMinute, burst);
+        }
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            log.warn("Rate limited {} request from uuid {} ip {}, retry after {}s", route, uuid, ip, retryAfter);
+            throw AppException.tooManyRequests(route);
+        }
+    }
+
     @Override
     public void afterCompletion(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response,
         @NotNull Object handler, Exception ex) throws Exception {
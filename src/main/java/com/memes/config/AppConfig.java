@@ -1,7 +1,16 @@
 package com.memes.config;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
@@ -10,30 +19,25 @@ import com.memes.model.pojo.Config;
 import com.memes.service.ConfigService;
 
 import jakarta.annotation.PostConstruct;
-import lombok.Data;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * 应用配置，支持动态更新 简单的配置条目使用注解标记字段，复杂的配置条目使用注解标记方法
+ * 应用配置，支持动态更新。配置条目定义在 {@link ConfigSnapshot} 中
+ * <p>
+ * 每次更新生成新的不可变快照整体替换，读取就是一次 volatile 读，同一个快照上读到的值彼此一致。值变化后通知通过 {@link #addListener} 注册的监听器。
  */
 @Slf4j
 @Component("appConfig")
-@Data
-@Getter
 public class AppConfig {
+
     private final ConfigService configService;
-    @DynamicConfig(key = "bot.up", desc = "机器人是否开启", defaultValue = "true", type = Config.Type.BOOLEAN, visibleName = "爬虫开启")
-    private boolean botUp;
 
-    @DynamicConfig(key = "submission.num.min", desc = "每天的最少投稿数", defaultValue = "50", visibleName = "最少投稿数")
-    private int minSubmissions = 50;
+    private final AtomicReference<ConfigSnapshot> current = new AtomicReference<>(ConfigSnapshot.EMPTY);
 
-    @DynamicConfig(key = "submission.fetch.limit", desc = "每次获取的最大投稿数", defaultValue = "20", visibleName = "fetch size")
-    private int subFetchLimit = 20;
+    private final Map<String, List<ConfigListener>> listeners = new ConcurrentHashMap<>();
 
-    @DynamicConfig(key = "server.down", desc = "服务器是否停止服务", defaultValue = "false", type = Config.Type.BOOLEAN, visibleName = "停止服务")
-    private boolean serverDown = false;
+    // 启动加载、定时刷新和修改接口可能并发更新，虚拟线程下用显式锁
+    private final ReentrantLock updateLock = new ReentrantLock();
 
     public AppConfig(ConfigService configService) {
         this.configService = configService;
@@ -42,62 +46,74 @@ public class AppConfig {
     @PostConstruct
     public void init() {
         log.info("正在初始化应用配置...");
-        initFields();
-        initMethods();
+        Map<String, Config> existing = configService
+            .list()
+            .stream()
+            .collect(Collectors.toMap(Config::getConfigKey, Function.identity(), (left, right) -> left));
+        for (DynamicConfig annotation : ConfigSnapshot.annotations()) {
+            if (!existing.containsKey(annotation.key())) {
+                // 不存在，创建新配置
+                Config config = buildConfig(annotation);
+                configService.save(config);
+                existing.put(annotation.key(), config);
+                log.info("初始化配置: {} = {}", annotation.key(), annotation.defaultValue());
+            }
+        }
+        apply(existing.values());
         log.info("应用配置初始化完成");
     }
 
-    private void initFields() {
-        Field[] fields = this.getClass().getDeclaredFields();
-        for (Field field : fields) {
-            DynamicConfig annotation = field.getAnnotation(DynamicConfig.class);
-            if (annotation == null) {
-                continue;
-            }
+    /**
+     * 当前配置快照，一次操作只取一次
+     */
+    public ConfigSnapshot snapshot() {
+        return current.get();
+    }
 
-            String key = annotation.key();
-            String defaultValue = annotation.defaultValue();
+    /**
+     * 注册配置变化监听器，监听器在新值生效之后、持有更新锁时被调用，应当尽快返回
+     */
+    public void addListener(String key, ConfigListener listener) {
+        listeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
 
-            // 检查配置是否存在
-            Config config = configService.getConfig(key);
-            if (config == null) {
-                // 不存在，创建新配置
-                config = buildConfig(annotation);
-                configService.save(config);
-                log.info("初始化配置: {} = {}", key, defaultValue);
-            } else {
-                // 存在，应用现有配置
-                try {
-                    applyConfigToField(field, config);
-                } catch (Exception e) {
-                    log.error("应用配置到字段时出错: {}", key, e);
+    /**
+     * 应用一批配置，值没有变化的跳过
+     *
+     * @return 实际变化的配置项数
+     */
+    public int apply(Collection<Config> configs) {
+        updateLock.lock();
+        try {
+            ConfigSnapshot snapshot = current.get();
+            Map<String, String> changes = new LinkedHashMap<>();
+            for (Config config : configs) {
+                String key = config.getConfigKey();
+                String value = Objects.requireNonNullElse(config.getValue(), "");
+                if (key != null && !value.equals(snapshot.get(key))) {
+                    changes.put(key, value);
                 }
             }
+            ConfigSnapshot next = snapshot.with(changes);
+            // 无法解析的值没有进入新快照
+            changes.entrySet().removeIf(change -> !change.getValue().equals(next.get(change.getKey())));
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            current.set(next);
+            changes.forEach((key, value) -> notifyListeners(key, snapshot.get(key), value));
+            return changes.size();
+        } finally {
+            updateLock.unlock();
         }
     }
 
-    private void initMethods() {
-        Method[] methods = this.getClass().getDeclaredMethods();
-        for (Method method : methods) {
-            DynamicConfig annotation = method.getAnnotation(DynamicConfig.class);
-            if (annotation == null) {
-                continue;
-            }
-
-            String key = annotation.key();
-            String defaultValue = annotation.defaultValue();
-
-            // 检查配置是否存在
-            Config config = configService.getConfig(key);
-            if (config == null) {
-                // 不存在，创建新配置
-                config = buildConfig(annotation);
-                configService.save(config);
-                log.info("初始化配置: {} = {}", key, defaultValue);
-                invokeConfigMethod(method, defaultValue);
-            } else {
-                // 存在，应用现有配置
-                invokeConfigMethod(method, config.getValue());
+    private void notifyListeners(String key, String oldValue, String newValue) {
+        for (ConfigListener listener : listeners.getOrDefault(key, List.of())) {
+            try {
+                listener.onChange(key, oldValue, newValue);
+            } catch (Exception e) {
+                log.error("配置监听器执行出错: {}", key, e);
             }
         }
     }
@@ -113,34 +129,4 @@ public class AppConfig {
             .visibleName(annotation.visibleName())
             .build();
     }
-
-    private void applyConfigToField(Field field, Config config) throws IllegalAccessException {
-        boolean accessible = field.canAccess(this);
-        field.setAccessible(true);
-
-        switch (config.getType()) {
-            case BOOLEAN:
-                field.setBoolean(this, Boolean.parseBoolean(config.getValue()));
-                break;
-            case INTEGER:
-                field.setInt(this, Integer.parseInt(config.getValue()));
-                break;
-            case JSON:
-                // JSON 类型通常通过 setter 方法处理
-                break;
-            case STRING:
-            default:
-                field.set(this, config.getValue());
-        }
-
-        field.setAccessible(accessible);
-    }
-
-    private void invokeConfigMethod(Method method, String value) {
-        try {
-            method.invoke(this, value);
-        } catch (Exception e) {
-            log.error("调用配置方法时出错: {}", method.getName(), e);
-        }
-    }
 }
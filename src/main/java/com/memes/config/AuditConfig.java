@@ -0,0 +1,23 @@
+package com.memes.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.memes.util.SegmentLog;
+
+/**
+ * 审计日志先追加到本地段文件，再由 RequestLogShipper 异步批量写入数据库
+ */
+@Configuration
+public class AuditConfig {
+
+    @Bean(destroyMethod = "close")
+    public SegmentLog requestLogSegments(@Value("${audit.segment.dir:audit}") String dir,
+        @Value("${audit.segment.size:16777216}") int segmentSize) throws IOException {
+        return new SegmentLog(Path.of(dir), segmentSize);
+    }
+}
@@ -0,0 +1,137 @@
+package com.memes.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.memes.annotation.DynamicConfig;
+
+/**
+ * 把 {@link DynamicConfig} 标记的字段和方法预先编译成 VarHandle / MethodHandle。
+ * <p>
+ * 启动时扫描一次，之后每次写入只是一次类型转换加一次字段写入，不再反射查找或 setAccessible。 字段的类型决定如何解析字符串值，支持
+ * boolean、int、long、double 和 String；方法必须只有一个 String 参数。
+ */
+public final class ConfigBinder<T> {
+
+    private final Map<String, Binding> bindings;
+
+    private ConfigBinder(Map<String, Binding> bindings) {
+        this.bindings = bindings;
+    }
+
+    /**
+     * @param lookup
+     *            目标类自己的 Lookup，用来访问它的私有字段
+     */
+    public static <T> ConfigBinder<T> of(MethodHandles.Lookup lookup, Class<T> type) {
+        Map<String, Binding> bindings = new LinkedHashMap<>();
+        try {
+            for (Field field : type.getDeclaredFields()) {
+                DynamicConfig annotation = field.getAnnotation(DynamicConfig.class);
+                if (annotation == null) {
+                    continue;
+                }
+                if (Modifier.isFinal(field.getModifiers()) || Modifier.isStatic(field.getModifiers())) {
+                    throw new IllegalStateException("dynamic config field must be a non-final instance field: %s".formatted(field));
+                }
+                VarHandle handle = lookup.findVarHandle(type, field.getName(), field.getType());
+                put(bindings, annotation, new FieldBinding(annotation, handle, parserOf(field)));
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                DynamicConfig annotation = method.getAnnotation(DynamicConfig.class);
+                if (annotation == null) {
+                    continue;
+                }
+                MethodHandle handle = lookup
+                    .findVirtual(type, method.getName(), MethodType.methodType(method.getReturnType(), String.class))
+                    .asType(MethodType.methodType(void.class, Object.class, String.class));
+                put(bindings, annotation, new MethodBinding(annotation, handle));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to compile config binders of %s".formatted(type.getName()), e);
+        }
+        return new ConfigBinder<>(Map.copyOf(bindings));
+    }
+
+    public boolean contains(String key) {
+        return bindings.containsKey(key);
+    }
+
+    public Collection<DynamicConfig> annotations() {
+        return bindings.values().stream().map(Binding::annotation).toList();
+    }
+
+    /**
+     * 把配置值写入目标对象，未绑定的键忽略
+     *
+     * @throws IllegalArgumentException
+     *             值无法解析成字段类型
+     */
+    public void apply(T target, String key, String value) {
+        Binding binding = bindings.get(key);
+        if (binding != null) {
+            binding.apply(target, value);
+        }
+    }
+
+    private static void put(Map<String, Binding> bindings, DynamicConfig annotation, Binding binding) {
+        if (bindings.putIfAbsent(annotation.key(), binding) != null) {
+            throw new IllegalStateException("duplicate dynamic config key: %s".formatted(annotation.key()));
+        }
+    }
+
+    private static Function<String, Object> parserOf(Field field) {
+        Class<?> type = field.getType();
+        if (type == boolean.class || type == Boolean.class) {
+            return value -> Boolean.parseBoolean(value.trim());
+        } else if (type == int.class || type == Integer.class) {
+            return value -> Integer.parseInt(value.trim());
+        } else if (type == long.class || type == Long.class) {
+            return value -> Long.parseLong(value.trim());
+        } else if (type == double.class || type == Double.class) {
+            return value -> Double.parseDouble(value.trim());
+        } else if (type == String.class) {
+            return value -> value;
+        }
+        throw new IllegalStateException("unsupported dynamic config field type: %s".formatted(field));
+    }
+
+    private sealed interface Binding permits FieldBinding, MethodBinding {
+        DynamicConfig annotation();
+
+        void apply(Object target, String value);
+    }
+
+    private record FieldBinding(DynamicConfig annotation, VarHandle handle, Function<String, Object> parser) implements Binding {
+        @Override
+        public void apply(Object target, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("null value for %s".formatted(annotation.key()));
+            }
+            // 先解析再写入，解析失败时字段保持原值
+            handle.set(target, parser.apply(value));
+        }
+    }
+
+    private record MethodBinding(DynamicConfig annotation, MethodHandle handle) implements Binding {
+        @Override
+        public void apply(Object target, String value) {
+            try {
+                handle.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to invoke config method for %s".formatted(annotation.key()), e);
+            }
+        }
+    }
+}
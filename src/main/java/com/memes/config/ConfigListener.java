@@ -0,0 +1,17 @@
+package com.memes.config;
+
+/**
+ * 动态配置变化的回调，在新快照生效之后调用，用于线程池大小、缓存过期时间、限流阈值等需要主动调整的地方
+ */
+@FunctionalInterface
+public interface ConfigListener {
+    /**
+     * @param key
+     *            变化的配置键
+     * @param oldValue
+     *            旧值，首次加载时为 null
+     * @param newValue
+     *            新值
+     */
+    void onChange(String key, String oldValue, String newValue);
+}
@@ -0,0 +1,136 @@
+package com.memes.config;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.memes.annotation.DynamicConfig;
+import com.memes.model.pojo.Config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 某一时刻全部动态配置的不可变快照，整体替换，读到的一组值总是彼此一致的。
+ * <p>
+ * 简单的配置条目是带 {@link DynamicConfig} 注解的字段，由启动时预编译的 {@link ConfigBinder} 写入；字段只在发布之前的新快照上写，发布之后不再改变。
+ * 一次操作要读多个配置时，先取一次 {@link AppConfig#snapshot()}，再从同一个快照上读。
+ */
+@Slf4j
+@Getter
+public final class ConfigSnapshot {
+    private static final ConfigBinder<ConfigSnapshot> BINDER = ConfigBinder.of(MethodHandles.lookup(), ConfigSnapshot.class);
+
+    public static final ConfigSnapshot EMPTY = new ConfigSnapshot(Map.of(), 0);
+
+    @DynamicConfig(key = "bot.up", desc = "机器人是否开启", defaultValue = "true", type = Config.Type.BOOLEAN, visibleName = "爬虫开启")
+    private boolean botUp;
+
+    @DynamicConfig(key = "submission.num.min", desc = "每天的最少投稿数", defaultValue = "50", visibleName = "最少投稿数")
+    private int minSubmissions = 50;
+
+    @DynamicConfig(key = "submission.fetch.limit", desc = "每次获取的最大投稿数", defaultValue = "20", visibleName = "fetch size")
+    private int subFetchLimit = 20;
+
+    @DynamicConfig(key = "server.down", desc = "服务器是否停止服务", defaultValue = "false", type = Config.Type.BOOLEAN, visibleName = "停止服务")
+    private boolean serverDown = false;
+
+    @DynamicConfig(key = "ratelimit.media.upload.per.minute", desc = "每个 uuid 每分钟最多上传次数，0 表示不限", defaultValue = "6", visibleName = "上传限流")
+    private int mediaUploadPerMinute = 6;
+
+    @DynamicConfig(key = "ratelimit.media.upload.burst", desc = "上传限流允许的突发次数", defaultValue = "3", visibleName = "上传突发")
+    private int mediaUploadBurst = 3;
+
+    @DynamicConfig(key = "ratelimit.media.batch.per.minute", desc = "每个 uuid 每分钟最多批量上传次数，0 表示不限", defaultValue = "2", visibleName = "批量上传限流")
+    private int mediaBatchUploadPerMinute = 2;
+
+    @DynamicConfig(key = "ratelimit.media.batch.burst", desc = "批量上传限流允许的突发次数", defaultValue = "1", visibleName = "批量上传突发")
+    private int mediaBatchUploadBurst = 1;
+
+    @DynamicConfig(key = "ratelimit.feedback.per.minute", desc = "每个 uuid 每分钟最多点赞/点踩次数，0 表示不限", defaultValue = "60", visibleName = "反馈限流")
+    private int feedbackPerMinute = 60;
+
+    @DynamicConfig(key = "ratelimit.feedback.burst", desc = "反馈限流允许的突发次数", defaultValue = "20", visibleName = "反馈突发")
+    private int feedbackBurst = 20;
+
+    @DynamicConfig(key = "ratelimit.ip.multiplier", desc = "同一 IP 的限额是单个 uuid 的多少倍（NAT 后可能有多个用户）", defaultValue = "5", visibleName = "IP 限流倍数")
+    private int ipLimitMultiplier = 5;
+
+    @DynamicConfig(key = "media.variants.threads", desc = "缩略图生成线程数，0 表示使用配置文件中的值", defaultValue = "0", visibleName = "缩略图线程数")
+    private int variantThreads = 0;
+
+    @DynamicConfig(key = "media.direct-upload.ttl.seconds", desc = "直传凭证有效期（秒），0 表示使用配置文件中的值", defaultValue = "0", visibleName = "直传凭证有效期")
+    private int directUploadTtlSeconds = 0;
+
+    /**
+     * 配置键到原始字符串值，只包含成功应用的值
+     */
+    private final Map<String, String> values;
+
+    /**
+     * 每次替换加一
+     */
+    private final long version;
+
+    private ConfigSnapshot(Map<String, String> values, long version) {
+        this.values = Map.copyOf(values);
+        this.version = version;
+        // 这些值都解析过，重新写入新对象的字段
+        this.values.forEach((key, value) -> BINDER.apply(this, key, value));
+    }
+
+    /**
+     * 全部动态配置条目的注解
+     */
+    public static Collection<DynamicConfig> annotations() {
+        return BINDER.annotations();
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * 在当前快照基础上替换部分值，生成下一个版本。无法解析的值跳过，保留原值
+     *
+     * @return 没有任何值被接受时返回 this
+     */
+    ConfigSnapshot with(Map<String, String> changes) {
+        Map<String, String> next = new HashMap<>(values);
+        // 先在空对象上试一遍，只留下能解析的值
+        ConfigSnapshot probe = new ConfigSnapshot(Map.of(), version);
+        changes.forEach((key, value) -> {
+            try {
+                BINDER.apply(probe, key, value);
+                next.put(key, value);
+            } catch (RuntimeException e) {
+                log.error("应用配置时出错: {} = {}", key, value, e);
+            }
+        });
+        return next.equals(values) ? this : new ConfigSnapshot(next, version + 1);
+    }
+}
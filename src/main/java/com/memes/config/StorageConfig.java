@@ -0,0 +1,79 @@
+package com.memes.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import com.memes.exception.AppException;
+import com.memes.service.StorageService;
+import com.memes.service.impl.AliyunStorageServiceImpl;
+import com.memes.service.impl.LocalStorageServiceImpl;
+import com.memes.service.impl.QiNiuStorageServiceImpl;
+import com.memes.service.impl.ResilientStorageService;
+import com.memes.service.impl.TieredStorageService;
+import com.memes.util.DiskLruCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 对外暴露的 StorageService：在 storage.type 选中的具体实现外面套上装饰器，注入 StorageService 的地方拿到的都是这个 bean。
+ * <ul>
+ * <li>ResilientStorageService：指标、超时、重试和熔断，直接包住具体实现</li>
+ * <li>TieredStorageService：远端存储开启 storage.cache 时套在最外层，熔断期间缓存命中的读取仍然可用</li>
+ * </ul>
+ * 这里总是返回新的对象，不能把具体实现原样返回，否则它的 PostConstruct 会被再执行一次。
+ */
+@Slf4j
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @Primary
+    public StorageService storageService(@Value("${storage.type:}") String type, ObjectProvider<LocalStorageServiceImpl> local,
+        ObjectProvider<AliyunStorageServiceImpl> aliyun, ObjectProvider<QiNiuStorageServiceImpl> qiniu,
+        @Value("${storage.resilience.timeout:10s}") Duration timeout,
+        @Value("${storage.resilience.store-timeout:120s}") Duration storeTimeout,
+        @Value("${storage.resilience.max-attempts:3}") int maxAttempts, @Value("${storage.resilience.backoff:200ms}") Duration backoff,
+        @Value("${storage.resilience.breaker.window:20}") int breakerWindow,
+        @Value("${storage.resilience.breaker.min-calls:10}") int breakerMinCalls,
+        @Value("${storage.resilience.breaker.failure-rate:0.5}") double breakerFailureRate,
+        @Value("${storage.resilience.breaker.open-duration:30s}") Duration breakerOpenDuration,
+        @Value("${storage.bulk.concurrency:8}") int bulkConcurrency,
+        @Value("${storage.cache.enabled:false}") boolean cacheEnabled, @Value("${storage.cache.dir:storage-cache}") String cacheDir,
+        @Value("${storage.cache.max-size:10GB}") DataSize cacheMaxSize,
+        @Value("${storage.cache.max-object-size:64MB}") DataSize cacheMaxObjectSize, MeterRegistry registry) throws IOException {
+        StorageService backend = switch (type) {
+            case "local" -> local.getObject();
+            case "aliyun" -> aliyun.getObject();
+            case "qiniu" -> qiniu.getObject();
+            default -> throw AppException.fatal("unknown storage.type: " + type);
+        };
+        ResilientStorageService.Settings settings = ResilientStorageService.Settings
+            .builder()
+            .timeout(timeout)
+            .storeTimeout(storeTimeout)
+            .maxAttempts(maxAttempts)
+            .backoff(backoff)
+            .breakerWindow(breakerWindow)
+            .breakerMinCalls(breakerMinCalls)
+            .breakerFailureRate(breakerFailureRate)
+            .breakerOpenDuration(breakerOpenDuration)
+            .bulkConcurrency(bulkConcurrency)
+            .build();
+        StorageService storage = new ResilientStorageService(backend, type, settings, registry);
+        if (cacheEnabled && !"local".equals(type)) {
+            DiskLruCache cache = new DiskLruCache(Path.of(cacheDir), cacheMaxSize.toBytes());
+            log.info("Storage disk cache enabled at {}, max size {}", cacheDir, cacheMaxSize);
+            storage = new TieredStorageService(storage, cache, cacheMaxObjectSize.toBytes(), registry);
+        }
+        return storage;
+    }
+}
@@ -8,11 +8,22 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.memes.aspect.ConcurrencyLimitInterceptor;
 import com.memes.aspect.RequestInterceptor;
+import com.memes.controller.LocalMediaController;
+import com.memes.util.GradientConcurrencyLimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
+    // 媒体文件下载不鉴权、不限流，见 LocalMediaController
+    private static final String MEDIA_PATH_PATTERN = LocalMediaController.PATH_PREFIX + "**";
+    // 流式导出可能持续几十分钟，不占并发名额
+    private static final String EXPORT_PATH = "/api/admin/export";
+
     final AppConfig config;
+    final MeterRegistry registry;
 
     @Value("${token}")
     String adminToken = UUID.randomUUID().toString();
@@ -20,12 +31,41 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${spring.profiles.active}")
     String activeProfile;
 
-    public WebMvcConfig(AppConfig config) {
+    @Value("${concurrency.enabled:true}")
+    boolean concurrencyLimitEnabled = true;
+
+    @Value("${concurrency.initial-limit:100}")
+    int initialLimit = 100;
+
+    @Value("${concurrency.min-limit:20}")
+    int minLimit = 20;
+
+    @Value("${concurrency.max-limit:1000}")
+    int maxLimit = 1000;
+
+    @Value("${concurrency.window-ms:500}")
+    long windowMillis = 500;
+
+    public WebMvcConfig(AppConfig config, MeterRegistry registry) {
         this.config = config;
+        this.registry = registry;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new RequestInterceptor(config, adminToken, List.of("/api/admin"), activeProfile)).addPathPatterns("/**");
+        List<String> adminPathPrefixes = List.of("/api/admin");
+        if (concurrencyLimitEnabled) {
+            // 最先执行，被拒绝的请求不再做后续的鉴权和限流
+            GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit, windowMillis);
+            registry
+                .addInterceptor(new ConcurrencyLimitInterceptor(limiter, adminToken, adminPathPrefixes, this.registry))
+                .addPathPatterns("/**")
+                .excludePathPatterns(MEDIA_PATH_PATTERN, EXPORT_PATH)
+                .order(-1);
+        }
+        registry
+            .addInterceptor(new RequestInterceptor(config, adminToken, adminPathPrefixes, activeProfile))
+            .addPathPatterns("/**")
+            .excludePathPatterns(MEDIA_PATH_PATTERN);
     }
 }
@@ -1,19 +1,32 @@
 package com.memes.controller;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.memes.annotation.AuthRequired;
 import com.memes.config.AppConfig;
+import com.memes.model.response.TrafficAnalytics;
 import com.memes.model.response.VisitStatistic;
 import com.memes.service.AdminService;
+import com.memes.service.MediaExportService;
+import com.memes.service.RequestLogAnalyticsService;
+import com.memes.service.StorageReclaimer;
+import com.memes.util.ArchiveWriter;
 import com.memes.util.TimeUtil;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import lombok.RequiredArgsConstructor;
 
 @CrossOrigin(origins = "*")
@@ -24,11 +37,18 @@ public class AdminController {
 
     private final AppConfig appConfig;
     private final AdminService adminService;
+    private final RequestLogAnalyticsService analyticsService;
+    private final StorageReclaimer storageReclaimer;
+    private final MediaExportService mediaExportService;
 
     @Autowired
-    public AdminController(AdminService adminService, AppConfig appConfig) {
+    public AdminController(AdminService adminService, AppConfig appConfig, RequestLogAnalyticsService analyticsService,
+        StorageReclaimer storageReclaimer, MediaExportService mediaExportService) {
         this.adminService = adminService;
         this.appConfig = appConfig;
+        this.analyticsService = analyticsService;
+        this.storageReclaimer = storageReclaimer;
+        this.mediaExportService = mediaExportService;
     }
 
     @AuthRequired
@@ -52,8 +72,64 @@ public class AdminController {
         return this.adminService.getReviewStatistic();
     }
 
+    @AuthRequired
+    @GetMapping("/review/backlog")
+    public Map<String, Long> reviewBacklog() {
+        return this.adminService.getReviewBacklog();
+    }
+
+    @AuthRequired
+    @GetMapping("/analytics/route-latency")
+    public List<TrafficAnalytics.RouteLatency> routeLatency(String from, String to) {
+        return analyticsService.routeLatency(from, to);
+    }
+
+    @AuthRequired
+    @GetMapping("/analytics/referer")
+    public List<TrafficAnalytics.RefererStat> referer(String from, String to, @RequestParam(defaultValue = "50") Integer limit) {
+        return analyticsService.refererBreakdown(from, to, Math.clamp(limit, 1, 1000));
+    }
+
+    @AuthRequired
+    @GetMapping("/analytics/retention")
+    public List<TrafficAnalytics.Retention> retention(String from, String to) {
+        return analyticsService.uuidRetention(from, to);
+    }
+
+    @AuthRequired
+    @PostMapping("/analytics/archive")
+    public int archive() throws IOException {
+        return analyticsService.archive();
+    }
+
+    /**
+     * 存储回收的 dry run：从头扫描，列出会回收的记录和对象，不做任何修改
+     */
+    @AuthRequired
+    @GetMapping("/storage/gc")
+    public StorageReclaimer.Report storageGcDryRun(@RequestParam(defaultValue = "10000") Integer maxRows,
+        @RequestParam(defaultValue = "100000") Integer maxObjects) {
+        return storageReclaimer.run(true, Math.min(maxRows, 1_000_000), Math.min(maxObjects, 1_000_000));
+    }
+
+    /**
+     * 流式下载审核通过的投稿（tar 或 zip，附 manifest.json），afterId 用于增量导出
+     */
+    @AuthRequired
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "tar") String format, @RequestParam(defaultValue = "0") Long afterId,
+        HttpServletResponse response) throws IOException {
+        ArchiveWriter.Format archiveFormat = ArchiveWriter.Format.of(format);
+        response.setContentType(archiveFormat.contentType());
+        response
+            .setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"memes-%s.%s\"".formatted(TimeUtil.getYMD(), archiveFormat.extension()));
+        mediaExportService.export(archiveFormat, Channels.newChannel(response.getOutputStream()), afterId);
+    }
+
     @GetMapping("bot")
     public boolean get() {
-        return appConfig.isBotUp();
+        return appConfig.snapshot().isBotUp();
     }
 }
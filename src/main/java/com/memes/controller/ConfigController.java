@@ -8,6 +8,7 @@ import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.memes.annotation.AuthRequired;
 import com.memes.exception.AppException;
 import com.memes.model.pojo.Config;
+import com.memes.schedule.ConfigRefresher;
 import com.memes.service.ConfigService;
 import com.memes.util.Preconditions;
 
@@ -20,6 +21,7 @@ import lombok.RequiredArgsConstructor;
 public class ConfigController {
 
     private final ConfigService configService;
+    private final ConfigRefresher configRefresher;
 
     @AuthRequired
     @GetMapping("/{id}")
@@ -41,7 +43,10 @@ public class ConfigController {
         wrapper.set("value", value);
         boolean update = configService.update(wrapper);
         Preconditions.checkArgument(update, () -> AppException.databaseError("config"));
-        return configService.getById(id);
+        Config config = configService.getById(id);
+        // 本节点立即生效，其他节点等定时刷新
+        configRefresher.applyNow(config);
+        return config;
     }
 
     @AuthRequired
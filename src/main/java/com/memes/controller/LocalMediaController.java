@@ -0,0 +1,77 @@
+package com.memes.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.memes.service.DirectUploadService;
+import com.memes.service.impl.LocalStorageServiceImpl;
+import com.memes.util.MediaFileSender;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 本地存储模式下的媒体文件下载。把 local.urlPrefix 配成 {@code <host>/media/} 后新生成的 url 都走这里；
+ * 旧 url 仍由静态资源处理。
+ * <p>
+ * 不经过审计切面和拦截器（见 Audit、WebMvcConfig），按内容寻址的文件用文件名中的 sha256 作为强 ETag。
+ * 客户端直传也由这里接收，凭证本身就是授权。
+ */
+@CrossOrigin(origins = "*")
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalMediaController {
+
+    public static final String PATH_PREFIX = "/media/";
+    private static final Pattern SHA256_NAME = Pattern.compile("([0-9a-f]{64})(-[0-9a-f]+)?\\.\\w+");
+
+    private final LocalStorageServiceImpl storage;
+    private final DirectUploadService directUploadService;
+
+    @RequestMapping(value = PATH_PREFIX + "**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        Path file = storage.resolve(uri.substring(PATH_PREFIX.length()));
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        MediaFileSender.send(request, response, file, etagOf(file));
+    }
+
+    /**
+     * 接收客户端直传的文件，凭证由 DirectUploadService 签发，请求体就是文件内容
+     */
+    @PutMapping(PATH_PREFIX + "upload")
+    public void receiveDirectUpload(@RequestParam String token, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        DirectUploadService.Grant grant = directUploadService.verify(token, Duration.ZERO);
+        storage.receiveDirectUpload(grant.key(), request.getInputStream(), grant.maxBytes());
+        response.setStatus(HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * 分片布局的文件名就是内容的 sha256；旧的平铺文件创建后不会再修改，用大小和修改时间
+     */
+    private static String etagOf(Path file) throws IOException {
+        Matcher matcher = SHA256_NAME.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+            return matcher.group(1);
+        }
+        return "%x-%x".formatted(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+    }
+}
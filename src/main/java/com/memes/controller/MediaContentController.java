@@ -2,6 +2,7 @@ package com.memes.controller;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.web.bind.annotation.*;
@@ -11,7 +12,11 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.memes.annotation.AuthRequired;
 import com.memes.exception.AppException;
+import com.memes.model.common.BatchUploadItem;
+import com.memes.model.common.BatchUploadResult;
+import com.memes.model.common.DirectUploadTicket;
 import com.memes.model.pojo.MediaContent;
+import com.memes.service.DirectUploadService;
 import com.memes.service.MediaContentService;
 import com.memes.util.Preconditions;
 
@@ -27,6 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 public class MediaContentController {
 
     private final MediaContentService mediaContentService;
+    private final DirectUploadService directUploadService;
 
     @AuthRequired
     @GetMapping("/status/{status}")
@@ -77,6 +83,48 @@ public class MediaContentController {
         return mediaContent;
     }
 
+    /**
+     * 一次提交多个文件（files，各自带 Content-Type）和文本（texts），每一项单独返回结果。
+     * 容器把各个 part 落到临时文件，服务端逐项按需读取，总大小受 spring.servlet.multipart 的限制
+     */
+    @PostMapping("/batch")
+    public List<BatchUploadResult> batchUpload(@RequestParam(required = false) List<MultipartFile> files,
+        @RequestParam(required = false) List<String> texts) {
+        List<BatchUploadItem> items = new ArrayList<>();
+        if (files != null) {
+            for (MultipartFile file : files) {
+                items.add(BatchUploadItem.file(file.getOriginalFilename(), file.getContentType(), file));
+            }
+        }
+        if (texts != null) {
+            for (int i = 0; i < texts.size(); i++) {
+                items.add(BatchUploadItem.text("texts[%d]".formatted(i), texts.get(i)));
+            }
+        }
+        Preconditions.checkArgument(!items.isEmpty(), AppException.invalidParam("files or texts"));
+        List<BatchUploadResult> results = mediaContentService.storeBatchSubmission(items);
+        for (BatchUploadResult result : results) {
+            if (result.succeeded() && result.media().getDataType() == MediaContent.DataType.MARKDOWN) {
+                result.media().setDataContent("Yay !");
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 申请直传凭证，客户端按返回的表单把文件直接传到存储，再调用 {@link #completeDirectUpload}
+     */
+    @PostMapping("/direct")
+    public DirectUploadTicket initiateDirectUpload(String mime) {
+        return directUploadService.initiate(mime);
+    }
+
+    @PostMapping("/direct/complete")
+    public MediaContent completeDirectUpload(String token) {
+        Preconditions.checkStringNotEmpty(token, AppException.invalidParam("token"));
+        return mediaContentService.completeDirectUpload(token);
+    }
+
     @GetMapping("/{id}")
     public MediaContent getMedia(@PathVariable Long id) {
         MediaContent mediaContent = mediaContentService.getById(id);
@@ -27,7 +27,8 @@ public class AppException extends RuntimeException {
                     500), DATABASE_ERROR("The server encountered an database error. %s",
                         500), STORAGE_ERROR("The server encountered an storage error. %s",
                             500), SERVER_DOWN("Web server is Down.",
-                                521), FORBIDDEN("Disallowed", 403), TOO_MANY_REQUESTS("Too many requests.", 429);
+                                521), FORBIDDEN("Disallowed", 403), TOO_MANY_REQUESTS("Too many requests.", 429), OVERLOADED(
+                                    "Server is overloaded, please retry later.", 503);
 
         private final String message;
         @Getter
@@ -89,6 +90,10 @@ public class AppException extends RuntimeException {
         return new AppException(ErrorType.TOO_MANY_REQUESTS);
     }
 
+    public static AppException overloaded() {
+        return new AppException(ErrorType.OVERLOADED);
+    }
+
     public static void main(String[] args) {
         throw AppException.invalidParam("paramName");
     }
@@ -1,10 +1,111 @@
 package com.memes.mapper;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultMap;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.memes.model.pojo.MediaContent;
 
 @Mapper
 public interface MediaMapper extends BaseMapper<MediaContent> {
+
+    /**
+     * 一条多行 insert 写入新投稿，自增 id 回填到各个对象；status 等其余列取默认值，与 insert 只写非空字段一致
+     */
+    @Insert("""
+        <script>
+        insert into media_content (data_type, data_content, user_id, checksum, phash, file_size, metadata) values
+        <foreach collection="list" item="item" separator=",">
+            (#{item.dataType}, #{item.dataContent}, #{item.userId}, #{item.checksum}, #{item.phash}, #{item.fileSize},
+            #{item.metadata,typeHandler=com.baomidou.mybatisplus.extension.handlers.JacksonTypeHandler})
+        </foreach>
+        </script>
+        """)
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertBatch(@Param("list") List<MediaContent> contents);
+
+    /**
+     * 只改 metadata 中给出的顶层字段，其他字段由各自的任务维护，不会被覆盖；记录的 url 已经变了时不更新
+     *
+     * @param fields
+     *            字段名到 JSON 文本，不能为空
+     */
+    @Update("""
+        <script>
+        update media_content set metadata = json_set(coalesce(metadata, json_object())
+        <foreach collection="fields" index="name" item="value">, concat('$."', #{name}, '"'), cast(#{value} as json)</foreach>)
+        where id = #{id} and data_content = #{dataContent}
+        </script>
+        """)
+    int setMetadataFields(@Param("id") long id, @Param("dataContent") String dataContent, @Param("fields") Map<String, String> fields);
+
+    /**
+     * 把记录指向新的对象，同时只改 metadata 中给出的顶层字段，其他字段由各自的任务维护，不会被覆盖；记录的 url 已经变了时不更新
+     *
+     * @param fileSize
+     *            为 null 时不改
+     * @param fields
+     *            字段名到 JSON 文本，可以为空
+     */
+    @Update("""
+        <script>
+        update media_content
+        <set>
+            data_content = #{url},
+            <if test="fileSize != null">file_size = #{fileSize},</if>
+            <if test="!fields.isEmpty()">
+                metadata = json_set(coalesce(metadata, json_object())
+                <foreach collection="fields" index="name" item="value">, concat('$."', #{name}, '"'), cast(#{value} as json)</foreach>)
+            </if>
+        </set>
+        where id = #{id} and data_content = #{dataContent}
+        </script>
+        """)
+    int replaceObject(@Param("id") long id, @Param("dataContent") String dataContent, @Param("url") String url,
+        @Param("fileSize") Long fileSize, @Param("fields") Map<String, String> fields);
+
+    /**
+     * 修改投稿状态，pending 为 true 时只改原来是 PENDING 的记录，为 false 时只改其余记录。分两次修改才能知道积压实际变了多少
+     *
+     * @return 实际匹配的行数
+     */
+    @Update("""
+        <script>
+        update media_content set status = #{status}
+        where status <choose><when test="pending">=</when><otherwise>!=</otherwise></choose> 'PENDING' and id in
+        <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+        </script>
+        """)
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") MediaContent.ContentStatus status, @Param("pending") boolean pending);
+
+    /**
+     * 只改 metadata 中的 variants 字段，其他字段由各自的任务维护，不会被覆盖；原图已经被替换（url 变了）时不更新
+     *
+     * @param variants
+     *            JSON 数组
+     */
+    @Update("""
+        update media_content set metadata = json_set(coalesce(metadata, json_object()), '$.variants', cast(#{variants} as json))
+        where id = #{id} and data_content = #{dataContent}
+        """)
+    int setVariants(@Param("id") long id, @Param("dataContent") String dataContent, @Param("variants") String variants);
+
+    /**
+     * 按 id 顺序读取 afterId 之后审核通过的一页记录，导出用。按 id 翻页，每页一个短查询，不在下载期间占住连接
+     */
+    @Select("""
+        select id, data_type, data_content, checksum, file_size, llm_description, sharp_review, tags, metadata, created_at
+        from media_content where status = 'APPROVED' and id > #{afterId} order by id limit #{limit}
+        """)
+    @ResultMap("mybatis-plus_MediaContent")
+    List<MediaContent> selectApproved(@Param("afterId") long afterId, @Param("limit") int limit);
 }
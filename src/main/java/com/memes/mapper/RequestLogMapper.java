@@ -1,10 +1,25 @@
 package com.memes.mapper;
 
+import java.time.LocalDateTime;
+
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.memes.model.pojo.RequestLog;
 
 @Mapper
 public interface RequestLogMapper extends BaseMapper<RequestLog> {
+
+    /**
+     * 逐行读取 [start, end) 内归档需要的列。fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行流式返回，不会先把整个结果集读进内存
+     */
+    @Select("select url, method, refer, uuid, timecost, timestamp from request_log where created_at >= #{start} and created_at < #{end}")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    @ResultType(RequestLog.class)
+    void streamRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, ResultHandler<RequestLog> handler);
 }
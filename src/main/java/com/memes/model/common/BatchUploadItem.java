@@ -0,0 +1,22 @@
+package com.memes.model.common;
+
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * 批量上传中的一项，text 和 file 只有一个不为 null
+ *
+ * @param name
+ *            回显在结果里，方便客户端对应
+ * @param file
+ *            可以多次打开的内容，按需流式读取
+ */
+public record BatchUploadItem(String name, String mime, String text, InputStreamSource file) {
+
+    public static BatchUploadItem text(String name, String text) {
+        return new BatchUploadItem(name, "text/markdown", text, null);
+    }
+
+    public static BatchUploadItem file(String name, String mime, InputStreamSource file) {
+        return new BatchUploadItem(name, mime, null, file);
+    }
+}
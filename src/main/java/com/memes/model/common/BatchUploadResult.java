@@ -0,0 +1,18 @@
+package com.memes.model.common;
+
+import com.memes.model.pojo.MediaContent;
+
+/**
+ * 批量上传中一项的结果，media 和 error 只有一个不为 null
+ *
+ * @param index
+ *            在请求中的位置
+ * @param duplicate
+ *            内容已经存在（或与同一批中靠前的一项相同），media 为已有的记录
+ */
+public record BatchUploadResult(int index, String name, MediaContent media, boolean duplicate, String error) {
+
+    public boolean succeeded() {
+        return media != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.memes.model.common;
+
+import java.util.Map;
+
+/**
+ * 客户端直传到存储的请求：向 url 发 method 请求，POST 时把 fields 作为 multipart 表单字段放在文件前面，PUT 时请求体就是文件
+ */
+public record DirectUploadForm(String url, String method, Map<String, String> fields) {
+}
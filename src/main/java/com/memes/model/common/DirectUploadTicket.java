@@ -0,0 +1,10 @@
+package com.memes.model.common;
+
+/**
+ * 直传凭证：客户端按 form 上传完成后，带着 token 调用完成接口登记投稿
+ *
+ * @param expiresAt
+ *            过期时间，毫秒时间戳
+ */
+public record DirectUploadTicket(String token, String key, long maxBytes, long expiresAt, DirectUploadForm form) {
+}
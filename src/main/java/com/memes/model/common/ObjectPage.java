@@ -0,0 +1,12 @@
+package com.memes.model.common;
+
+import java.util.List;
+
+/**
+ * 分页列出的一页对象
+ *
+ * @param next
+ *            下一页的游标，没有下一页时为 null
+ */
+public record ObjectPage(List<StoredObject> objects, String next) {
+}
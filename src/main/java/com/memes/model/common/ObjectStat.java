@@ -0,0 +1,10 @@
+package com.memes.model.common;
+
+/**
+ * 不读取内容就能拿到的对象信息
+ *
+ * @param md5
+ *            内容的 MD5（小写十六进制），存储给不出时（例如分片上传的对象）为 null
+ */
+public record ObjectStat(long size, String md5) {
+}
@@ -0,0 +1,14 @@
+package com.memes.model.common;
+
+/**
+ * storeAll 中的一个对象
+ *
+ * @param path
+ *            为 null 时由存储生成 key，否则等同于 store(bytes, mime, path)
+ */
+public record StoreRequest(byte[] bytes, String mime, String path) {
+
+    public StoreRequest(byte[] bytes, String mime) {
+        this(bytes, mime, null);
+    }
+}
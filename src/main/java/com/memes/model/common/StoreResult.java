@@ -0,0 +1,14 @@
+package com.memes.model.common;
+
+/**
+ * storeAll 中一个对象的结果，result 和 error 只有一个不为 null
+ *
+ * @param index
+ *            在请求列表中的位置
+ */
+public record StoreResult(int index, FileUploadResult result, String error) {
+
+    public boolean succeeded() {
+        return result != null;
+    }
+}
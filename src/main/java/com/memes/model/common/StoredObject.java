@@ -0,0 +1,9 @@
+package com.memes.model.common;
+
+import java.time.Instant;
+
+/**
+ * 列出存储中的对象时的一项
+ */
+public record StoredObject(String key, long size, Instant lastModified) {
+}
@@ -1,19 +1,25 @@
 package com.memes.model.pojo;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.baomidou.mybatisplus.extension.handlers.JacksonTypeHandler;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @TableName(value = "config", autoResultMap = true)
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class Config {
     @TableId(type = IdType.AUTO)
     private Long id;
@@ -27,6 +33,10 @@ public class Config {
     @TableField(typeHandler = JacksonTypeHandler.class)
     private Map<String, Object> constraints; // 直接映射 JSON
 
+    // 由数据库维护（on update CURRENT_TIMESTAMP），写入时不带这一列
+    @TableField(insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private LocalDateTime updatedAt;
+
     public enum Type {
         STRING, INTEGER, BOOLEAN, DOUBLE, JSON
     }
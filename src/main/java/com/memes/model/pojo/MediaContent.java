@@ -34,6 +34,9 @@ public class MediaContent {
 
     private String checksum;
 
+    // 图片的感知哈希（dHash），用于查找近似重复
+    private Long phash;
+
     private String llmDescription;
 
     private AiModerationStatus llmModerationStatus;
@@ -16,6 +16,12 @@ import lombok.NoArgsConstructor;
 @TableName("request_log")
 public class RequestLog {
 
+    // request_log 的列宽，客户端提供的字段写入前按列宽截断，否则一行超长就会让整批写入失败
+    public static final int URL_LENGTH = 2048;
+    public static final int USER_AGENT_LENGTH = 512;
+    public static final int REFER_LENGTH = 512;
+    public static final int UUID_LENGTH = 36;
+
     @TableId(type = IdType.AUTO)
     private Long id;
 
@@ -54,6 +60,23 @@ public class RequestLog {
     @TableField(fill = FieldFill.INSERT_UPDATE)
     private LocalDateTime updatedAt;
 
+    /**
+     * 截断到 length 个字符，不拆开代理对
+     */
+    public static String fit(String value, int length) {
+        if (value == null || value.length() <= length) {
+            return value;
+        }
+        return value.substring(0, Character.isHighSurrogate(value.charAt(length - 1)) ? length - 1 : length);
+    }
+
+    /**
+     * uuid 是客户端随意设置的请求头，超过列宽的不是合法 uuid，直接丢弃
+     */
+    public static String fitUuid(String uuid) {
+        return uuid == null || uuid.length() > UUID_LENGTH ? null : uuid;
+    }
+
     public enum HttpMethod {
         GET, POST, PUT, DELETE, PATCH, OPTIONS, HEAD
     }
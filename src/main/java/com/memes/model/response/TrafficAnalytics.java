@@ -0,0 +1,36 @@
+package com.memes.model.response;
+
+import lombok.Data;
+
+/**
+ * 基于归档请求日志的流量分析结果
+ */
+public class TrafficAnalytics {
+
+    @Data
+    public static class RouteLatency {
+        private String date;
+        private String method;
+        private String url;
+        private Long count;
+        private Double avg;
+        private Integer max;
+    }
+
+    @Data
+    public static class RefererStat {
+        private String referer;
+        private Long count;
+    }
+
+    @Data
+    public static class Retention {
+        private String date;
+        // 当天活跃的 uuid 数
+        private Integer active;
+        // 在查询区间内首次出现的 uuid 数
+        private Integer newUsers;
+        // 区间第一天的活跃 uuid 中，当天仍然活跃的数量
+        private Integer retainedFromFirstDay;
+    }
+}
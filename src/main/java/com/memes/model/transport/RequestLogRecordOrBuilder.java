@@ -0,0 +1,118 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// source: request_log_record.proto
+
+// Protobuf Java Version: 3.25.3
+package com.memes.model.transport;
+
+public interface RequestLogRecordOrBuilder extends
+    // @@protoc_insertion_point(interface_extends:RequestLogRecord)
+    com.google.protobuf.MessageOrBuilder {
+
+  /**
+   * <code>string url = 1;</code>
+   * @return The url.
+   */
+  java.lang.String getUrl();
+  /**
+   * <code>string url = 1;</code>
+   * @return The bytes for url.
+   */
+  com.google.protobuf.ByteString
+      getUrlBytes();
+
+  /**
+   * <code>string method = 2;</code>
+   * @return The method.
+   */
+  java.lang.String getMethod();
+  /**
+   * <code>string method = 2;</code>
+   * @return The bytes for method.
+   */
+  com.google.protobuf.ByteString
+      getMethodBytes();
+
+  /**
+   * <code>string ip = 3;</code>
+   * @return The ip.
+   */
+  java.lang.String getIp();
+  /**
+   * <code>string ip = 3;</code>
+   * @return The bytes for ip.
+   */
+  com.google.protobuf.ByteString
+      getIpBytes();
+
+  /**
+   * <code>string userAgent = 4;</code>
+   * @return The userAgent.
+   */
+  java.lang.String getUserAgent();
+  /**
+   * <code>string userAgent = 4;</code>
+   * @return The bytes for userAgent.
+   */
+  com.google.protobuf.ByteString
+      getUserAgentBytes();
+
+  /**
+   * <code>string refer = 5;</code>
+   * @return The refer.
+   */
+  java.lang.String getRefer();
+  /**
+   * <code>string refer = 5;</code>
+   * @return The bytes for refer.
+   */
+  com.google.protobuf.ByteString
+      getReferBytes();
+
+  /**
+   * <code>string parameterMap = 6;</code>
+   * @return The parameterMap.
+   */
+  java.lang.String getParameterMap();
+  /**
+   * <code>string parameterMap = 6;</code>
+   * @return The bytes for parameterMap.
+   */
+  com.google.protobuf.ByteString
+      getParameterMapBytes();
+
+  /**
+   * <code>string uuid = 7;</code>
+   * @return The uuid.
+   */
+  java.lang.String getUuid();
+  /**
+   * <code>string uuid = 7;</code>
+   * @return The bytes for uuid.
+   */
+  com.google.protobuf.ByteString
+      getUuidBytes();
+
+  /**
+   * <code>int32 timecost = 8;</code>
+   * @return The timecost.
+   */
+  int getTimecost();
+
+  /**
+   * <code>int64 timestamp = 9;</code>
+   * @return The timestamp.
+   */
+  long getTimestamp();
+
+  /**
+   * <code>string instanceUuid = 10;</code>
+   * @return The instanceUuid.
+   */
+  java.lang.String getInstanceUuid();
+  /**
+   * <code>string instanceUuid = 10;</code>
+   * @return The bytes for instanceUuid.
+   */
+  com.google.protobuf.ByteString
+      getInstanceUuidBytes();
+}
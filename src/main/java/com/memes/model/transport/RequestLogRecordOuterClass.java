@@ -0,0 +1,53 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// source: request_log_record.proto
+
+// Protobuf Java Version: 3.25.3
+package com.memes.model.transport;
+
+public final class RequestLogRecordOuterClass {
+  private RequestLogRecordOuterClass() {}
+  public static void registerAllExtensions(
+      com.google.protobuf.ExtensionRegistryLite registry) {
+  }
+
+  public static void registerAllExtensions(
+      com.google.protobuf.ExtensionRegistry registry) {
+    registerAllExtensions(
+        (com.google.protobuf.ExtensionRegistryLite) registry);
+  }
+  static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_RequestLogRecord_descriptor;
+  static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_RequestLogRecord_fieldAccessorTable;
+
+  public static com.google.protobuf.Descriptors.FileDescriptor
+      getDescriptor() {
+    return descriptor;
+  }
+  private static  com.google.protobuf.Descriptors.FileDescriptor
+      descriptor;
+  static {
+    java.lang.String[] descriptorData = {
+      "\n\030request_log_record.proto\"\274\001\n\020RequestLo" +
+      "gRecord\022\013\n\003url\030\001 \001(\t\022\016\n\006method\030\002 \001(\t\022\n\n\002" +
+      "ip\030\003 \001(\t\022\021\n\tuserAgent\030\004 \001(\t\022\r\n\005refer\030\005 \001" +
+      "(\t\022\024\n\014parameterMap\030\006 \001(\t\022\014\n\004uuid\030\007 \001(\t\022\020" +
+      "\n\010timecost\030\010 \001(\005\022\021\n\ttimestamp\030\t \001(\003\022\024\n\014i" +
+      "nstanceUuid\030\n \001(\tB\035\n\031com.memes.model.tra" +
+      "nsportP\001b\006proto3"
+    };
+    descriptor = com.google.protobuf.Descriptors.FileDescriptor
+      .internalBuildGeneratedFileFrom(descriptorData,
+        new com.google.protobuf.Descriptors.FileDescriptor[] {
+        });
+    internal_static_RequestLogRecord_descriptor =
+      getDescriptor().getMessageTypes().get(0);
+    internal_static_RequestLogRecord_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_RequestLogRecord_descriptor,
+        new java.lang.String[] { "Url", "Method", "Ip", "UserAgent", "Refer", "ParameterMap", "Uuid", "Timecost", "Timestamp", "InstanceUuid", });
+  }
+
+  // @@protoc_insertion_point(outer_class_scope)
+}
@@ -28,6 +28,7 @@ import com.memes.model.pojo.MediaContent;
 import com.memes.model.transport.LLMReviewResult;
 import com.memes.model.transport.ReviewOutcome;
 import com.memes.service.MediaContentService;
+import com.memes.service.ModerationStatistic;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
@@ -53,16 +54,19 @@ public class AiReviewer {
     private String model;
 
     private final MediaContentService mediaContentService;
+    private final ModerationStatistic moderationStatistic;
     private final ExecutorService reviewExecutor = Executors.newSingleThreadExecutor(r -> {
         Thread thread = new Thread(r);
         thread.setName("ai-review-thread");
         return thread;
     });
 
-    public AiReviewer(MeterRegistry registry, ChatModel chatModel, MediaContentService mediaContentService) {
+    public AiReviewer(MeterRegistry registry, ChatModel chatModel, MediaContentService mediaContentService,
+        ModerationStatistic moderationStatistic) {
         this.registry = registry;
         this.chatModel = chatModel;
         this.mediaContentService = mediaContentService;
+        this.moderationStatistic = moderationStatistic;
     }
 
     @PostConstruct
@@ -197,10 +201,13 @@ public class AiReviewer {
         log.info("AI 审核结果：{} - 媒体 ID: {}", result.getOutcome().name(), mediaContent.getId());
 
         // 更新媒体内容
+        MediaContent.AiModerationStatus previousStatus = mediaContent.getLlmModerationStatus();
         mediaContent.setLlmDescription(result.getMediaDescription());
         mediaContent.setRejectionReason(result.getFailureReason());
         mediaContent.setLlmModerationStatus(MediaContent.AiModerationStatus.valueOf(result.getOutcome().name()));
-        mediaContentService.updateById(mediaContent);
+        if (mediaContentService.updateById(mediaContent)) {
+            moderationStatistic.onLlmStatusChanged(mediaContent, previousStatus, mediaContent.getLlmModerationStatus());
+        }
 
         // 处理审核结果
         ReviewOutcome outcome = result.getOutcome();
@@ -1,15 +1,13 @@
 package com.memes.schedule;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import com.memes.annotation.DynamicConfig;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.memes.config.AppConfig;
 import com.memes.model.pojo.Config;
 import com.memes.service.ConfigService;
@@ -19,121 +17,62 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * 配置刷新器：负责定期从数据库拉取最新配置并应用到 AppConfig
+ * <p>
+ * 每轮只查询 updated_at 不早于上次水位线的行，交给 {@link AppConfig#apply} 只应用值真正变化了的配置项。 updated_at 只精确到秒，所以水位线用 >= 比较，
+ * 同一秒内的行会被重复读到，靠值比较去重；另外每隔 {@link #FULL_SYNC_ROUNDS} 轮做一次全量同步，兜底时钟或事务提交顺序带来的遗漏。
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ConfigRefresher {
 
+    private static final int FULL_SYNC_ROUNDS = 12;
+
     private final ConfigService configService;
     private final AppConfig appConfig;
 
-    // 缓存 DynamicConfig 注解的字段
-    private final Map<Field, DynamicConfig> annotatedFields = new ConcurrentHashMap<>();
+    // 保护水位线，虚拟线程下用显式锁
+    private final ReentrantLock lock = new ReentrantLock();
 
-    // 缓存 DynamicConfig 注解的方法
-    private final Map<Method, DynamicConfig> annotatedMethods = new ConcurrentHashMap<>();
+    private LocalDateTime watermark;
+    private int rounds = 0;
 
     /**
-     * 初始化缓存
-     */
-    public void initCache() {
-        log.info("正在初始化配置刷新器缓存...");
-
-        // 缓存注解字段
-        Arrays
-            .stream(AppConfig.class.getDeclaredFields())
-            .filter(field -> field.isAnnotationPresent(DynamicConfig.class))
-            .forEach(field -> annotatedFields.put(field, field.getAnnotation(DynamicConfig.class)));
-
-        // 缓存注解方法
-        Arrays
-            .stream(AppConfig.class.getDeclaredMethods())
-            .filter(method -> method.isAnnotationPresent(DynamicConfig.class))
-            .forEach(method -> annotatedMethods.put(method, method.getAnnotation(DynamicConfig.class)));
-
-        log.info("配置刷新器缓存初始化完成，字段: {}，方法: {}", annotatedFields.size(), annotatedMethods.size());
-    }
-
-    /**
-     * 每30秒刷新一次配置
+     * 每5秒刷新一次配置
      */
     @Scheduled(fixedRate = 5000)
     public void refreshConfig() {
-        // 懒加载初始化缓存
-        if (annotatedFields.isEmpty() && annotatedMethods.isEmpty()) {
-            initCache();
-        }
-
-        log.debug("开始刷新应用配置...");
-        refreshFields();
-        refreshMethods();
-        log.debug("应用配置刷新完成");
-    }
+        lock.lock();
+        try {
+            boolean fullSync = watermark == null || rounds++ % FULL_SYNC_ROUNDS == 0;
+            LambdaQueryWrapper<Config> wrapper = new LambdaQueryWrapper<Config>()
+                .select(Config::getConfigKey, Config::getValue, Config::getType, Config::getUpdatedAt);
+            if (!fullSync) {
+                wrapper.ge(Config::getUpdatedAt, watermark);
+            }
+            List<Config> configs = configService.list(wrapper);
 
-    /**
-     * 刷新字段配置
-     */
-    private void refreshFields() {
-        annotatedFields.forEach((field, annotation) -> {
-            String key = annotation.key();
-            Config config = configService.getConfig(key);
-            if (config != null) {
-                try {
-                    applyConfigToField(field, config);
-                } catch (Exception e) {
-                    log.error("刷新配置到字段时出错: {}", key, e);
+            int changed = appConfig.apply(configs);
+            for (Config config : configs) {
+                if (config.getUpdatedAt() != null && (watermark == null || config.getUpdatedAt().isAfter(watermark))) {
+                    watermark = config.getUpdatedAt();
                 }
             }
-        });
-    }
-
-    /**
-     * 刷新方法配置
-     */
-    private void refreshMethods() {
-        annotatedMethods.forEach((method, annotation) -> {
-            String key = annotation.key();
-            Config config = configService.getConfig(key);
-            if (config != null) {
-                invokeConfigMethod(method, config.getValue());
+            if (changed > 0) {
+                log.info("应用配置刷新完成，读取 {} 项，变更 {} 项", configs.size(), changed);
             }
-        });
-    }
-
-    /**
-     * 应用配置值到字段
-     */
-    private void applyConfigToField(Field field, Config config) throws IllegalAccessException {
-        boolean accessible = field.canAccess(appConfig);
-        field.setAccessible(true);
-
-        switch (config.getType()) {
-            case BOOLEAN:
-                field.setBoolean(appConfig, Boolean.parseBoolean(config.getValue()));
-                break;
-            case INTEGER:
-                field.setInt(appConfig, Integer.parseInt(config.getValue()));
-                break;
-            case JSON:
-                // JSON 类型通常通过 setter 方法处理
-                break;
-            case STRING:
-            default:
-                field.set(appConfig, config.getValue());
+        } finally {
+            lock.unlock();
         }
-
-        field.setAccessible(accessible);
     }
 
     /**
-     * 调用配置方法
+     * 立即应用一条配置，供修改配置的接口调用，不必等下一轮定时刷新
      */
-    private void invokeConfigMethod(Method method, String value) {
-        try {
-            method.invoke(appConfig, value);
-        } catch (Exception e) {
-            log.error("调用配置方法时出错: {}", method.getName(), e);
+    public void applyNow(Config config) {
+        if (config == null) {
+            return;
         }
+        appConfig.apply(List.of(config));
     }
 }
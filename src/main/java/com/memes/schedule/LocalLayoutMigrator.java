@@ -0,0 +1,147 @@
+package com.memes.schedule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.service.ImageVariantService;
+import com.memes.service.impl.LocalStorageServiceImpl;
+import com.memes.util.FileCheckpoint;
+import com.memes.util.GsonUtil;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 把本地存储中旧的平铺文件（memes/&lt;millis&gt;-&lt;uuid&gt;.&lt;ext&gt;）迁移到分片布局，服务不停机。
+ * <p>
+ * 按 id 扫描记录：先把文件硬链接到新路径（不复制数据），再把记录的 url 改成新地址，最后删除旧文件名。 切换前后两个地址都能访问到文件。
+ * 没有被任何记录引用的旧文件不处理。进度记录在本地文件中，可以随时重启。
+ */
+@Slf4j
+@Service
+@Lazy(value = false)
+@ConditionalOnExpression("'${storage.type:}' == 'local' and ${local.migrate.enabled:false}")
+public class LocalLayoutMigrator {
+
+    private final MediaMapper mediaMapper;
+    private final LocalStorageServiceImpl storage;
+    private final FileCheckpoint checkpointFile;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public LocalLayoutMigrator(MediaMapper mediaMapper, LocalStorageServiceImpl storage,
+        @Value("${local.migrate.dir:local-migrate}") String dir, @Value("${local.migrate.batch-size:200}") int batchSize,
+        @Value("${local.migrate.pause-ms:100}") long pauseMillis) throws IOException {
+        this.mediaMapper = mediaMapper;
+        this.storage = storage;
+        this.checkpointFile = new FileCheckpoint(Path.of(dir).resolve("checkpoint"));
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        Thread.ofVirtual().name("local-layout-migrator").start(this::migrateAll);
+    }
+
+    void migrateAll() {
+        try {
+            long checkpoint = checkpointFile.load();
+            log.info("Local layout migration started after id {}", checkpoint);
+            long migrated = 0;
+            while (true) {
+                List<MediaContent> batch = mediaMapper
+                    .selectList(
+                        new QueryWrapper<MediaContent>()
+                            .select("id", "data_content", "metadata")
+                            .in("data_type", MediaContent.DataType.IMAGE, MediaContent.DataType.VIDEO)
+                            .gt("id", checkpoint)
+                            .orderByAsc("id")
+                            .last("limit " + batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (MediaContent content : batch) {
+                    try {
+                        if (migrate(content)) {
+                            migrated++;
+                        }
+                    } catch (Exception e) {
+                        log.warn("Failed to migrate media {}: {}", content.getId(), e.getMessage());
+                    }
+                }
+                checkpoint = batch.getLast().getId();
+                checkpointFile.save(checkpoint);
+                // 给线上请求让出磁盘
+                Thread.sleep(pauseMillis);
+            }
+            log.info("Local layout migration finished, {} records migrated", migrated);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Local layout migration stopped", e);
+        }
+    }
+
+    private boolean migrate(MediaContent content) throws IOException {
+        List<String> oldKeys = new ArrayList<>();
+        List<String> newKeys = new ArrayList<>();
+        String url = migrateUrl(content.getDataContent(), oldKeys, newKeys);
+
+        // metadata 中只改缩略图的地址，其他字段可能正在被其他任务修改
+        Map<String, Object> fields = new LinkedHashMap<>();
+        Map<String, Object> metadata = content.getMetadata();
+        if (metadata != null && metadata.get(ImageVariantService.METADATA_KEY) instanceof List<?> variants) {
+            List<Object> migratedVariants = new ArrayList<>();
+            for (Object item : variants) {
+                if (item instanceof Map<?, ?> variant && variant.get("url") instanceof String variantUrl) {
+                    String newUrl = migrateUrl(variantUrl, oldKeys, newKeys);
+                    Map<Object, Object> copy = new LinkedHashMap<>(variant);
+                    copy.put("url", newUrl);
+                    copy.put("key", storage.keyOf(newUrl));
+                    migratedVariants.add(copy);
+                } else {
+                    migratedVariants.add(item);
+                }
+            }
+            fields.put(ImageVariantService.METADATA_KEY, migratedVariants);
+        }
+        if (oldKeys.isEmpty()) {
+            return false;
+        }
+
+        int updated = mediaMapper.replaceObject(content.getId(), content.getDataContent(), url, null, GsonUtil.toJsonValues(fields));
+        // 记录被并发修改时放弃这次迁移，删除新建的链接
+        storage.delete((updated > 0 ? oldKeys : newKeys).toArray(String[]::new));
+        return updated > 0;
+    }
+
+    /**
+     * 平铺的文件链接到分片路径并返回新 url，已经是分片路径或不是本地文件时原样返回
+     */
+    private String migrateUrl(String url, List<String> oldKeys, List<String> newKeys) throws IOException {
+        String key = storage.keyOf(url);
+        if (key == null || key.contains("/")) {
+            return url;
+        }
+        String newKey = storage.migrate(key);
+        if (newKey == null) {
+            return url;
+        }
+        oldKeys.add(key);
+        newKeys.add(newKey);
+        return url.substring(0, url.length() - key.length()) + newKey;
+    }
+}
@@ -0,0 +1,95 @@
+package com.memes.schedule;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Service;
+
+import com.memes.service.MediaExportService;
+import com.memes.util.ArchiveWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 把审核通过的投稿离线导出为归档文件，用法：
+ * {@code java --enable-preview -jar memes.jar --spring.main.web-application-type=none --export.target=/path/to/memes.tar}
+ * <p>
+ * 格式由 export.format 指定，没有指定时按 target 的扩展名判断。先写到 target.part，完成后改名，中断时不会留下看起来完整的归档。
+ * 本地存储导出为 tar 时，对象由 FileChannel.transferTo 直接从存储文件拷贝到归档文件。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "export.target")
+public class MediaExporter implements ApplicationRunner {
+
+    private final MediaExportService mediaExportService;
+    private final ConfigurableApplicationContext context;
+    private final Path target;
+    private final ArchiveWriter.Format format;
+    private final long afterId;
+    private final boolean exit;
+
+    public MediaExporter(MediaExportService mediaExportService, ConfigurableApplicationContext context,
+        @Value("${export.target}") String target, @Value("${export.format:}") String format,
+        @Value("${export.after-id:0}") long afterId, @Value("${export.exit:true}") boolean exit) {
+        this.mediaExportService = mediaExportService;
+        this.context = context;
+        this.target = Path.of(target).toAbsolutePath().normalize();
+        this.format = ArchiveWriter.Format.of(format.isBlank() ? extensionOf(this.target) : format);
+        this.afterId = afterId;
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        MediaExportService.Report report = exportAll();
+        double seconds = Math.max(0.001, report.elapsed().toNanos() / 1e9);
+        log
+            .info(
+                "Export to {} finished: {} rows ({} objects, {} missing), last id {}, {} MB in {}s, {} MB/s",
+                target,
+                report.rows(),
+                report.objects(),
+                report.missing(),
+                report.lastId(),
+                "%.1f".formatted(report.bytes() / 1048576.0),
+                report.elapsed().toSeconds(),
+                "%.2f".formatted(report.bytes() / 1048576.0 / seconds));
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> report.missing() > 0 ? 1 : 0));
+        }
+    }
+
+    MediaExportService.Report exportAll() throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            MediaExportService.Report report = mediaExportService
+                .export(
+                    format,
+                    FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                    afterId);
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return report;
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    private static String extensionOf(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.substring(fileName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,226 @@
+package com.memes.schedule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import com.google.common.collect.Lists;
+import com.memes.model.common.BatchUploadItem;
+import com.memes.model.common.BatchUploadResult;
+import com.memes.service.MediaContentService;
+import com.memes.util.FileCheckpoint;
+import com.memes.util.HashUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 把目录或 zip 中的图片和视频离线导入为投稿，用法：
+ * {@code java --enable-preview -jar memes.jar --spring.main.web-application-type=none --import.source=/path/to/archive.zip}
+ * <p>
+ * 文件按相对路径排序后分批处理，每批交给 {@link MediaContentService#importBatch}：按核数并行计算 checksum，Bloom 过滤器和 IN 查询去重，
+ * 按 storage.bulk.concurrency 并行上传，一条多行 insert 写入。每批完成后把最后一个文件名写入检查点，中断后执行同样的命令从下一批继续；
+ * 中断时正在处理的一批会重新处理，已经写入的记录按 checksum 去重跳过。失败的文件记在 failed.log 中。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "import.source")
+public class MediaImporter implements ApplicationRunner {
+
+    private static final Map<String, String> MIME_TYPES = Map
+        .of(
+            "jpg",
+            "image/jpeg",
+            "jpeg",
+            "image/jpeg",
+            "png",
+            "image/png",
+            "gif",
+            "image/gif",
+            "webp",
+            "image/webp",
+            "mp4",
+            "video/mp4",
+            "webm",
+            "video/webm",
+            "mov",
+            "video/quicktime");
+
+    /**
+     * 导入中的一个文件
+     *
+     * @param mime
+     *            不支持的类型为 null
+     */
+    record Entry(String name, String mime, long size, InputStreamSource content) {
+    }
+
+    public record Report(long files, long imported, long duplicates, long failed, long skipped, long bytes, Duration elapsed) {
+
+        public double filesPerSecond() {
+            return files / Math.max(0.001, elapsed.toNanos() / 1e9);
+        }
+
+        public double megabytesPerSecond() {
+            return bytes / 1048576.0 / Math.max(0.001, elapsed.toNanos() / 1e9);
+        }
+    }
+
+    private final MediaContentService mediaContentService;
+    private final ConfigurableApplicationContext context;
+    private final Path source;
+    private final Path dir;
+    private final int batchSize;
+    private final String userId;
+    private final boolean exit;
+
+    public MediaImporter(MediaContentService mediaContentService, ConfigurableApplicationContext context,
+        @Value("${import.source}") String source, @Value("${import.dir:media-import}") String dir,
+        @Value("${import.batch-size:200}") int batchSize, @Value("${import.user-id:importer}") String userId,
+        @Value("${import.exit:true}") boolean exit) {
+        this.mediaContentService = mediaContentService;
+        this.context = context;
+        this.source = Path.of(source).toAbsolutePath().normalize();
+        this.dir = Path.of(dir);
+        this.batchSize = batchSize;
+        this.userId = userId;
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Report report = importAll();
+        log
+            .info(
+                "Import of {} finished: {} files ({} imported, {} duplicates, {} failed, {} skipped), {} MB in {}s, {} files/s, {} MB/s",
+                source,
+                report.files(),
+                report.imported(),
+                report.duplicates(),
+                report.failed(),
+                report.skipped(),
+                "%.1f".formatted(report.bytes() / 1048576.0),
+                report.elapsed().toSeconds(),
+                "%.1f".formatted(report.filesPerSecond()),
+                "%.2f".formatted(report.megabytesPerSecond()));
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> report.failed() > 0 ? 1 : 0));
+        }
+    }
+
+    Report importAll() throws IOException {
+        if (Files.isDirectory(source)) {
+            return importEntries(listDirectory(source));
+        }
+        try (ZipFile zip = new ZipFile(source.toFile(), StandardCharsets.UTF_8)) {
+            return importEntries(listZip(zip));
+        }
+    }
+
+    private Report importEntries(List<Entry> entries) throws IOException {
+        FileCheckpoint checkpoint = new FileCheckpoint(
+            dir.resolve("checkpoint-" + HashUtil.strToHex(source.toString(), HashUtil.HashAlgorithm.MD5)));
+        String after = checkpoint.loadString();
+        List<Entry> pending = entries.stream().filter(entry -> after == null || entry.name().compareTo(after) > 0).toList();
+        log.info("Importing {} of {} files from {}{}", pending.size(), entries.size(), source, after == null ? "" : " after " + after);
+
+        long start = System.nanoTime();
+        long files = 0;
+        long imported = 0;
+        long duplicates = 0;
+        long failed = 0;
+        long skipped = 0;
+        long bytes = 0;
+        for (List<Entry> batch : Lists.partition(pending, batchSize)) {
+            List<Entry> supported = batch.stream().filter(entry -> entry.mime() != null).toList();
+            skipped += batch.size() - supported.size();
+            if (!supported.isEmpty()) {
+                List<BatchUploadResult> results = mediaContentService
+                    .importBatch(supported.stream().map(entry -> BatchUploadItem.file(entry.name(), entry.mime(), entry.content())).toList(), userId);
+                List<String> failures = new ArrayList<>();
+                for (BatchUploadResult result : results) {
+                    if (!result.succeeded()) {
+                        failures.add(result.name() + "\t" + result.error());
+                    } else if (result.duplicate()) {
+                        duplicates++;
+                    } else {
+                        imported++;
+                    }
+                }
+                failed += failures.size();
+                if (!failures.isEmpty()) {
+                    Files.write(dir.resolve("failed.log"), failures, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+            }
+            files += batch.size();
+            bytes += batch.stream().mapToLong(Entry::size).sum();
+            checkpoint.saveString(batch.getLast().name());
+            double seconds = Math.max(0.001, (System.nanoTime() - start) / 1e9);
+            log
+                .info(
+                    "Imported {}/{} files ({} new, {} duplicates, {} failed), {} files/s, {} MB/s",
+                    files,
+                    pending.size(),
+                    imported,
+                    duplicates,
+                    failed,
+                    "%.1f".formatted(files / seconds),
+                    "%.2f".formatted(bytes / 1048576.0 / seconds));
+        }
+        return new Report(files, imported, duplicates, failed, skipped, bytes, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    static List<Entry> listDirectory(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Entry> entries = new ArrayList<>();
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                String name = root.relativize(path).toString().replace('\\', '/');
+                entries.add(new Entry(name, mimeOf(name), Files.size(path), () -> Files.newInputStream(path)));
+            }
+            entries.sort(Comparator.comparing(Entry::name));
+            return entries;
+        }
+    }
+
+    /**
+     * ZipFile 可以并发打开多个条目
+     */
+    static List<Entry> listZip(ZipFile zip) {
+        return zip
+            .stream()
+            .filter(entry -> !entry.isDirectory())
+            .map(entry -> new Entry(entry.getName(), mimeOf(entry.getName()), Math.max(0, entry.getSize()), () -> zip.getInputStream(entry)))
+            .sorted(Comparator.comparing(Entry::name))
+            .toList();
+    }
+
+    /**
+     * 按扩展名判断类型，隐藏文件（包括 macOS 打包时带上的 __MACOSX/._*）不导入
+     */
+    static String mimeOf(String name) {
+        String fileName = name.substring(name.lastIndexOf('/') + 1);
+        if (fileName.startsWith(".") || name.startsWith("__MACOSX/")) {
+            return null;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? null : MIME_TYPES.get(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,102 @@
+package com.memes.schedule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.service.StorageService;
+import com.memes.util.FileCheckpoint;
+import com.memes.util.GsonUtil;
+import com.memes.util.MediaProbe;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 为上传时还没有提取元数据的历史记录补齐 metadata 中的宽高、mime、主色调等字段。按 id 顺序扫描，进度记录在本地文件中
+ */
+@Slf4j
+@Service
+@Lazy(value = false)
+@ConditionalOnProperty(prefix = "media.metadata.backfill", name = "enabled", havingValue = "true")
+public class MediaMetadataBackfill {
+
+    private final MediaMapper mediaMapper;
+    private final StorageService storageService;
+    private final FileCheckpoint checkpointFile;
+    private final int batchSize;
+    private final MeterRegistry registry;
+    private long checkpoint;
+
+    public MediaMetadataBackfill(MediaMapper mediaMapper, StorageService storageService,
+        @Value("${media.metadata.backfill.dir:metadata-backfill}") String dir, @Value("${media.metadata.backfill.batch-size:50}") int batchSize,
+        MeterRegistry registry) throws IOException {
+        this.mediaMapper = mediaMapper;
+        this.storageService = storageService;
+        this.checkpointFile = new FileCheckpoint(Path.of(dir).resolve("checkpoint"));
+        this.batchSize = batchSize;
+        this.registry = registry;
+        this.checkpoint = checkpointFile.load();
+        log.info("Media metadata backfill resuming after id {}", checkpoint);
+    }
+
+    @Scheduled(fixedDelayString = "${media.metadata.backfill.interval-ms:10000}", initialDelay = 30_000)
+    public void run() {
+        List<MediaContent> batch = mediaMapper
+            .selectList(
+                new QueryWrapper<MediaContent>()
+                    .select("id", "data_content", "metadata")
+                    .in("data_type", MediaContent.DataType.IMAGE, MediaContent.DataType.VIDEO)
+                    .ne("status", MediaContent.ContentStatus.DELETED)
+                    .gt("id", checkpoint)
+                    .orderByAsc("id")
+                    .last("limit " + batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (MediaContent content : batch) {
+            String result;
+            try {
+                result = backfill(content);
+            } catch (Exception e) {
+                log.warn("Failed to backfill metadata of media {}: {}", content.getId(), e.getMessage());
+                result = "failed";
+            }
+            registry.counter("memes.media.metadata.backfill", "result", result).increment();
+        }
+        checkpoint = batch.getLast().getId();
+        try {
+            checkpointFile.save(checkpoint);
+        } catch (IOException e) {
+            log.error("Failed to save metadata backfill checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private String backfill(MediaContent content) {
+        if (content.getMetadata() != null && content.getMetadata().containsKey(MediaProbe.MIME)) {
+            return "skipped";
+        }
+        String key = storageService.keyOf(content.getDataContent());
+        byte[] bytes = key == null ? null : storageService.read(key);
+        if (bytes == null) {
+            return "missing";
+        }
+        Map<String, Object> probed = MediaProbe.probe(bytes);
+        if (probed.isEmpty()) {
+            return "unknown";
+        }
+        // 只写提取出的字段，已有的其他字段（例如近似重复、缩略图）由数据库保留，不会被读取之后的并发修改覆盖
+        int updated = mediaMapper.setMetadataFields(content.getId(), content.getDataContent(), GsonUtil.toJsonValues(probed));
+        return updated > 0 ? "updated" : "conflict";
+    }
+}
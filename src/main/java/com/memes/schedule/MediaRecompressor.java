@@ -0,0 +1,186 @@
+package com.memes.schedule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.common.FileUploadResult;
+import com.memes.model.pojo.MediaContent;
+import com.memes.service.StorageService;
+import com.memes.util.FileCheckpoint;
+import com.memes.util.GsonUtil;
+import com.memes.util.ImageCodec;
+import com.memes.util.ImageOptimizer;
+import com.memes.util.MediaProbe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 后台重新压缩已存储的原图，新旧数据都会按 id 顺序扫描到。
+ * <p>
+ * 结果至少比原图小 min-saving 时才上传新对象、更新记录并删除旧对象；checksum 仍是上传时原始内容的摘要，不影响上传去重。 扫描进度记录在本地文件中，重启后继续。
+ */
+@Slf4j
+@Service
+@Lazy(value = false)
+@ConditionalOnProperty(prefix = "media.recompress", name = "enabled", havingValue = "true")
+public class MediaRecompressor {
+
+    public static final String METADATA_KEY = "recompressed";
+
+    private final MediaMapper mediaMapper;
+    private final StorageService storageService;
+    private final FileCheckpoint checkpointFile;
+    private final int batchSize;
+    private final double minSaving;
+    private final double lossyMinSsim;
+    private final long minAgeMinutes;
+
+    private final MeterRegistry registry;
+    private final Counter bytesSaved;
+    private final Timer timer;
+    private long checkpoint;
+
+    public MediaRecompressor(MediaMapper mediaMapper, StorageService storageService, @Value("${media.recompress.dir:recompress}") String dir,
+        @Value("${media.recompress.batch-size:20}") int batchSize, @Value("${media.recompress.min-saving:0.1}") double minSaving,
+        @Value("${media.recompress.lossy:false}") boolean lossy, @Value("${media.recompress.min-ssim:0.97}") double minSsim,
+        @Value("${media.recompress.min-age-minutes:60}") long minAgeMinutes, MeterRegistry registry) throws IOException {
+        this.mediaMapper = mediaMapper;
+        this.storageService = storageService;
+        this.checkpointFile = new FileCheckpoint(Path.of(dir).resolve("checkpoint"));
+        this.batchSize = batchSize;
+        this.minSaving = minSaving;
+        this.lossyMinSsim = lossy ? minSsim : 0;
+        this.minAgeMinutes = minAgeMinutes;
+        this.registry = registry;
+        this.bytesSaved = Counter.builder("memes.media.recompress.bytes.saved").baseUnit("bytes").register(registry);
+        this.timer = registry.timer("memes.media.recompress.time");
+        this.checkpoint = checkpointFile.load();
+        log.info("Media recompression enabled, lossy: {}, resuming after id {}", lossy, checkpoint);
+    }
+
+    @Scheduled(fixedDelayString = "${media.recompress.interval-ms:60000}", initialDelay = 60_000)
+    public void run() {
+        // 刚上传的内容还在审核、生成缩略图，等一段时间再处理
+        List<MediaContent> batch = mediaMapper
+            .selectList(
+                new QueryWrapper<MediaContent>()
+                    .select("id", "data_content", "file_size", "metadata")
+                    .eq("data_type", MediaContent.DataType.IMAGE)
+                    .in("status", MediaContent.ContentStatus.PENDING, MediaContent.ContentStatus.APPROVED)
+                    .gt("id", checkpoint)
+                    .lt("created_at", LocalDateTime.now().minusMinutes(minAgeMinutes))
+                    .orderByAsc("id")
+                    .last("limit " + batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (MediaContent content : batch) {
+            String result;
+            try {
+                result = timer.recordCallable(() -> recompress(content));
+            } catch (Exception e) {
+                log.warn("Failed to recompress media {}: {}", content.getId(), e.getMessage());
+                result = "failed";
+            }
+            registry.counter("memes.media.recompress", "result", result).increment();
+        }
+        saveCheckpoint(batch.getLast().getId());
+    }
+
+    private String recompress(MediaContent content) throws IOException {
+        if (content.getMetadata() != null && content.getMetadata().containsKey(METADATA_KEY)) {
+            return "skipped";
+        }
+        if (tooLarge(content.getMetadata())) {
+            // 超过整幅解码的像素上限，连原图都不必读
+            return "too_large";
+        }
+        String key = storageService.keyOf(content.getDataContent());
+        String mime = key == null ? null : mimeOf(key);
+        if (mime == null) {
+            return "skipped";
+        }
+        byte[] original = storageService.read(key);
+        if (original == null) {
+            return "missing";
+        }
+        ImageOptimizer.Result optimized = ImageOptimizer.optimize(original, mime, lossyMinSsim);
+        // 超过像素上限的原图 optimize 也返回 null
+        if (optimized == null || optimized.bytes().length > original.length * (1 - minSaving)) {
+            return "skipped";
+        }
+        FileUploadResult stored = storageService.store(optimized.bytes(), optimized.mime());
+        if (stored == null) {
+            return "failed";
+        }
+
+        // 只写自己的字段，缩略图、近似重复等字段可能正在被其他任务修改
+        Map<String, Object> fields = new LinkedHashMap<>();
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("originalSize", original.length);
+        info.put("lossy", optimized.lossy());
+        info.put("ssim", Math.round(optimized.ssim() * 10000) / 10000.0);
+        fields.put(METADATA_KEY, info);
+        // 转成 JPEG 后 mime 等字段也变了
+        fields.putAll(MediaProbe.probe(optimized.bytes()));
+        // 只有 url 没被其他人改过时才替换，否则放弃新对象
+        int updated = mediaMapper
+            .replaceObject(content.getId(), content.getDataContent(), stored.url(), (long) optimized.bytes().length,
+                GsonUtil.toJsonValues(fields));
+        if (updated == 0) {
+            storageService.delete(new String[] {stored.fileName()});
+            return "conflict";
+        }
+        storageService.delete(new String[] {key});
+        long saved = original.length - optimized.bytes().length;
+        bytesSaved.increment(saved);
+        log.info("Recompressed media {} from {} to {} bytes, lossy: {}", content.getId(), original.length, optimized.bytes().length,
+            optimized.lossy());
+        return "replaced";
+    }
+
+    /**
+     * 按上传时记录的宽高判断，没有记录时由 ImageOptimizer 解码前再从文件头判断
+     */
+    private static boolean tooLarge(Map<String, Object> metadata) {
+        if (metadata == null || !(metadata.get(MediaProbe.WIDTH) instanceof Number width)
+            || !(metadata.get(MediaProbe.HEIGHT) instanceof Number height)) {
+            return false;
+        }
+        return width.longValue() * height.longValue() > ImageCodec.MAX_DECODED_PIXELS;
+    }
+
+    private static String mimeOf(String key) {
+        String extension = key.substring(key.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return switch (extension) {
+            case "png" -> ImageCodec.PNG;
+            case "jpg", "jpeg" -> ImageCodec.JPEG;
+            default -> null;
+        };
+    }
+
+    private void saveCheckpoint(long id) {
+        checkpoint = id;
+        try {
+            checkpointFile.save(id);
+        } catch (IOException e) {
+            log.error("Failed to save recompression checkpoint: {}", e.getMessage());
+        }
+    }
+}
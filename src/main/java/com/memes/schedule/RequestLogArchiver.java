@@ -0,0 +1,32 @@
+package com.memes.schedule;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.memes.service.RequestLogAnalyticsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 每天凌晨把过期的请求日志压缩成本地列式归档
+ */
+@Slf4j
+@Service
+@Lazy(value = false)
+@RequiredArgsConstructor
+public class RequestLogArchiver {
+
+    private final RequestLogAnalyticsService analyticsService;
+
+    @Scheduled(cron = "0 30 3 * * *", zone = "Asia/Shanghai")
+    public void archive() {
+        try {
+            int days = analyticsService.archive();
+            log.info("Request log archive finished, {} days archived", days);
+        } catch (Exception e) {
+            log.error("Failed to archive request logs", e);
+        }
+    }
+}
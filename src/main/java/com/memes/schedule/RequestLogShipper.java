@@ -0,0 +1,228 @@
+package com.memes.schedule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.memes.mapper.RequestLogMapper;
+import com.memes.model.pojo.RequestLog;
+import com.memes.model.transport.RequestLogRecord;
+import com.memes.util.GsonUtil;
+import com.memes.util.SegmentLog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 把本地已封存的审计日志段批量写入 request_log 表。
+ * <p>
+ * 每写完一批就把 (段文件, 段内偏移) 写入检查点，进程重启后从检查点继续；整段写完后删除段文件。 数据库不可用时本轮直接放弃，段文件留在磁盘上等下一轮重试。
+ * <p>
+ * 整批写入因为数据本身被拒绝（DataIntegrityViolationException）时改为逐行写入，被拒绝的行追加到 quarantine.log 后跳过，
+ * 一行坏数据不会让投递永远卡在同一个检查点。积压的段总大小超过 max-pending 时丢弃最旧的段。
+ */
+@Slf4j
+@Service
+@Lazy(value = false)
+public class RequestLogShipper {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String QUARANTINE_FILE = "quarantine.log";
+
+    private final SegmentLog segmentLog;
+    private final RequestLogMapper requestLogMapper;
+    private final Path checkpointPath;
+    private final Path quarantinePath;
+
+    @Value("${audit.ship.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${audit.segment.max-age:5s}")
+    private Duration maxSegmentAge = Duration.ofSeconds(5);
+
+    @Value("${audit.segment.max-pending:1GB}")
+    private DataSize maxPending = DataSize.ofGigabytes(1);
+
+    private final AtomicLong pendingSegments = new AtomicLong(0);
+    private final Counter shippedCounter;
+    private final Counter failureCounter;
+    private final Counter quarantinedCounter;
+    private final Counter droppedCounter;
+
+    public RequestLogShipper(SegmentLog requestLogSegments, RequestLogMapper requestLogMapper, MeterRegistry registry) {
+        this.segmentLog = requestLogSegments;
+        this.requestLogMapper = requestLogMapper;
+        this.checkpointPath = requestLogSegments.getDir().resolve(CHECKPOINT_FILE);
+        this.quarantinePath = requestLogSegments.getDir().resolve(QUARANTINE_FILE);
+        this.shippedCounter = registry.counter("memes.audit.shipped");
+        this.failureCounter = registry.counter("memes.audit.ship.failure");
+        this.quarantinedCounter = registry.counter("memes.audit.quarantined");
+        this.droppedCounter = registry.counter("memes.audit.dropped.segments");
+        registry.gauge("memes.audit.pending.segments", pendingSegments);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void ship() {
+        try {
+            segmentLog.rollIfOlderThan(maxSegmentAge);
+            List<Path> segments = dropOverflow(segmentLog.sealedSegments());
+            pendingSegments.set(segments.size());
+            for (Path segment : segments) {
+                shipSegment(segment);
+                pendingSegments.decrementAndGet();
+            }
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to ship request log segments, will retry later: {}", e.getMessage());
+        }
+    }
+
+    private void shipSegment(Path segment) throws IOException {
+        String name = segment.getFileName().toString();
+        Checkpoint checkpoint = readCheckpoint();
+        int offset = checkpoint != null && checkpoint.segment().equals(name) ? checkpoint.offset() : 0;
+
+        List<RequestLog> batch = new ArrayList<>(batchSize);
+        List<Integer> offsets = new ArrayList<>(batchSize);
+        int count = SegmentLog.read(segment, offset, (payload, nextOffset) -> {
+            batch.add(toRequestLog(RequestLogRecord.parseFrom(payload)));
+            offsets.add(nextOffset);
+            if (batch.size() >= batchSize) {
+                flush(batch, offsets, name);
+            }
+        });
+        flush(batch, offsets, name);
+        segmentLog.delete(segment);
+        Files.deleteIfExists(checkpointPath);
+        log.debug("Shipped {} request logs from segment {}", count, name);
+    }
+
+    /**
+     * @param offsets
+     *            每条记录之后的段内偏移
+     */
+    private void flush(List<RequestLog> batch, List<Integer> offsets, String segment) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            requestLogMapper.insert(batch);
+            shippedCounter.increment(batch.size());
+            writeCheckpoint(new Checkpoint(segment, offsets.getLast()));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch of {} request logs rejected, retrying one by one: {}", batch.size(), e.getMessage());
+            insertOneByOne(batch, offsets, segment);
+        }
+        batch.clear();
+        offsets.clear();
+    }
+
+    /**
+     * 逐行写入，每行之后都更新检查点，其他错误抛出时已写入的行不会在下一轮重复写入
+     */
+    private void insertOneByOne(List<RequestLog> batch, List<Integer> offsets, String segment) throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            RequestLog requestLog = batch.get(i);
+            try {
+                requestLogMapper.insert(requestLog);
+                shippedCounter.increment();
+            } catch (DataIntegrityViolationException e) {
+                quarantine(requestLog, e);
+            }
+            writeCheckpoint(new Checkpoint(segment, offsets.get(i)));
+        }
+    }
+
+    private void quarantine(RequestLog requestLog, DataIntegrityViolationException e) throws IOException {
+        log.error("Request log for {} rejected by the database, moved to {}: {}", requestLog.getUrl(), quarantinePath, e.getMessage());
+        quarantinedCounter.increment();
+        Files
+            .writeString(
+                quarantinePath,
+                GsonUtil.toJson(requestLog) + System.lineSeparator(),
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 数据库长时间不可用时段文件会一直积压，总大小超过 max-pending 后丢弃最旧的段，返回剩下的段
+     */
+    List<Path> dropOverflow(List<Path> segments) throws IOException {
+        long total = 0;
+        for (Path segment : segments) {
+            total += Files.size(segment);
+        }
+        int dropped = 0;
+        while (total > maxPending.toBytes() && dropped < segments.size()) {
+            Path oldest = segments.get(dropped++);
+            total -= Files.size(oldest);
+            segmentLog.delete(oldest);
+            droppedCounter.increment();
+            log.error("Pending request log segments exceed {}, dropped {}", maxPending, oldest.getFileName());
+        }
+        return segments.subList(dropped, segments.size());
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return null;
+        }
+        String[] parts = Files.readString(checkpointPath, StandardCharsets.UTF_8).trim().split(" ");
+        if (parts.length != 2) {
+            log.warn("Ignoring malformed request log checkpoint: {}", String.join(" ", parts));
+            return null;
+        }
+        return new Checkpoint(parts[0], Integer.parseInt(parts[1]));
+    }
+
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        // 先写临时文件再原子替换，避免崩溃时留下半个检查点
+        Path tmp = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tmp, "%s %d".formatted(checkpoint.segment(), checkpoint.offset()), StandardCharsets.UTF_8);
+        Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static RequestLog toRequestLog(RequestLogRecord record) {
+        return RequestLog
+            .builder()
+            .url(RequestLog.fit(record.getUrl(), RequestLog.URL_LENGTH))
+            .method(RequestLog.HttpMethod.valueOf(record.getMethod()))
+            .ip(emptyToNull(record.getIp()))
+            // 段文件中可能还有截断之前写入的记录
+            .userAgent(RequestLog.fit(emptyToNull(record.getUserAgent()), RequestLog.USER_AGENT_LENGTH))
+            .refer(RequestLog.fit(emptyToNull(record.getRefer()), RequestLog.REFER_LENGTH))
+            .parameterMap(emptyToNull(record.getParameterMap()))
+            .uuid(RequestLog.fitUuid(emptyToNull(record.getUuid())))
+            .timecost(record.getTimecost())
+            .timestamp(record.getTimestamp())
+            .instanceUuid(record.getInstanceUuid())
+            .createdAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getTimestamp()), ZoneId.systemDefault()))
+            .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private record Checkpoint(String segment, int offset) {
+    }
+}
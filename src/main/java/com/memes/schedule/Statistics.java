@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import com.memes.mapper.MediaMapper;
 import com.memes.mapper.RequestLogMapper;
 import com.memes.mapper.SubmissionMapper;
+import com.memes.service.ModerationStatistic;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
@@ -26,15 +27,19 @@ public class Statistics {
 
     final MeterRegistry registry;
 
+    final ModerationStatistic moderationStatistic;
+
     private final AtomicLong mediaCount = new AtomicLong(0);
     private final AtomicLong requestCount = new AtomicLong(0);
     private final AtomicLong submissionCount = new AtomicLong(0);
 
-    public Statistics(MediaMapper mediaMapper, RequestLogMapper requestLogMapper, SubmissionMapper submissionMapper, MeterRegistry registry) {
+    public Statistics(MediaMapper mediaMapper, RequestLogMapper requestLogMapper, SubmissionMapper submissionMapper, MeterRegistry registry,
+        ModerationStatistic moderationStatistic) {
         this.mediaMapper = mediaMapper;
         this.requestLogMapper = requestLogMapper;
         this.submissionMapper = submissionMapper;
         this.registry = registry;
+        this.moderationStatistic = moderationStatistic;
 
         // 注册 Gauge，只注册一次
         registry.gauge("memes.media.count", mediaCount);
@@ -62,4 +67,16 @@ public class Statistics {
             log.error("Failed to collect statistics", e);
         }
     }
+
+    /**
+     * 审核看板的内存计数与数据库对账
+     */
+    @Scheduled(fixedRate = 1000 * 60)
+    public void reconcileModerationStatistic() {
+        try {
+            moderationStatistic.reconcile();
+        } catch (Exception e) {
+            log.error("Failed to reconcile moderation statistic", e);
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package com.memes.schedule;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.memes.service.StorageReclaimer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 定时回收存储对象，每次处理一批记录和一页对象，见 {@link StorageReclaimer}
+ */
+@Slf4j
+@Service
+@Lazy(value = false)
+@ConditionalOnProperty(prefix = "storage.gc", name = "enabled", havingValue = "true")
+public class StorageGarbageCollector {
+
+    private final StorageReclaimer reclaimer;
+    private final int batchSize;
+    private final int pageSize;
+
+    public StorageGarbageCollector(StorageReclaimer reclaimer, @Value("${storage.gc.batch-size:200}") int batchSize,
+        @Value("${storage.gc.orphans.page-size:1000}") int pageSize) {
+        this.reclaimer = reclaimer;
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+        log.info("Storage garbage collection enabled");
+    }
+
+    @Scheduled(fixedDelayString = "${storage.gc.interval-ms:60000}", initialDelay = 120_000)
+    public void run() {
+        try {
+            StorageReclaimer.Report report = reclaimer.run(false, batchSize, pageSize);
+            if (report.objects() > 0 || report.failed() > 0) {
+                log
+                    .info(
+                        "Storage gc reclaimed {} rows and {} orphans, {} objects / {} bytes deleted, {} failed",
+                        report.rows(),
+                        report.orphans(),
+                        report.objects(),
+                        report.bytes(),
+                        report.failed());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Storage gc failed: {}", e.getMessage());
+        }
+    }
+}
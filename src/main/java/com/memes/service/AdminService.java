@@ -8,9 +8,7 @@ import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.memes.mapper.MediaMapper;
 import com.memes.mapper.RequestLogMapper;
-import com.memes.model.pojo.MediaContent;
 import com.memes.model.pojo.RequestLog;
 import com.memes.model.response.VisitStatistic;
 import com.memes.util.TimeUtil;
@@ -23,7 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class AdminService {
     private final RequestLogMapper requestLogMapper;
-    private final MediaMapper mediaMapper;
+    private final ModerationStatistic moderationStatistic;
 
     private final static String TIME_COLUMN = "created_at";
 
@@ -108,33 +106,19 @@ public class AdminService {
     }
 
     /**
-     * 获取审核统计信息,只统计当前的
+     * 获取审核统计信息,只统计当前的。数据来自内存中的增量计数，定期与数据库对账
      *
      * @return 审核统计信息
      */
     public Map<String, Long> getReviewStatistic() {
-        LocalDateTime startTime = TimeUtil.convertYMDToLocalDateTime(TimeUtil.getYMD());
-        LocalDateTime endTime = startTime.plusDays(1); // 直接加一天，不需要手动计算毫秒
-        log.info("get review statistic from {} to {}", startTime, endTime);
-
-        List<MediaContent> llmModerationStatus = mediaMapper
-            .selectList(
-                new QueryWrapper<MediaContent>()
-                    .ge(TIME_COLUMN, startTime)
-                    .lt(TIME_COLUMN, endTime)
-                    .select("llm_moderation_status"));
-
-        Map<String, Long> stringLongMap = llmModerationStatus
-            .stream()
-            .filter(content -> content.getLlmModerationStatus() != null)
-            .collect(Collectors.groupingBy(content -> content.getLlmModerationStatus().toString(), Collectors.counting()));
-
-        Long pendingCount = mediaMapper
-            .selectCount(
-                new QueryWrapper<MediaContent>()
-                    .eq("status", "PENDING"));
-        stringLongMap.put("PENDING", Math.max(pendingCount, stringLongMap.getOrDefault("PENDING", 0L)));
-        return stringLongMap;
+        return moderationStatistic.snapshot();
+    }
+
+    /**
+     * 待审核积压的数量和积压时长的分位数（秒），每次请求都查询数据库
+     */
+    public Map<String, Long> getReviewBacklog() {
+        return moderationStatistic.backlogAges();
     }
 
 }
@@ -0,0 +1,23 @@
+package com.memes.service;
+
+/**
+ * 批量存储操作的进度回调，每完成一个对象（deleteAll 为一批 key）调用一次。
+ * <p>
+ * 会在执行任务的虚拟线程上并发调用，实现需要是线程安全的，也不要在里面做耗时操作。
+ */
+@FunctionalInterface
+public interface BulkProgress {
+
+    BulkProgress NONE = (completed, failed, total) -> {
+    };
+
+    /**
+     * @param completed
+     *            已完成的对象数，包括失败的
+     * @param failed
+     *            其中失败的对象数
+     * @param total
+     *            对象总数
+     */
+    void onProgress(int completed, int failed, int total);
+}
@@ -0,0 +1,155 @@
+package com.memes.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 已有内容 checksum 的 Bloom 过滤器，上传去重时只有在过滤器判断“可能存在”时才查数据库。
+ * <p>
+ * 启动时在后台全量加载，之后本节点插入时直接加入，其他节点插入的行由定时任务按 created_at 增量补齐。 加载完成前 {@link #mightContain} 总是返回 true，退化为每次都查数据库。
+ * 元素数超过预期容量时按两倍容量重建，保证误判率不超过配置值。
+ * <p>
+ * 过滤器会漏掉其他节点最近一分钟内插入的行，“一定不存在”只是本节点目前所知，真正的去重由 checksum 上的唯一索引保证：
+ * 跳过查询后插入撞上唯一索引时，调用方改用已有的记录。
+ */
+@Slf4j
+@Service
+public class ChecksumFilter {
+
+    private final MediaMapper mediaMapper;
+    private final double fpp;
+    // 重建和增量加载互斥，虚拟线程下用显式锁
+    private final ReentrantLock loadLock = new ReentrantLock();
+    // 增量加载从水位线往前多读一段，覆盖 created_at 靠前但提交较晚的行
+    private static final Duration OVERLAP = Duration.ofMinutes(5);
+
+    private volatile BloomFilter<CharSequence> filter;
+    // 重建期间本节点插入的 checksum 同时加入正在加载的过滤器
+    private volatile BloomFilter<CharSequence> building;
+    private volatile long expectedInsertions;
+    // 只在持有 loadLock 时读写，已加载的最大 created_at，取数据库的时钟
+    private LocalDateTime watermark;
+
+    private final Counter skippedCounter;
+    private final Counter probableHitCounter;
+    private final Counter falsePositiveCounter;
+
+    public ChecksumFilter(MediaMapper mediaMapper, @Value("${media.checksum.expected-insertions:1000000}") long expectedInsertions,
+        @Value("${media.checksum.fpp:0.001}") double fpp, MeterRegistry registry) {
+        this.mediaMapper = mediaMapper;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.skippedCounter = registry.counter("memes.media.checksum.filter", "result", "skipped");
+        this.probableHitCounter = registry.counter("memes.media.checksum.filter", "result", "probable_hit");
+        this.falsePositiveCounter = registry.counter("memes.media.checksum.filter", "result", "false_positive");
+        registry.gauge("memes.media.checksum.filter.fpp", this, ChecksumFilter::expectedFpp);
+    }
+
+    @PostConstruct
+    public void init() {
+        Thread.ofVirtual().name("checksum-filter-load").start(this::refresh);
+    }
+
+    /**
+     * @return false 表示一定不存在，可以跳过数据库查询
+     */
+    public boolean mightContain(String checksum) {
+        BloomFilter<CharSequence> current = filter;
+        if (current == null || current.mightContain(checksum)) {
+            probableHitCounter.increment();
+            return true;
+        }
+        skippedCounter.increment();
+        return false;
+    }
+
+    /**
+     * 过滤器判断可能存在、数据库中却没有时调用，用于统计实际误判率
+     */
+    public void recordFalsePositive() {
+        falsePositiveCounter.increment();
+    }
+
+    public void put(String checksum) {
+        if (checksum == null) {
+            return;
+        }
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) {
+            current.put(checksum);
+        }
+        BloomFilter<CharSequence> next = building;
+        if (next != null) {
+            next.put(checksum);
+        }
+    }
+
+    public double expectedFpp() {
+        BloomFilter<CharSequence> current = filter;
+        return current == null ? 1.0 : current.expectedFpp();
+    }
+
+    /**
+     * 增量加载其他节点插入的行，首次调用时全量加载
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void refresh() {
+        loadLock.lock();
+        try {
+            BloomFilter<CharSequence> target = filter;
+            LocalDateTime from = watermark == null ? null : watermark.minus(OVERLAP);
+            if (target == null || target.approximateElementCount() > expectedInsertions) {
+                if (target != null) {
+                    expectedInsertions *= 2;
+                }
+                target = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+                // 先挂上再开始查询：查询开始前已经提交的行由查询读到，之后插入的由 put 写入
+                building = target;
+                from = null;
+            }
+            long start = System.currentTimeMillis();
+            BloomFilter<CharSequence> loading = target;
+            LocalDateTime[] latest = {watermark};
+            long[] loaded = {0};
+            QueryWrapper<MediaContent> query = new QueryWrapper<MediaContent>().select("checksum", "created_at").isNotNull("checksum");
+            if (from != null) {
+                query.ge("created_at", from);
+            }
+            mediaMapper.selectList(query, context -> {
+                MediaContent content = context.getResultObject();
+                loading.put(content.getChecksum());
+                if (content.getCreatedAt() != null && (latest[0] == null || content.getCreatedAt().isAfter(latest[0]))) {
+                    latest[0] = content.getCreatedAt();
+                }
+                loaded[0]++;
+            });
+            if (filter != target) {
+                filter = target;
+                log.info("Checksum filter built with {} checksums in {}ms", loaded[0], System.currentTimeMillis() - start);
+            }
+            watermark = latest[0];
+        } catch (Exception e) {
+            log.error("Failed to refresh checksum filter: {}", e.getMessage());
+        } finally {
+            building = null;
+            loadLock.unlock();
+        }
+    }
+}
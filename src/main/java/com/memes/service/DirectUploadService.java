@@ -0,0 +1,112 @@
+package com.memes.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.memes.config.AppConfig;
+import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
+import com.memes.model.common.DirectUploadTicket;
+import com.memes.util.Preconditions;
+import com.memes.util.SignedToken;
+
+import io.micrometer.common.util.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 客户端直传：签发只能上传到一个新 key 的短期凭证，文件不经过应用服务器。
+ * <p>
+ * 凭证里签名了 key、mime、大小上限和过期时间，完成接口只接受自己签发的 key，不能拿来登记任意对象。
+ */
+@Slf4j
+@Service
+public class DirectUploadService {
+
+    /**
+     * 凭证中签名的内容
+     */
+    public record Grant(String key, String mime, long maxBytes, long expiresAt) {
+    }
+
+    private final StorageService storageService;
+    private final SignedToken signer;
+    private final Duration defaultTtl;
+    private volatile Duration ttl;
+    private final long maxBytes;
+
+    public DirectUploadService(StorageService storageService, @Value("${media.direct-upload.secret:}") String secret,
+        @Value("${media.direct-upload.ttl:10m}") Duration ttl, @Value("${media.direct-upload.max-size:50MB}") DataSize maxSize) {
+        this.storageService = storageService;
+        byte[] key;
+        if (StringUtils.isBlank(secret)) {
+            // 多实例部署时必须配置，否则别的实例签发的凭证无法校验
+            log.warn("media.direct-upload.secret is not configured, using a random secret for this process");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.signer = new SignedToken(key);
+        this.defaultTtl = ttl;
+        this.ttl = ttl;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * 动态配置 media.direct-upload.ttl.seconds 大于 0 时覆盖配置文件中的有效期，改回 0 时恢复，只影响之后签发的凭证
+     */
+    @Autowired
+    void bindConfig(AppConfig appConfig) {
+        appConfig
+            .addListener(
+                "media.direct-upload.ttl.seconds",
+                (key, oldValue, newValue) -> setTtlSeconds(appConfig.snapshot().getDirectUploadTtlSeconds()));
+        setTtlSeconds(appConfig.snapshot().getDirectUploadTtlSeconds());
+    }
+
+    void setTtlSeconds(int seconds) {
+        this.ttl = seconds > 0 ? Duration.ofSeconds(seconds) : defaultTtl;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public DirectUploadTicket initiate(String mime) {
+        Preconditions
+            .checkArgument(mime != null && (mime.startsWith("image/") || mime.startsWith("video/")), AppException.invalidParam("mime"));
+        String fileName = "%d-%s.%s".formatted(System.currentTimeMillis(), UUID.randomUUID(), storageService.getExtension(mime));
+        String key = storageService.directUploadKey(fileName);
+        Instant expiresAt = Instant.now().plus(ttl);
+        Grant grant = new Grant(key, mime, maxBytes, expiresAt.toEpochMilli());
+        String token = signer
+            .sign(String.join("\n", grant.key(), grant.mime(), String.valueOf(grant.maxBytes()), String.valueOf(grant.expiresAt())));
+        DirectUploadForm form = storageService.directUploadForm(key, mime, maxBytes, expiresAt, token);
+        return new DirectUploadTicket(token, key, maxBytes, grant.expiresAt(), form);
+    }
+
+    /**
+     * 校验凭证的签名和有效期
+     *
+     * @param grace
+     *            过期后仍然接受的时间。上传开始时凭证有效就行，完成接口要给大文件留出上传时间
+     */
+    public Grant verify(String token, Duration grace) {
+        String payload = signer.verify(token);
+        Preconditions.checkArgument(payload != null, AppException.invalidParam("token"));
+        String[] parts = payload.split("\n");
+        Preconditions.checkArgument(parts.length == 4, AppException.invalidParam("token"));
+        Grant grant = new Grant(parts[0], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        Preconditions
+            .checkArgument(grant.expiresAt() + grace.toMillis() > System.currentTimeMillis(), AppException.invalidParam("token expired"));
+        return grant;
+    }
+}
@@ -0,0 +1,227 @@
+package com.memes.service;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.config.AppConfig;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.common.FileUploadResult;
+import com.memes.model.pojo.MediaContent;
+import com.memes.util.GsonUtil;
+import com.memes.util.ImageCodec;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 上传后异步生成固定宽度的缩略图，通过同一个 StorageService 存储，并记录到 metadata.variants。
+ * <p>
+ * 队列里只放 id 和原图的 key，轮到时再从存储读原图，排队的任务不占用原图大小的内存。写回时只改 variants 一个字段；
+ * 原图在此期间被替换（重新压缩、迁移）的不写，删掉刚生成的缩略图。
+ * <p>
+ * 缩放和编码是 CPU 密集的，使用固定大小的平台线程池和有界队列；队列满时直接放弃，图片只是没有缩略图，客户端回退到原图。 只用 JDK 自带的编解码器：不透明的图输出
+ * JPEG，带透明通道的输出 PNG。GIF 动图缩放后会丢失动画，不处理。
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    public static final String METADATA_KEY = "variants";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final StorageService storageService;
+    private final MediaMapper mediaMapper;
+    private final List<Integer> widths;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter rejectedCounter;
+    private final Counter failureCounter;
+    private final Timer timer;
+    private final DistributionSummary feedBytesSaved;
+
+    public ImageVariantService(StorageService storageService, MediaMapper mediaMapper,
+        @Value("${media.variants.widths:240,480,960}") List<Integer> widths, @Value("${media.variants.threads:2}") int threads,
+        @Value("${media.variants.queue:256}") int queueSize, MeterRegistry registry) {
+        this.storageService = storageService;
+        this.mediaMapper = mediaMapper;
+        this.widths = widths.stream().sorted().toList();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("image-variant-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.rejectedCounter = registry.counter("memes.media.variants.rejected");
+        this.failureCounter = registry.counter("memes.media.variants.failure");
+        this.timer = registry.timer("memes.media.variants.time");
+        this.feedBytesSaved = DistributionSummary
+            .builder("memes.feed.bytes.saved")
+            .description("Bytes a feed page saves when clients load variants instead of originals")
+            .baseUnit("bytes")
+            .register(registry);
+        registry.gauge("memes.media.variants.queue", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * 动态配置 media.variants.threads 大于 0 时覆盖配置文件中的线程数，修改后立即生效
+     */
+    @Autowired
+    void bindConfig(AppConfig appConfig) {
+        appConfig.addListener("media.variants.threads", (key, oldValue, newValue) -> resize(appConfig.snapshot().getVariantThreads()));
+        resize(appConfig.snapshot().getVariantThreads());
+    }
+
+    /**
+     * 调整线程数，不大于 0 时不变。扩大时先调大 max，缩小时先调小 core，避免 core 大于 max
+     */
+    public void resize(int threads) {
+        if (threads <= 0 || threads == executor.getCorePoolSize()) {
+            return;
+        }
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        log.info("Image variant threads resized to {}", threads);
+    }
+
+    public int threads() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * 提交生成任务，不阻塞上传
+     *
+     * @param key
+     *            原图在存储中的 key
+     */
+    public void submit(Long mediaId, String mime, String key) {
+        if (mediaId == null || key == null || mime == null || !mime.startsWith("image/") || mime.endsWith("gif")) {
+            return;
+        }
+        try {
+            executor.execute(() -> timer.record(() -> generate(mediaId, key)));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Image variant queue is full, skipping media {}", mediaId);
+        }
+    }
+
+    void generate(Long mediaId, String key) {
+        List<String> stored = new ArrayList<>();
+        try {
+            MediaContent current = mediaMapper.selectOne(new QueryWrapper<MediaContent>().select("id", "data_content").eq("id", mediaId));
+            if (current == null || !key.equals(storageService.keyOf(current.getDataContent()))) {
+                return;
+            }
+            byte[] bytes = storageService.read(key);
+            // 降采样到最大缩略图宽度的两倍以上再缩放，超大的原图不按原始分辨率解码
+            BufferedImage image = bytes == null ? null : ImageCodec.decode(bytes, widths.getLast() * 2, 1);
+            if (image == null) {
+                return;
+            }
+            boolean alpha = ImageCodec.hasAlpha(image);
+            String mime = alpha ? ImageCodec.PNG : ImageCodec.JPEG;
+            List<Map<String, Object>> variants = new ArrayList<>();
+            for (int width : widths) {
+                if (width >= image.getWidth()) {
+                    break;
+                }
+                BufferedImage resized = ImageCodec.resizeToWidth(image, width);
+                byte[] encoded = alpha ? ImageCodec.encodePng(resized) : ImageCodec.encodeJpeg(resized, JPEG_QUALITY);
+                if (encoded.length >= bytes.length) {
+                    // 比原图还大就没有意义了，更宽的也不会更小
+                    break;
+                }
+                // 缩略图和原图的对应关系记录在 metadata 中，存储时和普通上传一样由存储决定 key
+                FileUploadResult result = storageService.store(encoded, mime);
+                if (result == null) {
+                    failureCounter.increment();
+                    return;
+                }
+                stored.add(result.fileName());
+                Map<String, Object> variant = new LinkedHashMap<>();
+                variant.put("width", width);
+                variant.put("height", resized.getHeight());
+                variant.put("url", result.url());
+                variant.put("key", result.fileName());
+                variant.put("size", encoded.length);
+                variants.add(variant);
+            }
+            if (!variants.isEmpty() && mediaMapper.setVariants(mediaId, current.getDataContent(), GsonUtil.toJson(variants)) > 0) {
+                log.debug("Stored {} variants for media {}", variants.size(), mediaId);
+                stored.clear();
+            }
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to generate image variants for media {}", mediaId, e);
+        } finally {
+            discard(mediaId, stored);
+        }
+    }
+
+    /**
+     * 删除没有记录到 metadata 的缩略图，删除失败的留给孤儿对象清理
+     */
+    private void discard(Long mediaId, List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            storageService.delete(keys.toArray(String[]::new));
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete unused variants of media {}", mediaId, e);
+        }
+    }
+
+    /**
+     * 统计一页 feed 中客户端用 preferredWidth 宽的缩略图代替原图能省下的字节数
+     */
+    public void recordFeedPage(List<MediaContent> contents, int preferredWidth) {
+        long saved = 0;
+        for (MediaContent content : contents) {
+            if (content.getFileSize() == null || content.getMetadata() == null
+                || !(content.getMetadata().get(METADATA_KEY) instanceof List<?> variants)) {
+                continue;
+            }
+            // 取不超过 preferredWidth 的最宽缩略图
+            int bestWidth = 0;
+            long bestSize = content.getFileSize();
+            for (Object item : variants) {
+                if (item instanceof Map<?, ?> variant && variant.get("width") instanceof Number width && width.intValue() <= preferredWidth
+                    && width.intValue() > bestWidth && variant.get("size") instanceof Number size) {
+                    bestWidth = width.intValue();
+                    bestSize = size.longValue();
+                }
+            }
+            saved += Math.max(0, content.getFileSize() - bestSize);
+        }
+        feedBytesSaved.record(saved);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -4,6 +4,8 @@ import java.io.InputStream;
 import java.util.List;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.memes.model.common.BatchUploadItem;
+import com.memes.model.common.BatchUploadResult;
 import com.memes.model.pojo.MediaContent;
 
 public interface MediaContentService extends IService<MediaContent> {
@@ -21,4 +23,19 @@ public interface MediaContentService extends IService<MediaContent> {
     MediaContent storeTextFormatSubmission(String text, String mime);
 
     MediaContent storeStreamSubmission(InputStream inputStream, String mime);
+
+    /**
+     * 客户端按直传凭证上传完成后登记投稿，去重和审核流程与 {@link #storeStreamSubmission} 相同
+     */
+    MediaContent completeDirectUpload(String token);
+
+    /**
+     * 批量投稿：一次查询去重，并行上传，一条多行 insert 登记，每一项单独返回结果
+     */
+    List<BatchUploadResult> storeBatchSubmission(List<BatchUploadItem> items);
+
+    /**
+     * 离线导入：不限条数，checksum 按 CPU 核数并行计算，其余与 {@link #storeBatchSubmission} 相同
+     */
+    List<BatchUploadResult> importBatch(List<BatchUploadItem> items, String userId);
 }
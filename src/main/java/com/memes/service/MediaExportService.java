@@ -0,0 +1,214 @@
+package com.memes.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.gson.stream.JsonWriter;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.service.impl.LocalStorageServiceImpl;
+import com.memes.util.ArchiveWriter;
+import com.memes.util.GsonUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 把审核通过的投稿流式导出为 tar 或 zip：
+ * <ul>
+ * <li>记录按 id 翻页读取，每页一个短查询，不开事务，下载再慢也不占住数据库连接</li>
+ * <li>对象在虚拟线程上按顺序预取，最多 prefetch 个在途，归档按记录顺序写出；本地存储不预取，直接从文件拷贝（tar 写到文件时零拷贝）</li>
+ * <li>图片和视频写为 media/&lt;id&gt;.&lt;ext&gt;，文字投稿写为 text/&lt;id&gt;.md，最后写入 manifest.json，包含 LLM 描述和锐评</li>
+ * </ul>
+ * manifest 先写到临时文件，内存中只保留预取窗口里的对象。对象不存在或读取失败时跳过，在 manifest 中标记 missing。
+ */
+@Slf4j
+@Service
+public class MediaExportService {
+
+    public static final String MANIFEST = "manifest.json";
+    private static final int PAGE_SIZE = 500;
+
+    /**
+     * @param missing
+     *            对象不存在或读取失败、没有写进归档的记录数
+     * @param lastId
+     *            最后一条导出记录的 id，没有记录时为 afterId，可以作为下一次增量导出的 afterId
+     */
+    public record Report(long rows, long objects, long missing, long bytes, long lastId, Duration elapsed) {
+    }
+
+    /**
+     * manifest.json 中的一项
+     *
+     * @param file
+     *            归档中的文件名，missing 时为 null
+     */
+    record ManifestEntry(Long id, String file, String url, MediaContent.DataType dataType, String checksum, Long fileSize,
+        String llmDescription, String sharpReview, List<String> tags, Map<String, Object> metadata, LocalDateTime createdAt,
+        boolean missing) {
+    }
+
+    /**
+     * 预取窗口中的一条记录，file 和 content 至多一个非空，都为空表示对象缺失
+     */
+    private record Pending(MediaContent row, String name, Path file, CompletableFuture<byte[]> content) {
+    }
+
+    private final MediaMapper mediaMapper;
+    private final StorageService storageService;
+    private final ObjectProvider<LocalStorageServiceImpl> local;
+    private final int prefetch;
+
+    public MediaExportService(MediaMapper mediaMapper, StorageService storageService, ObjectProvider<LocalStorageServiceImpl> local,
+        @Value("${export.prefetch:8}") int prefetch) {
+        this.mediaMapper = mediaMapper;
+        this.storageService = storageService;
+        this.local = local;
+        this.prefetch = Math.max(1, prefetch);
+    }
+
+    /**
+     * 导出 afterId 之后审核通过的记录，结束时关闭 out
+     */
+    public Report export(ArchiveWriter.Format format, WritableByteChannel out, long afterId) throws IOException {
+        long start = System.nanoTime();
+        Path manifest = Files.createTempFile("memes-export-", ".json");
+        try (ArchiveWriter archive = ArchiveWriter.open(format, out)) {
+            Export export = new Export(archive, local.getIfAvailable(), afterId);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                JsonWriter json = new JsonWriter(Files.newBufferedWriter(manifest, StandardCharsets.UTF_8))) {
+                json.setIndent("  ");
+                json.beginArray();
+                Deque<Pending> window = new ArrayDeque<>(prefetch);
+                List<MediaContent> page;
+                long fetchedId = afterId;
+                do {
+                    page = mediaMapper.selectApproved(fetchedId, PAGE_SIZE);
+                    for (MediaContent row : page) {
+                        window.add(export.fetch(row, executor));
+                        if (window.size() >= prefetch) {
+                            export.write(window.poll(), json);
+                        }
+                    }
+                    if (!page.isEmpty()) {
+                        fetchedId = page.getLast().getId();
+                    }
+                } while (page.size() == PAGE_SIZE);
+                while (!window.isEmpty()) {
+                    export.write(window.poll(), json);
+                }
+                json.endArray();
+            }
+            archive.write(MANIFEST, manifest);
+            return new Report(export.rows, export.objects, export.missing, export.bytes, export.lastId,
+                Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            Files.deleteIfExists(manifest);
+        }
+    }
+
+    /**
+     * 对象 key 的扩展名，没有时为 bin
+     */
+    static String extensionOf(String key) {
+        String fileName = key.substring(key.lastIndexOf('/') + 1);
+        int dot = fileName.lastIndexOf('.');
+        return dot <= 0 || dot == fileName.length() - 1 ? "bin" : fileName.substring(dot + 1);
+    }
+
+    private final class Export {
+        private final ArchiveWriter archive;
+        private final LocalStorageServiceImpl localStorage;
+        private long rows;
+        private long objects;
+        private long missing;
+        private long bytes;
+        private long lastId;
+
+        private Export(ArchiveWriter archive, LocalStorageServiceImpl localStorage, long afterId) {
+            this.archive = archive;
+            this.localStorage = localStorage;
+            this.lastId = afterId;
+        }
+
+        private Pending fetch(MediaContent row, ExecutorService executor) {
+            if (row.getDataType() == MediaContent.DataType.MARKDOWN) {
+                byte[] text = row.getDataContent() == null ? new byte[0] : row.getDataContent().getBytes(StandardCharsets.UTF_8);
+                return new Pending(row, "text/%d.md".formatted(row.getId()), null, CompletableFuture.completedFuture(text));
+            }
+            String key = row.getDataContent() == null ? null : storageService.keyOf(row.getDataContent());
+            if (key == null) {
+                log.warn("Media {} is not stored by the current storage: {}", row.getId(), row.getDataContent());
+                return new Pending(row, null, null, null);
+            }
+            String name = "media/%d.%s".formatted(row.getId(), extensionOf(key));
+            if (localStorage != null) {
+                Path file = localStorage.resolve(key);
+                return new Pending(row, file == null ? null : name, file, null);
+            }
+            return new Pending(row, name, null, CompletableFuture.supplyAsync(() -> storageService.read(key), executor));
+        }
+
+        private void write(Pending pending, JsonWriter json) throws IOException {
+            MediaContent row = pending.row();
+            String file = null;
+            if (pending.file() != null) {
+                try {
+                    long size = Files.size(pending.file());
+                    archive.write(pending.name(), pending.file());
+                    file = pending.name();
+                    bytes += size;
+                } catch (NoSuchFileException e) {
+                    log.warn("Media {} is missing from local storage: {}", row.getId(), pending.file());
+                }
+            } else if (pending.content() != null) {
+                byte[] content = null;
+                try {
+                    content = pending.content().join();
+                } catch (Exception e) {
+                    log.warn("Failed to read media {} from storage", row.getId(), e);
+                }
+                if (content != null) {
+                    long modified = row.getCreatedAt() == null
+                        ? System.currentTimeMillis()
+                        : row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    archive.write(pending.name(), content, modified);
+                    file = pending.name();
+                    bytes += content.length;
+                }
+            }
+            rows++;
+            lastId = row.getId();
+            if (file == null) {
+                missing++;
+            } else {
+                objects++;
+            }
+            GsonUtil
+                .getGson()
+                .toJson(
+                    new ManifestEntry(row.getId(), file, row.getDataContent(), row.getDataType(), row.getChecksum(), row.getFileSize(),
+                        row.getLlmDescription(), row.getSharpReview(), row.getTags(), row.getMetadata(), row.getCreatedAt(), file == null),
+                    ManifestEntry.class,
+                    json);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.memes.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.model.pojo.MediaContent.AiModerationStatus;
+import com.memes.util.TimeUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 审核看板的内存统计。
+ * <p>
+ * 按投稿日期维护每种 AI 审核状态的计数，以及待人工审核（status = PENDING）的积压数量。 状态变化的地方在事务提交后增量更新，Statistics 定时任务再用数据库对账，
+ * 修正多实例或漏记带来的偏差。人工审核按实际从 PENDING 改走（或改回 PENDING）的行数更新积压。
+ * <p>
+ * 积压时长的分位数不在内存里维护，由 {@link #backlogAges()} 按需查询，每个分位只读一行。
+ */
+@Slf4j
+@Service
+public class ModerationStatistic {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final String TIME_COLUMN = "created_at";
+    private static final int STATUS_COUNT = AiModerationStatus.values().length;
+    private static final List<Map.Entry<String, Double>> QUANTILES = List
+        .of(Map.entry("PENDING_AGE_P50", 0.5), Map.entry("PENDING_AGE_P90", 0.9), Map.entry("PENDING_AGE_P99", 0.99),
+            Map.entry("PENDING_AGE_MAX", 1.0));
+
+    private final MediaMapper mediaMapper;
+
+    private final Map<LocalDate, AtomicLongArray> dailyCounters = new ConcurrentHashMap<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private volatile boolean reconciled = false;
+
+    public ModerationStatistic(MediaMapper mediaMapper) {
+        this.mediaMapper = mediaMapper;
+    }
+
+    /**
+     * 新投稿入库
+     */
+    public void onCreated(MediaContent mediaContent) {
+        LocalDateTime createdAt = mediaContent.getCreatedAt() != null ? mediaContent.getCreatedAt() : LocalDateTime.now(ZONE);
+        afterCommit(() -> {
+            countersOf(createdAt.toLocalDate()).incrementAndGet(AiModerationStatus.PENDING.ordinal());
+            pendingCount.incrementAndGet();
+        });
+    }
+
+    /**
+     * AI 审核结果写回
+     */
+    public void onLlmStatusChanged(MediaContent mediaContent, AiModerationStatus from, AiModerationStatus to) {
+        if (from == to || mediaContent.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate day = mediaContent.getCreatedAt().toLocalDate();
+        afterCommit(() -> {
+            AtomicLongArray counters = countersOf(day);
+            if (from != null) {
+                counters.decrementAndGet(from.ordinal());
+            }
+            if (to != null) {
+                counters.incrementAndGet(to.ordinal());
+            }
+        });
+    }
+
+    /**
+     * 人工或自动修改了投稿状态
+     *
+     * @param fromPending
+     *            修改前是 PENDING 的行数
+     * @param fromOthers
+     *            修改前是其他状态的行数
+     */
+    public void onStatusChanged(int fromPending, int fromOthers, MediaContent.ContentStatus status) {
+        long delta = status == MediaContent.ContentStatus.PENDING ? fromOthers : -fromPending;
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> pendingCount.addAndGet(delta));
+    }
+
+    /**
+     * 用数据库中的真实数据覆盖内存计数
+     */
+    public void reconcile() {
+        LocalDate today = LocalDate.now(ZONE);
+        LocalDateTime startTime = TimeUtil.convertYMDToLocalDateTime(today.toString());
+        List<Map<String, Object>> rows = mediaMapper
+            .selectMaps(
+                new QueryWrapper<MediaContent>()
+                    .select("llm_moderation_status", "count(*) as cnt")
+                    .ge(TIME_COLUMN, startTime)
+                    .lt(TIME_COLUMN, startTime.plusDays(1))
+                    .groupBy("llm_moderation_status"));
+        AtomicLongArray counters = new AtomicLongArray(STATUS_COUNT);
+        for (Map<String, Object> row : rows) {
+            Object status = valueOf(row, "llm_moderation_status");
+            Object count = valueOf(row, "cnt");
+            if (status != null && count != null) {
+                counters.set(AiModerationStatus.valueOf(status.toString()).ordinal(), ((Number) count).longValue());
+            }
+        }
+        dailyCounters.put(today, counters);
+        // 只保留今天和昨天，跨零点时昨天的计数还可能被审核结果更新
+        dailyCounters.keySet().removeIf(day -> day.isBefore(today.minusDays(1)));
+
+        long pending = mediaMapper.selectCount(pendingQuery());
+        pendingCount.set(pending);
+        reconciled = true;
+        log.debug("Moderation statistic reconciled, today: {}, pending backlog: {}", counters, pending);
+    }
+
+    /**
+     * 今天各审核状态的数量，PENDING 取积压总量
+     */
+    public Map<String, Long> snapshot() {
+        if (!reconciled) {
+            reconcile();
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        AtomicLongArray counters = countersOf(LocalDate.now(ZONE));
+        for (AiModerationStatus status : AiModerationStatus.values()) {
+            long count = counters.get(status.ordinal());
+            if (count > 0) {
+                result.put(status.name(), count);
+            }
+        }
+        result.put("PENDING", Math.max(pendingCount.get(), result.getOrDefault("PENDING", 0L)));
+        return result;
+    }
+
+    /**
+     * 待审核积压的数量和积压时长（按创建时间，秒）的 p50 / p90 / p99 / max。每个分位按 created_at 排序后取一行，不把积压读进内存
+     */
+    public Map<String, Long> backlogAges() {
+        long total = mediaMapper.selectCount(pendingQuery());
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("PENDING", total);
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Double> quantile : QUANTILES) {
+            long age = 0;
+            if (total > 0) {
+                // 积压时长从小到大的第 k 个就是创建时间从新到旧的第 k 个
+                long offset = Math.min(total - 1, Math.max(0, (long) Math.ceil(quantile.getValue() * total) - 1));
+                MediaContent row = mediaMapper
+                    .selectOne(pendingQuery().select(TIME_COLUMN).orderByDesc(TIME_COLUMN).last("limit 1 offset %d".formatted(offset)));
+                age = row == null ? 0 : Math.max(0, now - toEpochMilli(row.getCreatedAt())) / 1000;
+            }
+            result.put(quantile.getKey(), age);
+        }
+        return result;
+    }
+
+    private static QueryWrapper<MediaContent> pendingQuery() {
+        return new QueryWrapper<MediaContent>().eq("status", MediaContent.ContentStatus.PENDING);
+    }
+
+    /**
+     * 在事务中调用时等提交之后再更新计数，回滚时计数不变
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private AtomicLongArray countersOf(LocalDate day) {
+        return dailyCounters.computeIfAbsent(day, key -> new AtomicLongArray(STATUS_COUNT));
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis() : time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static Object valueOf(Map<String, Object> row, String column) {
+        // 不同数据库返回的列名大小写不一致
+        Object value = row.get(column);
+        return value != null ? value : row.get(column.toUpperCase());
+    }
+}
@@ -0,0 +1,81 @@
+package com.memes.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.util.HammingIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 上传图片的近似重复索引。
+ * <p>
+ * 启动时在后台从 media_content.phash 重建 {@link HammingIndex}，之后每次上传增量加入。重建完成前查询返回 null，不阻塞上传。
+ */
+@Slf4j
+@Service
+public class NearDuplicateIndex {
+
+    private final MediaMapper mediaMapper;
+    private final HammingIndex index = new HammingIndex();
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+    private final Counter nearDuplicateCounter;
+
+    @Value("${media.near-duplicate.max-distance:6}")
+    private int maxDistance = 6;
+
+    public NearDuplicateIndex(MediaMapper mediaMapper, MeterRegistry registry) {
+        this.mediaMapper = mediaMapper;
+        this.nearDuplicateCounter = registry.counter("memes.media.near.duplicate");
+        registry.gauge("memes.media.phash.indexed", index, HammingIndex::size);
+    }
+
+    @PostConstruct
+    public void init() {
+        Thread.ofVirtual().name("near-duplicate-index-rebuild").start(this::rebuild);
+    }
+
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            mediaMapper.selectList(new QueryWrapper<MediaContent>().select("id", "phash").isNotNull("phash"), context -> {
+                MediaContent content = context.getResultObject();
+                index.add(content.getId(), content.getPhash());
+            });
+            ready.set(true);
+            log.info("Near duplicate index rebuilt with {} images in {}ms", index.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild near duplicate index, near duplicate detection is disabled", e);
+        }
+    }
+
+    /**
+     * 查找最相似的已有图片
+     *
+     * @return 距离在阈值内的最近图片，索引未就绪或没有找到时返回 null
+     */
+    public HammingIndex.Match findNearest(long phash) {
+        if (!ready.get()) {
+            return null;
+        }
+        HammingIndex.Match match = index.nearest(phash, Math.min(maxDistance, HammingIndex.MAX_DISTANCE));
+        if (match != null) {
+            nearDuplicateCounter.increment();
+        }
+        return match;
+    }
+
+    public void add(Long id, Long phash) {
+        if (id != null && phash != null) {
+            index.add(id, phash);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.memes.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.memes.exception.AppException;
+import com.memes.mapper.RequestLogMapper;
+import com.memes.model.pojo.RequestLog;
+import com.memes.model.response.TrafficAnalytics;
+import com.memes.util.ColumnarLogFile;
+import com.memes.util.Preconditions;
+import com.memes.util.TimeUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 请求日志的本地列式归档与分析。
+ * <p>
+ * 超过 analytics.archive-after-days 天的 request_log 按天压缩成 {@link ColumnarLogFile}，管理端的长周期流量查询只扫描这些本地文件， 不再对 MySQL 做全表扫描。多天之间、单天内按行分块都并行扫描，使用公共
+ * ForkJoin 池占满所有核。
+ */
+@Slf4j
+@Service
+public class RequestLogAnalyticsService {
+
+    private static final String SUFFIX = ".rlc";
+    private static final String TIME_COLUMN = "created_at";
+    private static final int CHUNK_ROWS = 1 << 16;
+    private static final int METHOD_COUNT = RequestLog.HttpMethod.values().length;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final RequestLogMapper requestLogMapper;
+    private final Path archiveDir;
+
+    @Value("${analytics.archive-after-days:7}")
+    private int archiveAfterDays = 7;
+
+    @Value("${analytics.max-days-per-run:31}")
+    private int maxDaysPerRun = 31;
+
+    // 归档完成后是否从 MySQL 删除对应的行
+    @Value("${analytics.purge:false}")
+    private boolean purge;
+
+    private final Cache<LocalDate, ColumnarLogFile> cache = CacheBuilder.newBuilder().softValues().maximumSize(MAX_RANGE_DAYS).build();
+
+    public RequestLogAnalyticsService(RequestLogMapper requestLogMapper, @Value("${analytics.dir:analytics}") String archiveDir)
+        throws IOException {
+        this.requestLogMapper = requestLogMapper;
+        this.archiveDir = Path.of(archiveDir);
+        Files.createDirectories(this.archiveDir);
+    }
+
+    /**
+     * 把尚未归档的历史日志按天写成列式文件
+     *
+     * @return 本次归档的天数
+     */
+    public int archive() throws IOException {
+        LocalDate earliest = earliestLogDate();
+        if (earliest == null) {
+            return 0;
+        }
+        LocalDate cutoff = LocalDate.parse(TimeUtil.getYMD()).minusDays(archiveAfterDays);
+        int archived = 0;
+        for (LocalDate day = earliest; day.isBefore(cutoff) && archived < maxDaysPerRun; day = day.plusDays(1)) {
+            if (Files.exists(pathOf(day))) {
+                continue;
+            }
+            archiveDay(day);
+            archived++;
+        }
+        return archived;
+    }
+
+    private void archiveDay(LocalDate day) throws IOException {
+        LocalDateTime start = TimeUtil.convertYMDToLocalDateTime(day.toString());
+        QueryWrapper<RequestLog> wrapper = new QueryWrapper<RequestLog>().ge(TIME_COLUMN, start).lt(TIME_COLUMN, start.plusDays(1));
+        ColumnarLogFile.Builder builder = ColumnarLogFile.builder();
+        // 驱动逐行返回，每行直接编码进列数组，内存中只有当天的列数组和字典
+        requestLogMapper.streamRange(start, start.plusDays(1), context -> builder.add(context.getResultObject()));
+        builder.build().write(pathOf(day));
+        log.info("Archived {} request logs of {}", builder.size(), day);
+        if (purge && builder.size() > 0) {
+            int deleted = requestLogMapper.delete(wrapper);
+            log.info("Purged {} archived request logs of {} from database", deleted, day);
+        }
+    }
+
+    private LocalDate earliestLogDate() {
+        List<Object> result = requestLogMapper.selectObjs(new QueryWrapper<RequestLog>().select("min(%s)".formatted(TIME_COLUMN)));
+        Object earliest = result.isEmpty() ? null : result.getFirst();
+        return switch (earliest) {
+            case null -> null;
+            case LocalDateTime time -> time.toLocalDate();
+            case Timestamp timestamp -> timestamp.toLocalDateTime().toLocalDate();
+            default -> LocalDate.parse(earliest.toString().substring(0, 10));
+        };
+    }
+
+    /**
+     * 每天每个接口的请求数、平均和最大耗时，接口由 {@link #routeOf} 从 url 归并
+     */
+    public List<TrafficAnalytics.RouteLatency> routeLatency(String from, String to) {
+        return loadRange(from, to).parallelStream().flatMap(day -> {
+            ColumnarLogFile file = day.file();
+            int[] urlIds = file.getUrlIds();
+            byte[] methods = file.getMethods();
+            // 字典里的 url 先归并成接口，再按接口分组
+            Map<String, Integer> routeIds = new HashMap<>();
+            List<String> routes = new ArrayList<>();
+            int[] routeOfUrl = new int[file.getUrlDict().length];
+            for (int id = 0; id < routeOfUrl.length; id++) {
+                routeOfUrl[id] = routeIds.computeIfAbsent(routeOf(file.getUrlDict()[id]), route -> {
+                    routes.add(route);
+                    return routes.size() - 1;
+                });
+            }
+            GroupAggregate aggregate = aggregate(file, routes.size() * METHOD_COUNT,
+                row -> urlIds[row] < 0 || methods[row] < 0 ? -1 : routeOfUrl[urlIds[row]] * METHOD_COUNT + methods[row]);
+            List<TrafficAnalytics.RouteLatency> stats = new ArrayList<>();
+            for (int group = 0; group < aggregate.count.length; group++) {
+                if (aggregate.count[group] == 0) {
+                    continue;
+                }
+                TrafficAnalytics.RouteLatency stat = new TrafficAnalytics.RouteLatency();
+                stat.setDate(day.date().toString());
+                stat.setUrl(routes.get(group / METHOD_COUNT));
+                stat.setMethod(RequestLog.HttpMethod.values()[group % METHOD_COUNT].name());
+                stat.setCount(aggregate.count[group]);
+                stat.setAvg((double) aggregate.sum[group] / aggregate.count[group]);
+                stat.setMax(aggregate.max[group]);
+                stats.add(stat);
+            }
+            return stats.stream();
+        })
+            .sorted(Comparator.comparing(TrafficAnalytics.RouteLatency::getDate).thenComparing(TrafficAnalytics.RouteLatency::getUrl))
+            .toList();
+    }
+
+    /**
+     * 归档中的 url 是带主机名的完整地址，路径里还有投稿 id 等参数。去掉协议、主机和查询串，纯数字的路径段换成 {id}，true / false 换成 {flag}，
+     * 例如 http://host/api/submission/123/feedback/true 归并为 /api/submission/{id}/feedback/{flag}
+     */
+    static String routeOf(String url) {
+        String path = url;
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int slash = path.indexOf('/', scheme + 3);
+            path = slash < 0 ? "/" : path.substring(slash);
+        }
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        String[] segments = path.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                segments[i] = "{id}";
+            } else if (segment.equals("true") || segment.equals("false")) {
+                segments[i] = "{flag}";
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    /**
+     * 来源页面的请求数排行
+     */
+    public List<TrafficAnalytics.RefererStat> refererBreakdown(String from, String to, int limit) {
+        Map<String, Long> counts = loadRange(from, to).parallelStream().map(day -> {
+            ColumnarLogFile file = day.file();
+            int[] referIds = file.getReferIds();
+            GroupAggregate aggregate = aggregate(file, file.getReferDict().length, row -> referIds[row]);
+            Map<String, Long> dayCounts = new HashMap<>();
+            for (int id = 0; id < aggregate.count.length; id++) {
+                if (aggregate.count[id] > 0) {
+                    dayCounts.put(file.getReferDict()[id], aggregate.count[id]);
+                }
+            }
+            return dayCounts;
+        }).reduce(new HashMap<>(), (left, right) -> {
+            Map<String, Long> merged = new HashMap<>(left);
+            right.forEach((referer, count) -> merged.merge(referer, count, Long::sum));
+            return merged;
+        });
+        long top = Math.max(0, limit);
+        return counts.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed()).limit(top).map(entry -> {
+            TrafficAnalytics.RefererStat stat = new TrafficAnalytics.RefererStat();
+            stat.setReferer(entry.getKey());
+            stat.setCount(entry.getValue());
+            return stat;
+        }).toList();
+    }
+
+    /**
+     * 每天的活跃、新增 uuid 以及相对区间第一天的留存。每个归档文件的 uuid 字典就是当天去重后的 uuid 集合，不需要扫描行。
+     */
+    public List<TrafficAnalytics.Retention> uuidRetention(String from, String to) {
+        List<DayFile> days = loadRange(from, to);
+        List<TrafficAnalytics.Retention> result = new ArrayList<>(days.size());
+        Set<String> seen = new HashSet<>();
+        Set<String> cohort = null;
+        for (DayFile day : days) {
+            Set<String> active = Set.of(day.file().getUuidDict());
+            if (cohort == null) {
+                cohort = active;
+            }
+            int newUsers = 0;
+            for (String uuid : active) {
+                if (seen.add(uuid)) {
+                    newUsers++;
+                }
+            }
+            Set<String> firstDay = cohort;
+            TrafficAnalytics.Retention retention = new TrafficAnalytics.Retention();
+            retention.setDate(day.date().toString());
+            retention.setActive(active.size());
+            retention.setNewUsers(newUsers);
+            retention.setRetainedFromFirstDay((int) active.stream().filter(firstDay::contains).count());
+            result.add(retention);
+        }
+        return result;
+    }
+
+    /**
+     * 按行分块并行做分组聚合，每个分块用本地数组累加后再合并
+     */
+    private static GroupAggregate aggregate(ColumnarLogFile file, int groups, IntUnaryOperator groupOf) {
+        int rows = file.getRows();
+        int[] timecosts = file.getTimecosts();
+        int chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        return IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            GroupAggregate partial = new GroupAggregate(groups);
+            int end = Math.min(rows, (chunk + 1) * CHUNK_ROWS);
+            for (int row = chunk * CHUNK_ROWS; row < end; row++) {
+                int group = groupOf.applyAsInt(row);
+                if (group < 0) {
+                    continue;
+                }
+                int timecost = timecosts[row];
+                partial.count[group]++;
+                partial.sum[group] += timecost;
+                if (timecost > partial.max[group]) {
+                    partial.max[group] = timecost;
+                }
+            }
+            return partial;
+        }).reduce(GroupAggregate::merge).orElseGet(() -> new GroupAggregate(groups));
+    }
+
+    private List<DayFile> loadRange(String from, String to) {
+        LocalDate end = to == null ? LocalDate.parse(TimeUtil.getYMD()) : LocalDate.parse(to);
+        LocalDate start = from == null ? end.minusDays(89) : LocalDate.parse(from);
+        long days = ChronoUnit.DAYS.between(start, end) + 1;
+        Preconditions.checkArgument(days > 0 && days <= MAX_RANGE_DAYS, AppException.invalidParam("from/to"));
+        return IntStream
+            .range(0, (int) days)
+            .parallel()
+            .mapToObj(offset -> start.plusDays(offset))
+            .map(this::load)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(DayFile::date))
+            .toList();
+    }
+
+    private DayFile load(LocalDate day) {
+        Path path = pathOf(day);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return new DayFile(day, cache.get(day, () -> ColumnarLogFile.read(path)));
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("Failed to load archive %s".formatted(path), new IOException(e.getCause()));
+        }
+    }
+
+    private Path pathOf(LocalDate day) {
+        return archiveDir.resolve(day + SUFFIX);
+    }
+
+    private record DayFile(LocalDate date, ColumnarLogFile file) {
+    }
+
+    private static final class GroupAggregate {
+        final long[] count;
+        final long[] sum;
+        final int[] max;
+
+        GroupAggregate(int groups) {
+            count = new long[groups];
+            sum = new long[groups];
+            max = new int[groups];
+        }
+
+        GroupAggregate merge(GroupAggregate other) {
+            for (int i = 0; i < count.length; i++) {
+                count[i] += other.count[i];
+                sum[i] += other.sum[i];
+                max[i] = Math.max(max[i], other.max[i]);
+            }
+            return this;
+        }
+    }
+}
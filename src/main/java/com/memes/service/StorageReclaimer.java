@@ -0,0 +1,466 @@
+package com.memes.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.google.common.collect.Lists;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.util.concurrent.RateLimiter;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.StoredObject;
+import com.memes.model.pojo.MediaContent;
+import com.memes.util.FileCheckpoint;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 回收不再需要的存储对象：
+ * <ul>
+ * <li>状态为 REJECTED / DELETED 且超过 grace 没有变化的图片、视频记录：删除原图和缩略图，在 metadata 中记下回收信息并清空 checksum，之后再上传相同内容会重新存储</li>
+ * <li>orphans：没有任何记录引用且超过 orphan-grace 的对象，包括没有完成的直传暂存文件</li>
+ * </ul>
+ * 两部分都按游标分批进行，游标保存在本地文件中，重启后继续，扫到末尾后下一次从头开始。删除按存储的单次上限分批，速度受 max-deletes-per-second 限制，
+ * 删掉的每个对象追加到 dir/reclaimed.log。dry run 从头扫描，只统计不删除，也不移动游标。
+ * <p>
+ * orphans 按存储中的全部对象判断（七牛为 dirName 目录），只能在存储只给本应用使用时打开。引用集合是所有未回收记录的 key 组成的 Bloom 过滤器，误判只会少删；
+ * 有记录的 url 不是当前存储生成的（比如换过域名）时无法判断引用关系，跳过 orphans。
+ * <p>
+ * 记录的 url 和缩略图会在插入之后改变（分片迁移、重新压缩、异步生成缩略图），引用集合按 updated_at 补齐：每列出一页对象，先把上次补齐之后更新过的记录加进来再判断，
+ * 水位线往前多读一段，覆盖 updated_at 靠前但提交较晚的更新。还没有提交到记录的新对象由 orphan-grace 保护。
+ */
+@Slf4j
+@Service
+public class StorageReclaimer {
+
+    public static final String METADATA_KEY = "reclaimed";
+
+    private static final double REFERENCE_FPP = 0.001;
+    private static final int REFERENCE_BATCH = 1000;
+    private static final int SAMPLE_SIZE = 100;
+    private static final Duration REFERENCE_OVERLAP = Duration.ofMinutes(5);
+
+    /**
+     * @param rows
+     *            回收的记录数
+     * @param objects
+     *            删除的对象数（dry run 时为将要删除的），包括 orphans
+     * @param failed
+     *            删除失败或者已经不存在的对象数
+     * @param sample
+     *            前 100 个删除的 key
+     */
+    public record Report(boolean dryRun, int rowsScanned, int rows, int objectsScanned, int objects, int orphans, long bytes, int failed,
+        List<String> sample, List<String> warnings) {
+    }
+
+    private final MediaMapper mediaMapper;
+    private final StorageService storageService;
+    private final MeterRegistry registry;
+    private final Duration grace;
+    private final boolean orphansEnabled;
+    private final Duration orphanGrace;
+    private final int batchSize;
+    private final RateLimiter deleteRate;
+    private final FileCheckpoint rowCheckpoint;
+    private final FileCheckpoint orphanCheckpoint;
+    private final Path journal;
+
+    // 只有一个非 dry run 的回收在进行，游标和引用集合由 lock 保护
+    private final ReentrantLock lock = new ReentrantLock();
+    private long rowCursor;
+    private String orphanCursor;
+    private References references;
+
+    public StorageReclaimer(MediaMapper mediaMapper, StorageService storageService, MeterRegistry registry,
+        @Value("${storage.gc.dir:storage-gc}") String dir, @Value("${storage.gc.grace:7d}") Duration grace,
+        @Value("${storage.gc.batch-size:200}") int batchSize, @Value("${storage.gc.max-deletes-per-second:100}") double maxDeletesPerSecond,
+        @Value("${storage.gc.orphans.enabled:false}") boolean orphansEnabled, @Value("${storage.gc.orphans.grace:1d}") Duration orphanGrace)
+        throws IOException {
+        this.mediaMapper = mediaMapper;
+        this.storageService = storageService;
+        this.registry = registry;
+        this.grace = grace;
+        this.batchSize = batchSize;
+        this.deleteRate = RateLimiter.create(maxDeletesPerSecond);
+        this.orphansEnabled = orphansEnabled;
+        this.orphanGrace = orphanGrace;
+        this.rowCheckpoint = new FileCheckpoint(Path.of(dir).resolve("rows"));
+        this.orphanCheckpoint = new FileCheckpoint(Path.of(dir).resolve("orphans"));
+        this.journal = Path.of(dir).resolve("reclaimed.log");
+        this.rowCursor = rowCheckpoint.load();
+        this.orphanCursor = orphanCheckpoint.loadString();
+    }
+
+    /**
+     * 回收最多 maxRows 条记录，再检查最多 maxObjects 个对象是否为 orphan
+     *
+     * @param dryRun
+     *            只统计不删除；dry run 总是检查 orphans，方便打开之前先看结果
+     */
+    public Report run(boolean dryRun, int maxRows, int maxObjects) {
+        Tally tally = new Tally(dryRun);
+        if (dryRun) {
+            sweepRows(tally, 0, maxRows);
+            sweepOrphans(tally, null, null, maxObjects);
+            return tally.report();
+        }
+        lock.lock();
+        try {
+            rowCursor = sweepRows(tally, rowCursor, maxRows);
+            saveCheckpoint(rowCheckpoint, Long.toString(rowCursor));
+            if (orphansEnabled) {
+                sweepOrphans(tally, orphanCursor, references, maxObjects);
+            }
+            return tally.report();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 新的游标，扫描到末尾时为 0
+     */
+    private long sweepRows(Tally tally, long cursor, int maxRows) {
+        LocalDateTime before = LocalDateTime.now().minus(grace);
+        while (tally.rowsScanned < maxRows) {
+            List<MediaContent> batch = mediaMapper
+                .selectList(
+                    new QueryWrapper<MediaContent>()
+                        .select("id", "data_content", "file_size", "metadata")
+                        .in("data_type", MediaContent.DataType.IMAGE, MediaContent.DataType.VIDEO)
+                        .in("status", MediaContent.ContentStatus.REJECTED, MediaContent.ContentStatus.DELETED)
+                        .gt("id", cursor)
+                        .lt("updated_at", before)
+                        .orderByAsc("id")
+                        .last("limit " + Math.min(batchSize, maxRows - tally.rowsScanned)));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            tally.rowsScanned += batch.size();
+            reclaimRows(tally, batch);
+            cursor = batch.getLast().getId();
+        }
+        return cursor;
+    }
+
+    private void reclaimRows(Tally tally, List<MediaContent> batch) {
+        List<MediaContent> candidates = batch.stream().filter(content -> !isReclaimed(content)).toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        // 本地存储按内容寻址，同一个对象可能还被正常的记录引用
+        Set<String> urls = candidates.stream().map(MediaContent::getDataContent).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> shared = urls.isEmpty()
+            ? Set.of()
+            : mediaMapper
+                .selectList(
+                    new QueryWrapper<MediaContent>()
+                        .select("data_content")
+                        .in("data_content", urls)
+                        .in("status", MediaContent.ContentStatus.PENDING, MediaContent.ContentStatus.APPROVED))
+                .stream()
+                .map(MediaContent::getDataContent)
+                .collect(Collectors.toSet());
+
+        Map<String, Long> objects = new LinkedHashMap<>();
+        for (MediaContent content : candidates) {
+            String key = storageService.keyOf(content.getDataContent());
+            if (key == null) {
+                tally.warn("media %d: url is not from the current storage, skipped".formatted(content.getId()));
+                continue;
+            }
+            Map<String, Long> owned = new LinkedHashMap<>();
+            if (!shared.contains(content.getDataContent())) {
+                owned.put(key, content.getFileSize() == null ? 0 : content.getFileSize());
+            }
+            owned.putAll(variantsOf(content));
+            if (!tally.dryRun && !markReclaimed(content, owned)) {
+                // 这期间状态或 url 被改了
+                continue;
+            }
+            tally.rows++;
+            objects.putAll(owned);
+        }
+        delete(tally, objects, "row");
+    }
+
+    private boolean markReclaimed(MediaContent content, Map<String, Long> objects) {
+        Map<String, Object> metadata = content.getMetadata() == null ? new HashMap<>() : new HashMap<>(content.getMetadata());
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("at", Instant.now().toString());
+        info.put("objects", objects.size());
+        info.put("bytes", objects.values().stream().mapToLong(Long::longValue).sum());
+        metadata.put(METADATA_KEY, info);
+        int updated = mediaMapper
+            .update(
+                MediaContent.builder().metadata(metadata).build(),
+                new UpdateWrapper<MediaContent>()
+                    .set("checksum", null)
+                    .eq("id", content.getId())
+                    .eq("data_content", content.getDataContent())
+                    .in("status", MediaContent.ContentStatus.REJECTED, MediaContent.ContentStatus.DELETED));
+        return updated > 0;
+    }
+
+    private void sweepOrphans(Tally tally, String cursor, References refs, int maxObjects) {
+        if (maxObjects <= 0) {
+            return;
+        }
+        if (refs == null) {
+            refs = References.build(mediaMapper, storageService, tally);
+            if (refs == null) {
+                return;
+            }
+        }
+        Instant before = Instant.now().minus(orphanGrace);
+        try {
+            do {
+                ObjectPage page = storageService.list(cursor, Math.min(1000, maxObjects - tally.objectsScanned));
+                // 列出之后再补齐这期间插入和更新的记录，列出的对象如果已经被引用，引用一定能读到
+                refs.catchUp(mediaMapper, storageService);
+                Map<String, Long> orphans = new LinkedHashMap<>();
+                for (StoredObject object : page.objects()) {
+                    if (object.lastModified().isBefore(before) && !refs.mightContain(object.key())) {
+                        orphans.put(object.key(), object.size());
+                    }
+                }
+                tally.objectsScanned += page.objects().size();
+                // 过滤器只增不减，漏掉的只可能是水位线之前提交的更新，删除前再按 key 查一次记录
+                referenced(orphans.keySet()).forEach(orphans::remove);
+                tally.orphans += orphans.size();
+                delete(tally, orphans, "orphan");
+                cursor = page.next();
+                if (!tally.dryRun) {
+                    orphanCursor = cursor;
+                    // 一轮结束后丢掉引用集合，下一轮重新建立
+                    references = cursor == null ? null : refs;
+                    saveCheckpoint(orphanCheckpoint, cursor);
+                }
+            } while (cursor != null && tally.objectsScanned < maxObjects);
+        } catch (UnsupportedOperationException e) {
+            tally.warn(e.getMessage());
+        }
+    }
+
+    /**
+     * 按 url 和缩略图在记录中查找，返回仍被未回收记录引用的 key。没有索引可用，孤儿通常很少，按批查询
+     */
+    private Set<String> referenced(Set<String> keys) {
+        Set<String> referenced = new HashSet<>();
+        for (List<String> chunk : Lists.partition(List.copyOf(keys), SAMPLE_SIZE)) {
+            QueryWrapper<MediaContent> query = new QueryWrapper<MediaContent>()
+                .select("id", "data_content", "metadata")
+                .in("data_type", MediaContent.DataType.IMAGE, MediaContent.DataType.VIDEO);
+            query.and(w -> {
+                for (String key : chunk) {
+                    w.or(o -> o.likeLeft("data_content", key).or().like("metadata", key));
+                }
+            });
+            for (MediaContent content : mediaMapper.selectList(query)) {
+                if (isReclaimed(content)) {
+                    continue;
+                }
+                referenced.add(storageService.keyOf(content.getDataContent()));
+                referenced.addAll(variantsOf(content).keySet());
+            }
+        }
+        referenced.retainAll(keys);
+        return referenced;
+    }
+
+    private void delete(Tally tally, Map<String, Long> objects, String kind) {
+        if (objects.isEmpty()) {
+            return;
+        }
+        if (tally.dryRun) {
+            objects.forEach((key, size) -> tally.deleted(key, size));
+            return;
+        }
+        deleteRate.acquire(objects.size());
+        Map<String, Boolean> result = storageService.deleteAll(objects.keySet(), BulkProgress.NONE);
+        StringBuilder lines = new StringBuilder();
+        String now = Instant.now().toString();
+        long bytes = 0;
+        int deleted = 0;
+        for (Map.Entry<String, Long> object : objects.entrySet()) {
+            if (Boolean.TRUE.equals(result.get(object.getKey()))) {
+                tally.deleted(object.getKey(), object.getValue());
+                lines.append(now).append('\t').append(kind).append('\t').append(object.getKey()).append('\t').append(object.getValue()).append('\n');
+                bytes += object.getValue();
+                deleted++;
+            } else {
+                tally.failed++;
+            }
+        }
+        registry.counter("memes.storage.gc.objects", "kind", kind).increment(deleted);
+        registry.counter("memes.storage.gc.bytes", "kind", kind).increment(bytes);
+        registry.counter("memes.storage.gc.failed", "kind", kind).increment(objects.size() - deleted);
+        try {
+            Files.writeString(journal, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Failed to append to {}: {}", journal, e.getMessage());
+        }
+    }
+
+    private static boolean isReclaimed(MediaContent content) {
+        return content.getMetadata() != null && content.getMetadata().containsKey(METADATA_KEY);
+    }
+
+    /**
+     * 缩略图的 key 和大小
+     */
+    private static Map<String, Long> variantsOf(MediaContent content) {
+        Map<String, Long> variants = new LinkedHashMap<>();
+        if (content.getMetadata() != null && content.getMetadata().get(ImageVariantService.METADATA_KEY) instanceof List<?> list) {
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> variant && variant.get("key") instanceof String key) {
+                    variants.put(key, variant.get("size") instanceof Number size ? size.longValue() : 0L);
+                }
+            }
+        }
+        return variants;
+    }
+
+    private static void saveCheckpoint(FileCheckpoint checkpoint, String value) {
+        try {
+            checkpoint.saveString(value);
+        } catch (IOException e) {
+            log.error("Failed to save storage gc checkpoint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 未回收记录引用的全部 key。建立之后按 updated_at 水位线补上新插入和更新过的记录，只增不减，多出来的 key 只会少删
+     */
+    private static class References {
+        private final BloomFilter<CharSequence> filter;
+        // 已经读到的最大 updated_at，取数据库的时钟
+        private LocalDateTime watermark;
+
+        private References(long expected) {
+            this.filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(expected, 1000), REFERENCE_FPP);
+        }
+
+        /**
+         * @return 有记录的 url 无法识别时返回 null
+         */
+        static References build(MediaMapper mediaMapper, StorageService storageService, Tally tally) {
+            long rows = mediaMapper.selectCount(new QueryWrapper<MediaContent>());
+            // 原图加上三种宽度的缩略图，留出增长的余量
+            References refs = new References(rows * 8);
+            int unrecognized = refs.catchUp(mediaMapper, storageService);
+            if (unrecognized > 0) {
+                tally.warn("%d media urls are not from the current storage, orphan sweep skipped".formatted(unrecognized));
+                return null;
+            }
+            return refs;
+        }
+
+        /**
+         * 按 (updated_at, id) 顺序读取水位线之后更新过的记录，第一次读取全部
+         *
+         * @return url 无法识别的记录数
+         */
+        int catchUp(MediaMapper mediaMapper, StorageService storageService) {
+            int unrecognized = 0;
+            LocalDateTime lastUpdated = watermark == null ? null : watermark.minus(REFERENCE_OVERLAP);
+            long lastId = 0;
+            while (true) {
+                QueryWrapper<MediaContent> query = new QueryWrapper<MediaContent>()
+                    .select("id", "data_content", "metadata", "updated_at")
+                    .in("data_type", MediaContent.DataType.IMAGE, MediaContent.DataType.VIDEO);
+                if (lastUpdated != null) {
+                    LocalDateTime updated = lastUpdated;
+                    long id = lastId;
+                    query.and(w -> w.gt("updated_at", updated).or(o -> o.eq("updated_at", updated).gt("id", id)));
+                }
+                List<MediaContent> batch = mediaMapper.selectList(query.orderByAsc("updated_at", "id").last("limit " + REFERENCE_BATCH));
+                if (batch.isEmpty()) {
+                    return unrecognized;
+                }
+                for (MediaContent content : batch) {
+                    if (isReclaimed(content)) {
+                        continue;
+                    }
+                    String key = storageService.keyOf(content.getDataContent());
+                    if (key == null) {
+                        unrecognized++;
+                    } else {
+                        filter.put(key);
+                    }
+                    variantsOf(content).keySet().forEach(filter::put);
+                }
+                MediaContent last = batch.getLast();
+                lastUpdated = last.getUpdatedAt();
+                lastId = last.getId();
+                if (watermark == null || lastUpdated.isAfter(watermark)) {
+                    watermark = lastUpdated;
+                }
+            }
+        }
+
+        boolean mightContain(String key) {
+            return filter.mightContain(key);
+        }
+    }
+
+    private static class Tally {
+        final boolean dryRun;
+        int rowsScanned;
+        int rows;
+        int objectsScanned;
+        int objects;
+        int orphans;
+        long bytes;
+        int failed;
+        final List<String> sample = new ArrayList<>();
+        final List<String> warnings = new ArrayList<>();
+
+        Tally(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        void deleted(String key, long size) {
+            objects++;
+            bytes += size;
+            if (sample.size() < SAMPLE_SIZE) {
+                sample.add(key);
+            }
+        }
+
+        void warn(String warning) {
+            if (warnings.size() < SAMPLE_SIZE) {
+                warnings.add(warning);
+            }
+            log.warn("Storage gc: {}", warning);
+        }
+
+        Report report() {
+            return new Report(dryRun, rowsScanned, rows, objectsScanned, objects, orphans, bytes, failed, sample, warnings);
+        }
+    }
+}
@@ -1,9 +1,27 @@
 package com.memes.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
 import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
 import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.model.common.StoreRequest;
+import com.memes.model.common.StoreResult;
+import com.memes.util.BoundedParallel;
+import com.memes.util.HashUtil;
 import com.memes.util.Preconditions;
 
 import io.micrometer.common.util.StringUtils;
@@ -26,6 +44,152 @@ public interface StorageService {
     @SneakyThrows
     Map<String, Boolean> delete(String[] keyList);
 
+    /**
+     * 读取对象的全部内容
+     *
+     * @param key
+     *            store 返回的 fileName
+     * @return 对象不存在时返回 null
+     */
+    byte[] read(String key);
+
+    /**
+     * 读取对象的大小和 MD5，各存储用 HEAD 之类的元数据接口实现，不下载内容。默认实现读取全部内容
+     *
+     * @return 对象不存在时返回 null
+     */
+    default ObjectStat stat(String key) {
+        byte[] bytes = read(key);
+        return bytes == null ? null : new ObjectStat(bytes.length, HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.MD5));
+    }
+
+    /**
+     * 读取对象从 offset 开始的至多 length 字节，各存储用范围读取实现。默认实现读取全部内容再截取
+     *
+     * @return 对象不存在时返回 null，offset 超出对象末尾时返回空数组
+     */
+    default byte[] readRange(String key, long offset, int length) {
+        byte[] bytes = read(key);
+        if (bytes == null) {
+            return null;
+        }
+        int from = (int) Math.min(offset, bytes.length);
+        return Arrays.copyOfRange(bytes, from, (int) Math.min((long) from + length, bytes.length));
+    }
+
+    /**
+     * 由写入数据库的 url 反推对象 key
+     *
+     * @return 不是本存储生成的 url 时返回 null
+     */
+    String keyOf(String url);
+
+    /**
+     * 客户端直传使用的对象 key，各存储加上自己的目录前缀
+     *
+     * @param fileName
+     *            服务端生成的唯一文件名，带扩展名
+     */
+    String directUploadKey(String fileName);
+
+    /**
+     * 生成客户端直传的请求参数：只能上传到 key，类型为 mime，大小不超过 maxBytes，expiresAt 之后失效
+     *
+     * @param token
+     *            完成上传时校验用的凭证，没有自己签名机制的存储用它授权上传
+     */
+    DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token);
+
+    /**
+     * 直传的对象校验通过后转为正式存储
+     *
+     * @return 正式的 url 和 key，key 可能与直传时不同
+     */
+    FileUploadResult completeDirectUpload(String key, String mime);
+
+    /**
+     * 分页列出存储中的全部对象，用于清理没有记录引用的对象。不同存储的游标格式不同，只能原样传回
+     *
+     * @param cursor
+     *            上一页的 {@link ObjectPage#next()}，第一页传 null
+     * @param limit
+     *            每页最多的对象数
+     */
+    default ObjectPage list(String cursor, int limit) {
+        throw new UnsupportedOperationException("list is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 单次 delete 最多的 key 数，阿里云 deleteObjects 和七牛 batch 的上限都是 1000
+     */
+    default int maxDeleteBatch() {
+        return 1000;
+    }
+
+    /**
+     * storeAll / deleteAll 同时进行的请求数
+     */
+    default int bulkConcurrency() {
+        return 8;
+    }
+
+    /**
+     * 并行上传一批对象，单个对象失败不影响其他对象
+     *
+     * @return 与 requests 一一对应的结果
+     */
+    default List<StoreResult> storeAll(List<StoreRequest> requests, BulkProgress progress) {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        return BoundedParallel.map(IntStream.range(0, requests.size()).boxed().toList(), bulkConcurrency(), index -> {
+            StoreRequest request = requests.get(index);
+            StoreResult result;
+            try {
+                FileUploadResult stored = request.path() == null
+                    ? store(request.bytes(), request.mime())
+                    : store(request.bytes(), request.mime(), request.path());
+                result = new StoreResult(index, stored, null);
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                result = new StoreResult(index, null, String.valueOf(e.getMessage()));
+            }
+            progress.onProgress(completed.incrementAndGet(), failed.get(), requests.size());
+            return result;
+        });
+    }
+
+    /**
+     * 按 {@link #maxDeleteBatch()} 分批并行删除。某一批请求失败时这一批的 key 都记为 false，其余批次照常进行
+     *
+     * @return 每个 key 是否删除成功
+     */
+    default Map<String, Boolean> deleteAll(Collection<String> keys, BulkProgress progress) {
+        List<List<String>> batches = Lists.partition(new ArrayList<>(keys), maxDeleteBatch());
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Map<String, Boolean>> results = BoundedParallel.map(batches, bulkConcurrency(), batch -> {
+            Map<String, Boolean> deleted = new HashMap<>();
+            try {
+                deleted.putAll(delete(batch.toArray(String[]::new)));
+            } catch (RuntimeException e) {
+                // 整批记为失败，由调用方决定是否重试
+                LoggerFactory.getLogger(getClass()).warn("Failed to delete a batch of {} objects: {}", batch.size(), e.getMessage());
+                batch.forEach(key -> deleted.put(key, false));
+            }
+            int batchFailed = 0;
+            for (String key : batch) {
+                if (!Boolean.TRUE.equals(deleted.putIfAbsent(key, false))) {
+                    batchFailed++;
+                }
+            }
+            progress.onProgress(completed.addAndGet(batch.size()), failed.addAndGet(batchFailed), keys.size());
+            return deleted;
+        });
+        Map<String, Boolean> merged = new HashMap<>(keys.size() * 2);
+        results.forEach(merged::putAll);
+        return merged;
+    }
+
     /**
      * get the extension from mime type
      *
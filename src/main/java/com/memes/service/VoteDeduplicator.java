@@ -0,0 +1,89 @@
+package com.memes.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.memes.util.RotatingBloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 点赞/点踩去重：同一个 uuid 对同一条投稿只计一次票，重复的票在写数据库之前丢弃。
+ * <p>
+ * (uuid, 投稿 id) 记录在两代轮换的 Bloom 过滤器中，内存固定；误判只会让极少数首次投票被当成重复丢弃，不会重复计票。 过滤器定期落盘，重启后恢复。
+ */
+@Slf4j
+@Service
+public class VoteDeduplicator {
+
+    private static final String FILE_NAME = "votes.bloom";
+
+    private final RotatingBloomFilter filter;
+    private final Path file;
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final Counter droppedCounter;
+
+    public VoteDeduplicator(@Value("${votes.dedup.dir:votes}") String dir,
+        @Value("${votes.dedup.expected-insertions:2000000}") long expectedInsertions, @Value("${votes.dedup.fpp:0.001}") double fpp,
+        @Value("${votes.dedup.max-age:30d}") Duration maxAge, MeterRegistry registry) throws IOException {
+        this.filter = new RotatingBloomFilter(expectedInsertions, fpp, maxAge);
+        this.file = Path.of(dir).resolve(FILE_NAME);
+        Files.createDirectories(this.file.getParent());
+        try {
+            if (filter.readFrom(file)) {
+                log.info("Restored vote dedup filter with about {} votes", filter.approximateElementCount());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to restore vote dedup filter from {}, starting empty: {}", file, e.getMessage());
+        }
+        this.droppedCounter = registry.counter("memes.vote.dedup.dropped");
+        registry.gauge("memes.vote.dedup.fpp", filter, RotatingBloomFilter::expectedFpp);
+        registry.gauge("memes.vote.dedup.memory.bytes", filter, RotatingBloomFilter::memoryBytes);
+        registry.gauge("memes.vote.dedup.votes", filter, RotatingBloomFilter::approximateElementCount);
+    }
+
+    /**
+     * 记录一次投票
+     *
+     * @return 首次投票返回 true，重复投票返回 false；没有 uuid 时无法去重，总是返回 true
+     */
+    public boolean tryVote(String uuid, Long submissionId) {
+        if (uuid == null || uuid.isEmpty()) {
+            return true;
+        }
+        if (filter.add(uuid + ':' + submissionId)) {
+            dirty.set(true);
+            return true;
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void persist() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            filter.writeTo(file);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Failed to persist vote dedup filter: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        persist();
+    }
+}
@@ -1,29 +1,61 @@
 package com.memes.service.impl;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
 import com.aliyun.oss.*;
 import com.aliyun.oss.common.auth.DefaultCredentialProvider;
 import com.aliyun.oss.common.comm.SignVersion;
+import com.aliyun.oss.common.utils.BinaryUtil;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
 import com.aliyun.oss.model.DeleteObjectsRequest;
 import com.aliyun.oss.model.DeleteObjectsResult;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ListObjectsV2Request;
+import com.aliyun.oss.model.ListObjectsV2Result;
+import com.aliyun.oss.model.MatchMode;
+import com.aliyun.oss.model.OSSObject;
 import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.PolicyConditions;
 import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
 import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.model.common.StoredObject;
 import com.memes.service.StorageService;
+import com.memes.util.MultipartUploader;
+import com.memes.util.Preconditions;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 
@@ -52,8 +84,29 @@ public class AliyunStorageServiceImpl implements StorageService {
     @Value("${storage.aliyun.base-url}")
     private String baseUrl;
 
+    // 超过 threshold 的对象分片并行上传
+    @Value("${storage.multipart.threshold:16MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${storage.multipart.part-size:8MB}")
+    private DataSize multipartPartSize;
+
+    @Value("${storage.multipart.concurrency:4}")
+    private int multipartConcurrency;
+
+    @Value("${storage.multipart.max-attempts:3}")
+    private int multipartMaxAttempts;
+
+    private final MeterRegistry registry;
+
     private OSS ossClient;
 
+    private MultipartUploader multipartUploader;
+
+    public AliyunStorageServiceImpl(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
     // --- Initialization and Cleanup ---
 
     @PostConstruct
@@ -80,6 +133,12 @@ public class AliyunStorageServiceImpl implements StorageService {
             .clientConfiguration(clientBuilderConfiguration)
             .region(region)
             .build();
+        this.multipartUploader = new MultipartUploader(
+            (int) multipartPartSize.toBytes(),
+            multipartConcurrency,
+            multipartMaxAttempts,
+            registry,
+            "aliyun");
         log.info("Aliyun OSS Client initialized successfully.");
     }
 
@@ -109,17 +168,17 @@ public class AliyunStorageServiceImpl implements StorageService {
      *            The MIME type of the file.
      * @param path
      *            The desired directory path within the bucket (can be empty).
-     * @return A FileUploadResult record containing the URL, object key (as fileName), and MIME type on success, or null if an error occurred during upload.
+     * @return A FileUploadResult record containing the URL, object key (as fileName), and MIME type.
+     * @throws AppException
+     *             storage error if the upload fails, so callers and the resilience decorator can tell a failure from a result
      */
     @Override
     public FileUploadResult store(byte[] bytes, String mime, String path) {
         if (ossClient == null) {
-            log.error("OSS Client not initialized. Cannot store file.");
-            return null; // Indicate failure
+            throw AppException.storageError("OSS Client not initialized");
         }
         if (bytes == null || bytes.length == 0) {
-            log.warn("Attempted to store empty byte array.");
-            return null; // Indicate failure
+            throw AppException.invalidParam("bytes");
         }
         if (!StringUtils.hasText(mime)) {
             log.warn("MIME type is missing, upload may proceed but Content-Type won't be set correctly.");
@@ -132,15 +191,19 @@ public class AliyunStorageServiceImpl implements StorageService {
 
         try (InputStream inputStream = new ByteArrayInputStream(bytes)) {
             ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentLength(bytes.length);
             // Set Content-Type only if mime is provided
             if (StringUtils.hasText(mime)) {
                 metadata.setContentType(mime);
             }
-            PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, objectName, inputStream, metadata);
-
-            log.debug("Uploading object '{}' to bucket '{}'", objectName, bucketName);
-            ossClient.putObject(putObjectRequest);
+            if (bytes.length >= multipartThreshold.toBytes()) {
+                multipartUpload(objectName, bytes, metadata);
+            } else {
+                metadata.setContentLength(bytes.length);
+                PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, objectName, inputStream, metadata);
+
+                log.debug("Uploading object '{}' to bucket '{}'", objectName, bucketName);
+                ossClient.putObject(putObjectRequest);
+            }
             log.info("Successfully uploaded object '{}' to bucket '{}'", objectName, bucketName);
 
             String fileUrl = buildFileUrl(objectName);
@@ -158,39 +221,26 @@ public class AliyunStorageServiceImpl implements StorageService {
                     oe.getErrorMessage(),
                     oe.getErrorCode(),
                     oe.getRequestId(),
-                    oe.getHostId(),
-                    oe);
-            return null; // Indicate failure
+                    oe.getHostId());
+            throw AppException.storageError("upload %s failed: %s".formatted(objectName, oe.getErrorMessage()));
         } catch (ClientException ce) {
-            log.error("OSS Client Exception during upload for object '{}'. Error Message: {}", objectName, ce.getMessage(), ce);
-            return null; // Indicate failure
-        } catch (IllegalArgumentException iae) {
-            // Catch potential exception from FileUploadResult constructor if any input is null
-            log.error("Failed to create FileUploadResult for object '{}'. Likely null input. Error: {}", objectName, iae.getMessage(), iae);
-            return null; // Indicate failure
-        } catch (Exception e) {
-            log.error("Unexpected exception during upload for object '{}'", objectName, e);
-            return null; // Indicate failure
+            throw AppException.storageError("upload %s failed: %s".formatted(objectName, ce.getMessage()));
+        } catch (IOException e) {
+            throw AppException.storageError("upload %s failed: %s".formatted(objectName, e.getMessage()));
         }
     }
 
     @Override
     public Map<String, Boolean> delete(String[] keyList) {
         if (ossClient == null) {
-            log.error("OSS Client not initialized. Cannot delete files.");
-            Map<String, Boolean> resultMap = new HashMap<>();
-            for (String key : keyList) {
-                if (key == null) {
-                    throw new IllegalArgumentException("Key list contains null values");
-                }
-                resultMap.put(key, false);
-            }
-            return Map.copyOf(resultMap);
+            throw AppException.storageError("OSS Client not initialized");
         }
         if (keyList == null || keyList.length == 0) {
             log.warn("Delete request received with empty key list.");
             return Map.of();
         }
+        // deleteObjects 一次最多 1000 个，更多的用 deleteAll 分批
+        Preconditions.checkArgument(keyList.length <= maxDeleteBatch(), AppException.invalidParam("keyList size"));
 
         Map<String, Boolean> results = new HashMap<>();
         List<String> keysToDelete = java.util.Arrays.asList(keyList);
@@ -209,34 +259,199 @@ public class AliyunStorageServiceImpl implements StorageService {
             }
 
         } catch (OSSException oe) {
-            log
-                .error(
-                    "OSS Exception during delete operation. Error Message: {}, Error Code: {}, Request ID: {}, Host ID: {}",
-                    oe.getErrorMessage(),
-                    oe.getErrorCode(),
-                    oe.getRequestId(),
-                    oe.getHostId(),
-                    oe);
-            for (String key : keyList) {
-                results.putIfAbsent(key, false);
-            }
+            // 整个请求失败时抛出，交给调用方重试；单个 key 删除失败仍然在结果里返回 false
+            throw AppException.storageError("delete failed: %s (%s)".formatted(oe.getErrorMessage(), oe.getErrorCode()));
         } catch (ClientException ce) {
-            log.error("OSS Client Exception during delete operation. Error Message: {}", ce.getMessage(), ce);
-            for (String key : keyList) {
-                results.putIfAbsent(key, false);
+            throw AppException.storageError("delete failed: " + ce.getMessage());
+        }
+
+        return results;
+    }
+
+    @Override
+    public byte[] read(String key) {
+        if (ossClient == null) {
+            throw AppException.storageError("OSS Client not initialized");
+        }
+        try (OSSObject object = ossClient.getObject(bucketName, key); InputStream content = object.getObjectContent()) {
+            return content.readAllBytes();
+        } catch (OSSException oe) {
+            if ("NoSuchKey".equals(oe.getErrorCode())) {
+                return null;
             }
-        } catch (Exception e) {
-            log.error("Unexpected exception during delete operation", e);
-            for (String key : keyList) {
-                results.putIfAbsent(key, false);
+            throw AppException.storageError("read %s failed: %s".formatted(key, oe.getErrorMessage()));
+        } catch (ClientException | IOException e) {
+            throw AppException.storageError("read %s failed: %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    /**
+     * HEAD 请求。简单上传（Put、表单 Post）的对象类型为 Normal，ETag 就是内容的 MD5；分片和追加上传的不是
+     */
+    @Override
+    public ObjectStat stat(String key) {
+        if (ossClient == null) {
+            throw AppException.storageError("OSS Client not initialized");
+        }
+        try {
+            ObjectMetadata metadata = ossClient.getObjectMetadata(bucketName, key);
+            String etag = metadata.getETag() == null ? "" : metadata.getETag().replace("\"", "").toLowerCase(Locale.ROOT);
+            boolean md5 = "Normal".equals(metadata.getObjectType()) && etag.length() == 32;
+            return new ObjectStat(metadata.getContentLength(), md5 ? etag : null);
+        } catch (OSSException oe) {
+            if ("NoSuchKey".equals(oe.getErrorCode())) {
+                return null;
             }
+            throw AppException.storageError("stat %s failed: %s".formatted(key, oe.getErrorMessage()));
+        } catch (ClientException e) {
+            throw AppException.storageError("stat %s failed: %s".formatted(key, e.getMessage()));
         }
+    }
 
-        return results;
+    /**
+     * 范围不合法时 OSS 会返回整个对象，所以只读前 length 字节
+     */
+    @Override
+    public byte[] readRange(String key, long offset, int length) {
+        if (ossClient == null) {
+            throw AppException.storageError("OSS Client not initialized");
+        }
+        GetObjectRequest request = new GetObjectRequest(bucketName, key).withRange(offset, offset + length - 1);
+        try (OSSObject object = ossClient.getObject(request); InputStream content = object.getObjectContent()) {
+            return content.readNBytes(length);
+        } catch (OSSException oe) {
+            if ("NoSuchKey".equals(oe.getErrorCode())) {
+                return null;
+            }
+            if ("InvalidRange".equals(oe.getErrorCode())) {
+                return new byte[0];
+            }
+            throw AppException.storageError("read %s failed: %s".formatted(key, oe.getErrorMessage()));
+        } catch (ClientException | IOException e) {
+            throw AppException.storageError("read %s failed: %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    /**
+     * 列出整个 bucket，游标是 ListObjectsV2 的 continuation token
+     */
+    @Override
+    public ObjectPage list(String cursor, int limit) {
+        if (ossClient == null) {
+            throw AppException.storageError("OSS Client not initialized");
+        }
+        try {
+            ListObjectsV2Request request = new ListObjectsV2Request(bucketName);
+            request.setMaxKeys(limit);
+            request.setContinuationToken(cursor);
+            ListObjectsV2Result result = ossClient.listObjectsV2(request);
+            List<StoredObject> objects = result
+                .getObjectSummaries()
+                .stream()
+                .map(summary -> new StoredObject(summary.getKey(), summary.getSize(), summary.getLastModified().toInstant()))
+                .toList();
+            return new ObjectPage(objects, result.isTruncated() ? result.getNextContinuationToken() : null);
+        } catch (OSSException oe) {
+            throw AppException.storageError("list failed: %s (%s)".formatted(oe.getErrorMessage(), oe.getErrorCode()));
+        } catch (ClientException ce) {
+            throw AppException.storageError("list failed: " + ce.getMessage());
+        }
+    }
+
+    @Override
+    public String keyOf(String url) {
+        String prefix = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        if (url == null || !url.startsWith(prefix)) {
+            return null;
+        }
+        return url.substring(prefix.length());
+    }
+
+    @Override
+    public String directUploadKey(String fileName) {
+        return fileName;
+    }
+
+    /**
+     * PostObject 表单上传，policy 限定 key、Content-Type 和大小，签名用 V1（HMAC-SHA1）
+     */
+    @Override
+    public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+        if (ossClient == null) {
+            throw AppException.storageError("OSS Client not initialized");
+        }
+        PolicyConditions conditions = new PolicyConditions();
+        conditions.addConditionItem(MatchMode.Exact, PolicyConditions.COND_KEY, key);
+        conditions.addConditionItem(MatchMode.Exact, PolicyConditions.COND_CONTENT_TYPE, mime);
+        conditions.addConditionItem(PolicyConditions.COND_CONTENT_LENGTH_RANGE, 1, maxBytes);
+        String policy = ossClient.generatePostPolicy(Date.from(expiresAt), conditions);
+        String encodedPolicy = BinaryUtil.toBase64String(policy.getBytes(StandardCharsets.UTF_8));
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("key", key);
+        fields.put("Content-Type", mime);
+        fields.put("OSSAccessKeyId", accessKeyId);
+        fields.put("policy", encodedPolicy);
+        fields.put("Signature", hmacSha1Base64(accessKeySecret, encodedPolicy));
+        fields.put("success_action_status", "201");
+        return new DirectUploadForm(bucketUrl(), "POST", fields);
+    }
+
+    @Override
+    public FileUploadResult completeDirectUpload(String key, String mime) {
+        return new FileUploadResult(buildFileUrl(key), key, mime);
     }
 
     // --- Helper Methods ---
 
+    /**
+     * 分片并行上传，分片失败只重传这个分片；最终失败时取消整个上传，OSS 回收已上传的分片
+     */
+    private void multipartUpload(String objectName, byte[] bytes, ObjectMetadata metadata) throws IOException {
+        String uploadId = ossClient
+            .initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, objectName, metadata))
+            .getUploadId();
+        log.debug("Multipart upload '{}' started for object '{}', {} bytes", uploadId, objectName, bytes.length);
+        try {
+            List<MultipartUploader.UploadedPart> parts = multipartUploader.upload(bytes.length, part -> {
+                UploadPartRequest request = new UploadPartRequest(
+                    bucketName,
+                    objectName,
+                    uploadId,
+                    part.number(),
+                    new ByteArrayInputStream(bytes, part.offset(), part.length()),
+                    part.length());
+                return ossClient.uploadPart(request).getPartETag().getETag();
+            });
+            List<PartETag> etags = new ArrayList<>(parts.size());
+            for (MultipartUploader.UploadedPart part : parts) {
+                etags.add(new PartETag(part.number(), part.etag()));
+            }
+            ossClient.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, etags));
+        } catch (IOException | RuntimeException e) {
+            try {
+                ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
+            } catch (RuntimeException abortError) {
+                log.warn("Failed to abort multipart upload '{}': {}", uploadId, abortError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private String bucketUrl() {
+        String host = endpoint.replaceFirst("^https?://", "");
+        return "https://%s.%s".formatted(bucketName, host);
+    }
+
+    private static String hmacSha1Base64(String secret, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA1"));
+            return BinaryUtil.toBase64String(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private String buildObjectName(String path, String fileName) {
         String cleanedPath = path == null ? "" : path.trim();
         if (cleanedPath.startsWith("/")) {
@@ -2,29 +2,56 @@ package com.memes.service.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
+import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
 import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.model.common.StoredObject;
 import com.memes.service.StorageService;
+import com.memes.util.HashUtil;
+import com.memes.util.Preconditions;
+import com.memes.util.ShardedFileStore;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 @Service("local")
-@Primary
 @ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
 @Slf4j
 public class LocalStorageServiceImpl implements StorageService {
 
     static final String localDir = "memes";
+    static final String UPLOAD_DIR = ".uploads";
 
     /**
      * 在配置文件中配置的 url 前缀 这个 url 会被拼接到文件名前面然后写入数据库
@@ -32,6 +59,17 @@ public class LocalStorageServiceImpl implements StorageService {
     @Value("${local.urlPrefix}")
     String urlPrefix;
 
+    // 客户端直传的上传地址，由 LocalMediaController 接收
+    @Value("${local.direct-upload-url:/media/upload}")
+    String directUploadUrl;
+
+    private final ShardedFileStore files = new ShardedFileStore(Path.of(localDir));
+
+    @Value("${local.fsync:false}")
+    void setFsync(boolean fsync) {
+        files.setFsync(fsync);
+    }
+
     static {
         File file = new File(localDir);
         if (!file.exists()) {
@@ -43,13 +81,14 @@ public class LocalStorageServiceImpl implements StorageService {
         }
     }
 
+    /**
+     * 按内容寻址存到 memes/ab/cd/&lt;sha256&gt;.&lt;ext&gt;，相同内容共享同一份数据
+     */
     @Override
     @SneakyThrows
     public FileUploadResult store(byte[] bytes, String mime) {
         String type = getExtension(mime);
-        String fileName = "%d-%s.%s".formatted(System.currentTimeMillis(), UUID.randomUUID(), type);
-        var path = "%s/%s".formatted(localDir, fileName);
-        FileUtils.copyInputStreamToFile(new ByteArrayInputStream(bytes), new File(path));
+        String fileName = files.put(bytes, type);
         var url = urlPrefix + fileName;
         return new FileUploadResult(url, fileName, type);
     }
@@ -77,4 +116,184 @@ public class LocalStorageServiceImpl implements StorageService {
         }
         return map;
     }
+
+    @Override
+    public byte[] read(String key) {
+        try {
+            return Files.readAllBytes(Path.of(localDir, key));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw AppException.storageError("read %s failed: %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    /**
+     * MD5 边读文件边算，不把内容读进内存
+     */
+    @Override
+    public ObjectStat stat(String key) {
+        Path path = Path.of(localDir, key);
+        try (InputStream in = Files.newInputStream(path)) {
+            return new ObjectStat(Files.size(path), HashUtil.streamToHex(in, HashUtil.HashAlgorithm.MD5));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw AppException.storageError("stat %s failed: %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    @Override
+    public byte[] readRange(String key, long offset, int length) {
+        try (FileChannel channel = FileChannel.open(Path.of(localDir, key), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.clamp(channel.size() - offset, 0, length));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw AppException.storageError("read %s failed: %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    /**
+     * 直传的文件先放在不对外提供下载的 .uploads 目录，完成时再移到分片路径
+     */
+    @Override
+    public String directUploadKey(String fileName) {
+        return UPLOAD_DIR + "/" + fileName;
+    }
+
+    @Override
+    public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+        String url = directUploadUrl + "?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+        return new DirectUploadForm(url, "PUT", Map.of());
+    }
+
+    @Override
+    @SneakyThrows
+    public FileUploadResult completeDirectUpload(String key, String mime) {
+        String newKey = files.adopt(key);
+        if (newKey == null) {
+            throw AppException.resourceNotFound(key);
+        }
+        Files.deleteIfExists(Path.of(localDir, key));
+        return new FileUploadResult(urlPrefix + newKey, newKey, getExtension(mime));
+    }
+
+    /**
+     * 接收客户端直传的文件，超过 maxBytes 时放弃；同一个 key 只能上传一次
+     */
+    public void receiveDirectUpload(String key, InputStream in, long maxBytes) throws IOException {
+        Path target = Path.of(localDir, key);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(".%s.part".formatted(UUID.randomUUID()));
+        try {
+            long written = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW)) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    written += n;
+                    Preconditions.checkArgument(written <= maxBytes, AppException.invalidParam("file too large"));
+                    out.write(buffer, 0, n);
+                }
+            }
+            Preconditions.checkArgument(written > 0, AppException.invalidParam("file"));
+            Files.move(tmp, target);
+        } catch (FileAlreadyExistsException e) {
+            throw AppException.invalidParam("token already used");
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 把旧的平铺文件链接到分片路径，旧文件保留，由调用方切换引用后删除
+     *
+     * @return 新 key，旧文件不存在时返回 null
+     */
+    public String migrate(String key) throws IOException {
+        return files.adopt(key);
+    }
+
+    /**
+     * key 对应的本地文件，key 越出存储目录或指向内部目录时返回 null
+     */
+    public Path resolve(String key) {
+        Path root = Path.of(localDir).toAbsolutePath().normalize();
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.equals(root) || key.startsWith(".") || key.contains("/.")) {
+            return null;
+        }
+        return file;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        if (url == null || !url.startsWith(urlPrefix)) {
+            return null;
+        }
+        String key = url.substring(urlPrefix.length());
+        return key.startsWith("/") ? key.substring(1) : key;
+    }
+
+    /**
+     * 按 key 的字典序遍历 memes/ 目录，包括分片目录、旧的平铺文件和 .uploads 中的直传暂存文件；游标是上一页最后一个 key
+     */
+    @Override
+    public ObjectPage list(String cursor, int limit) {
+        List<StoredObject> objects = new ArrayList<>(limit);
+        try {
+            collect(Path.of(localDir), "", cursor, limit, objects);
+        } catch (IOException e) {
+            throw AppException.storageError("list failed: " + e.getMessage());
+        }
+        return new ObjectPage(objects, objects.size() < limit ? null : objects.getLast().key());
+    }
+
+    private static void collect(Path dir, String prefix, String cursor, int limit, List<StoredObject> out) throws IOException {
+        // 目录名带上 / 参与排序，遍历顺序才和 key 的字典序一致
+        TreeMap<String, Path> children = new TreeMap<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            list.forEach(child -> children.put(prefix + child.getFileName() + (Files.isDirectory(child) ? "/" : ""), child));
+        }
+        for (Map.Entry<String, Path> child : children.entrySet()) {
+            if (out.size() >= limit) {
+                return;
+            }
+            String name = child.getKey();
+            if (name.endsWith("/")) {
+                // 子目录中的 key 都以 name 开头，name 比 cursor 小且不是它的前缀时整个目录都已经列过
+                if (cursor == null || name.compareTo(cursor) > 0 || cursor.startsWith(name)) {
+                    collect(child.getValue(), name, cursor, limit, out);
+                }
+            } else if (cursor == null || name.compareTo(cursor) > 0) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(child.getValue(), BasicFileAttributes.class);
+                    out.add(new StoredObject(name, attributes.size(), changedAt(child.getValue(), attributes)));
+                } catch (NoSuchFileException e) {
+                    // 列出之后被删除了
+                }
+            }
+        }
+    }
+
+    /**
+     * mtime 和 ctime 中较晚的一个。分片迁移建立的硬链接保留原文件的 mtime，ctime 才是建立链接的时间，
+     * 按 mtime 判断的话刚迁移、还没更新记录的文件会被当作过了宽限期的孤儿
+     */
+    private static Instant changedAt(Path path, BasicFileAttributes attributes) throws IOException {
+        Instant modified = attributes.lastModifiedTime().toInstant();
+        try {
+            Instant changed = ((FileTime) Files.getAttribute(path, "unix:ctime")).toInstant();
+            return changed.isAfter(modified) ? changed : modified;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return modified;
+        }
+    }
 }
@@ -1,24 +1,57 @@
 package com.memes.service.impl;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.google.common.collect.Lists;
 import com.memes.aspect.Audit;
 import com.memes.exception.AppException;
 import com.memes.mapper.MediaMapper;
 import com.memes.mapper.SubmissionMapper;
+import com.memes.model.common.BatchUploadItem;
+import com.memes.model.common.BatchUploadResult;
 import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectStat;
 import com.memes.model.pojo.MediaContent;
 import com.memes.model.pojo.Submission;
+import com.memes.service.ChecksumFilter;
+import com.memes.service.DirectUploadService;
+import com.memes.service.ImageVariantService;
 import com.memes.service.MediaContentService;
+import com.memes.service.ModerationStatistic;
+import com.memes.service.NearDuplicateIndex;
 import com.memes.service.StorageService;
+import com.memes.util.BoundedParallel;
+import com.memes.util.HammingIndex;
 import com.memes.util.HashUtil;
+import com.memes.util.MediaProbe;
+import com.memes.util.PerceptualHash;
 import com.memes.util.Preconditions;
 
 import lombok.SneakyThrows;
@@ -27,14 +60,43 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Service
 public class MediaContentServiceImpl extends ServiceImpl<MediaMapper, MediaContent> implements MediaContentService {
+    private static final ExecutorService UPLOAD_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final int MAX_IN_CHECKSUMS = 1000;
+    private static final int DIRECT_PROBE_BYTES = 4 * 1024 * 1024;
+    private static final Set<String> HEADER_FIELDS = Set.of(MediaProbe.MIME, MediaProbe.WIDTH, MediaProbe.HEIGHT);
+
     private final MediaMapper mediaMapper;
     private final SubmissionMapper submissionMapper;
     private final StorageService storageService;
+    private final ModerationStatistic moderationStatistic;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final ChecksumFilter checksumFilter;
+    private final ImageVariantService imageVariantService;
+    private final DirectUploadService directUploadService;
+
+    @Value("${media.upload.structured:false}")
+    boolean structuredUpload = false;
+
+    @Value("${media.batch.max-items:20}")
+    int batchMaxItems = 20;
+
+    private record Deduplicated(String checksum, MediaContent existing) {
+    }
+
+    private record Extracted(Long phash, Map<String, Object> metadata) {
+    }
 
-    public MediaContentServiceImpl(MediaMapper mediaMapper, SubmissionMapper submissionMapper, StorageService storageService) {
+    public MediaContentServiceImpl(MediaMapper mediaMapper, SubmissionMapper submissionMapper, StorageService storageService,
+        ModerationStatistic moderationStatistic, NearDuplicateIndex nearDuplicateIndex, ChecksumFilter checksumFilter,
+        ImageVariantService imageVariantService, DirectUploadService directUploadService) {
         this.mediaMapper = mediaMapper;
         this.submissionMapper = submissionMapper;
         this.storageService = storageService;
+        this.moderationStatistic = moderationStatistic;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.checksumFilter = checksumFilter;
+        this.imageVariantService = imageVariantService;
+        this.directUploadService = directUploadService;
     }
 
     @Override
@@ -69,10 +131,24 @@ public class MediaContentServiceImpl extends ServiceImpl<MediaMapper, MediaConte
         return this.mediaMapper.selectList(queryWrapper);
     }
 
+    /**
+     * 原来是 PENDING 的记录和其余记录分开修改，按实际修改的行数更新积压。
+     * 先改修改后仍满足自己条件的那一组，第二次修改不会再匹配到第一次改过的行
+     */
+    private int updateStatus(List<Long> ids, MediaContent.ContentStatus status) {
+        boolean toPending = status == MediaContent.ContentStatus.PENDING;
+        int first = mediaMapper.updateStatus(ids, status, toPending);
+        int second = mediaMapper.updateStatus(ids, status, !toPending);
+        int fromPending = toPending ? first : second;
+        int fromOthers = toPending ? second : first;
+        moderationStatistic.onStatusChanged(fromPending, fromOthers, status);
+        return fromPending + fromOthers;
+    }
+
     @Override
     @Transactional
     public boolean markMediaStatus(Long id, MediaContent.ContentStatus status) {
-        int updateById = mediaMapper.updateById(MediaContent.builder().id(id).status(status).build());
+        int updateById = updateStatus(List.of(id), status);
         // if approved, insert into submission table
         if (updateById > 0 && status == MediaContent.ContentStatus.APPROVED) {
             int insert = submissionMapper.insert(Submission.builder().mediaContentIdList(List.of(id)).build());
@@ -84,8 +160,7 @@ public class MediaContentServiceImpl extends ServiceImpl<MediaMapper, MediaConte
     @Override
     @Transactional
     public int batchMarkMediaStatus(List<Long> ids, MediaContent.ContentStatus status) {
-        int update = mediaMapper
-            .update(MediaContent.builder().status(status).build(), new QueryWrapper<MediaContent>().in("id", ids));
+        int update = updateStatus(ids, status);
         // if approved, insert into submission table
         if (update > 0 && status == MediaContent.ContentStatus.APPROVED) {
             for (Long id : ids) {
@@ -103,7 +178,7 @@ public class MediaContentServiceImpl extends ServiceImpl<MediaMapper, MediaConte
     @Override
     public MediaContent storeTextFormatSubmission(String text, String mime) {
         String uniqueCode = HashUtil.strToHex(text, HashUtil.HashAlgorithm.MD5);
-        MediaContent mediaContent = mediaMapper.selectOne(new QueryWrapper<MediaContent>().eq("checksum", uniqueCode));
+        MediaContent mediaContent = findByChecksum(uniqueCode);
         if (mediaContent != null) {
             log.info("MediaContent already exists with checksum: {}", uniqueCode);
             return mediaContent;
@@ -116,8 +191,12 @@ public class MediaContentServiceImpl extends ServiceImpl<MediaMapper, MediaConte
             .fileSize((long) text.getBytes().length)
             .userId(Audit.getCurrentUuid())
             .build();
-        int insert = mediaMapper.insert(mediaContent);
-        Preconditions.checkArgument(insert > 0, AppException.databaseError("insert media content failed"));
+        MediaContent existing = insertUnlessDuplicate(mediaContent);
+        if (existing != null) {
+            return existing;
+        }
+        moderationStatistic.onCreated(mediaContent);
+        checksumFilter.put(uniqueCode);
         return mediaContent;
     }
 
@@ -125,25 +204,492 @@ public class MediaContentServiceImpl extends ServiceImpl<MediaMapper, MediaConte
     @Override
     public MediaContent storeStreamSubmission(InputStream inputStream, String mime) {
         byte[] bytes = inputStream.readAllBytes();
+        return register(bytes, mime, () -> storageService.store(bytes, mime));
+    }
+
+    /**
+     * 客户端直传完成：大小和 MD5 取自对象元数据，类型按开头一段内容识别，不把整个对象读进内存；之后和普通上传走同一套去重、登记流程。
+     * 对象不超过 {@link #DIRECT_PROBE_BYTES} 时读到的就是全部内容，元数据和感知哈希与普通上传相同；更大的只记录文件头中的 mime 和宽高
+     */
+    @Override
+    public MediaContent completeDirectUpload(String token) {
+        DirectUploadService.Grant grant = directUploadService.verify(token, directUploadService.ttl());
+        ObjectStat stat = storageService.stat(grant.key());
+        Preconditions.checkArgument(stat != null, AppException.resourceNotFound(grant.key()));
+        byte[] head = stat.size() > grant.maxBytes()
+            ? null
+            : storageService.readRange(grant.key(), 0, (int) Math.min(stat.size(), DIRECT_PROBE_BYTES));
+        String actualMime = head == null ? null : MediaProbe.sniffMime(head);
+        if (actualMime == null || !mediaType(actualMime).equals(mediaType(grant.mime()))) {
+            log.warn("Direct upload {} rejected, declared {} but got {} ({} bytes)", grant.key(), grant.mime(), actualMime, stat.size());
+            storageService.delete(new String[] {grant.key()});
+            throw AppException.invalidParam("file");
+        }
+        String uniqueCode = stat.md5() != null ? stat.md5() : md5Of(grant.key(), stat.size());
+        MediaContent mediaContent = findByChecksum(uniqueCode);
+        if (mediaContent != null) {
+            log.warn("MediaContent already exists with checksum: {}", uniqueCode);
+            // 重复提交同一个凭证时，已有的记录指向的就是这个对象，不能删
+            discard(grant.key(), mediaContent);
+            return mediaContent;
+        }
+        MediaContent.DataType dataType = MediaContent.DataType.valueOf(mediaType(actualMime).toUpperCase());
+        Extracted extracted = head.length == stat.size() ? extract(head, dataType) : extractHeader(head);
+        return save(stat.size(), actualMime, dataType, uniqueCode, extracted, storageService.completeDirectUpload(grant.key(), actualMime));
+    }
+
+    /**
+     * 存储给不出 MD5 时分段读取计算，同一时间只有一段在内存中
+     */
+    @SneakyThrows
+    private String md5Of(String key, long size) {
+        MessageDigest digest = MessageDigest.getInstance(HashUtil.HashAlgorithm.MD5.getAlgorithm());
+        for (long offset = 0; offset < size; offset += DIRECT_PROBE_BYTES) {
+            byte[] chunk = storageService.readRange(key, offset, DIRECT_PROBE_BYTES);
+            Preconditions.checkArgument(chunk != null, AppException.resourceNotFound(key));
+            digest.update(chunk);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 去重、提取元数据、存储并登记
+     *
+     * @param store
+     *            没有重复时调用，返回正式存储的位置
+     */
+    private MediaContent register(byte[] bytes, String mime, Supplier<FileUploadResult> store) {
+        MediaContent.DataType dataType = MediaContent.DataType.valueOf(mediaType(mime).toUpperCase());
+        if (structuredUpload) {
+            return registerConcurrently(bytes, mime, dataType, store);
+        }
         String uniqueCode = HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.MD5);
-        MediaContent mediaContent = mediaMapper.selectOne(new QueryWrapper<MediaContent>().eq("checksum", uniqueCode));
+        MediaContent mediaContent = findByChecksum(uniqueCode);
         if (mediaContent != null) {
             log.warn("MediaContent already exists with checksum: {}", uniqueCode);
             return mediaContent;
         }
+        Extracted extracted = extract(bytes, dataType);
+        return save(bytes.length, mime, dataType, uniqueCode, extracted, store.get());
+    }
 
-        FileUploadResult store = storageService.store(bytes, mime);
-        Preconditions.checkNotNull(store, AppException.storageError("file upload failed,type:%s".formatted(mime)));
-        mediaContent = MediaContent
+    /**
+     * 去重查询、上传和元数据提取同时进行：上传不等去重结果，发现重复时取消上传和提取并删除写入的对象；
+     * 任何一个子任务失败都会取消其余子任务。
+     * <p>
+     * 已经发出的上传请求中断不了，取消时上传子任务立即结束，请求在自己的线程上继续，完成后再删除对象。
+     */
+    @SuppressWarnings("preview")
+    private MediaContent registerConcurrently(byte[] bytes, String mime, MediaContent.DataType dataType, Supplier<FileUploadResult> store) {
+        // shutdown 之后才完成的子任务拿不到结果（去重发现重复时自己触发 shutdown），这两个结果另外记下
+        AtomicReference<Deduplicated> deduplicated = new AtomicReference<>();
+        AtomicReference<FileUploadResult> uploaded = new AtomicReference<>();
+        Subtask<Extracted> extract;
+        Throwable failure;
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            scope.fork(() -> {
+                String uniqueCode = HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.MD5);
+                MediaContent existing = findByChecksum(uniqueCode);
+                deduplicated.set(new Deduplicated(uniqueCode, existing));
+                if (existing != null) {
+                    scope.shutdown();
+                }
+                return existing;
+            });
+            scope.fork(() -> {
+                CompletableFuture<FileUploadResult> upload = CompletableFuture.supplyAsync(store, UPLOAD_EXECUTOR);
+                try {
+                    uploaded.set(upload.get());
+                    return uploaded.get();
+                } catch (InterruptedException e) {
+                    upload.thenAccept(stored -> discard(stored, deduplicated.get()));
+                    throw e;
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            });
+            extract = scope.fork(() -> extract(bytes, dataType));
+            scope.join();
+            failure = scope.exception().orElse(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(uploaded.get(), deduplicated.get());
+            throw AppException.fatal("upload interrupted");
+        }
+
+        Deduplicated checked = deduplicated.get();
+        if (checked != null && checked.existing() != null) {
+            log.warn("MediaContent already exists with checksum: {}", checked.checksum());
+            discard(uploaded.get(), checked);
+            return checked.existing();
+        }
+        if (failure != null) {
+            discard(uploaded.get(), checked);
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            throw AppException.fatal(String.valueOf(failure));
+        }
+        return save(bytes.length, mime, dataType, checked.checksum(), extract.get(), uploaded.get());
+    }
+
+    private MediaContent save(long size, String mime, MediaContent.DataType dataType, String uniqueCode, Extracted extracted,
+        FileUploadResult stored) {
+        Preconditions.checkNotNull(stored, AppException.storageError("file upload failed,type:%s".formatted(mime)));
+        MediaContent mediaContent = MediaContent
             .builder()
-            .dataType(MediaContent.DataType.valueOf(mime.split("/")[0].toUpperCase()))
-            .dataContent(store.url())
+            .dataType(dataType)
+            .dataContent(stored.url())
             .checksum(uniqueCode)
-            .fileSize(((long) bytes.length))
+            .phash(extracted.phash())
+            .metadata(extracted.metadata().isEmpty() ? null : extracted.metadata())
+            .fileSize(size)
             .userId(Audit.getCurrentUuid())
             .build();
-        int insert = mediaMapper.insert(mediaContent);
-        Preconditions.checkArgument(insert > 0, AppException.databaseError("insert media content failed"));
+        MediaContent existing;
+        try {
+            existing = insertUnlessDuplicate(mediaContent);
+        } catch (RuntimeException e) {
+            discard(stored.fileName(), null);
+            throw e;
+        }
+        if (existing != null) {
+            discard(stored.fileName(), existing);
+            return existing;
+        }
+        moderationStatistic.onCreated(mediaContent);
+        checksumFilter.put(uniqueCode);
+        nearDuplicateIndex.add(mediaContent.getId(), extracted.phash());
+        imageVariantService.submit(mediaContent.getId(), mime, stored.fileName());
+        return mediaContent;
+    }
+
+    /**
+     * 插入一条记录。Bloom 过滤器漏掉其他节点刚插入的行、或者并发上传了相同内容时，插入会撞上 checksum 的唯一索引，这时返回已有的记录
+     *
+     * @return 插入成功时为 null
+     */
+    private MediaContent insertUnlessDuplicate(MediaContent mediaContent) {
+        try {
+            int insert = mediaMapper.insert(mediaContent);
+            Preconditions.checkArgument(insert > 0, AppException.databaseError("insert media content failed"));
+            return null;
+        } catch (DuplicateKeyException e) {
+            MediaContent existing = mediaMapper
+                .selectOne(new QueryWrapper<MediaContent>().eq("checksum", mediaContent.getChecksum()).last("limit 1"));
+            if (existing == null) {
+                throw e;
+            }
+            log.warn("MediaContent already exists with checksum: {}", mediaContent.getChecksum());
+            checksumFilter.put(mediaContent.getChecksum());
+            return existing;
+        }
+    }
+
+    private Extracted extract(byte[] bytes, MediaContent.DataType dataType) {
+        Long phash = dataType == MediaContent.DataType.IMAGE ? PerceptualHash.dHash(bytes) : null;
+        Map<String, Object> metadata = MediaProbe.probe(bytes);
+        addNearDuplicateMetadata(phash, metadata);
+        return new Extracted(phash, metadata);
+    }
+
+    /**
+     * 只有文件开头一段时，解码出的像素不完整，只保留文件头中的字段
+     */
+    private static Extracted extractHeader(byte[] head) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        MediaProbe.probe(head).forEach((key, value) -> {
+            if (HEADER_FIELDS.contains(key)) {
+                metadata.put(key, value);
+            }
+        });
+        return new Extracted(null, metadata);
+    }
+
+    /**
+     * 删除这次上传写入的对象，去重结果未知（查询失败、被中断）时也删
+     */
+    private void discard(FileUploadResult stored, Deduplicated deduplicated) {
+        if (stored != null) {
+            discard(stored.fileName(), deduplicated == null ? null : deduplicated.existing());
+        }
+    }
+
+    /**
+     * 删除没有登记的对象。每次写入都生成新的 key，不会是已有记录的 key，这里仍然核对一遍；删除失败留给孤儿对象清理
+     */
+    private void discard(String key, MediaContent existing) {
+        if (key == null || existing != null && key.equals(storageService.keyOf(existing.getDataContent()))) {
+            return;
+        }
+        try {
+            storageService.delete(new String[] {key});
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete unregistered object {}", key, e);
+        }
+    }
+
+    @Override
+    public List<BatchUploadResult> storeBatchSubmission(List<BatchUploadItem> items) {
+        Preconditions
+            .checkArgument(!items.isEmpty() && items.size() <= batchMaxItems, AppException.invalidParam("items (at most %d)".formatted(batchMaxItems)));
+        return registerBatch(items, Audit.getCurrentUuid(), storageService.bulkConcurrency());
+    }
+
+    @Override
+    public List<BatchUploadResult> importBatch(List<BatchUploadItem> items, String userId) {
+        // 离线导入时文件都在本地，checksum 以计算为主，按核数并行
+        return registerBatch(items, userId, Runtime.getRuntime().availableProcessors());
+    }
+
+    private List<BatchUploadResult> registerBatch(List<BatchUploadItem> items, String userId, int checksumConcurrency) {
+        int concurrency = storageService.bulkConcurrency();
+        List<BatchEntry> entries = BoundedParallel
+            .map(
+                IntStream.range(0, items.size()).boxed().toList(),
+                checksumConcurrency,
+                i -> checksum(new BatchEntry(i, items.get(i))));
+
+        // 同一批里内容相同的只处理第一项，其余的用一次查询和已有投稿去重
+        Map<String, BatchEntry> owners = new LinkedHashMap<>();
+        for (BatchEntry entry : entries) {
+            if (entry.error == null) {
+                entry.sameAs = owners.putIfAbsent(entry.checksum, entry);
+            }
+        }
+        Map<String, MediaContent> existing = findByChecksums(owners.keySet());
+        List<BatchEntry> fresh = new ArrayList<>();
+        for (BatchEntry owner : owners.values()) {
+            owner.media = existing.get(owner.checksum);
+            if (owner.media == null) {
+                fresh.add(owner);
+            } else {
+                owner.duplicate = true;
+            }
+        }
+
+        BoundedParallel.map(fresh, concurrency, entry -> prepare(entry, userId));
+        insertBatch(fresh.stream().filter(entry -> entry.error == null).toList());
+        return entries.stream().map(MediaContentServiceImpl::batchResult).toList();
+    }
+
+    /**
+     * 批量上传中一项的处理状态
+     */
+    private static final class BatchEntry {
+        private final int index;
+        private final BatchUploadItem item;
+        private MediaContent.DataType dataType;
+        private String checksum;
+        // 同一批中内容相同的靠前一项
+        private BatchEntry sameAs;
+        private MediaContent media;
+        private boolean duplicate;
+        private FileUploadResult stored;
+        private String error;
+
+        private BatchEntry(int index, BatchUploadItem item) {
+            this.index = index;
+            this.item = item;
+        }
+    }
+
+    /**
+     * 校验类型并计算 checksum，文件边读边算，不整个读进内存
+     */
+    private BatchEntry checksum(BatchEntry entry) {
+        BatchUploadItem item = entry.item;
+        try {
+            if (item.text() != null) {
+                Preconditions.checkStringNotEmpty(item.text(), AppException.invalidParam("text"));
+                entry.dataType = MediaContent.DataType.MARKDOWN;
+                entry.checksum = HashUtil.strToHex(item.text(), HashUtil.HashAlgorithm.MD5);
+                return entry;
+            }
+            String mime = item.mime();
+            Preconditions
+                .checkArgument(
+                    item.file() != null && mime != null && (mime.startsWith("image/") || mime.startsWith("video/")),
+                    AppException.invalidParam("mime"));
+            entry.dataType = MediaContent.DataType.valueOf(mediaType(mime).toUpperCase());
+            try (InputStream inputStream = item.file().getInputStream()) {
+                entry.checksum = HashUtil.streamToHex(inputStream, HashUtil.HashAlgorithm.MD5);
+            }
+        } catch (Exception e) {
+            entry.error = errorOf(entry, e);
+        }
+        return entry;
+    }
+
+    /**
+     * 读取内容、提取元数据并上传，得到待插入的记录
+     */
+    private BatchEntry prepare(BatchEntry entry, String userId) {
+        BatchUploadItem item = entry.item;
+        try {
+            MediaContent.MediaContentBuilder builder = MediaContent
+                .builder()
+                .dataType(entry.dataType)
+                .checksum(entry.checksum)
+                .userId(userId);
+            if (item.text() != null) {
+                builder.dataContent(item.text()).fileSize((long) item.text().getBytes().length);
+            } else {
+                byte[] bytes = readAll(item);
+                Extracted extracted = extract(bytes, entry.dataType);
+                FileUploadResult stored = storageService.store(bytes, item.mime());
+                Preconditions.checkNotNull(stored, AppException.storageError("file upload failed,type:%s".formatted(item.mime())));
+                entry.stored = stored;
+                builder
+                    .dataContent(stored.url())
+                    .phash(extracted.phash())
+                    .metadata(extracted.metadata().isEmpty() ? null : extracted.metadata())
+                    .fileSize((long) bytes.length);
+            }
+            entry.media = builder.build();
+        } catch (Exception e) {
+            entry.error = errorOf(entry, e);
+        }
+        return entry;
+    }
+
+    private void insertBatch(List<BatchEntry> prepared) {
+        if (prepared.isEmpty()) {
+            return;
+        }
+        List<MediaContent> rows = prepared.stream().map(entry -> entry.media).toList();
+        try {
+            int insert = mediaMapper.insertBatch(rows);
+            Preconditions.checkArgument(insert == rows.size(), AppException.databaseError("insert media content failed"));
+        } catch (DuplicateKeyException e) {
+            // 有一项已经被别人插入，整条语句不生效，逐条重试
+            insertOneByOne(prepared);
+            return;
+        } catch (RuntimeException e) {
+            log.error("Failed to insert {} media contents", rows.size(), e);
+            for (BatchEntry entry : prepared) {
+                if (entry.stored != null) {
+                    discard(entry.stored.fileName(), null);
+                }
+                entry.media = null;
+                entry.error = AppException.databaseError("insert media content failed").getMessage();
+            }
+            return;
+        }
+        prepared.forEach(this::onInserted);
+    }
+
+    private void insertOneByOne(List<BatchEntry> prepared) {
+        for (BatchEntry entry : prepared) {
+            MediaContent existing;
+            try {
+                existing = insertUnlessDuplicate(entry.media);
+            } catch (RuntimeException e) {
+                log.error("Failed to insert media content {}", entry.item.name(), e);
+                if (entry.stored != null) {
+                    discard(entry.stored.fileName(), null);
+                }
+                entry.media = null;
+                entry.error = AppException.databaseError("insert media content failed").getMessage();
+                continue;
+            }
+            if (existing == null) {
+                onInserted(entry);
+                continue;
+            }
+            if (entry.stored != null) {
+                discard(entry.stored.fileName(), existing);
+            }
+            entry.media = existing;
+            entry.duplicate = true;
+        }
+    }
+
+    private void onInserted(BatchEntry entry) {
+        MediaContent mediaContent = entry.media;
+        moderationStatistic.onCreated(mediaContent);
+        checksumFilter.put(entry.checksum);
+        nearDuplicateIndex.add(mediaContent.getId(), mediaContent.getPhash());
+        if (entry.stored != null) {
+            imageVariantService.submit(mediaContent.getId(), entry.item.mime(), entry.stored.fileName());
+        }
+    }
+
+    private static byte[] readAll(BatchUploadItem item) throws IOException {
+        try (InputStream inputStream = item.file().getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    /**
+     * AppException 的信息原样返回给客户端，其他异常只记日志
+     */
+    private static String errorOf(BatchEntry entry, Exception e) {
+        if (e instanceof AppException appException) {
+            return appException.getMessage();
+        }
+        log.warn("Batch upload item {} ({}) failed", entry.index, entry.item.name(), e);
+        return AppException.internalError(entry.item.name()).getMessage();
+    }
+
+    private static BatchUploadResult batchResult(BatchEntry entry) {
+        BatchEntry owner = entry.sameAs != null ? entry.sameAs : entry;
+        String error = entry.error != null ? entry.error : owner.error;
+        if (error != null) {
+            return new BatchUploadResult(entry.index, entry.item.name(), null, false, error);
+        }
+        return new BatchUploadResult(entry.index, entry.item.name(), owner.media, entry.sameAs != null || owner.duplicate, null);
+    }
+
+    private static String mediaType(String mime) {
+        return mime.split("/")[0];
+    }
+
+    /**
+     * 先查 Bloom 过滤器，只有可能存在时才查数据库
+     */
+    private MediaContent findByChecksum(String checksum) {
+        if (!checksumFilter.mightContain(checksum)) {
+            return null;
+        }
+        MediaContent mediaContent = mediaMapper.selectOne(new QueryWrapper<MediaContent>().eq("checksum", checksum).last("limit 1"));
+        if (mediaContent == null) {
+            checksumFilter.recordFalsePositive();
+        }
         return mediaContent;
     }
+
+    /**
+     * 先用 Bloom 过滤器排除一定不存在的，剩下的用 IN 查询，每次最多 MAX_IN_CHECKSUMS 个
+     */
+    private Map<String, MediaContent> findByChecksums(Collection<String> checksums) {
+        List<String> candidates = checksums.stream().filter(checksumFilter::mightContain).toList();
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, MediaContent> found = new HashMap<>();
+        for (List<String> chunk : Lists.partition(candidates, MAX_IN_CHECKSUMS)) {
+            for (MediaContent mediaContent : mediaMapper.selectList(new QueryWrapper<MediaContent>().in("checksum", chunk))) {
+                found.putIfAbsent(mediaContent.getChecksum(), mediaContent);
+            }
+        }
+        candidates.stream().filter(checksum -> !found.containsKey(checksum)).forEach(checksum -> checksumFilter.recordFalsePositive());
+        return found;
+    }
+
+    /**
+     * 感知哈希与已有图片足够接近时，在 metadata 中记下最相似的图片，供审核时参考
+     */
+    private void addNearDuplicateMetadata(Long phash, Map<String, Object> metadata) {
+        if (phash == null) {
+            return;
+        }
+        HammingIndex.Match match = nearDuplicateIndex.findNearest(phash);
+        if (match == null) {
+            return;
+        }
+        log.info("Upload is a near duplicate of media {} (distance {})", match.id(), match.distance());
+        metadata.put("nearDuplicateOf", match.id());
+        metadata.put("nearDuplicateDistance", match.distance());
+    }
 }
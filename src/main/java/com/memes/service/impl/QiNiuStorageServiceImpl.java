@@ -1,29 +1,58 @@
 package com.memes.service.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import com.google.gson.Gson;
 import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
 import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.model.common.StoredObject;
 import com.memes.service.StorageService;
+import com.memes.util.MultipartUploader;
 import com.memes.util.Preconditions;
+import com.qiniu.common.QiniuException;
+import com.qiniu.http.Client;
 import com.qiniu.http.Response;
+import com.qiniu.storage.ApiUploadV2AbortUpload;
+import com.qiniu.storage.ApiUploadV2CompleteUpload;
+import com.qiniu.storage.ApiUploadV2InitUpload;
+import com.qiniu.storage.ApiUploadV2UploadPart;
 import com.qiniu.storage.BucketManager;
 import com.qiniu.storage.Configuration;
 import com.qiniu.storage.Region;
 import com.qiniu.storage.UploadManager;
 import com.qiniu.storage.model.BatchStatus;
 import com.qiniu.storage.model.DefaultPutRet;
+import com.qiniu.storage.model.FileInfo;
+import com.qiniu.storage.model.FileListing;
 import com.qiniu.util.Auth;
+import com.qiniu.util.StringMap;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service("qiniu")
 @ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "qiniu")
 public class QiNiuStorageServiceImpl implements StorageService {
@@ -36,24 +65,85 @@ public class QiNiuStorageServiceImpl implements StorageService {
     @Value("${qiniu.urlPrefix}")
     String urlPrefix;
 
+    // 客户端直传的表单上传地址，按空间所在区域配置
+    @Value("${qiniu.uploadUrl:https://up.qiniup.com}")
+    String uploadUrl;
+
     @Value("${qiniu.dirName}")
     String ossDirName = "shadiao";
 
+    // 超过 threshold 的对象用分片上传 V2 并行上传
+    @Value("${storage.multipart.threshold:16MB}")
+    DataSize multipartThreshold;
+    @Value("${storage.multipart.part-size:8MB}")
+    DataSize multipartPartSize;
+    @Value("${storage.multipart.concurrency:4}")
+    int multipartConcurrency;
+    @Value("${storage.multipart.max-attempts:3}")
+    int multipartMaxAttempts;
+
+    // 空间级上传凭证的有效期，剩余不到 TOKEN_REFRESH 时换新的
+    private static final long TOKEN_TTL_SECONDS = 3600;
+    // stat 的对象不存在错误码
+    private static final int NO_SUCH_ENTRY = 612;
+    private static final Duration TOKEN_REFRESH = Duration.ofMinutes(10);
+
+    private record CachedToken(String token, Instant expiresAt) {
+    }
+
+    private final MeterRegistry registry;
+    private MultipartUploader multipartUploader;
+    // Auth 和 BucketManager 线程安全，初始化一次后复用
+    private Auth auth;
+    private BucketManager bucketManager;
+    private volatile CachedToken cachedToken;
+
     static final UploadManager manager;
 
+    static final Client client = new Client();
+
     final static Gson gson = new Gson();
 
+    static final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
     static {
         Configuration cfg = new Configuration(Region.autoRegion());
         cfg.resumableUploadAPIVersion = Configuration.ResumableUploadAPIVersion.V2;// 指定分片上传版本
         manager = new UploadManager(cfg);
     }
 
+    public QiNiuStorageServiceImpl(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
     @PostConstruct
     void init() {
         if (!ossDirName.endsWith("/")) {
             ossDirName = ossDirName.concat("/");
         }
+        // V2 分片最小 1MB
+        Preconditions.checkArgument(multipartPartSize.toMegabytes() >= 1, AppException.invalidParam("storage.multipart.part-size"));
+        multipartUploader = new MultipartUploader(
+            (int) multipartPartSize.toBytes(),
+            multipartConcurrency,
+            multipartMaxAttempts,
+            registry,
+            "qiniu");
+        auth = Auth.create(accessKey, secretKey);
+        Configuration cfg = new Configuration(Region.autoRegion());
+        bucketManager = new BucketManager(auth, cfg);
+    }
+
+    /**
+     * 空间级上传凭证（insertOnly 语义，不能覆盖已有对象），缓存到快过期再重新生成
+     */
+    private String uploadToken() {
+        CachedToken cached = cachedToken;
+        if (cached == null || Instant.now().isAfter(cached.expiresAt().minus(TOKEN_REFRESH))) {
+            cached = new CachedToken(auth.uploadToken(bucket, null, TOKEN_TTL_SECONDS, null), Instant.now().plusSeconds(TOKEN_TTL_SECONDS));
+            cachedToken = cached;
+        }
+        return cached.token();
     }
 
     @Override
@@ -77,20 +167,23 @@ public class QiNiuStorageServiceImpl implements StorageService {
     }
 
     @Override
-    @SneakyThrows
     public HashMap<String, Boolean> delete(String[] keyList) {
         if (keyList == null || keyList.length == 0) {
             return new HashMap<>();
         }
-        Auth auth = Auth.create(accessKey, secretKey);
-        Configuration cfg = new Configuration(Region.autoRegion());
-        BucketManager bucketManager = new BucketManager(auth, cfg);
-
+        // batch 一次最多 1000 个操作，更多的用 deleteAll 分批
+        Preconditions.checkArgument(keyList.length <= maxDeleteBatch(), AppException.invalidParam("keyList size"));
         BucketManager.BatchOperations batchOperations = new BucketManager.BatchOperations();
         batchOperations.addDeleteOp(bucket, keyList);
 
-        Response response = bucketManager.batch(batchOperations);
-        BatchStatus[] batchStatusList = response.jsonToObject(BatchStatus[].class);
+        BatchStatus[] batchStatusList;
+        try {
+            // 单个 key 失败时整体返回 298，不会抛异常；抛异常说明整个请求失败
+            Response response = bucketManager.batch(batchOperations);
+            batchStatusList = response.jsonToObject(BatchStatus[].class);
+        } catch (QiniuException e) {
+            throw AppException.storageError("delete failed: " + e.getMessage());
+        }
         var nameStatusMap = new HashMap<String, Boolean>();
         for (int i = 0; i < keyList.length; i++) {
             BatchStatus status = batchStatusList[i];
@@ -101,6 +194,132 @@ public class QiNiuStorageServiceImpl implements StorageService {
 
     }
 
+    /**
+     * 通过带签名的下载链接读取，私有空间和公开空间都适用
+     */
+    @Override
+    public byte[] read(String key) {
+        String url = auth.privateDownloadUrl(urlPrefix.concat(key));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 404) {
+                return null;
+            }
+            Preconditions
+                .checkArgument(
+                    response.statusCode() == 200,
+                    AppException.storageError("read %s failed, status:%d".formatted(key, response.statusCode())));
+            return response.body();
+        } catch (IOException e) {
+            throw AppException.storageError("read %s failed: %s".formatted(key, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AppException.storageError("read %s interrupted".formatted(key));
+        }
+    }
+
+    /**
+     * stat 接口返回的 md5 对部分对象（例如分片上传的）为空
+     */
+    @Override
+    public ObjectStat stat(String key) {
+        try {
+            FileInfo info = bucketManager.stat(bucket, key);
+            return new ObjectStat(info.fsize, info.md5);
+        } catch (QiniuException e) {
+            if (e.code() == NO_SUCH_ENTRY) {
+                return null;
+            }
+            throw AppException.storageError("stat %s failed: %s".formatted(key, e.getMessage()));
+        }
+    }
+
+    @Override
+    public byte[] readRange(String key, long offset, int length) {
+        String url = auth.privateDownloadUrl(urlPrefix.concat(key));
+        HttpRequest request = HttpRequest
+            .newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(60))
+            .header("Range", "bytes=%d-%d".formatted(offset, offset + length - 1))
+            .GET()
+            .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 404) {
+                    return null;
+                }
+                if (response.statusCode() == 416) {
+                    return new byte[0];
+                }
+                Preconditions
+                    .checkArgument(
+                        response.statusCode() == 206 || response.statusCode() == 200,
+                        AppException.storageError("read %s failed, status:%d".formatted(key, response.statusCode())));
+                // 不支持范围请求时返回 200 和整个对象，只读需要的部分
+                if (response.statusCode() == 200) {
+                    body.skipNBytes(offset);
+                }
+                return body.readNBytes(length);
+            }
+        } catch (IOException e) {
+            throw AppException.storageError("read %s failed: %s".formatted(key, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AppException.storageError("read %s interrupted".formatted(key));
+        }
+    }
+
+    /**
+     * 列出 dirName 下的对象，游标是 list 接口返回的 marker
+     */
+    @Override
+    public ObjectPage list(String cursor, int limit) {
+        try {
+            FileListing listing = bucketManager.listFiles(bucket, ossDirName, cursor, limit, null);
+            List<StoredObject> objects = new ArrayList<>();
+            if (listing.items != null) {
+                for (FileInfo item : listing.items) {
+                    // putTime 的单位是 100 纳秒
+                    objects.add(new StoredObject(item.key, item.fsize, Instant.ofEpochMilli(item.putTime / 10_000)));
+                }
+            }
+            return new ObjectPage(objects, listing.isEOF() ? null : listing.marker);
+        } catch (QiniuException e) {
+            throw AppException.storageError("list failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String keyOf(String url) {
+        if (url == null || !url.startsWith(urlPrefix)) {
+            return null;
+        }
+        return url.substring(urlPrefix.length());
+    }
+
+    @Override
+    public String directUploadKey(String fileName) {
+        return ossDirName.concat(fileName);
+    }
+
+    /**
+     * 表单上传，上传凭证限定 key、mime 和大小，insertOnly 不允许覆盖
+     */
+    @Override
+    public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+        StringMap policy = new StringMap().put("fsizeLimit", maxBytes).put("mimeLimit", mime).put("insertOnly", 1);
+        long expires = Math.max(1, Duration.between(Instant.now(), expiresAt).toSeconds());
+        String formToken = auth.uploadToken(bucket, key, expires, policy);
+        return new DirectUploadForm(uploadUrl, "POST", Map.of("token", formToken, "key", key));
+    }
+
+    @Override
+    public FileUploadResult completeDirectUpload(String key, String mime) {
+        return new FileUploadResult(urlPrefix.concat(key), key, mime);
+    }
+
     /**
      * 上传字节数据到七牛云
      *
@@ -130,11 +349,50 @@ public class QiNiuStorageServiceImpl implements StorageService {
         if (!fileName.contains(".")) {
             path = path.concat(".").concat(getExtension(mime));
         }
-        Auth auth = Auth.create(accessKey, secretKey);
-        String uploadToken = auth.uploadToken(bucket);
         path = ossDirName.concat(path);
-        Response response = manager.put(bytes, path, uploadToken);
+        if (bytes.length >= multipartThreshold.toBytes()) {
+            return resumableUpload(bytes, path, mime, auth.uploadToken(bucket, path));
+        }
+        Response response = manager.put(bytes, path, uploadToken());
         DefaultPutRet putRet = gson.fromJson(response.bodyString(), DefaultPutRet.class);
         return putRet.key;
     }
+
+    /**
+     * 分片上传 V2：init 之后并行上传分片，分片失败只重传这个分片，全部完成后合并；最终失败时放弃这次上传
+     */
+    private String resumableUpload(byte[] bytes, String key, String mime, String token) throws IOException {
+        String uploadId = new ApiUploadV2InitUpload(client).request(new ApiUploadV2InitUpload.Request(uploadUrl, token).setKey(key)).getUploadId();
+        try {
+            List<MultipartUploader.UploadedPart> parts = multipartUploader.upload(bytes.length, part -> {
+                ApiUploadV2UploadPart.Request request = new ApiUploadV2UploadPart.Request(uploadUrl, token, uploadId, part.number())
+                    .setKey(key)
+                    .setUploadData(bytes, part.offset(), part.length(), null);
+                return new ApiUploadV2UploadPart(client).request(request).getEtag();
+            });
+            List<Map<String, Object>> partsInfo = new ArrayList<>(parts.size());
+            for (MultipartUploader.UploadedPart part : parts) {
+                partsInfo
+                    .add(
+                        Map
+                            .of(
+                                ApiUploadV2CompleteUpload.Request.PART_NUMBER,
+                                part.number(),
+                                ApiUploadV2CompleteUpload.Request.PART_ETG,
+                                part.etag()));
+            }
+            ApiUploadV2CompleteUpload.Request complete = new ApiUploadV2CompleteUpload.Request(uploadUrl, token, uploadId, partsInfo).setKey(key);
+            if (mime != null && mime.contains("/")) {
+                complete.setFileMimeType(mime);
+            }
+            return new ApiUploadV2CompleteUpload(client).request(complete).getKey();
+        } catch (IOException | RuntimeException e) {
+            try {
+                new ApiUploadV2AbortUpload(client).request(new ApiUploadV2AbortUpload.Request(uploadUrl, token, uploadId).setKey(key));
+            } catch (IOException | RuntimeException abortError) {
+                log.warn("Failed to abort resumable upload {}: {}", uploadId, abortError.getMessage());
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,235 @@
+package com.memes.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToLongFunction;
+
+import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
+import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.service.StorageService;
+import com.memes.util.CircuitBreaker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 所有存储实现外面的一层：每个操作的耗时直方图和字节数指标、超时、幂等操作的重试，以及熔断。
+ * <p>
+ * 调用在虚拟线程上执行，调用方最多等待超时时间；熔断打开后直接返回 503，存储变慢时不会让请求线程堆积。
+ * 只有 read、delete 和指定路径的 store 会重试，随机 key 的 store 重试会留下重复对象。
+ * 参数错误、对象不存在这类客户端错误不重试，也不计入熔断。
+ */
+@Slf4j
+public class ResilientStorageService implements StorageService {
+
+    @Builder
+    public record Settings(Duration timeout, Duration storeTimeout, int maxAttempts, Duration backoff, int breakerWindow, int breakerMinCalls,
+        double breakerFailureRate, Duration breakerOpenDuration, int bulkConcurrency) {
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final StorageService delegate;
+    private final String backend;
+    private final Settings settings;
+    private final CircuitBreaker breaker;
+    private final MeterRegistry registry;
+
+    public ResilientStorageService(StorageService delegate, String backend, Settings settings, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.backend = backend;
+        this.settings = settings;
+        this.registry = registry;
+        this.breaker = new CircuitBreaker(
+            settings.breakerWindow(),
+            settings.breakerMinCalls(),
+            settings.breakerFailureRate(),
+            settings.breakerOpenDuration());
+        Gauge
+            .builder("memes.storage.breaker.open", breaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+            .tag("backend", backend)
+            .register(registry);
+    }
+
+    @Override
+    public FileUploadResult store(byte[] bytes, String mime) {
+        return call("store", settings.storeTimeout(), false, () -> delegate.store(bytes, mime), r -> bytes.length);
+    }
+
+    @Override
+    public FileUploadResult store(byte[] bytes, String mime, String path) {
+        return call("store", settings.storeTimeout(), true, () -> delegate.store(bytes, mime, path), r -> bytes.length);
+    }
+
+    @Override
+    public Map<String, Boolean> delete(String[] keyList) {
+        return call("delete", settings.timeout(), true, () -> delegate.delete(keyList), r -> 0);
+    }
+
+    @Override
+    public byte[] read(String key) {
+        return call("read", settings.timeout(), true, () -> delegate.read(key), bytes -> bytes == null ? 0 : bytes.length);
+    }
+
+    @Override
+    public ObjectStat stat(String key) {
+        return call("stat", settings.timeout(), true, () -> delegate.stat(key), r -> 0);
+    }
+
+    @Override
+    public byte[] readRange(String key, long offset, int length) {
+        return call(
+            "read",
+            settings.timeout(),
+            true,
+            () -> delegate.readRange(key, offset, length),
+            bytes -> bytes == null ? 0 : bytes.length);
+    }
+
+    @Override
+    public ObjectPage list(String cursor, int limit) {
+        return call("list", settings.timeout(), true, () -> delegate.list(cursor, limit), r -> 0);
+    }
+
+    @Override
+    public String keyOf(String url) {
+        return delegate.keyOf(url);
+    }
+
+    @Override
+    public int maxDeleteBatch() {
+        return delegate.maxDeleteBatch();
+    }
+
+    /**
+     * storeAll / deleteAll 的每个对象、每一批都单独经过超时、重试和熔断
+     */
+    @Override
+    public int bulkConcurrency() {
+        return settings.bulkConcurrency();
+    }
+
+    @Override
+    public String directUploadKey(String fileName) {
+        return delegate.directUploadKey(fileName);
+    }
+
+    @Override
+    public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+        return delegate.directUploadForm(key, mime, maxBytes, expiresAt, token);
+    }
+
+    @Override
+    public FileUploadResult completeDirectUpload(String key, String mime) {
+        return call("complete", settings.timeout(), true, () -> delegate.completeDirectUpload(key, mime), r -> 0);
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    private <T> T call(String operation, Duration timeout, boolean idempotent, Callable<T> action, ToLongFunction<T> bytesOf) {
+        int maxAttempts = idempotent ? settings.maxAttempts() : 1;
+        for (int attempt = 1;; attempt++) {
+            if (!breaker.tryAcquire()) {
+                record(operation, "rejected", 0);
+                log.warn("Storage {} {} rejected, circuit breaker is open", backend, operation);
+                throw AppException.overloaded();
+            }
+            long start = System.nanoTime();
+            try {
+                T result = withTimeout(action, timeout);
+                breaker.onSuccess();
+                record(operation, "success", System.nanoTime() - start);
+                long bytes = bytesOf.applyAsLong(result);
+                if (bytes > 0) {
+                    Counter
+                        .builder("memes.storage.bytes")
+                        .tags("backend", backend, "operation", operation)
+                        .baseUnit("bytes")
+                        .register(registry)
+                        .increment(bytes);
+                }
+                return result;
+            } catch (AppException e) {
+                if (e.getErrorType().getCode() < 500) {
+                    // 客户端错误，存储本身是好的
+                    breaker.onSuccess();
+                    record(operation, "client_error", System.nanoTime() - start);
+                    throw e;
+                }
+                onFailure(operation, start, attempt, maxAttempts, e);
+            } catch (RuntimeException e) {
+                onFailure(operation, start, attempt, maxAttempts, e);
+            }
+        }
+    }
+
+    private void onFailure(String operation, long start, int attempt, int maxAttempts, RuntimeException e) {
+        breaker.onFailure();
+        record(operation, e instanceof StorageTimeoutException ? "timeout" : "failure", System.nanoTime() - start);
+        if (attempt >= maxAttempts) {
+            throw e instanceof StorageTimeoutException ? AppException.storageError(e.getMessage()) : e;
+        }
+        // full jitter：[0, backoff * 2^(attempt-1)) 之间随机，避免大量请求同时重试
+        long ceiling = settings.backoff().toMillis() << (attempt - 1);
+        long sleep = ThreadLocalRandom.current().nextLong(Math.max(1, ceiling));
+        log.warn("Storage {} {} failed (attempt {}), retrying in {}ms: {}", backend, operation, attempt, sleep, e.getMessage());
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw AppException.storageError("%s interrupted".formatted(operation));
+        }
+    }
+
+    private static <T> T withTimeout(Callable<T> action, Duration timeout) {
+        Future<T> future = EXECUTOR.submit(action);
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new StorageTimeoutException("timed out after %dms".formatted(timeout.toMillis()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw AppException.storageError(String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw AppException.storageError("interrupted");
+        }
+    }
+
+    private void record(String operation, String result, long nanos) {
+        Timer
+            .builder("memes.storage.requests")
+            .tags("backend", backend, "operation", operation, "result", result)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static class StorageTimeoutException extends RuntimeException {
+        StorageTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
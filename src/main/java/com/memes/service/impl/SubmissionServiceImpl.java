@@ -24,7 +24,9 @@ import com.memes.mapper.SubmissionMapper;
 import com.memes.model.pojo.MediaContent;
 import com.memes.model.pojo.PinnedSubmission;
 import com.memes.model.pojo.Submission;
+import com.memes.service.ImageVariantService;
 import com.memes.service.SubmissionService;
+import com.memes.service.VoteDeduplicator;
 import com.memes.util.Preconditions;
 import com.memes.util.TimeUtil;
 
@@ -36,11 +38,19 @@ public class SubmissionServiceImpl extends ServiceImpl<SubmissionMapper, Submiss
     private final SubmissionMapper submissionMapper;
     private final PinnedSubmissionMapper pinnedSubmissionMapper;
     private final MediaMapper mediaMapper;
+    private final VoteDeduplicator voteDeduplicator;
+    private final ImageVariantService imageVariantService;
 
-    public SubmissionServiceImpl(SubmissionMapper submissionMapper, PinnedSubmissionMapper pinnedSubmissionMapper, MediaMapper mediaMapper) {
+    // 客户端列表页使用的缩略图宽度，用于统计节省的流量
+    private static final int FEED_PREFERRED_WIDTH = 480;
+
+    public SubmissionServiceImpl(SubmissionMapper submissionMapper, PinnedSubmissionMapper pinnedSubmissionMapper, MediaMapper mediaMapper,
+        VoteDeduplicator voteDeduplicator, ImageVariantService imageVariantService) {
         this.submissionMapper = submissionMapper;
         this.pinnedSubmissionMapper = pinnedSubmissionMapper;
         this.mediaMapper = mediaMapper;
+        this.voteDeduplicator = voteDeduplicator;
+        this.imageVariantService = imageVariantService;
     }
 
     @Override
@@ -64,6 +74,11 @@ public class SubmissionServiceImpl extends ServiceImpl<SubmissionMapper, Submiss
     }
 
     public Submission updateSubmissionCount(Long id, boolean isLike) {
+        // 同一个 uuid 对同一条投稿只计一次票，重复的票不写数据库
+        if (!voteDeduplicator.tryVote(Audit.getCurrentUuid(), id)) {
+            log.debug("Dropping repeated vote for submission ID: {}", id);
+            return submissionMapper.selectById(id);
+        }
         LambdaUpdateWrapper<Submission> updateWrapper = new LambdaUpdateWrapper<>();
         updateWrapper.eq(Submission::getId, id);
         if (isLike) {
@@ -137,6 +152,7 @@ public class SubmissionServiceImpl extends ServiceImpl<SubmissionMapper, Submiss
                 .collect(Collectors.toList());
             submission.setMediaContentList(submissionMedias);
         });
+        imageVariantService.recordFeedPage(List.copyOf(mediaMap.values()), FEED_PREFERRED_WIDTH);
     }
 
     private Map<Long, MediaContent> fetchMediaContents(Set<Long> mediaIds) {
@@ -150,6 +166,8 @@ public class SubmissionServiceImpl extends ServiceImpl<SubmissionMapper, Submiss
                         MediaContent::getDataType,
                         MediaContent::getDataContent,
                         MediaContent::getUserId,
+                        MediaContent::getFileSize,
+                        MediaContent::getMetadata,
                         MediaContent::getCreatedAt,
                         MediaContent::getUpdatedAt))
             .stream()
@@ -215,7 +233,7 @@ public class SubmissionServiceImpl extends ServiceImpl<SubmissionMapper, Submiss
         QueryWrapper<MediaContent> wrapper = new QueryWrapper<>();
         wrapper.in("id", mediaContentIdList);
         // ignore llm moderation status
-        wrapper.select("id", "data_type", "data_content", "user_id", "created_at", "updated_at");
+        wrapper.select("id", "data_type", "data_content", "user_id", "file_size", "metadata", "created_at", "updated_at");
         wrapper.eq("status", MediaContent.ContentStatus.APPROVED);
         List<MediaContent> mediaContents = mediaMapper.selectList(wrapper);
         submission.setMediaContentList(mediaContents);
@@ -0,0 +1,215 @@
+package com.memes.service.impl;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
+import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.service.StorageService;
+import com.memes.util.DiskLruCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 远端存储前面的本地磁盘读缓存。写入和删除直接转给远端（写穿），写成功后顺手放进缓存；读取先查本地，没有再从远端拉取并缓存，
+ * 同一个 key 并发未命中时只有一个请求会去远端，其他请求等它的结果。
+ * <p>
+ * 缓存本身出错（磁盘满、权限）只记日志，不影响读写远端。
+ */
+@Slf4j
+public class TieredStorageService implements StorageService {
+
+    private final StorageService remote;
+    private final DiskLruCache cache;
+    private final long maxObjectBytes;
+    private final Map<String, CompletableFuture<byte[]>> loading = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter localBytes;
+    private final Counter remoteBytes;
+
+    public TieredStorageService(StorageService remote, DiskLruCache cache, long maxObjectBytes, MeterRegistry registry) {
+        this.remote = remote;
+        this.cache = cache;
+        this.maxObjectBytes = maxObjectBytes;
+        this.hits = registry.counter("memes.storage.cache.requests", "result", "hit");
+        this.misses = registry.counter("memes.storage.cache.requests", "result", "miss");
+        this.coalesced = registry.counter("memes.storage.cache.requests", "result", "coalesced");
+        this.localBytes = Counter.builder("memes.storage.cache.bytes").tag("source", "local").baseUnit("bytes").register(registry);
+        this.remoteBytes = Counter.builder("memes.storage.cache.bytes").tag("source", "remote").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("memes.storage.cache.evictions", cache, DiskLruCache::evictions).register(registry);
+        Gauge.builder("memes.storage.cache.size", cache, DiskLruCache::size).baseUnit("bytes").register(registry);
+        Gauge.builder("memes.storage.cache.entries", cache, DiskLruCache::count).register(registry);
+        Gauge.builder("memes.storage.cache.hit.ratio", this, TieredStorageService::hitRatio).register(registry);
+    }
+
+    @Override
+    public FileUploadResult store(byte[] bytes, String mime) {
+        FileUploadResult result = remote.store(bytes, mime);
+        cachePut(result, bytes);
+        return result;
+    }
+
+    @Override
+    public FileUploadResult store(byte[] bytes, String mime, String path) {
+        FileUploadResult result = remote.store(bytes, mime, path);
+        cachePut(result, bytes);
+        return result;
+    }
+
+    @Override
+    public Map<String, Boolean> delete(String[] keyList) {
+        Map<String, Boolean> result = remote.delete(keyList);
+        if (keyList != null) {
+            for (String key : keyList) {
+                try {
+                    cache.remove(key);
+                } catch (IOException e) {
+                    log.warn("Failed to remove {} from disk cache: {}", key, e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public byte[] read(String key) {
+        byte[] cached = cacheGet(key);
+        if (cached != null) {
+            hits.increment();
+            localBytes.increment(cached.length);
+            return cached;
+        }
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = loading.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+        try {
+            // 上一个加载者可能刚写完缓存并离开
+            byte[] bytes = cacheGet(key);
+            if (bytes != null) {
+                hits.increment();
+                localBytes.increment(bytes.length);
+            } else {
+                misses.increment();
+                bytes = remote.read(key);
+                if (bytes != null) {
+                    remoteBytes.increment(bytes.length);
+                    cachePut(key, bytes);
+                }
+            }
+            mine.complete(bytes);
+            return bytes;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    @Override
+    public ObjectStat stat(String key) {
+        return remote.stat(key);
+    }
+
+    /**
+     * 只读一部分的不经过缓存
+     */
+    @Override
+    public byte[] readRange(String key, long offset, int length) {
+        return remote.readRange(key, offset, length);
+    }
+
+    @Override
+    public String keyOf(String url) {
+        return remote.keyOf(url);
+    }
+
+    @Override
+    public ObjectPage list(String cursor, int limit) {
+        return remote.list(cursor, limit);
+    }
+
+    @Override
+    public int maxDeleteBatch() {
+        return remote.maxDeleteBatch();
+    }
+
+    @Override
+    public int bulkConcurrency() {
+        return remote.bulkConcurrency();
+    }
+
+    @Override
+    public String directUploadKey(String fileName) {
+        return remote.directUploadKey(fileName);
+    }
+
+    @Override
+    public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+        return remote.directUploadForm(key, mime, maxBytes, expiresAt, token);
+    }
+
+    @Override
+    public FileUploadResult completeDirectUpload(String key, String mime) {
+        return remote.completeDirectUpload(key, mime);
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw AppException.storageError(String.valueOf(e.getCause()));
+        }
+    }
+
+    private byte[] cacheGet(String key) {
+        try {
+            return cache.get(key);
+        } catch (IOException e) {
+            log.warn("Failed to read {} from disk cache: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void cachePut(FileUploadResult result, byte[] bytes) {
+        if (result != null) {
+            cachePut(result.fileName(), bytes);
+        }
+    }
+
+    private void cachePut(String key, byte[] bytes) {
+        if (bytes.length > maxObjectBytes) {
+            return;
+        }
+        try {
+            cache.put(key, bytes);
+        } catch (IOException e) {
+            log.warn("Failed to write {} to disk cache: {}", key, e.getMessage());
+        }
+    }
+}
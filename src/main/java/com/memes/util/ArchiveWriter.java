@@ -0,0 +1,199 @@
+package com.memes.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.memes.exception.AppException;
+
+/**
+ * 流式写出 tar 或 zip 归档，写过的内容不在内存中保留。
+ * <p>
+ * tar 直接写到 WritableByteChannel，本地文件用 FileChannel.transferTo 拷贝：目标也是文件时由内核完成（copy_file_range / sendfile），
+ * 数据不经过 JVM 堆。zip 的条目不压缩（图片和视频本来就是压缩过的），但要计算 CRC，数据总要读进堆里。
+ */
+public abstract class ArchiveWriter implements Closeable {
+
+    public enum Format {
+        TAR("application/x-tar", "tar"), ZIP("application/zip", "zip");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw AppException.invalidParam("format");
+        }
+    }
+
+    public static ArchiveWriter open(Format format, WritableByteChannel out) {
+        return switch (format) {
+            case TAR -> new Tar(out);
+            case ZIP -> new Zip(Channels.newOutputStream(out));
+        };
+    }
+
+    public abstract void write(String name, byte[] bytes, long modifiedMillis) throws IOException;
+
+    /**
+     * 文件在打开之后才写条目头，文件不存在时抛出 NoSuchFileException，归档保持完整
+     */
+    public abstract void write(String name, Path file) throws IOException;
+
+    private static final class Tar extends ArchiveWriter {
+        private static final int BLOCK = 512;
+        private static final int NAME_LENGTH = 100;
+        // 12 字节的大小字段最多 11 位八进制
+        private static final long MAX_SIZE = 077777777777L;
+
+        private final WritableByteChannel out;
+
+        private Tar(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(String name, byte[] bytes, long modifiedMillis) throws IOException {
+            writeFully(header(name, bytes.length, modifiedMillis));
+            writeFully(ByteBuffer.wrap(bytes));
+            pad(bytes.length);
+        }
+
+        @Override
+        public void write(String name, Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                writeFully(header(name, size, Files.getLastModifiedTime(file).toMillis()));
+                long position = 0;
+                while (position < size) {
+                    long transferred = channel.transferTo(position, size - position, out);
+                    if (transferred <= 0) {
+                        // 条目头里已经写了大小，文件被截短时归档无法继续
+                        throw new IOException("%s shrank while archiving".formatted(file));
+                    }
+                    position += transferred;
+                }
+                pad(size);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                writeFully(ByteBuffer.allocate(BLOCK * 2));
+            }
+        }
+
+        private ByteBuffer header(String name, long size, long modifiedMillis) throws IOException {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length > NAME_LENGTH || size > MAX_SIZE) {
+                throw new IOException("%s does not fit in a ustar header".formatted(name));
+            }
+            byte[] header = new byte[BLOCK];
+            System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+            octal(header, 100, 8, 0644);
+            octal(header, 108, 8, 0);
+            octal(header, 116, 8, 0);
+            octal(header, 124, 12, size);
+            octal(header, 136, 12, modifiedMillis / 1000);
+            header[156] = '0';
+            System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+            header[263] = '0';
+            header[264] = '0';
+            // 校验和按校验和字段全是空格计算
+            Arrays.fill(header, 148, 156, (byte) ' ');
+            long checksum = 0;
+            for (byte b : header) {
+                checksum += b & 0xff;
+            }
+            octal(header, 148, 7, checksum);
+            return ByteBuffer.wrap(header);
+        }
+
+        /**
+         * length - 1 位八进制，末尾补 NUL
+         */
+        private static void octal(byte[] header, int offset, int length, long value) {
+            String digits = Long.toOctalString(value);
+            String padded = "0".repeat(length - 1 - digits.length()) + digits;
+            System.arraycopy(padded.getBytes(StandardCharsets.US_ASCII), 0, header, offset, length - 1);
+            header[offset + length - 1] = 0;
+        }
+
+        private void pad(long size) throws IOException {
+            int remainder = (int) (size % BLOCK);
+            if (remainder != 0) {
+                writeFully(ByteBuffer.allocate(BLOCK - remainder));
+            }
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private static final class Zip extends ArchiveWriter {
+        private final ZipOutputStream zip;
+
+        private Zip(OutputStream out) {
+            this.zip = new ZipOutputStream(out);
+            this.zip.setLevel(Deflater.NO_COMPRESSION);
+        }
+
+        @Override
+        public void write(String name, byte[] bytes, long modifiedMillis) throws IOException {
+            ZipEntry entry = new ZipEntry(name);
+            entry.setTime(modifiedMillis);
+            zip.putNextEntry(entry);
+            zip.write(bytes);
+            zip.closeEntry();
+        }
+
+        @Override
+        public void write(String name, Path file) throws IOException {
+            try (var in = Files.newInputStream(file)) {
+                ZipEntry entry = new ZipEntry(name);
+                entry.setTime(Files.getLastModifiedTime(file).toMillis());
+                zip.putNextEntry(entry);
+                in.transferTo(zip);
+                zip.closeEntry();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
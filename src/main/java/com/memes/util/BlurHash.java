@@ -0,0 +1,112 @@
+package com.memes.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * BlurHash 编码（https://blurha.sh），把图片压成二三十个字符的模糊占位图，客户端在原图加载前解码显示。
+ * <p>
+ * 计算量与像素数成正比，调用方应传入缩小后的图片。
+ */
+public final class BlurHash {
+
+    private static final String CHARACTERS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    /**
+     * @param componentsX
+     *            水平方向的分量数，1 到 9
+     * @param componentsY
+     *            垂直方向的分量数，1 到 9
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("components must be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // 预先转换到线性空间
+        double[][] linear = new double[3][width * height];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                linear[0][y * width + x] = toLinear((rgb >> 16) & 0xFF);
+                linear[1][y * width + x] = toLinear((rgb >> 8) & 0xFF);
+                linear[2][y * width + x] = toLinear(rgb & 0xFF);
+            }
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                double normalisation = i == 0 && j == 0 ? 1 : 2;
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = Math.cos(Math.PI * j * y / height);
+                    for (int x = 0; x < width; x++) {
+                        double basis = Math.cos(Math.PI * i * x / width) * basisY;
+                        int index = y * width + x;
+                        r += basis * linear[0][index];
+                        g += basis * linear[1][index];
+                        b += basis * linear[2][index];
+                    }
+                }
+                double scale = normalisation / (width * height);
+                factors[j * componentsX + i] = new double[] {r * scale, g * scale, b * scale};
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+        double maximumValue;
+        if (factors.length > 1) {
+            double actualMax = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMax = Math.max(actualMax, Math.abs(value));
+                }
+            }
+            int quantisedMax = (int) Math.clamp(Math.floor(actualMax * 166 - 0.5), 0, 82);
+            maximumValue = (quantisedMax + 1) / 166.0;
+            encode83(hash, quantisedMax, 1);
+        } else {
+            maximumValue = 1;
+            encode83(hash, 0, 1);
+        }
+        double[] dc = factors[0];
+        encode83(hash, (toSrgb(dc[0]) << 16) + (toSrgb(dc[1]) << 8) + toSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            encode83(hash, quantise(ac[0], maximumValue) * 19 * 19 + quantise(ac[1], maximumValue) * 19 + quantise(ac[2], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static int quantise(double value, double maximumValue) {
+        double normalized = value / maximumValue;
+        double signPow = Math.copySign(Math.sqrt(Math.abs(normalized)), normalized);
+        return (int) Math.clamp(Math.floor(signPow * 9 + 9.5), 0, 18);
+    }
+
+    private static void encode83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / Math.pow(83, length - i)) % 83;
+            out.append(CHARACTERS.charAt(digit));
+        }
+    }
+
+    private static double toLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSrgb(double value) {
+        double v = Math.clamp(value, 0, 1);
+        return v <= 0.0031308 ? (int) (v * 12.92 * 255 + 0.5) : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+}
@@ -0,0 +1,57 @@
+package com.memes.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import com.memes.exception.AppException;
+
+/**
+ * 在虚拟线程上并行执行一组任务，同时运行的任务不超过 concurrency 个，结果按输入顺序返回。
+ * <p>
+ * 任务自己处理失败并返回结果；任务抛出的异常会取消其余任务并原样抛出。
+ */
+public final class BoundedParallel {
+
+    private BoundedParallel() {
+    }
+
+    public static <T, R> List<R> map(List<T> items, int concurrency, Function<T, R> task) {
+        Preconditions.checkArgument(concurrency > 0, AppException.invalidParam("concurrency"));
+        Semaphore permits = new Semaphore(concurrency);
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return task.apply(item);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<R> results = new ArrayList<>(items.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw AppException.fatal(String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AppException.fatal("interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.memes.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP Range 请求中的一个区间，start 和 end 都包含
+ */
+public record ByteRange(long start, long end) {
+
+    // 超过这个数量的多区间请求按整个文件返回，避免被用来放大请求
+    public static final int MAX_RANGES = 16;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long total) {
+        return "bytes %d-%d/%d".formatted(start, end, total);
+    }
+
+    /**
+     * 解析 Range 请求头，支持 {@code bytes=0-99}、{@code bytes=100-}、{@code bytes=-100} 和逗号分隔的多个区间
+     *
+     * @return 没有 Range 头、格式不合法或区间过多时返回 null（按整个文件处理）；所有区间都不可满足时返回空列表（416）
+     */
+    public static List<ByteRange> parse(String header, long total) {
+        if (header == null || !header.startsWith("bytes=") || total == 0) {
+            return null;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String raw : specs) {
+            String spec = raw.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            try {
+                if (first.isEmpty()) {
+                    // 后缀区间：最后 n 个字节
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    ranges.add(new ByteRange(Math.max(0, total - suffix), total - 1));
+                    continue;
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return null;
+                }
+                if (start >= total) {
+                    continue;
+                }
+                ranges.add(new ByteRange(start, Math.min(end, total - 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,142 @@
+package com.memes.util;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 按最近 N 次调用的失败率熔断。
+ * <p>
+ * CLOSED 时记录每次调用结果，窗口内调用数不少于 minCalls 且失败率达到阈值就 OPEN；OPEN 期间直接拒绝，
+ * 过了 openDuration 进入 HALF_OPEN，只放一个探测请求过去：成功则 CLOSED 并清空窗口，失败则重新 OPEN。
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 环形窗口，true 表示失败，由 lock 保护
+    private final boolean[] window;
+    private int next;
+    private int calls;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probing;
+
+    public CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, Duration openDuration) {
+        this(windowSize, minCalls, failureRateThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, Duration openDuration, LongSupplier clock) {
+        this.window = new boolean[windowSize];
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * 是否允许这次调用；返回 true 后必须调用 {@link #onSuccess} 或 {@link #onFailure} 之一
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> {
+                    if (clock.getAsLong() - openedAt < openNanos) {
+                        yield false;
+                    }
+                    state = State.HALF_OPEN;
+                    probing = true;
+                    yield true;
+                }
+                case HALF_OPEN -> {
+                    if (probing) {
+                        yield false;
+                    }
+                    probing = true;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                reset();
+                state = State.CLOSED;
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (calls >= minCalls && failures >= failureRateThreshold * calls) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        probing = false;
+        reset();
+    }
+
+    private void reset() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+        probing = false;
+    }
+}
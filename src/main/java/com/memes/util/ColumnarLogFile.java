@@ -0,0 +1,304 @@
+package com.memes.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.memes.model.pojo.RequestLog;
+
+import lombok.Getter;
+
+/**
+ * request_log 的列式归档文件，一个文件对应一天的日志。
+ * <p>
+ * 每一列单独用 deflate 压缩；字符串列（url、referer、uuid）做字典编码，扫描时只需要对 int 数组做分组累加， 不需要哈希和字符串比较。文件格式：
+ *
+ * <pre>
+ * int magic, int version, int rows, 然后依次是各列: [int 压缩后长度][压缩数据]
+ * </pre>
+ */
+@Getter
+public final class ColumnarLogFile {
+
+    private static final int MAGIC = 0x4D4C4346; // "MLCF"
+    private static final int VERSION = 1;
+    public static final int NULL_ID = -1;
+
+    private final int rows;
+    private final long[] timestamps;
+    private final int[] timecosts;
+    private final byte[] methods;
+    private final String[] urlDict;
+    private final int[] urlIds;
+    private final String[] referDict;
+    private final int[] referIds;
+    private final String[] uuidDict;
+    private final int[] uuidIds;
+
+    private ColumnarLogFile(int rows, long[] timestamps, int[] timecosts, byte[] methods, String[] urlDict, int[] urlIds,
+        String[] referDict, int[] referIds, String[] uuidDict, int[] uuidIds) {
+        this.rows = rows;
+        this.timestamps = timestamps;
+        this.timecosts = timecosts;
+        this.methods = methods;
+        this.urlDict = urlDict;
+        this.urlIds = urlIds;
+        this.referDict = referDict;
+        this.referIds = referIds;
+        this.uuidDict = uuidDict;
+        this.uuidIds = uuidIds;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 先写临时文件再原子替换，读到的归档文件总是完整的
+     */
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            writeColumn(out, column -> {
+                long previous = 0;
+                for (long timestamp : timestamps) {
+                    // 同一天的时间戳差值很小，做差分后压缩率高很多
+                    column.writeLong(timestamp - previous);
+                    previous = timestamp;
+                }
+            });
+            writeColumn(out, column -> writeInts(column, timecosts));
+            writeColumn(out, column -> column.write(methods));
+            writeColumn(out, column -> writeDictionary(column, urlDict, urlIds));
+            writeColumn(out, column -> writeDictionary(column, referDict, referIds));
+            writeColumn(out, column -> writeDictionary(column, uuidDict, uuidIds));
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ColumnarLogFile read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a columnar log file: %s".formatted(path));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported columnar log file version %d: %s".formatted(version, path));
+            }
+            int rows = in.readInt();
+
+            long[] timestamps = new long[rows];
+            try (DataInputStream column = openColumn(in)) {
+                long previous = 0;
+                for (int i = 0; i < rows; i++) {
+                    previous += column.readLong();
+                    timestamps[i] = previous;
+                }
+            }
+            int[] timecosts;
+            try (DataInputStream column = openColumn(in)) {
+                timecosts = readInts(column, rows);
+            }
+            byte[] methods;
+            try (DataInputStream column = openColumn(in)) {
+                methods = column.readNBytes(rows);
+            }
+            int[] urlIds = new int[rows];
+            int[] referIds = new int[rows];
+            int[] uuidIds = new int[rows];
+            String[] urlDict;
+            String[] referDict;
+            String[] uuidDict;
+            try (DataInputStream column = openColumn(in)) {
+                urlDict = readDictionary(column, urlIds);
+            }
+            try (DataInputStream column = openColumn(in)) {
+                referDict = readDictionary(column, referIds);
+            }
+            try (DataInputStream column = openColumn(in)) {
+                uuidDict = readDictionary(column, uuidIds);
+            }
+            return new ColumnarLogFile(rows, timestamps, timecosts, methods, urlDict, urlIds, referDict, referIds, uuidDict, uuidIds);
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, ColumnWriter writer) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream column = new DataOutputStream(
+            new BufferedOutputStream(new DeflaterOutputStream(buffer, new Deflater(Deflater.BEST_SPEED)), 64 * 1024))) {
+            writer.write(column);
+        }
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+    }
+
+    private static DataInputStream openColumn(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new BoundedInputStream(in, length)), 64 * 1024));
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int rows) throws IOException {
+        int[] values = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static void writeDictionary(DataOutputStream out, String[] dict, int[] ids) throws IOException {
+        out.writeInt(dict.length);
+        for (String value : dict) {
+            out.writeUTF(value);
+        }
+        writeInts(out, ids);
+    }
+
+    private static String[] readDictionary(DataInputStream in, int[] ids) throws IOException {
+        String[] dict = new String[in.readInt()];
+        for (int i = 0; i < dict.length; i++) {
+            dict[i] = in.readUTF();
+        }
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.readInt();
+        }
+        return dict;
+    }
+
+    @FunctionalInterface
+    private interface ColumnWriter {
+        void write(DataOutputStream column) throws IOException;
+    }
+
+    /**
+     * 只允许读取当前列的字节，防止 InflaterInputStream 预读到下一列
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private int remaining;
+
+        private BoundedInputStream(InputStream in, int remaining) {
+            this.in = in;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 跳过未读完的部分，但不关闭底层流
+            in.skipNBytes(remaining);
+            remaining = 0;
+        }
+    }
+
+    /**
+     * 每加入一行就编码进各列的数组，不保留 RequestLog 对象
+     */
+    public static final class Builder {
+        private int rows;
+        private long[] timestamps = new long[1024];
+        private int[] timecosts = new int[1024];
+        private byte[] methods = new byte[1024];
+        private int[] urlIds = new int[1024];
+        private int[] referIds = new int[1024];
+        private int[] uuidIds = new int[1024];
+        private final Dictionary urls = new Dictionary();
+        private final Dictionary refers = new Dictionary();
+        private final Dictionary uuids = new Dictionary();
+
+        public Builder add(RequestLog log) {
+            if (rows == timestamps.length) {
+                int capacity = rows * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                timecosts = Arrays.copyOf(timecosts, capacity);
+                methods = Arrays.copyOf(methods, capacity);
+                urlIds = Arrays.copyOf(urlIds, capacity);
+                referIds = Arrays.copyOf(referIds, capacity);
+                uuidIds = Arrays.copyOf(uuidIds, capacity);
+            }
+            timestamps[rows] = log.getTimestamp() == null ? 0 : log.getTimestamp();
+            timecosts[rows] = log.getTimecost() == null ? 0 : log.getTimecost();
+            methods[rows] = (byte) (log.getMethod() == null ? NULL_ID : log.getMethod().ordinal());
+            urlIds[rows] = urls.idOf(log.getUrl());
+            referIds[rows] = refers.idOf(log.getRefer());
+            uuidIds[rows] = uuids.idOf(log.getUuid());
+            rows++;
+            return this;
+        }
+
+        public int size() {
+            return rows;
+        }
+
+        public ColumnarLogFile build() {
+            return new ColumnarLogFile(rows, Arrays.copyOf(timestamps, rows), Arrays.copyOf(timecosts, rows), Arrays.copyOf(methods, rows),
+                urls.values(), Arrays.copyOf(urlIds, rows), refers.values(), Arrays.copyOf(referIds, rows), uuids.values(),
+                Arrays.copyOf(uuidIds, rows));
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            if (value == null) {
+                return NULL_ID;
+            }
+            return ids.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        String[] values() {
+            return values.toArray(String[]::new);
+        }
+    }
+}
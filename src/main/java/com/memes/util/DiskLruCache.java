@@ -0,0 +1,250 @@
+package com.memes.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 容量有上限的本地磁盘 LRU 缓存，key 是任意字符串，文件名是 key 的 sha256：{@code <dir>/ab/<sha256>}。
+ * <p>
+ * 不单独维护索引文件，磁盘上的文件本身就是元数据：写入先写临时文件再原子地 rename 到目标路径，进程在任何时刻崩溃都不会留下写了一半的条目；
+ * 最近访问时间记录在文件的 mtime 上（同一个条目最多每分钟更新一次）。启动时扫描目录按 mtime 重建内存中的 LRU 顺序。
+ */
+@Slf4j
+public class DiskLruCache {
+
+    private static final String TMP_DIR = ".tmp";
+    private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Path dir;
+    private final Path tmpDir;
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 按访问顺序排列，最久没有访问的在最前面，由 lock 保护
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long evictions;
+
+    private static final class Entry {
+        final long size;
+        volatile long touchedAt;
+
+        Entry(long size, long touchedAt) {
+            this.size = size;
+            this.touchedAt = touchedAt;
+        }
+    }
+
+    public DiskLruCache(Path dir, long maxBytes) throws IOException {
+        this.dir = dir;
+        this.tmpDir = dir.resolve(TMP_DIR);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(tmpDir);
+        recover();
+    }
+
+    /**
+     * @return 没有缓存时返回 null
+     */
+    public byte[] get(String key) throws IOException {
+        String name = fileName(key);
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(name);
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            return null;
+        }
+        Path file = path(name);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            // 文件被外部删除了，修正索引
+            forget(name, entry);
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.touchedAt > TOUCH_INTERVAL_MILLIS) {
+            entry.touchedAt = now;
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            } catch (IOException e) {
+                log.debug("Failed to touch cache file {}: {}", file, e.getMessage());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 写入条目，超出容量时淘汰最久没有访问的条目。单个条目比整个容量还大时不缓存。
+     */
+    public void put(String key, byte[] bytes) throws IOException {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        String name = fileName(key);
+        Path tmp = tmpDir.resolve(UUID.randomUUID().toString());
+        Files.write(tmp, bytes);
+        Path file = path(name);
+        try {
+            Files.createDirectories(file.getParent());
+            lock.lock();
+            try {
+                move(tmp, file);
+                Entry old = entries.put(name, new Entry(bytes.length, System.currentTimeMillis()));
+                totalBytes += bytes.length - (old == null ? 0 : old.size);
+                evict();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public void remove(String key) throws IOException {
+        String name = fileName(key);
+        lock.lock();
+        try {
+            Entry entry = entries.remove(name);
+            if (entry != null) {
+                totalBytes -= entry.size;
+                Files.deleteIfExists(path(name));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int count() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long evictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue().size;
+            evictions++;
+            Files.deleteIfExists(path(eldest.getKey()));
+        }
+    }
+
+    private void forget(String name, Entry entry) {
+        lock.lock();
+        try {
+            if (entries.remove(name, entry)) {
+                totalBytes -= entry.size;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清理上次没写完的临时文件，扫描已有条目并按 mtime 恢复访问顺序
+     */
+    private void recover() throws IOException {
+        try (Stream<Path> tmpFiles = Files.list(tmpDir)) {
+            for (Path tmp : tmpFiles.toList()) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        record Found(String name, long size, long modifiedAt) {
+        }
+        List<Found> found = new ArrayList<>();
+        try (Stream<Path> shards = Files.list(dir)) {
+            for (Path shard : shards.filter(p -> !p.equals(tmpDir) && Files.isDirectory(p)).toList()) {
+                try (Stream<Path> files = Files.list(shard)) {
+                    for (Path file : files.toList()) {
+                        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        if (attributes.isRegularFile()) {
+                            found
+                                .add(
+                                    new Found(
+                                        file.getFileName().toString(),
+                                        attributes.size(),
+                                        attributes.lastModifiedTime().toMillis()));
+                        }
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(Found::modifiedAt));
+        lock.lock();
+        try {
+            for (Found item : found) {
+                entries.put(item.name(), new Entry(item.size(), item.modifiedAt()));
+                totalBytes += item.size();
+            }
+            // 容量调小后重启，先淘汰到新容量以内
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Disk cache {} recovered {} entries, {} bytes", dir, entries.size(), totalBytes);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path path(String name) {
+        return dir.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private static String fileName(String key) {
+        return HashUtil.bytesToHex(key.getBytes(StandardCharsets.UTF_8), HashUtil.HashAlgorithm.SHA_256);
+    }
+}
@@ -0,0 +1,53 @@
+package com.memes.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 保存在本地文件中的扫描进度（一个 long 或者一个字符串游标），后台任务重启后从这里继续。写入时先写临时文件再原子替换
+ */
+public class FileCheckpoint {
+
+    private final Path file;
+
+    public FileCheckpoint(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * @return 文件不存在时返回 0
+     */
+    public long load() throws IOException {
+        String value = loadString();
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    public void save(long value) throws IOException {
+        saveString(Long.toString(value));
+    }
+
+    /**
+     * @return 文件不存在或者内容为空时返回 null
+     */
+    public String loadString() throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String value = Files.readString(file).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * @param value
+     *            为 null 时写入空内容，之后 loadString 返回 null
+     */
+    public void saveString(String value) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, value == null ? "" : value, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,179 @@
+package com.memes.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * 自适应并发上限，算法参照 Netflix concurrency-limits 的 Gradient2。
+ * <p>
+ * 每个时间窗口统计请求耗时的低分位数（P10）作为短期 RTT，再对短期 RTT 做指数平均得到长期 RTT。用低分位数而不是平均值，
+ * 窗口里少数几个很慢的请求（大文件上传、慢查询）不会拉高短期 RTT，只有大部分请求都变慢、确实在排队时上限才收缩。排队开始时短期 RTT 升高，梯度 长期/短期 小于 1，
+ * 上限随之收缩；恢复后梯度回到 1，上限每个窗口再增加约 sqrt(limit) 个名额试探。实际并发远低于上限时说明瓶颈不在这里，不调整上限。
+ * <p>
+ * 名额按优先级划分：普通请求只能用到上限的 {@link Priority#DEFAULT} 比例，首页和置顶可以用满，管理接口在上限之外还有余量， 这样过载时先被拒绝的总是普通请求。
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double RTT_PERCENTILE = 0.1;
+    // 耗时直方图按 2 的幂分段，每段再分 4 个桶，相对误差不超过 25%
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+    public enum Priority {
+        ADMIN(1.25), HIGH(1.0), DEFAULT(0.8);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+
+        int capacity(int limit) {
+            return Math.max(1, (int) (limit * share));
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+
+    @Getter
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // 当前窗口的统计，多线程累加，窗口结束时由一个线程结算
+    private final AtomicLongArray rttHistogram = new AtomicLongArray(BUCKETS);
+    private final LongAdder samples = new LongAdder();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicBoolean updating = new AtomicBoolean(false);
+
+    // 只在持有 updating 时读写
+    private double estimatedLimit;
+    private double longRtt;
+    private long longRttCount;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 按优先级申请一个名额，成功后必须调用 {@link #release}
+     */
+    public boolean tryAcquire(Priority priority) {
+        int capacity = priority.capacity(limit);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                maxInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos
+     *            请求耗时，小于 0 表示这个样本不可信（例如请求出错），只释放名额
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos < 0) {
+            return;
+        }
+        rttHistogram.incrementAndGet(bucketOf(rttNanos));
+        samples.increment();
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && samples.sum() >= MIN_WINDOW_SAMPLES && updating.compareAndSet(false, true)) {
+            try {
+                if (windowStart.compareAndSet(start, now)) {
+                    long count = samples.sumThenReset();
+                    int peak = maxInFlight.getAndSet(inFlight.get());
+                    double shortRtt = drainPercentile(count);
+                    if (shortRtt > 0) {
+                        update(shortRtt, peak);
+                    }
+                }
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 取出并清空当前窗口的直方图，返回 {@link #RTT_PERCENTILE} 分位所在桶的中点，没有样本时返回 0
+     */
+    private double drainPercentile(long count) {
+        long rank = (long) Math.ceil(count * RTT_PERCENTILE);
+        long seen = 0;
+        double percentile = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = rttHistogram.getAndSet(i, 0);
+            seen += n;
+            if (percentile == 0 && n > 0 && seen >= rank) {
+                percentile = (lowerBoundOf(i) + lowerBoundOf(i + 1)) / 2.0;
+            }
+        }
+        return percentile;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < 1L << SUB_BUCKET_BITS) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    static long lowerBoundOf(int bucket) {
+        if (bucket < 1 << SUB_BUCKET_BITS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long sub = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+        return (1L << exponent) + (sub << (exponent - SUB_BUCKET_BITS));
+    }
+
+    private void update(double shortRtt, int peakInFlight) {
+        if (longRttCount < LONG_WINDOW) {
+            longRttCount++;
+        }
+        longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / longRttCount;
+        // 长期 RTT 明显偏高（例如刚经历过一次慢查询高峰），快速向短期 RTT 回落，避免上限被长期放大
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // 实际并发不到上限的一半，说明当前负载测不出上限的真实值
+        if (peakInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.clamp(TOLERANCE * longRtt / shortRtt, 0.5, 1.0);
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -5,6 +5,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,6 +52,15 @@ public class GsonUtil {
         }
     }
 
+    /**
+     * 把每个值分别转换为 JSON 字符串，键不变，顺序不变
+     */
+    public static Map<String, String> toJsonValues(Map<String, ?> values) {
+        Map<String, String> result = new LinkedHashMap<>();
+        values.forEach((key, value) -> result.put(key, toJson(value)));
+        return result;
+    }
+
     /**
      * 将 JSON 字符串转换为对象
      */
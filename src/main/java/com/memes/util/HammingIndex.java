@@ -0,0 +1,133 @@
+package com.memes.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 64 位哈希的汉明距离近邻索引（多索引哈希）。
+ * <p>
+ * 哈希切成 4 段 16 位，每段一张 65536 个桶的表。两个哈希的距离不超过 r 时，按抽屉原理至少有一段的距离不超过 r / 4， 所以查询时每段只需要枚举距离 r / 4
+ * 以内的桶（r 不超过 11 时每段最多 137 个桶），候选项再用 popcount 精确计算距离。 候选数量与总条目数成正比但系数很小，百万级条目时一次查询在几十微秒量级。
+ * <p>
+ * 只支持追加，条目用并行数组保存，每条约 32 字节。
+ */
+public class HammingIndex {
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int BUCKETS = 1 << CHUNK_BITS;
+    public static final int MAX_DISTANCE = CHUNKS * 3 - 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] hashes = new long[1024];
+    private long[] ids = new long[1024];
+    private int size = 0;
+    // tables[chunk][bucket] 是条目下标数组，counts 是其中的有效长度
+    private final int[][][] tables = new int[CHUNKS][BUCKETS][];
+    private final int[][] counts = new int[CHUNKS][BUCKETS];
+
+    public void add(long id, long hash) {
+        lock.writeLock().lock();
+        try {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int index = size++;
+            hashes[index] = hash;
+            ids[index] = id;
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                int bucket = chunkOf(hash, chunk);
+                int[] entries = tables[chunk][bucket];
+                int count = counts[chunk][bucket];
+                if (entries == null) {
+                    entries = new int[2];
+                } else if (count == entries.length) {
+                    entries = Arrays.copyOf(entries, count * 2);
+                }
+                entries[count] = index;
+                tables[chunk][bucket] = entries;
+                counts[chunk][bucket] = count + 1;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查找距离不超过 maxDistance 的最近条目，距离相同时取先加入的
+     *
+     * @return 没有找到时返回 null
+     */
+    public Match nearest(long hash, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("max distance must be between 0 and %d".formatted(MAX_DISTANCE));
+        }
+        int radius = maxDistance / CHUNKS;
+        lock.readLock().lock();
+        try {
+            int bestIndex = -1;
+            int bestDistance = maxDistance + 1;
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                int key = chunkOf(hash, chunk);
+                // 枚举与 key 距离不超过 radius 的所有桶
+                int[] probes = probes(key, radius);
+                for (int probe : probes) {
+                    int[] entries = tables[chunk][probe];
+                    int count = counts[chunk][probe];
+                    for (int i = 0; i < count; i++) {
+                        int index = entries[i];
+                        int distance = Long.bitCount(hashes[index] ^ hash);
+                        if (distance < bestDistance || distance == bestDistance && index < bestIndex) {
+                            bestDistance = distance;
+                            bestIndex = index;
+                        }
+                    }
+                }
+            }
+            return bestIndex < 0 ? null : new Match(ids[bestIndex], bestDistance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int chunkOf(long hash, int chunk) {
+        return (int) (hash >>> (chunk * CHUNK_BITS)) & (BUCKETS - 1);
+    }
+
+    private static int[] probes(int key, int radius) {
+        if (radius == 0) {
+            return new int[] {key};
+        }
+        int[] result = new int[radius == 1 ? 1 + CHUNK_BITS : 1 + CHUNK_BITS + CHUNK_BITS * (CHUNK_BITS - 1) / 2];
+        int n = 0;
+        result[n++] = key;
+        for (int i = 0; i < CHUNK_BITS; i++) {
+            result[n++] = key ^ (1 << i);
+            if (radius >= 2) {
+                for (int j = i + 1; j < CHUNK_BITS; j++) {
+                    result[n++] = key ^ (1 << i) ^ (1 << j);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id
+     *            条目的媒体 id
+     * @param distance
+     *            汉明距离
+     */
+    public record Match(long id, int distance) {
+    }
+}
@@ -2,6 +2,7 @@ package com.memes.util;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.security.MessageDigest;
 
 import lombok.Getter;
@@ -22,14 +23,22 @@ public class HashUtil {
 
     @SneakyThrows
     public static String fileToHex(File file, HashAlgorithm algorithm) {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return streamToHex(fis, algorithm);
+        }
+    }
+
+    /**
+     * 边读边计算，不把内容整个读进内存；不关闭 inputStream
+     */
+    @SneakyThrows
+    public static String streamToHex(InputStream inputStream, HashAlgorithm algorithm) {
         MessageDigest digest = MessageDigest.getInstance(algorithm.algorithm);
-        FileInputStream fis = new FileInputStream(file);
         byte[] buffer = new byte[8192]; // 8KB 缓冲区
         int bytesRead;
-        while ((bytesRead = fis.read(buffer)) != -1) {
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
             digest.update(buffer, 0, bytesRead);
         }
-        fis.close();
         return helper(digest.digest());
     }
 
@@ -0,0 +1,228 @@
+package com.memes.util;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于 JDK ImageIO 的图片解码、缩放和编码，不依赖本地库。
+ * <p>
+ * 解码的都是用户上传的内容，一律先从文件头读宽高再决定是否解码、按多大的步长降采样，小文件声明超大尺寸时不会分配整幅的像素。
+ */
+@Slf4j
+public final class ImageCodec {
+
+    public static final String JPEG = "image/jpeg";
+    public static final String PNG = "image/png";
+    // 文件头声明的像素数上限
+    public static final long MAX_PIXELS = 100_000_000L;
+    // 解码结果的像素数上限，按 4 字节一个像素约 100MB
+    public static final long MAX_DECODED_PIXELS = 25_000_000L;
+
+    private ImageCodec() {
+    }
+
+    /**
+     * 按原始分辨率解码
+     *
+     * @return 无法解码、或者像素数超过 {@link #MAX_DECODED_PIXELS} 时返回 null
+     */
+    public static BufferedImage decode(byte[] bytes) {
+        return decode(bytes, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按整数步长降采样解码，宽高比不变，宽或高至少有一个不小于给定值（原图更小时按原样解码）。
+     * 先从文件头读宽高，像素数超过 {@link #MAX_PIXELS} 的图片（包括解压炸弹）直接放弃；降采样后仍超过 {@link #MAX_DECODED_PIXELS} 的也放弃。
+     * 降采样解码仍要扫过整个文件，耗时随文件大小线性增长，内存只与解码结果的大小有关
+     *
+     * @return 无法解码或超过上限时返回 null
+     */
+    public static BufferedImage decode(byte[] bytes, int minWidth, int minHeight) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, Math.min(width / minWidth, height / minHeight));
+                long decoded = (long) ((width + step - 1) / step) * ((height + step - 1) / step);
+                if ((long) width * height > MAX_PIXELS || decoded > MAX_DECODED_PIXELS) {
+                    log.debug("Skip decoding {}x{} image with step {}", width, height, step);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to decode image: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public static boolean hasAlpha(BufferedImage image) {
+        return image.getColorModel().hasAlpha();
+    }
+
+    /**
+     * 等比缩放到指定宽度。每次最多缩小一半，多步双线性插值，避免一次缩小太多产生锯齿
+     */
+    public static BufferedImage resizeToWidth(BufferedImage source, int width) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        int type = hasAlpha(source) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            int nextWidth = Math.max(width, currentWidth / 2);
+            int nextHeight = nextWidth == width ? targetHeight : Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            g.dispose();
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    /**
+     * JPEG 编码，透明部分填充白色
+     *
+     * @param quality
+     *            0 到 1
+     */
+    public static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        BufferedImage rgb = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = rgb.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+        ImageWriter writer = writerOf("jpeg");
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        return write(writer, rgb, param);
+    }
+
+    /**
+     * PNG 编码，使用最高的 deflate 压缩级别
+     */
+    public static byte[] encodePng(BufferedImage image) throws IOException {
+        ImageWriter writer = writerOf("png");
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            // JDK 的 PNG 编码器中质量 0 对应 deflate 最高压缩级别
+            param.setCompressionQuality(0f);
+        }
+        return write(writer, image, param);
+    }
+
+    /**
+     * 两张同尺寸图片亮度通道的平均 SSIM（8x8 不重叠窗口），1 表示完全相同
+     */
+    public static double ssim(BufferedImage left, BufferedImage right) {
+        int width = left.getWidth();
+        int height = left.getHeight();
+        if (width != right.getWidth() || height != right.getHeight()) {
+            throw new IllegalArgumentException("images must have the same size");
+        }
+        final int window = 8;
+        final double c1 = Math.pow(0.01 * 255, 2);
+        final double c2 = Math.pow(0.03 * 255, 2);
+        int columns = Math.max(1, width / window);
+        // 每个窗口的 sum(x), sum(y), sum(x^2), sum(y^2), sum(xy), 像素数
+        double[][] sums = new double[columns][6];
+        int[] leftRow = new int[width];
+        int[] rightRow = new int[width];
+        double total = 0;
+        int windows = 0;
+        for (int y = 0; y < height; y++) {
+            left.getRGB(0, y, width, 1, leftRow, 0, width);
+            right.getRGB(0, y, width, 1, rightRow, 0, width);
+            for (int x = 0; x < width; x++) {
+                double a = luminance(leftRow[x]);
+                double b = luminance(rightRow[x]);
+                double[] s = sums[Math.min(columns - 1, x / window)];
+                s[0] += a;
+                s[1] += b;
+                s[2] += a * a;
+                s[3] += b * b;
+                s[4] += a * b;
+                s[5]++;
+            }
+            if ((y + 1) % window == 0 || y == height - 1) {
+                for (double[] s : sums) {
+                    double n = s[5];
+                    double meanA = s[0] / n;
+                    double meanB = s[1] / n;
+                    double varA = s[2] / n - meanA * meanA;
+                    double varB = s[3] / n - meanB * meanB;
+                    double cov = s[4] / n - meanA * meanB;
+                    total += (2 * meanA * meanB + c1) * (2 * cov + c2) / ((meanA * meanA + meanB * meanB + c1) * (varA + varB + c2));
+                    windows++;
+                    Arrays.fill(s, 0);
+                }
+            }
+        }
+        return total / windows;
+    }
+
+    private static double luminance(int argb) {
+        // 透明像素按白色背景处理，和 encodeJpeg 一致
+        int alpha = argb >>> 24;
+        double value = 0.299 * ((argb >> 16) & 0xFF) + 0.587 * ((argb >> 8) & 0xFF) + 0.114 * (argb & 0xFF);
+        return (value * alpha + 255.0 * (255 - alpha)) / 255.0;
+    }
+
+    private static ImageWriter writerOf(String format) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("no image writer for %s".formatted(format));
+        }
+        return writers.next();
+    }
+
+    private static byte[] write(ImageWriter writer, BufferedImage image, ImageWriteParam param) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
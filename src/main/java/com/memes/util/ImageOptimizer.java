@@ -0,0 +1,69 @@
+package com.memes.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * 为已存储的原图寻找更小的编码。
+ * <p>
+ * PNG 用最高压缩级别无损重编码（同时去掉元数据块）；允许有损时再尝试几档 JPEG 质量，解码后与原图的 SSIM 不低于阈值才算合格。 带透明通道的图片不做有损转换。
+ * 原图和有损结果都经过 {@link ImageCodec#decode(byte[])} 的像素上限，超过上限的原图从文件头判断后直接跳过，不按原始分辨率解码。
+ */
+public final class ImageOptimizer {
+
+    // 从低到高尝试，第一个达到 SSIM 阈值的就是最小的合格结果
+    private static final float[] JPEG_QUALITIES = {0.6f, 0.7f, 0.8f, 0.9f};
+
+    private ImageOptimizer() {
+    }
+
+    /**
+     * @param mime
+     *            原图的 mime，只处理 PNG 和 JPEG
+     * @param minSsim
+     *            有损编码的最低 SSIM，不大于 0 时不做有损编码
+     * @return 比原图小的最优结果，没有时、或者原图超过像素上限时返回 null
+     */
+    public static Result optimize(byte[] original, String mime, double minSsim) throws IOException {
+        boolean png = ImageCodec.PNG.equals(mime);
+        if (!png && !ImageCodec.JPEG.equals(mime)) {
+            return null;
+        }
+        BufferedImage image = ImageCodec.decode(original);
+        if (image == null) {
+            return null;
+        }
+        Result best = null;
+        if (png) {
+            byte[] lossless = ImageCodec.encodePng(image);
+            if (lossless.length < original.length) {
+                best = new Result(lossless, ImageCodec.PNG, false, 1.0);
+            }
+        }
+        if (minSsim > 0 && !ImageCodec.hasAlpha(image)) {
+            for (float quality : JPEG_QUALITIES) {
+                byte[] lossy = ImageCodec.encodeJpeg(image, quality);
+                if (lossy.length >= original.length || best != null && lossy.length >= best.bytes().length) {
+                    // 质量越高体积越大，后面的也不会更小
+                    break;
+                }
+                BufferedImage decoded = ImageCodec.decode(lossy);
+                double ssim = decoded == null ? 0 : ImageCodec.ssim(image, decoded);
+                if (ssim >= minSsim) {
+                    best = new Result(lossy, ImageCodec.JPEG, true, ssim);
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param lossy
+     *            是否有损
+     * @param ssim
+     *            与原图的 SSIM，无损时为 1
+     */
+    public record Result(byte[] bytes, String mime, boolean lossy, double ssim) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.memes.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 把本地文件写到 HTTP 响应，支持 Range、多区间、ETag 条件请求和长期缓存。
+ * <p>
+ * 整个文件和单个区间优先交给 Tomcat 的 sendfile（内部是 FileChannel.transferTo，数据不经过 JVM 堆）；连接器不支持时，
+ * 以及多区间的 multipart/byteranges 响应，用 transferTo 写到响应流。
+ */
+public final class MediaFileSender {
+
+    // 存储的文件内容不会变化，可以永久缓存
+    public static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // 和 Tomcat DefaultServlet 一样，小文件直接写更快
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private MediaFileSender() {
+    }
+
+    /**
+     * @param etag
+     *            强 ETag 的值（不含引号）
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response, Path file, String etag) throws IOException {
+        long total = Files.size(file);
+        String quotedEtag = '"' + etag + '"';
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setHeader(HttpHeaders.ETAG, quotedEtag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), quotedEtag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        List<ByteRange> ranges = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), total);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ranges != null && ifRange != null && !ifRange.equals(quotedEtag)) {
+            // 客户端缓存的版本已经变了，返回整个文件
+            ranges = null;
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(total);
+            if (!head) {
+                sendRange(request, response, file, 0, total);
+            }
+            return;
+        }
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.getFirst();
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(total));
+            response.setContentLengthLong(range.length());
+            if (!head) {
+                sendRange(request, response, file, range.start(), range.length());
+            }
+            return;
+        }
+
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        byte[][] partHeaders = new byte[ranges.size()][];
+        long length = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = "\r\n--%s\r\nContent-Type: %s\r\nContent-Range: %s\r\n\r\n"
+                .formatted(boundary, contentType, range.contentRange(total))
+                .getBytes(StandardCharsets.US_ASCII);
+            length += partHeaders[i].length + range.length();
+        }
+        byte[] end = "\r\n--%s--\r\n".formatted(boundary).getBytes(StandardCharsets.US_ASCII);
+        length += end.length;
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders[i]);
+                transfer(channel, ranges.get(i).start(), ranges.get(i).length(), target);
+            }
+        }
+        out.write(end);
+    }
+
+    private static void sendRange(HttpServletRequest request, HttpServletResponse response, Path file, long start, long length)
+        throws IOException {
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat 在 servlet 返回后由 poller 线程发送，end 不包含
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            transfer(channel, start, length, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void transfer(FileChannel channel, long start, long length, WritableByteChannel target) throws IOException {
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            long sent = channel.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                throw new IOException("file truncated while sending");
+            }
+            position += sent;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String quotedEtag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(quotedEtag) || value.equals("W/" + quotedEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,345 @@
+package com.memes.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 从媒体文件中提取客户端排版用的元数据：真实 mime、宽高、动图帧数和时长、主色调、BlurHash 占位图。
+ * <p>
+ * 宽高只读文件头；GIF、WebP、MP4 直接解析容器结构；主色调和 BlurHash 用 ImageIO 的隔行采样读出不超过 64 像素宽的小图，不解码完整像素。
+ */
+@Slf4j
+public final class MediaProbe {
+
+    public static final String MIME = "mime";
+    public static final String WIDTH = "width";
+    public static final String HEIGHT = "height";
+    public static final String FRAMES = "frames";
+    public static final String DURATION_MS = "durationMs";
+    public static final String DOMINANT_COLOR = "dominantColor";
+    public static final String BLURHASH = "blurhash";
+
+    private static final int PREVIEW_SIZE = 64;
+    // moov 和 trak 正常只有两层
+    private static final int MAX_BOX_DEPTH = 8;
+
+    private MediaProbe() {
+    }
+
+    /**
+     * @return 识别出的字段，无法识别的内容返回空 map
+     */
+    public static Map<String, Object> probe(byte[] bytes) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        String mime = sniffMime(bytes);
+        if (mime == null) {
+            return result;
+        }
+        result.put(MIME, mime);
+        try {
+            switch (mime) {
+                case "image/gif" -> probeGif(bytes, result);
+                case "image/webp" -> probeWebp(bytes, result);
+                case "video/mp4", "video/quicktime" -> probeMp4(bytes, result);
+                default -> {
+                }
+            }
+            if (mime.startsWith("image/")) {
+                probeImage(bytes, result);
+            }
+        } catch (RuntimeException | IOException e) {
+            // 截断或损坏的文件，保留已经读到的字段
+            log.debug("Failed to probe {} media: {}", mime, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 按文件头的魔数判断类型
+     */
+    public static String sniffMime(byte[] b) {
+        if (b == null || b.length < 12) {
+            return null;
+        }
+        if ((b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "image/png";
+        }
+        if ((b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "image/gif";
+        }
+        if (ascii(b, 0, 4).equals("RIFF") && ascii(b, 8, 4).equals("WEBP")) {
+            return "image/webp";
+        }
+        if (b[0] == 'B' && b[1] == 'M') {
+            return "image/bmp";
+        }
+        if (ascii(b, 4, 4).equals("ftyp")) {
+            return ascii(b, 8, 4).equals("qt  ") ? "video/quicktime" : "video/mp4";
+        }
+        if ((b[0] & 0xFF) == 0x1A && (b[1] & 0xFF) == 0x45 && (b[2] & 0xFF) == 0xDF && (b[3] & 0xFF) == 0xA3) {
+            return "video/webm";
+        }
+        return null;
+    }
+
+    /**
+     * 通过 ImageIO 读宽高，再按采样步长读一张小图计算主色调和 BlurHash
+     */
+    private static void probeImage(byte[] bytes, Map<String, Object> result) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                result.putIfAbsent(WIDTH, width);
+                result.putIfAbsent(HEIGHT, height);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / PREVIEW_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage preview = reader.read(0, param);
+                result.put(DOMINANT_COLOR, dominantColor(preview));
+                int componentsX = width >= height ? 4 : 3;
+                int componentsY = width >= height ? 3 : 4;
+                result.put(BLURHASH, BlurHash.encode(preview, componentsX, componentsY));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 每个通道量化到 4 位后取出现最多的桶，返回桶内像素的平均色
+     */
+    static String dominantColor(BufferedImage image) {
+        int[] counts = new int[4096];
+        long[][] sums = new long[4096][3];
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int rgb : row) {
+                int alpha = rgb >>> 24;
+                if (alpha < 128) {
+                    continue;
+                }
+                int r = (rgb >> 16) & 0xFF;
+                int g = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                int bucket = (r >> 4) << 8 | (g >> 4) << 4 | b >> 4;
+                counts[bucket]++;
+                sums[bucket][0] += r;
+                sums[bucket][1] += g;
+                sums[bucket][2] += b;
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] > counts[best]) {
+                best = i;
+            }
+        }
+        if (counts[best] == 0) {
+            return "#ffffff";
+        }
+        long n = counts[best];
+        return "#%02x%02x%02x".formatted(sums[best][0] / n, sums[best][1] / n, sums[best][2] / n);
+    }
+
+    private static void probeGif(byte[] b, Map<String, Object> result) {
+        ByteBuffer buffer = ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(6);
+        result.put(WIDTH, buffer.getShort() & 0xFFFF);
+        result.put(HEIGHT, buffer.getShort() & 0xFFFF);
+        int packed = buffer.get() & 0xFF;
+        buffer.position(buffer.position() + 2);
+        skipColorTable(buffer, packed);
+        int frames = 0;
+        long durationCs = 0;
+        int delayCs = 0;
+        while (buffer.hasRemaining()) {
+            int block = buffer.get() & 0xFF;
+            if (block == 0x21) {
+                int label = buffer.get() & 0xFF;
+                if (label == 0xF9) {
+                    // 图形控制扩展：块长度、标志位、延迟（1/100 秒）
+                    buffer.get();
+                    buffer.get();
+                    delayCs = buffer.getShort() & 0xFFFF;
+                    buffer.position(buffer.position() + 2);
+                } else {
+                    skipSubBlocks(buffer);
+                }
+            } else if (block == 0x2C) {
+                buffer.position(buffer.position() + 8);
+                skipColorTable(buffer, buffer.get() & 0xFF);
+                buffer.get();
+                skipSubBlocks(buffer);
+                frames++;
+                // 浏览器把小于 2 的延迟按 10 处理
+                durationCs += delayCs < 2 ? 10 : delayCs;
+                delayCs = 0;
+            } else {
+                break;
+            }
+        }
+        result.put(FRAMES, frames);
+        if (frames > 1) {
+            result.put(DURATION_MS, durationCs * 10);
+        }
+    }
+
+    private static void skipColorTable(ByteBuffer buffer, int packed) {
+        if ((packed & 0x80) != 0) {
+            buffer.position(buffer.position() + 3 * (1 << ((packed & 0x07) + 1)));
+        }
+    }
+
+    private static void skipSubBlocks(ByteBuffer buffer) {
+        int size;
+        while ((size = buffer.get() & 0xFF) != 0) {
+            buffer.position(buffer.position() + size);
+        }
+    }
+
+    /**
+     * RIFF 块依次排列：VP8/VP8L/VP8X 给出画布尺寸，ANMF 是动画帧，帧时长在帧头第 12 字节起的 24 位
+     */
+    private static void probeWebp(byte[] b, Map<String, Object> result) {
+        ByteBuffer buffer = ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = 12;
+        int frames = 0;
+        long durationMs = 0;
+        while (offset + 8 <= b.length) {
+            String type = ascii(b, offset, 4);
+            long size = buffer.getInt(offset + 4) & 0xFFFFFFFFL;
+            int data = offset + 8;
+            switch (type) {
+                case "VP8X" -> {
+                    result.put(WIDTH, uint24(b, data + 4) + 1);
+                    result.put(HEIGHT, uint24(b, data + 7) + 1);
+                }
+                case "VP8 " -> {
+                    result.putIfAbsent(WIDTH, buffer.getShort(data + 6) & 0x3FFF);
+                    result.putIfAbsent(HEIGHT, buffer.getShort(data + 8) & 0x3FFF);
+                }
+                case "VP8L" -> {
+                    int bits = buffer.getInt(data + 1);
+                    result.putIfAbsent(WIDTH, (bits & 0x3FFF) + 1);
+                    result.putIfAbsent(HEIGHT, ((bits >> 14) & 0x3FFF) + 1);
+                }
+                case "ANMF" -> {
+                    frames++;
+                    durationMs += uint24(b, data + 12);
+                }
+                default -> {
+                }
+            }
+            // 截断的文件读完最后一个块头就停；块按偶数字节对齐，偏移必须前进，损坏的块长度不会让循环原地打转或往回走
+            long next = data + size + (size & 1);
+            if (data + size > b.length || next <= offset) {
+                break;
+            }
+            offset = (int) next;
+        }
+        result.put(FRAMES, Math.max(1, frames));
+        if (frames > 1) {
+            result.put(DURATION_MS, durationMs);
+        }
+    }
+
+    /**
+     * 在 moov 中读 mvhd 的时长和第一个有画面的 tkhd 的宽高
+     */
+    private static void probeMp4(byte[] b, Map<String, Object> result) {
+        walkBoxes(ByteBuffer.wrap(b), 0, b.length, result, 0);
+    }
+
+    /**
+     * @param depth
+     *            嵌套层数，超过 {@link #MAX_BOX_DEPTH} 的不再深入，伪造的深层嵌套不会耗尽栈
+     */
+    private static void walkBoxes(ByteBuffer buffer, int start, int end, Map<String, Object> result, int depth) {
+        int offset = start;
+        while (offset + 8 <= end) {
+            long size = buffer.getInt(offset) & 0xFFFFFFFFL;
+            String type = ascii(buffer.array(), offset + 4, 4);
+            int header = 8;
+            if (size == 1) {
+                size = buffer.getLong(offset + 8);
+                header = 16;
+            } else if (size == 0) {
+                size = end - offset;
+            }
+            if (size < header || offset + size > end) {
+                return;
+            }
+            int data = offset + header;
+            switch (type) {
+                case "moov", "trak" -> {
+                    if (depth < MAX_BOX_DEPTH) {
+                        walkBoxes(buffer, data, (int) (offset + size), result, depth + 1);
+                    }
+                }
+                case "mvhd" -> {
+                    int version = buffer.get(data);
+                    long timescale;
+                    long duration;
+                    if (version == 1) {
+                        timescale = buffer.getInt(data + 20) & 0xFFFFFFFFL;
+                        duration = buffer.getLong(data + 24);
+                    } else {
+                        timescale = buffer.getInt(data + 12) & 0xFFFFFFFFL;
+                        duration = buffer.getInt(data + 16) & 0xFFFFFFFFL;
+                    }
+                    if (timescale > 0) {
+                        result.put(DURATION_MS, duration * 1000 / timescale);
+                    }
+                }
+                case "tkhd" -> {
+                    int version = buffer.get(data);
+                    // 宽高是 tkhd 最后两个 16.16 定点数
+                    int dimensions = data + (version == 1 ? 88 : 76);
+                    int width = buffer.getInt(dimensions) >>> 16;
+                    int height = buffer.getInt(dimensions + 4) >>> 16;
+                    if (width > 0 && height > 0 && !result.containsKey(WIDTH)) {
+                        result.put(WIDTH, width);
+                        result.put(HEIGHT, height);
+                    }
+                }
+                default -> {
+                }
+            }
+            offset += (int) size;
+        }
+    }
+
+    private static int uint24(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8 | (b[offset + 2] & 0xFF) << 16;
+    }
+
+    private static String ascii(byte[] b, int offset, int length) {
+        return new String(b, offset, length, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,131 @@
+package com.memes.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.memes.exception.AppException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 分片并行上传的通用部分：切分、限制并发、单个分片失败后只重传这个分片，以及每个分片的耗时指标。
+ * 分片请求本身（阿里云 uploadPart、七牛 V2 uploadPart）由调用方提供。
+ * <p>
+ * 每个分片一个虚拟线程，用信号量限制同时在传的分片数。某个分片重试用完后取消其余分片并抛出异常，由调用方放弃整个上传。
+ */
+@Slf4j
+public class MultipartUploader {
+
+    /**
+     * @param number
+     *            分片序号，从 1 开始
+     */
+    public record Part(int number, int offset, int length) {
+    }
+
+    public record UploadedPart(int number, String etag) {
+    }
+
+    @FunctionalInterface
+    public interface PartSender {
+        /**
+         * @return 存储返回的分片 etag
+         */
+        String send(Part part) throws Exception;
+    }
+
+    private static final long BACKOFF_MILLIS = 200;
+
+    private final int partSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Timer partSuccess;
+    private final Timer partFailure;
+    private final Counter retries;
+
+    public MultipartUploader(int partSize, int concurrency, int maxAttempts, MeterRegistry registry, String provider) {
+        Preconditions.checkArgument(partSize > 0 && concurrency > 0 && maxAttempts > 0, AppException.invalidParam("multipart config"));
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.partSuccess = registry.timer("memes.storage.upload.part", "provider", provider, "result", "success");
+        this.partFailure = registry.timer("memes.storage.upload.part", "provider", provider, "result", "failure");
+        this.retries = registry.counter("memes.storage.upload.part.retries", "provider", provider);
+    }
+
+    public static List<Part> split(int total, int partSize) {
+        List<Part> parts = new ArrayList<>();
+        for (int offset = 0, number = 1; offset < total; offset += partSize, number++) {
+            parts.add(new Part(number, offset, Math.min(partSize, total - offset)));
+        }
+        return parts;
+    }
+
+    /**
+     * 上传全部分片
+     *
+     * @return 按序号排列的分片结果
+     */
+    public List<UploadedPart> upload(int total, PartSender sender) throws IOException {
+        List<Part> parts = split(total, partSize);
+        Semaphore permits = new Semaphore(concurrency);
+        List<Future<UploadedPart>> futures = new ArrayList<>(parts.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Part part : parts) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return new UploadedPart(part.number(), sendWithRetry(sender, part));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<UploadedPart> uploaded = new ArrayList<>(parts.size());
+            for (Future<UploadedPart> future : futures) {
+                uploaded.add(future.get());
+            }
+            return uploaded;
+        } catch (ExecutionException e) {
+            throw new IOException("multipart upload failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("multipart upload interrupted", e);
+        } finally {
+            // 失败时中断还在排队和重试的分片
+            executor.shutdownNow();
+        }
+    }
+
+    private String sendWithRetry(PartSender sender, Part part) throws Exception {
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            try {
+                String etag = sender.send(part);
+                partSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return etag;
+            } catch (Exception e) {
+                partFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                retries.increment();
+                long backoff = BACKOFF_MILLIS << (attempt - 1);
+                log.warn("Part {} failed (attempt {}), retrying in ~{}ms: {}", part.number(), attempt, backoff, e.getMessage());
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+            }
+        }
+    }
+}
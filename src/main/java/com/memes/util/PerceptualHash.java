@@ -0,0 +1,78 @@
+package com.memes.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * 图片的感知哈希（dHash）。
+ * <p>
+ * 把图片缩成 9x8 的灰度图，每行相邻两个像素比较亮度得到 64 位。重新压缩、缩放、轻微调色后哈希基本不变，两张图的相似程度用汉明距离衡量。
+ * 缩放用按块求平均。解码由 {@link ImageCodec#decode(byte[], int, int)} 按步长降采样到约 288x256，超过像素上限的图片直接放弃。
+ */
+public final class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+    // 每个方向最多采样的像素数
+    private static final int MAX_SAMPLES = 512;
+    // 降采样解码时每个方向保留的像素数约为哈希尺寸的这么多倍
+    private static final int DECODE_FACTOR = 32;
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * @return 无法解码的内容（视频、ImageIO 不支持的格式）和像素数超过上限的图片返回 null
+     */
+    public static Long dHash(byte[] bytes) {
+        BufferedImage image = ImageCodec.decode(bytes, WIDTH * DECODE_FACTOR, HEIGHT * DECODE_FACTOR);
+        return image == null ? null : dHash(image);
+    }
+
+    public static long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int xStep = Math.max(1, width / MAX_SAMPLES);
+        int yStep = Math.max(1, height / MAX_SAMPLES);
+        double[] sum = new double[WIDTH * HEIGHT];
+        int[] count = new int[WIDTH * HEIGHT];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y += yStep) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * HEIGHT / height * WIDTH;
+            for (int x = 0; x < width; x += xStep) {
+                int rgb = row[x];
+                int cell = cellRow + x * WIDTH / width;
+                sum[cell] += luminance(rgb);
+                count[cell]++;
+            }
+        }
+        double[] gray = new double[WIDTH * HEIGHT];
+        for (int i = 0; i < gray.length; i++) {
+            gray[i] = count[i] == 0 ? 0 : sum[i] / count[i];
+        }
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (gray[y * WIDTH + x] > gray[y * WIDTH + x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long left, long right) {
+        return Long.bitCount(left ^ right);
+    }
+
+    private static double luminance(int rgb) {
+        // 透明像素按白色背景处理
+        int alpha = rgb >>> 24;
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        double value = 0.299 * r + 0.587 * g + 0.114 * b;
+        return (value * alpha + 255.0 * (255 - alpha)) / 255.0;
+    }
+}
@@ -0,0 +1,180 @@
+package com.memes.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import lombok.Getter;
+
+/**
+ * 两代轮换的 Bloom 过滤器，内存占用固定为两个过滤器的大小。
+ * <p>
+ * 新元素写入当前代，查询同时查两代；当前代写满预期元素数或超过最长寿命时，当前代降为上一代，原来的上一代被丢弃。 因此一个元素至少会被记住一个完整周期。
+ * 可以整体写入文件，重启后恢复。
+ */
+public class RotatingBloomFilter {
+
+    private static final int MAGIC = 0x52424C46; // "RBLF"
+    private static final int VERSION = 1;
+
+    private final long expectedInsertions;
+    @Getter
+    private final double fpp;
+    private final long maxAgeMillis;
+    // 轮换时有文件之外的多步状态修改，虚拟线程下用显式锁
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public RotatingBloomFilter(long expectedInsertions, double fpp, Duration maxAge) {
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.current = newGeneration(System.currentTimeMillis());
+    }
+
+    /**
+     * 记录一个元素
+     *
+     * @return 元素之前一定不存在时返回 true；返回 false 表示可能已经存在（有 fpp 的误判概率）
+     */
+    public boolean add(String element) {
+        rotateIfNeeded(System.currentTimeMillis());
+        Generation older = previous;
+        if (older != null && older.filter.mightContain(element)) {
+            return false;
+        }
+        return current.filter.put(element);
+    }
+
+    public boolean mightContain(String element) {
+        Generation older = previous;
+        return current.filter.mightContain(element) || older != null && older.filter.mightContain(element);
+    }
+
+    /**
+     * 当前两代合起来的误判率估计
+     */
+    public double expectedFpp() {
+        Generation older = previous;
+        double currentFpp = current.filter.expectedFpp();
+        return older == null ? currentFpp : 1 - (1 - currentFpp) * (1 - older.filter.expectedFpp());
+    }
+
+    /**
+     * 两代过滤器的位数组大小（字节），按 Guava 的最优位数公式计算
+     */
+    public long memoryBytes() {
+        long perGeneration = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2))) / Byte.SIZE;
+        return previous == null ? perGeneration : perGeneration * 2;
+    }
+
+    public long approximateElementCount() {
+        Generation older = previous;
+        return current.filter.approximateElementCount() + (older == null ? 0 : older.filter.approximateElementCount());
+    }
+
+    void rotateIfNeeded(long now) {
+        Generation generation = current;
+        if (generation.filter.approximateElementCount() < expectedInsertions && now - generation.createdAt < maxAgeMillis) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (current == generation) {
+                previous = generation;
+                current = newGeneration(now);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换
+     */
+    public void writeTo(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        lock.lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            Generation older = previous;
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(older != null);
+            writeGeneration(out, current);
+            if (older != null) {
+                writeGeneration(out, older);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 从文件恢复，文件中的过滤器参数与当前配置不同时（例如修改了 fpp）丢弃文件内容
+     *
+     * @return 是否恢复成功
+     */
+    public boolean readFrom(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            boolean hasPrevious = in.readBoolean();
+            Generation restoredCurrent = readGeneration(in);
+            Generation restoredPrevious = hasPrevious ? readGeneration(in) : null;
+            if (restoredCurrent == null || hasPrevious && restoredPrevious == null) {
+                return false;
+            }
+            lock.lock();
+            try {
+                current = restoredCurrent;
+                previous = restoredPrevious;
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        }
+    }
+
+    private void writeGeneration(DataOutputStream out, Generation generation) throws IOException {
+        out.writeLong(generation.createdAt);
+        out.writeLong(expectedInsertions);
+        out.writeDouble(fpp);
+        generation.filter.writeTo(out);
+    }
+
+    private Generation readGeneration(DataInputStream in) throws IOException {
+        long createdAt = in.readLong();
+        long insertions = in.readLong();
+        double storedFpp = in.readDouble();
+        BloomFilter<CharSequence> filter = BloomFilter.readFrom(in, Funnels.stringFunnel(StandardCharsets.UTF_8));
+        if (insertions != expectedInsertions || storedFpp != fpp) {
+            return null;
+        }
+        return new Generation(createdAt, filter);
+    }
+
+    private Generation newGeneration(long now) {
+        return new Generation(now, BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp));
+    }
+
+    private record Generation(long createdAt, BloomFilter<CharSequence> filter) {
+    }
+}
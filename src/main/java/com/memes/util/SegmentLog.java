@@ -0,0 +1,216 @@
+package com.memes.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于内存映射文件的追加写日志，按固定大小滚动成多个段文件。
+ * <p>
+ * 每条记录的布局为 {@code [int length][int crc32c][payload]}，长度字段最后写入，作为记录的提交标记。 读取时遇到长度为 0 或校验失败即认为到达段尾，因此进程崩溃后留下的半条记录会被自动丢弃。
+ * <p>
+ * 只有当前活动段可写，启动时磁盘上已有的段全部视为已封存，由调用方读取后删除。
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+
+    public static final int HEADER_SIZE = 8;
+    private static final String SUFFIX = ".seg";
+
+    @Getter
+    private final Path dir;
+    private final int segmentSize;
+    // 虚拟线程下 synchronized 会钉住载体线程，滚动段时有文件 IO，这里用显式锁
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long activeSeq;
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeBuffer;
+    private int activeRecords;
+    private long activeFirstAppendNanos;
+
+    public SegmentLog(Path dir, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segment size too small: %d".formatted(segmentSize));
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        long lastSeq = listSegments().stream().mapToLong(SegmentLog::sequenceOf).max().orElse(0);
+        openSegment(lastSeq + 1);
+    }
+
+    /**
+     * 追加一条记录，当前段剩余空间不足时先滚动到新段
+     */
+    public void append(byte[] payload) throws IOException {
+        lock.lock();
+        try {
+            int required = HEADER_SIZE + payload.length;
+            if (required > segmentSize) {
+                throw new IllegalArgumentException("record of %d bytes exceeds segment size %d".formatted(payload.length, segmentSize));
+            }
+            if (activeBuffer.remaining() < required) {
+                roll();
+            }
+            int position = activeBuffer.position();
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            activeBuffer.position(position + HEADER_SIZE);
+            activeBuffer.put(payload);
+            activeBuffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            // 长度最后写入，读到非零长度即说明整条记录已完整落在映射区中
+            activeBuffer.putInt(position, payload.length);
+            if (activeRecords++ == 0) {
+                activeFirstAppendNanos = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 封存当前段并打开新段，当前段为空时什么都不做
+     */
+    public void roll() throws IOException {
+        lock.lock();
+        try {
+            if (activeRecords == 0) {
+                return;
+            }
+            closeActive();
+            openSegment(activeSeq + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前段中最早的记录已经超过 maxAge 时封存当前段，保证投递延迟有上限
+     */
+    public void rollIfOlderThan(Duration maxAge) throws IOException {
+        lock.lock();
+        try {
+            if (activeRecords > 0 && System.nanoTime() - activeFirstAppendNanos >= maxAge.toNanos()) {
+                roll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按写入顺序返回所有已封存的段
+     */
+    public List<Path> sealedSegments() throws IOException {
+        lock.lock();
+        try {
+            long active = activeSeq;
+            return listSegments().stream().filter(path -> sequenceOf(path) < active).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    /**
+     * 从 offset 开始顺序读取段中的记录，返回读到的记录数
+     */
+    public static int read(Path segment, int offset, RecordVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (offset >= size) {
+                return 0;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.position(offset);
+            int count = 0;
+            CRC32C crc = new CRC32C();
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int position = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Corrupted record in segment {} at offset {}, skipping the rest of it", segment.getFileName(), position);
+                    break;
+                }
+                visitor.visit(payload, buffer.position());
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closeActive();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment(long seq) throws IOException {
+        Path path = dir.resolve("%020d%s".formatted(seq, SUFFIX));
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeSeq = seq;
+        activeRecords = 0;
+    }
+
+    private void closeActive() throws IOException {
+        if (activeChannel == null) {
+            return;
+        }
+        activeBuffer.force();
+        activeChannel.close();
+        activeChannel = null;
+        activeBuffer = null;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param payload
+         *            记录内容
+         * @param nextOffset
+         *            下一条记录在段内的偏移，可作为检查点
+         */
+        void visit(byte[] payload, int nextOffset) throws IOException;
+    }
+}
@@ -0,0 +1,133 @@
+package com.memes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按内容寻址、两级分片的本地文件布局：{@code ab/cd/<sha256>.<ext>}。
+ * <p>
+ * 每级目录最多 256 个子项，百万级文件时单个目录里只有几十个文件。写入先写临时文件，再用硬链接原子地发布到目标路径，读者不会看到写了一半的文件。
+ * 内容相同的文件再次写入时只在同一目录下新建一个硬链接（{@code <sha256>-<随机串>.<ext>}），不占额外空间；每个 key 独立删除，
+ * 最后一个链接删除时文件系统回收数据，引用计数就是 inode 的链接数。
+ */
+@Slf4j
+public class ShardedFileStore {
+
+    private static final String TMP_DIR = ".tmp";
+
+    private final Path root;
+    private final Path tmpDir;
+    // 写入后 fsync 文件和所在目录，断电后不会丢失已经返回的文件
+    @Setter
+    private volatile boolean fsync;
+
+    public ShardedFileStore(Path root) {
+        this.root = root;
+        this.tmpDir = root.resolve(TMP_DIR);
+    }
+
+    /**
+     * @param extension
+     *            不带点的扩展名
+     * @return 新文件的 key（相对 root 的路径）
+     */
+    public String put(byte[] bytes, String extension) throws IOException {
+        String sha = HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.SHA_256);
+        Path tmp = writeTemp(bytes);
+        try {
+            return publish(tmp, sha, extension);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 把 root 下已有的文件链接到分片路径，原文件保持不变，由调用方在切换引用后删除
+     *
+     * @return 新 key，原文件不存在时返回 null
+     */
+    public String adopt(String key) throws IOException {
+        Path source = root.resolve(key);
+        if (!Files.isRegularFile(source)) {
+            return null;
+        }
+        String sha = HashUtil.fileToHex(source.toFile(), HashUtil.HashAlgorithm.SHA_256);
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return publish(source, sha, dot > 0 ? name.substring(dot + 1) : "");
+    }
+
+    public Path resolve(String key) {
+        return root.resolve(key);
+    }
+
+    public static String shardedKey(String sha, String suffix, String extension) {
+        String name = suffix == null ? sha : sha + "-" + suffix;
+        return "%s/%s/%s%s".formatted(sha.substring(0, 2), sha.substring(2, 4), name, extension.isEmpty() ? "" : "." + extension);
+    }
+
+    /**
+     * 把 source 发布为 sha 对应的 key：规范路径不存在时链接过去，已存在时在旁边建一个带随机后缀的链接
+     */
+    private String publish(Path source, String sha, String extension) throws IOException {
+        String canonicalKey = shardedKey(sha, null, extension);
+        Path canonical = root.resolve(canonicalKey);
+        Files.createDirectories(canonical.getParent());
+        try {
+            // createLink 在目标已存在时失败，并发写入相同内容时只有一个能拿到规范路径
+            Files.createLink(canonical, source);
+            syncDirectory(canonical.getParent());
+            return canonicalKey;
+        } catch (FileAlreadyExistsException e) {
+            log.debug("Content {} already stored, adding a link", sha);
+        }
+        String linkKey = shardedKey(sha, Long.toHexString(ThreadLocalRandom.current().nextLong()), extension);
+        Path link = root.resolve(linkKey);
+        try {
+            Files.createLink(link, canonical);
+        } catch (FileSystemException e) {
+            // 规范文件刚被删除，或者链接数达到上限，退回为独立的一份
+            Files.createLink(link, source);
+        }
+        syncDirectory(link.getParent());
+        return linkKey;
+    }
+
+    private Path writeTemp(byte[] bytes) throws IOException {
+        Files.createDirectories(tmpDir);
+        Path tmp = tmpDir.resolve(UUID.randomUUID().toString());
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        return tmp;
+    }
+
+    private void syncDirectory(Path directory) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 有的平台不支持打开目录
+            log.debug("Failed to fsync directory {}: {}", directory, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.memes.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按键限流的令牌桶，用 GCRA（通用信元速率算法）实现：每个键只保存一个“理论到达时间” TAT，放行一次就把 TAT 推后一个发放间隔，
+ * TAT 超前当前时间超过桶容量即拒绝。
+ * <p>
+ * 键存放在 ConcurrentHashMap 中（内部按桶分段，读不加锁），更新只是一次 CAS。TAT 已经落后于当前时间的键等价于满桶，可以直接删除，
+ * 所以不需要定时任务：调用方每 {@link #SWEEP_INTERVAL} 次请求顺带清理一次。键数达到上限时新键先触发清理（至多每秒一次），
+ * 清理后仍然满了就拒绝新键：放行的话，不断更换键（比如随意填写的 uuid）就能让所有人的限流失效。
+ */
+public class TokenBucketLimiter {
+
+    private static final int SWEEP_INTERVAL = 1 << 14;
+    private static final long FULL_SWEEP_GAP = TimeUnit.SECONDS.toNanos(1);
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+    private final AtomicLong lastSweep = new AtomicLong(NEVER);
+
+    public TokenBucketLimiter(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @param ratePerMinute
+     *            每分钟补充的令牌数，不大于 0 表示不限流
+     * @param burst
+     *            桶容量
+     * @return 0 表示放行，否则为需要等待的纳秒数。键数已满时新键被拒绝，等待一个发放间隔
+     */
+    public long tryAcquire(String key, int ratePerMinute, int burst) {
+        return tryAcquire(key, ratePerMinute, burst, System.nanoTime());
+    }
+
+    long tryAcquire(String key, int ratePerMinute, int burst, long now) {
+        if (ratePerMinute <= 0) {
+            return 0;
+        }
+        long interval = TimeUnit.MINUTES.toNanos(1) / ratePerMinute;
+        long capacity = interval * Math.max(1, burst);
+        if ((requests.incrementAndGet() & (SWEEP_INTERVAL - 1)) == 0) {
+            sweep(now);
+        }
+
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (buckets.size() >= maxKeys) {
+                // 满了以后每个新键都做一次全表清理是 O(n) 的，限制为每秒一次
+                long last = lastSweep.get();
+                if (last == NEVER || now - last >= FULL_SWEEP_GAP) {
+                    sweep(now);
+                }
+                if (buckets.size() >= maxKeys) {
+                    return interval;
+                }
+            }
+            AtomicLong created = new AtomicLong(now + interval);
+            tat = buckets.putIfAbsent(key, created);
+            if (tat == null) {
+                return 0;
+            }
+        }
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long ahead = next - now;
+            if (ahead > capacity) {
+                return ahead - capacity;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 删除 TAT 已经过去的键，与更新并发时只删除没有被改动过的条目
+     */
+    void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        lastSweep.set(now);
+        try {
+            buckets.forEach((key, tat) -> {
+                long current = tat.get();
+                if (current - now <= 0) {
+                    buckets.computeIfPresent(key, (k, value) -> value.get() == current ? null : value);
+                }
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * 清空所有键，限流阈值变化后按新阈值从满桶重新开始
+     */
+    public void clear() {
+        buckets.clear();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.memes.aspect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.memes.config.AppConfig;
+import com.memes.exception.AppException;
+import com.memes.model.pojo.Config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+class RequestInterceptorTest {
+
+    private static final String NGINX = "172.18.0.5";
+
+    private final RemoteIpFilter remoteIp = new RemoteIpFilter();
+    private RequestInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 和生产环境的 RemoteIpValve 使用同一份受信代理配置
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new FileSystemResource("src/main/resources/application.yaml"));
+        MockFilterConfig filterConfig = new MockFilterConfig();
+        filterConfig.addInitParameter("internalProxies", yaml.getObject().getProperty("server.tomcat.remoteip.internal-proxies"));
+        remoteIp.init(filterConfig);
+
+        AppConfig config = new AppConfig(null);
+        config
+            .apply(
+                List
+                    .of(
+                        config("ratelimit.media.upload.per.minute", "1"),
+                        config("ratelimit.media.upload.burst", "1"),
+                        config("ratelimit.ip.multiplier", "1")));
+        interceptor = new RequestInterceptor(config, "token", List.of("/api/admin"), "test");
+    }
+
+    @Test
+    void clientsBehindTheProxyHaveSeparateIpBuckets() throws Exception {
+        upload(NGINX, "1.1.1.1");
+        // 换 uuid 也绕不过同一个 IP 的限额
+        assertThrows(AppException.class, () -> upload(NGINX, "1.1.1.1"));
+        upload(NGINX, "2.2.2.2");
+        // 客户端自己带的 X-Forwarded-For 排在 nginx 追加的地址前面，不影响结果
+        assertThrows(AppException.class, () -> upload(NGINX, "9.9.9.9, 2.2.2.2"));
+    }
+
+    @Test
+    void forwardedHeaderFromUntrustedAddressIsIgnored() throws Exception {
+        upload("8.8.8.8", "3.3.3.3");
+        assertThrows(AppException.class, () -> upload("8.8.8.8", "4.4.4.4"));
+    }
+
+    private void upload(String remoteAddr, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/media");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        request.addHeader("uuid", UUID.randomUUID().toString());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<HttpServletRequest> resolved = new ArrayList<>();
+        remoteIp.doFilter(request, response, (req, res) -> resolved.add((HttpServletRequest) req));
+        assertEquals(1, resolved.size());
+        interceptor.preHandle(resolved.getFirst(), response, new Object());
+    }
+
+    private static Config config(String key, String value) {
+        return Config.builder().configKey(key).value(value).build();
+    }
+}
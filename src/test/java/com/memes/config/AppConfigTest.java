@@ -0,0 +1,74 @@
+package com.memes.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.memes.model.pojo.Config;
+
+public class AppConfigTest {
+
+    private static Config config(String key, String value) {
+        return Config.builder().configKey(key).value(value).build();
+    }
+
+    @Test
+    void appliesOnlyChangedValues() {
+        AppConfig appConfig = new AppConfig(null);
+        assertEquals(2, appConfig.apply(List.of(config("server.down", "true"), config("submission.fetch.limit", "35"))));
+        assertTrue(appConfig.snapshot().isServerDown());
+        assertEquals(35, appConfig.snapshot().getSubFetchLimit());
+        long version = appConfig.snapshot().getVersion();
+
+        assertEquals(0, appConfig.apply(List.of(config("server.down", "true"), config("submission.fetch.limit", "35"))));
+        assertEquals(version, appConfig.snapshot().getVersion());
+    }
+
+    @Test
+    void invalidValueKeepsPreviousValue() {
+        AppConfig appConfig = new AppConfig(null);
+        appConfig.apply(List.of(config("submission.num.min", "10")));
+        assertEquals(0, appConfig.apply(List.of(config("submission.num.min", "ten"))));
+        assertEquals(10, appConfig.snapshot().getMinSubmissions());
+        assertEquals("10", appConfig.snapshot().get("submission.num.min"));
+    }
+
+    @Test
+    void notifiesListenersAfterSwap() {
+        AppConfig appConfig = new AppConfig(null);
+        List<String> events = new ArrayList<>();
+        appConfig.addListener("submission.fetch.limit", (key, oldValue, newValue) -> {
+            // 回调时新值已经可见
+            assertEquals(Integer.parseInt(newValue), appConfig.snapshot().getSubFetchLimit());
+            events.add(oldValue + "->" + newValue);
+        });
+        appConfig.apply(List.of(config("submission.fetch.limit", "5")));
+        appConfig.apply(List.of(config("submission.fetch.limit", "5")));
+        appConfig.apply(List.of(config("submission.fetch.limit", "8"), config("bot.up", "false")));
+        assertEquals(List.of("null->5", "5->8"), events);
+        assertFalse(appConfig.snapshot().isBotUp());
+    }
+
+    @Test
+    void heldSnapshotDoesNotSeeLaterUpdates() {
+        AppConfig appConfig = new AppConfig(null);
+        appConfig.apply(List.of(config("ratelimit.media.upload.per.minute", "6"), config("ratelimit.media.upload.burst", "3")));
+        ConfigSnapshot held = appConfig.snapshot();
+        appConfig.apply(List.of(config("ratelimit.media.upload.per.minute", "60"), config("ratelimit.media.upload.burst", "30")));
+        assertEquals(6, held.getMediaUploadPerMinute());
+        assertEquals(3, held.getMediaUploadBurst());
+        assertEquals(30, appConfig.snapshot().getMediaUploadBurst());
+    }
+
+    @Test
+    void snapshotKeepsUnboundKeys() {
+        AppConfig appConfig = new AppConfig(null);
+        appConfig.apply(List.of(config("some.other.key", "0.25")));
+        assertEquals(0.25, appConfig.snapshot().getDouble("some.other.key", 1.0));
+    }
+}
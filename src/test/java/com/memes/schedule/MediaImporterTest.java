@@ -0,0 +1,70 @@
+package com.memes.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MediaImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mimeByExtensionSkippingHiddenFiles() {
+        assertEquals("image/jpeg", MediaImporter.mimeOf("a/b/Cat.JPG"));
+        assertEquals("video/mp4", MediaImporter.mimeOf("clip.mp4"));
+        assertNull(MediaImporter.mimeOf("notes.txt"));
+        assertNull(MediaImporter.mimeOf("README"));
+        assertNull(MediaImporter.mimeOf("a/.hidden.png"));
+        assertNull(MediaImporter.mimeOf("__MACOSX/a/cat.png"));
+    }
+
+    @Test
+    void directoryEntriesAreSortedByRelativePath() throws Exception {
+        Files.createDirectories(dir.resolve("b"));
+        Files.write(dir.resolve("b/2.png"), new byte[] {2});
+        Files.write(dir.resolve("a.gif"), new byte[] {1, 1});
+        Files.write(dir.resolve("c.txt"), new byte[] {3});
+
+        List<MediaImporter.Entry> entries = MediaImporter.listDirectory(dir);
+        assertEquals(List.of("a.gif", "b/2.png", "c.txt"), entries.stream().map(MediaImporter.Entry::name).toList());
+        assertEquals(2, entries.get(0).size());
+        assertNull(entries.get(2).mime());
+        try (InputStream in = entries.get(1).content().getInputStream()) {
+            assertArrayEquals(new byte[] {2}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void zipEntriesAreSortedAndReadable() throws Exception {
+        Path zipPath = dir.resolve("archive.zip");
+        try (OutputStream out = Files.newOutputStream(zipPath); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String name : List.of("z.png", "memes/", "memes/a.jpg")) {
+                zip.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    zip.write(name.getBytes());
+                }
+                zip.closeEntry();
+            }
+        }
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            List<MediaImporter.Entry> entries = MediaImporter.listZip(zip);
+            assertEquals(List.of("memes/a.jpg", "z.png"), entries.stream().map(MediaImporter.Entry::name).toList());
+            try (InputStream in = entries.get(0).content().getInputStream()) {
+                assertArrayEquals("memes/a.jpg".getBytes(), in.readAllBytes());
+            }
+        }
+    }
+}
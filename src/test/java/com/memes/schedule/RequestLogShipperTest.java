@@ -0,0 +1,97 @@
+package com.memes.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.memes.mapper.RequestLogMapper;
+import com.memes.model.pojo.RequestLog;
+import com.memes.model.transport.RequestLogRecord;
+import com.memes.util.SegmentLog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestLogShipperTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<RequestLog> inserted = new ArrayList<>();
+
+    @Test
+    void rejectedRowIsQuarantinedAndTheRestShipped() throws Exception {
+        try (SegmentLog segments = new SegmentLog(dir, 4096)) {
+            for (String url : List.of("/a", "/poison", "/b")) {
+                segments.append(record(url, "x".repeat(100)).toByteArray());
+            }
+            segments.roll();
+            RequestLogShipper shipper = new RequestLogShipper(segments, mapper(), new SimpleMeterRegistry());
+            shipper.ship();
+
+            assertEquals(List.of("/a", "/b"), inserted.stream().map(RequestLog::getUrl).toList());
+            // 超长的 uuid 不是合法 uuid，写入前丢弃
+            assertNull(inserted.getFirst().getUuid());
+            assertTrue(Files.readString(dir.resolve("quarantine.log")).contains("/poison"));
+            assertTrue(segments.sealedSegments().isEmpty());
+        }
+    }
+
+    @Test
+    void oldestSegmentsAreDroppedBeyondMaxPending() throws Exception {
+        try (SegmentLog segments = new SegmentLog(dir, 1024)) {
+            for (int i = 0; i < 3; i++) {
+                segments.append(record("/" + i, "").toByteArray());
+                segments.roll();
+            }
+            RequestLogShipper shipper = new RequestLogShipper(segments, mapper(), new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(shipper, "maxPending", DataSize.ofBytes(2048));
+            List<Path> sealed = segments.sealedSegments();
+            assertEquals(sealed.subList(1, 3), shipper.dropOverflow(sealed));
+            assertEquals(2, segments.sealedSegments().size());
+        }
+    }
+
+    private static RequestLogRecord record(String url, String uuid) {
+        return RequestLogRecord
+            .newBuilder()
+            .setUrl(url)
+            .setMethod("GET")
+            .setUuid(uuid)
+            .setTimestamp(System.currentTimeMillis())
+            .setInstanceUuid("instance")
+            .build();
+    }
+
+    /**
+     * url 为 /poison 的行被数据库拒绝，整批写入时整批失败
+     */
+    private RequestLogMapper mapper() {
+        return (RequestLogMapper) Proxy
+            .newProxyInstance(RequestLogMapper.class.getClassLoader(), new Class<?>[] {RequestLogMapper.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("insert")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                List<RequestLog> rows = args[0] instanceof Collection<?> collection
+                    ? collection.stream().map(RequestLog.class::cast).toList()
+                    : List.of((RequestLog) args[0]);
+                if (rows.stream().anyMatch(row -> row.getUrl().equals("/poison"))) {
+                    throw new DataIntegrityViolationException("Data too long for column");
+                }
+                inserted.addAll(rows);
+                return method.getReturnType() == int.class ? rows.size() : null;
+            });
+    }
+}
@@ -0,0 +1,90 @@
+package com.memes.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChecksumFilterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    private final List<MediaContent> rows = new ArrayList<>();
+
+    @Test
+    void rowsCommittedOutOfOrderAreStillLoaded() {
+        ChecksumFilter filter = new ChecksumFilter(mapper(), 1000, 0.001, new SimpleMeterRegistry());
+        rows.add(row("late-id", NOW));
+        filter.refresh();
+        assertTrue(filter.mightContain("late-id"));
+        assertFalse(filter.mightContain("early-id"));
+
+        // created_at 更早、但在上一轮加载之后才提交的行
+        rows.add(row("early-id", NOW.minusMinutes(1)));
+        filter.refresh();
+        assertTrue(filter.mightContain("early-id"));
+    }
+
+    @Test
+    void checksumsPutDuringRebuildAreKept() {
+        ChecksumFilter[] self = new ChecksumFilter[1];
+        self[0] = new ChecksumFilter(mapper(() -> self[0].put("inserted-while-loading")), 1000, 0.001, new SimpleMeterRegistry());
+        rows.add(row("existing", NOW));
+        self[0].refresh();
+        assertTrue(self[0].mightContain("existing"));
+        assertTrue(self[0].mightContain("inserted-while-loading"));
+    }
+
+    private static MediaContent row(String checksum, LocalDateTime createdAt) {
+        return MediaContent.builder().checksum(checksum).createdAt(createdAt).build();
+    }
+
+    private MediaMapper mapper() {
+        return mapper(() -> {
+        });
+    }
+
+    /**
+     * 只支持 ChecksumFilter 用到的流式 selectList，按 created_at 的下界过滤
+     */
+    @SuppressWarnings("unchecked")
+    private MediaMapper mapper(Runnable whileLoading) {
+        return (MediaMapper) Proxy
+            .newProxyInstance(MediaMapper.class.getClassLoader(), new Class<?>[] {MediaMapper.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("selectList") || args.length != 2) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                LocalDateTime from = ((QueryWrapper<MediaContent>) args[0])
+                    .getParamNameValuePairs()
+                    .values()
+                    .stream()
+                    .filter(LocalDateTime.class::isInstance)
+                    .map(LocalDateTime.class::cast)
+                    .findFirst()
+                    .orElse(null);
+                whileLoading.run();
+                ResultHandler<MediaContent> handler = (ResultHandler<MediaContent>) args[1];
+                DefaultResultContext<MediaContent> context = new DefaultResultContext<>();
+                for (MediaContent row : rows) {
+                    if (from == null || !row.getCreatedAt().isBefore(from)) {
+                        context.nextResultObject(row);
+                        handler.handleResult(context);
+                    }
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,50 @@
+package com.memes.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.memes.config.AppConfig;
+import com.memes.model.pojo.Config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DynamicConfigBindingTest {
+
+    private static Config config(String key, String value) {
+        return Config.builder().configKey(key).value(value).build();
+    }
+
+    @Test
+    void variantPoolResizesLive() {
+        ImageVariantService variants = new ImageVariantService(null, null, List.of(240), 2, 4, new SimpleMeterRegistry());
+        try {
+            AppConfig appConfig = new AppConfig(null);
+            variants.bindConfig(appConfig);
+            // 0 表示沿用配置文件中的值
+            assertEquals(2, variants.threads());
+            appConfig.apply(List.of(config("media.variants.threads", "6")));
+            assertEquals(6, variants.threads());
+            appConfig.apply(List.of(config("media.variants.threads", "1")));
+            assertEquals(1, variants.threads());
+        } finally {
+            variants.shutdown();
+        }
+    }
+
+    @Test
+    void directUploadTtlFollowsConfig() {
+        DirectUploadService directUpload = new DirectUploadService(null, "secret", Duration.ofMinutes(10), DataSize.ofMegabytes(1));
+        AppConfig appConfig = new AppConfig(null);
+        directUpload.bindConfig(appConfig);
+        assertEquals(Duration.ofMinutes(10), directUpload.ttl());
+        appConfig.apply(List.of(config("media.direct-upload.ttl.seconds", "120")));
+        assertEquals(Duration.ofMinutes(2), directUpload.ttl());
+        appConfig.apply(List.of(config("media.direct-upload.ttl.seconds", "0")));
+        assertEquals(Duration.ofMinutes(10), directUpload.ttl());
+    }
+}
@@ -0,0 +1,125 @@
+package com.memes.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import com.memes.mapper.MediaMapper;
+import com.memes.model.common.FileUploadResult;
+import com.memes.model.pojo.MediaContent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImageVariantServiceTest {
+
+    private final Map<String, byte[]> objects = new HashMap<>();
+    private final List<String> deleted = new ArrayList<>();
+    private final List<String> savedVariants = new ArrayList<>();
+    private String currentUrl = "https://cdn/original.png";
+    private boolean replaceBeforeSave;
+
+    @Test
+    void variantsAreWrittenWithoutTouchingOtherMetadata() throws IOException {
+        objects.put("original.png", noise(1000, 600));
+        ImageVariantService service = new ImageVariantService(storage(), mapper(), List.of(240, 480), 1, 1, new SimpleMeterRegistry());
+        try {
+            service.generate(1L, "original.png");
+        } finally {
+            service.shutdown();
+        }
+        assertEquals(1, savedVariants.size());
+        assertTrue(savedVariants.getFirst().contains("\"width\":240"), savedVariants.getFirst());
+        assertTrue(deleted.isEmpty());
+    }
+
+    @Test
+    void variantsOfAReplacedOriginalAreDiscarded() throws IOException {
+        objects.put("original.png", noise(1000, 600));
+        ImageVariantService service = new ImageVariantService(storage(), mapper(), List.of(240), 1, 1, new SimpleMeterRegistry());
+        try {
+            // 原图在排队期间被重新压缩，url 变了
+            currentUrl = "https://cdn/recompressed.jpg";
+            service.generate(1L, "original.png");
+            assertTrue(savedVariants.isEmpty());
+            assertTrue(deleted.isEmpty());
+
+            // 生成过程中被替换，写回失败，删掉刚生成的缩略图
+            currentUrl = "https://cdn/original.png";
+            replaceBeforeSave = true;
+            service.generate(1L, "original.png");
+        } finally {
+            service.shutdown();
+        }
+        assertTrue(savedVariants.isEmpty());
+        assertEquals(List.of("variant-1"), deleted);
+    }
+
+    private static byte[] noise(int width, int height) throws IOException {
+        Random random = new Random(1);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private StorageService storage() {
+        return (StorageService) Proxy
+            .newProxyInstance(StorageService.class.getClassLoader(), new Class<?>[] {StorageService.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "keyOf" -> {
+                        return ((String) args[0]).substring("https://cdn/".length());
+                    }
+                    case "read" -> {
+                        return objects.get((String) args[0]);
+                    }
+                    case "store" -> {
+                        String key = "variant-" + objects.size();
+                        objects.put(key, (byte[]) args[0]);
+                        return new FileUploadResult("https://cdn/" + key, key, (String) args[1]);
+                    }
+                    case "delete" -> {
+                        deleted.addAll(List.of((String[]) args[0]));
+                        return Map.of();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private MediaMapper mapper() {
+        return (MediaMapper) Proxy
+            .newProxyInstance(MediaMapper.class.getClassLoader(), new Class<?>[] {MediaMapper.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "selectOne" -> {
+                        return MediaContent.builder().id(1L).dataContent(currentUrl).build();
+                    }
+                    case "setVariants" -> {
+                        if (replaceBeforeSave || !args[1].equals(currentUrl)) {
+                            return 0;
+                        }
+                        savedVariants.add((String) args[2]);
+                        return 1;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,62 @@
+package com.memes.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+
+class ModerationStatisticTest {
+
+    @Test
+    void countersChangeOnlyAfterCommit() {
+        ModerationStatistic statistic = new ModerationStatistic(mediaMapper(5));
+        assertEquals(5, statistic.snapshot().get("PENDING"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            statistic.onStatusChanged(2, 0, MediaContent.ContentStatus.APPROVED);
+            assertEquals(5, statistic.snapshot().get("PENDING"));
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertEquals(5, statistic.snapshot().get("PENDING"));
+
+            statistic.onStatusChanged(2, 0, MediaContent.ContentStatus.APPROVED);
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            assertEquals(3, statistic.snapshot().get("PENDING"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // 不在事务中时立即生效
+        statistic.onStatusChanged(1, 0, MediaContent.ContentStatus.REJECTED);
+        assertEquals(2, statistic.snapshot().get("PENDING"));
+        assertEquals(1, statistic.snapshot().size());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static MediaMapper mediaMapper(long pending) {
+        return (MediaMapper) Proxy
+            .newProxyInstance(MediaMapper.class.getClassLoader(), new Class<?>[] {MediaMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "selectMaps" -> List.of();
+                case "selectCount" -> pending;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,18 @@
+package com.memes.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class RequestLogAnalyticsServiceTest {
+
+    @Test
+    void routeOfStripsHostQueryAndIds() {
+        assertEquals(
+            "/api/submission/{id}/feedback/{flag}",
+            RequestLogAnalyticsService.routeOf("https://memes.example/api/submission/123/feedback/true"));
+        assertEquals("/api/media/status/APPROVED", RequestLogAnalyticsService.routeOf("http://localhost:8080/api/media/status/APPROVED?page=2"));
+        assertEquals("/api/media/{id}", RequestLogAnalyticsService.routeOf("/api/media/42"));
+        assertEquals("/", RequestLogAnalyticsService.routeOf("http://localhost:8080"));
+    }
+}
@@ -0,0 +1,264 @@
+package com.memes.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import com.memes.exception.AppException;
+import com.memes.model.common.DirectUploadForm;
+import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.StoreRequest;
+import com.memes.model.common.StoreResult;
+import com.memes.service.BulkProgress;
+import com.memes.service.StorageService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 逐个 store / 每次 delete 1000 个串行执行，与 storeAll / deleteAll 并行执行的对比。
+ * <p>
+ * 两个后端：本地存储（memes/ 目录），以及一个模拟对象存储的本地 HTTP 服务（PUT 上传、POST ?delete 批量删除，每个请求固定增加 latency 毫秒，
+ * 单次删除超过 1000 个 key 返回 400，和 OSS 的限制一致）。
+ * <p>
+ * 用法: {@code BulkStorageBenchmark [objects] [objectBytes] [latencyMillis] [concurrency...]}
+ */
+public class BulkStorageBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int objects = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int objectBytes = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int latencyMillis = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int[] concurrencies = args.length > 3
+            ? Arrays.stream(args, 3, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] { 8, 32 };
+
+        Random random = new Random(42);
+        List<StoreRequest> requests = new ArrayList<>(objects);
+        for (int i = 0; i < objects; i++) {
+            byte[] bytes = new byte[objectBytes];
+            random.nextBytes(bytes);
+            requests.add(new StoreRequest(bytes, "image/jpeg"));
+        }
+        System.out.printf("%d objects x %d bytes%n", objects, objectBytes);
+
+        LocalStorageServiceImpl local = new LocalStorageServiceImpl();
+        local.urlPrefix = "/media/";
+        run("local", requests, concurrencies, local);
+
+        try (FakeObjectStore server = new FakeObjectStore(latencyMillis)) {
+            System.out.printf("object store stand-in, %dms per request%n", latencyMillis);
+            run("remote", requests, concurrencies, server.storage());
+        }
+    }
+
+    /**
+     * 和线上一样经过 ResilientStorageService，bulkConcurrency 取自它的配置
+     */
+    static StorageService resilient(StorageService backend, int concurrency) {
+        ResilientStorageService.Settings settings = ResilientStorageService.Settings
+            .builder()
+            .timeout(Duration.ofSeconds(30))
+            .storeTimeout(Duration.ofSeconds(30))
+            .maxAttempts(3)
+            .backoff(Duration.ofMillis(100))
+            .breakerWindow(100)
+            .breakerMinCalls(50)
+            .breakerFailureRate(0.5)
+            .breakerOpenDuration(Duration.ofSeconds(30))
+            .bulkConcurrency(concurrency)
+            .build();
+        return new ResilientStorageService(backend, "bench", settings, new SimpleMeterRegistry());
+    }
+
+    private static void run(String name, List<StoreRequest> requests, int[] concurrencies, StorageService backend) {
+        StorageService serial = resilient(backend, 1);
+        long start = System.nanoTime();
+        List<String> keys = new ArrayList<>(requests.size());
+        for (StoreRequest request : requests) {
+            keys.add(serial.store(request.bytes(), request.mime()).fileName());
+        }
+        report(name + " store serial", requests.size(), System.nanoTime() - start);
+        start = System.nanoTime();
+        for (int from = 0; from < keys.size(); from += serial.maxDeleteBatch()) {
+            serial.delete(keys.subList(from, Math.min(keys.size(), from + serial.maxDeleteBatch())).toArray(String[]::new));
+        }
+        report(name + " delete serial", keys.size(), System.nanoTime() - start);
+
+        for (int concurrency : concurrencies) {
+            StorageService storage = resilient(backend, concurrency);
+            start = System.nanoTime();
+            List<StoreResult> results = storage.storeAll(requests, BulkProgress.NONE);
+            report(name + " storeAll x" + concurrency, requests.size(), System.nanoTime() - start);
+            List<String> stored = results.stream().filter(StoreResult::succeeded).map(r -> r.result().fileName()).toList();
+            if (stored.size() != requests.size()) {
+                throw new IllegalStateException("%d of %d stores failed".formatted(requests.size() - stored.size(), requests.size()));
+            }
+            start = System.nanoTime();
+            Map<String, Boolean> deleted = storage.deleteAll(stored, BulkProgress.NONE);
+            report(name + " deleteAll x" + concurrency, stored.size(), System.nanoTime() - start);
+            if (deleted.containsValue(false)) {
+                throw new IllegalStateException("some deletes failed");
+            }
+        }
+    }
+
+    private static void report(String name, int count, long nanos) {
+        System.out.printf("%-24s %8.0f objects/s  (%.2fs)%n", name, count / (nanos / 1e9), nanos / 1e9);
+    }
+
+    /**
+     * 本地 HTTP 服务模拟的对象存储，以及访问它的 StorageService
+     */
+    static class FakeObjectStore implements AutoCloseable {
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final HttpServer server;
+        private final HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        private final String baseUrl;
+
+        FakeObjectStore(int latencyMillis) throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", exchange -> {
+                try (exchange) {
+                    Thread.sleep(latencyMillis);
+                    handle(exchange);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            server.start();
+            baseUrl = "http://127.0.0.1:%d/".formatted(server.getAddress().getPort());
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String key = exchange.getRequestURI().getPath().substring(1);
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    objects.put(key, body);
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "POST" -> {
+                    String[] keys = new String(body, StandardCharsets.UTF_8).split("\n");
+                    if (keys.length > 1000) {
+                        exchange.sendResponseHeaders(400, -1);
+                        return;
+                    }
+                    StringBuilder deleted = new StringBuilder();
+                    for (String k : keys) {
+                        if (objects.remove(k) != null) {
+                            deleted.append(k).append('\n');
+                        }
+                    }
+                    byte[] response = deleted.toString().getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, response.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(response);
+                    }
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+
+        int objectCount() {
+            return objects.size();
+        }
+
+        StorageService storage() {
+            return new StorageService() {
+                @Override
+                public FileUploadResult store(byte[] bytes, String mime) {
+                    return store(bytes, mime, "%d-%s.%s".formatted(System.currentTimeMillis(), UUID.randomUUID(), getExtension(mime)));
+                }
+
+                @Override
+                public FileUploadResult store(byte[] bytes, String mime, String path) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).PUT(HttpRequest.BodyPublishers.ofByteArray(bytes)).build();
+                    send(request);
+                    return new FileUploadResult(baseUrl + path, path, mime);
+                }
+
+                @Override
+                public Map<String, Boolean> delete(String[] keyList) {
+                    HttpRequest request = HttpRequest
+                        .newBuilder(URI.create(baseUrl + "?delete"))
+                        .POST(HttpRequest.BodyPublishers.ofString(String.join("\n", keyList)))
+                        .build();
+                    List<String> deleted = List.of(new String(send(request), StandardCharsets.UTF_8).split("\n"));
+                    Map<String, Boolean> result = new HashMap<>();
+                    for (String key : keyList) {
+                        result.put(key, deleted.contains(key));
+                    }
+                    return result;
+                }
+
+                @Override
+                public byte[] read(String key) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public String keyOf(String url) {
+                    return url.substring(baseUrl.length());
+                }
+
+                @Override
+                public String directUploadKey(String fileName) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public FileUploadResult completeDirectUpload(String key, String mime) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        private byte[] send(HttpRequest request) {
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() != 200) {
+                    throw AppException.storageError("status " + response.statusCode());
+                }
+                return response.body();
+            } catch (IOException e) {
+                throw AppException.storageError(e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw AppException.storageError("interrupted");
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+}
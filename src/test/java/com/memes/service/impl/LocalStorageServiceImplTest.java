@@ -1,11 +1,27 @@
 package com.memes.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import com.memes.exception.AppException;
 import com.memes.model.common.FileUploadResult;
+import com.memes.model.common.ObjectPage;
+import com.memes.model.common.ObjectStat;
+import com.memes.model.common.StoreRequest;
+import com.memes.model.common.StoreResult;
+import com.memes.service.BulkProgress;
 import com.memes.service.StorageService;
+import com.memes.util.HashUtil;
 
 class LocalStorageServiceImplTest {
 
@@ -26,6 +42,99 @@ class LocalStorageServiceImplTest {
         assert delete.get("test.zhigang");
     }
 
+    @Test
+    void read() {
+        FileUploadResult store = service.store(new byte[]{1, 2, 3}, "image/png");
+        assert Arrays.equals(service.read(store.fileName()), new byte[]{1, 2, 3});
+        service.delete(new String[]{store.fileName()});
+        assert service.read(store.fileName()) == null;
+    }
+
+    @Test
+    void statAndReadRange() {
+        byte[] bytes = {1, 2, 3, 4, 5};
+        FileUploadResult store = service.store(bytes, "image/png");
+        ObjectStat stat = service.stat(store.fileName());
+        assert stat.size() == 5;
+        assert stat.md5().equals(HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.MD5));
+        assert Arrays.equals(service.readRange(store.fileName(), 1, 3), new byte[]{2, 3, 4});
+        assert Arrays.equals(service.readRange(store.fileName(), 3, 10), new byte[]{4, 5});
+        assert service.readRange(store.fileName(), 10, 2).length == 0;
+        service.delete(new String[]{store.fileName()});
+        assert service.stat(store.fileName()) == null;
+        assert service.readRange(store.fileName(), 0, 2) == null;
+    }
+
+    @Test
+    void directUpload() throws IOException {
+        LocalStorageServiceImpl local = (LocalStorageServiceImpl) service;
+        String key = local.directUploadKey(UUID.randomUUID() + ".png");
+        assert local.resolve(key) == null;
+
+        byte[] bytes = {9, 8, 7, 6};
+        local.receiveDirectUpload(key, new ByteArrayInputStream(bytes), bytes.length);
+        assertThrows(AppException.class, () -> local.receiveDirectUpload(key, new ByteArrayInputStream(bytes), bytes.length));
+
+        FileUploadResult result = local.completeDirectUpload(key, "image/png");
+        assert Arrays.equals(local.read(result.fileName()), bytes);
+        assert local.read(key) == null;
+        service.delete(new String[]{result.fileName()});
+
+        String tooLarge = local.directUploadKey(UUID.randomUUID() + ".png");
+        assertThrows(AppException.class, () -> local.receiveDirectUpload(tooLarge, new ByteArrayInputStream(bytes), 3));
+        assert local.read(tooLarge) == null;
+    }
+
+    @Test
+    void storeAllAndDeleteAll() {
+        List<StoreRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(new StoreRequest(UUID.randomUUID().toString().getBytes(), "image/png"));
+        }
+        requests.add(new StoreRequest(new byte[]{1}, ""));
+        AtomicInteger lastCompleted = new AtomicInteger();
+        List<StoreResult> results = service.storeAll(requests, (completed, failed, total) -> lastCompleted.accumulateAndGet(completed, Math::max));
+        assert results.size() == 51;
+        assert lastCompleted.get() == 51;
+        assert results.get(50).error() != null;
+        List<String> keys = results.stream().filter(StoreResult::succeeded).map(r -> r.result().fileName()).toList();
+        assert keys.size() == 50;
+        for (int i = 0; i < 50; i++) {
+            assert Arrays.equals(service.read(results.get(i).result().fileName()), requests.get(i).bytes());
+        }
+
+        List<String> toDelete = new ArrayList<>(keys);
+        toDelete.add("missing.png");
+        AtomicInteger lastFailed = new AtomicInteger();
+        Map<String, Boolean> deleted = service.deleteAll(toDelete, (completed, failed, total) -> lastFailed.accumulateAndGet(failed, Math::max));
+        assert deleted.size() == 51;
+        assert keys.stream().allMatch(deleted::get);
+        assert !deleted.get("missing.png");
+        assert lastFailed.get() == 1;
+    }
+
+    @Test
+    void listPagesInKeyOrder() {
+        List<String> stored = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            stored.add(service.store(UUID.randomUUID().toString().getBytes(), "image/png").fileName());
+        }
+        stored.add(service.store(new byte[]{4, 2}, "image/png", "list-test/flat.png").fileName());
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            ObjectPage page = service.list(cursor, 2);
+            assert page.objects().size() <= 2;
+            page.objects().forEach(object -> listed.add(object.key()));
+            cursor = page.next();
+        } while (cursor != null);
+        for (int i = 1; i < listed.size(); i++) {
+            assert listed.get(i - 1).compareTo(listed.get(i)) < 0;
+        }
+        assert listed.containsAll(stored);
+        service.deleteAll(stored, BulkProgress.NONE);
+    }
+
     @Test
     void getMime() {
         assert service.getExtension("image/png").equals("png");
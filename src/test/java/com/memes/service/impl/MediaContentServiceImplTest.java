@@ -0,0 +1,105 @@
+package com.memes.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.memes.mapper.MediaMapper;
+import com.memes.mapper.SubmissionMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.model.pojo.MediaContent.ContentStatus;
+import com.memes.service.ChecksumFilter;
+import com.memes.service.DirectUploadService;
+import com.memes.service.ModerationStatistic;
+import com.memes.service.NearDuplicateIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MediaContentServiceImplTest {
+
+    private final Map<Long, ContentStatus> statuses = new HashMap<>();
+    private int submissions;
+
+    @Test
+    void backlogOnlyDropsByRowsThatWerePending() {
+        statuses.put(1L, ContentStatus.PENDING);
+        statuses.put(2L, ContentStatus.PENDING);
+        statuses.put(3L, ContentStatus.APPROVED);
+        statuses.put(4L, ContentStatus.REJECTED);
+        MediaMapper mediaMapper = mediaMapper();
+        ModerationStatistic statistic = new ModerationStatistic(mediaMapper);
+        MediaContentServiceImpl service = service(mediaMapper, statistic);
+        assertEquals(2, statistic.snapshot().get("PENDING"));
+
+        // 5 不存在
+        assertEquals(3, service.batchMarkMediaStatus(List.of(1L, 3L, 4L, 5L), ContentStatus.APPROVED));
+        assertEquals(1, statistic.snapshot().get("PENDING"));
+        assertEquals(4, submissions);
+
+        assertEquals(2, service.batchMarkMediaStatus(List.of(2L, 3L), ContentStatus.REJECTED));
+        assertEquals(0, statistic.snapshot().get("PENDING"));
+
+        // 退回待审
+        service.markMediaStatus(3L, ContentStatus.PENDING);
+        assertEquals(1, statistic.snapshot().get("PENDING"));
+    }
+
+    private MediaContentServiceImpl service(MediaMapper mediaMapper, ModerationStatistic statistic) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SubmissionMapper submissionMapper = (SubmissionMapper) Proxy
+            .newProxyInstance(SubmissionMapper.class.getClassLoader(), new Class<?>[] {SubmissionMapper.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("insert")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                submissions++;
+                return 1;
+            });
+        return new MediaContentServiceImpl(
+            mediaMapper,
+            submissionMapper,
+            null,
+            statistic,
+            new NearDuplicateIndex(mediaMapper, registry),
+            new ChecksumFilter(mediaMapper, 1000, 0.01, registry),
+            null,
+            new DirectUploadService(null, "", Duration.ofMinutes(10), DataSize.ofMegabytes(50)));
+    }
+
+    /**
+     * 只实现按状态分开的 updateStatus 和对账用的查询
+     */
+    private MediaMapper mediaMapper() {
+        return (MediaMapper) Proxy
+            .newProxyInstance(MediaMapper.class.getClassLoader(), new Class<?>[] {MediaMapper.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "updateStatus" -> {
+                        boolean pending = (boolean) args[2];
+                        int matched = 0;
+                        for (Object id : (Collection<?>) args[0]) {
+                            ContentStatus status = statuses.get((Long) id);
+                            if (status != null && (status == ContentStatus.PENDING) == pending) {
+                                statuses.put((Long) id, (ContentStatus) args[1]);
+                                matched++;
+                            }
+                        }
+                        return matched;
+                    }
+                    case "selectMaps" -> {
+                        return List.of();
+                    }
+                    case "selectCount" -> {
+                        return statuses.values().stream().filter(ContentStatus.PENDING::equals).count();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,177 @@
+package com.memes.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.memes.exception.AppException;
+import com.memes.model.common.FileUploadResult;
+import com.memes.service.BulkProgress;
+import com.memes.util.CircuitBreaker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ResilientStorageServiceTest {
+
+    /**
+     * 前 failures 次调用抛出 5xx 存储错误
+     */
+    static class FlakyRemote extends TieredStorageServiceTest.FakeRemote {
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger stores = new AtomicInteger();
+
+        @Override
+        public byte[] read(String key) {
+            if (failures.getAndDecrement() > 0) {
+                reads.incrementAndGet();
+                throw AppException.storageError("boom");
+            }
+            return super.read(key);
+        }
+
+        @Override
+        public FileUploadResult store(byte[] bytes, String mime) {
+            stores.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                throw AppException.storageError("boom");
+            }
+            return super.store(bytes, mime);
+        }
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static ResilientStorageService.Settings.SettingsBuilder settings() {
+        return ResilientStorageService.Settings
+            .builder()
+            .timeout(Duration.ofSeconds(2))
+            .storeTimeout(Duration.ofSeconds(2))
+            .maxAttempts(3)
+            .backoff(Duration.ofMillis(1))
+            .breakerWindow(10)
+            .breakerMinCalls(4)
+            .breakerFailureRate(0.5)
+            .breakerOpenDuration(Duration.ofMinutes(1))
+            .bulkConcurrency(4);
+    }
+
+    @Test
+    void retriesIdempotentReads() {
+        FlakyRemote remote = new FlakyRemote();
+        remote.objects.put("a", new byte[] { 1, 2, 3 });
+        remote.failures.set(2);
+        ResilientStorageService storage = new ResilientStorageService(remote, "test", settings().build(), registry);
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, storage.read("a"));
+        assertEquals(3, remote.reads.get());
+        assertEquals(2, registry.get("memes.storage.requests").tags("operation", "read", "result", "failure").timer().count());
+        assertEquals(3.0, registry.get("memes.storage.bytes").tags("operation", "read").counter().count());
+    }
+
+    @Test
+    void doesNotRetryStoreWithRandomKey() {
+        FlakyRemote remote = new FlakyRemote();
+        remote.failures.set(1);
+        ResilientStorageService storage = new ResilientStorageService(remote, "test", settings().build(), registry);
+
+        assertThrows(AppException.class, () -> storage.store(new byte[] { 1 }, "image/png"));
+        assertEquals(1, remote.stores.get());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        TieredStorageServiceTest.FakeRemote remote = new TieredStorageServiceTest.FakeRemote() {
+            @Override
+            public byte[] read(String key) {
+                reads.incrementAndGet();
+                throw AppException.invalidParam("key");
+            }
+        };
+        ResilientStorageService storage = new ResilientStorageService(remote, "test", settings().build(), registry);
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(AppException.class, () -> storage.read("a"));
+        }
+        assertEquals(10, remote.reads.get());
+        assertEquals(CircuitBreaker.State.CLOSED, storage.breakerState());
+    }
+
+    @Test
+    void timesOutSlowCalls() {
+        TieredStorageServiceTest.FakeRemote remote = new TieredStorageServiceTest.FakeRemote();
+        remote.gate = new CountDownLatch(1);
+        ResilientStorageService storage = new ResilientStorageService(
+            remote,
+            "test",
+            settings().timeout(Duration.ofMillis(50)).maxAttempts(2).build(),
+            registry);
+
+        AppException e = assertThrows(AppException.class, () -> storage.read("a"));
+        assertEquals(500, e.getErrorType().getCode());
+        assertEquals(2, registry.get("memes.storage.requests").tags("operation", "read", "result", "timeout").timer().count());
+        remote.gate.countDown();
+    }
+
+    @Test
+    void openBreakerRejectsWithoutCallingBackend() {
+        FlakyRemote remote = new FlakyRemote();
+        remote.failures.set(Integer.MAX_VALUE);
+        ResilientStorageService storage = new ResilientStorageService(remote, "test", settings().maxAttempts(1).build(), registry);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(AppException.class, () -> storage.read("a"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, storage.breakerState());
+        int reads = remote.reads.get();
+        AppException e = assertThrows(AppException.class, () -> storage.read("a"));
+        assertEquals(503, e.getErrorType().getCode());
+        assertEquals(reads, remote.reads.get());
+        assertEquals(1.0, registry.get("memes.storage.breaker.open").gauge().value());
+    }
+
+    @Test
+    void deleteAllSplitsByProviderLimit() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        TieredStorageServiceTest.FakeRemote remote = new TieredStorageServiceTest.FakeRemote() {
+            @Override
+            public int maxDeleteBatch() {
+                return 3;
+            }
+
+            @Override
+            public synchronized Map<String, Boolean> delete(String[] keyList) {
+                assertTrue(keyList.length <= 3);
+                batchSizes.add(keyList.length);
+                if (List.of(keyList).contains("k9")) {
+                    throw AppException.invalidParam("k9");
+                }
+                return super.delete(keyList);
+            }
+        };
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            remote.objects.put("k" + i, new byte[] { 1 });
+            keys.add("k" + i);
+        }
+        ResilientStorageService storage = new ResilientStorageService(remote, "test", settings().build(), registry);
+
+        Map<String, Boolean> deleted = storage.deleteAll(keys, BulkProgress.NONE);
+        assertEquals(List.of(1, 3, 3, 3), batchSizes.stream().sorted().toList());
+        assertEquals(10, deleted.size());
+        // 最后一批只有 k9，请求失败记为 false
+        assertEquals(9, deleted.values().stream().filter(Boolean::booleanValue).count());
+        assertFalse(deleted.get("k9"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.memes.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.memes.model.common.DirectUploadForm;
+import com.memes.model.common.FileUploadResult;
+import com.memes.service.StorageService;
+import com.memes.util.DiskLruCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TieredStorageServiceTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 内存中的远端存储，记录 read 次数，可以让 read 阻塞
+     */
+    static class FakeRemote implements StorageService {
+        final Map<String, byte[]> objects = new HashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+        volatile CountDownLatch gate;
+
+        @Override
+        public FileUploadResult store(byte[] bytes, String mime) {
+            return store(bytes, mime, "object-" + objects.size());
+        }
+
+        @Override
+        public FileUploadResult store(byte[] bytes, String mime, String path) {
+            objects.put(path, bytes);
+            return new FileUploadResult("https://cdn/" + path, path, mime);
+        }
+
+        @Override
+        public Map<String, Boolean> delete(String[] keyList) {
+            Map<String, Boolean> result = new HashMap<>();
+            for (String key : keyList) {
+                result.put(key, objects.remove(key) != null);
+            }
+            return result;
+        }
+
+        @Override
+        public byte[] read(String key) {
+            reads.incrementAndGet();
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return objects.get(key);
+        }
+
+        @Override
+        public String keyOf(String url) {
+            return url.substring("https://cdn/".length());
+        }
+
+        @Override
+        public String directUploadKey(String fileName) {
+            return fileName;
+        }
+
+        @Override
+        public DirectUploadForm directUploadForm(String key, String mime, long maxBytes, Instant expiresAt, String token) {
+            return new DirectUploadForm("https://upload/", "POST", Map.of("key", key));
+        }
+
+        @Override
+        public FileUploadResult completeDirectUpload(String key, String mime) {
+            return new FileUploadResult("https://cdn/" + key, key, mime);
+        }
+    }
+
+    @Test
+    void writeThroughAndReadThrough() throws IOException {
+        FakeRemote remote = new FakeRemote();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TieredStorageService storage = new TieredStorageService(remote, new DiskLruCache(dir, 1024), 512, registry);
+
+        FileUploadResult stored = storage.store(new byte[] {1, 2, 3}, "image/png");
+        assertArrayEquals(new byte[] {1, 2, 3}, storage.read(stored.fileName()));
+        assertEquals(0, remote.reads.get());
+
+        remote.objects.put("cold", new byte[] {9});
+        assertArrayEquals(new byte[] {9}, storage.read("cold"));
+        assertArrayEquals(new byte[] {9}, storage.read("cold"));
+        assertEquals(1, remote.reads.get());
+        assertNull(storage.read("missing"));
+
+        storage.delete(new String[] {"cold"});
+        assertNull(storage.read("cold"));
+
+        assertEquals(2, registry.counter("memes.storage.cache.requests", "result", "hit").count());
+        assertEquals(3, registry.counter("memes.storage.cache.requests", "result", "miss").count());
+        assertEquals(4, registry.get("memes.storage.cache.bytes").tag("source", "local").counter().count());
+    }
+
+    @Test
+    void concurrentMissesAreCoalesced() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.objects.put("hot", new byte[] {7, 7});
+        remote.gate = new CountDownLatch(1);
+        TieredStorageService storage = new TieredStorageService(remote, new DiskLruCache(dir, 1024), 512, new SimpleMeterRegistry());
+
+        List<Future<byte[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> storage.read("hot")));
+            }
+            Thread.sleep(200);
+            remote.gate.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(new byte[] {7, 7}, result.get());
+            }
+        }
+        assertEquals(1, remote.reads.get());
+    }
+}
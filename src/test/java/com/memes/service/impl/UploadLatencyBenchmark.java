@@ -0,0 +1,163 @@
+package com.memes.service.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.util.unit.DataSize;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.memes.mapper.MediaMapper;
+import com.memes.model.pojo.MediaContent;
+import com.memes.service.ChecksumFilter;
+import com.memes.service.DirectUploadService;
+import com.memes.service.ImageVariantService;
+import com.memes.service.ModerationStatistic;
+import com.memes.service.NearDuplicateIndex;
+import com.memes.service.StorageService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * storeStreamSubmission 顺序执行与 StructuredTaskScope 并发执行的单次上传延迟对比。
+ * <p>
+ * 存储是 BulkStorageBenchmark 里的本地 HTTP 对象存储，数据库是每次 selectOne / insert 固定耗时的 MediaMapper 代理；
+ * Bloom 过滤器未加载，每次上传都会查库。每 duplicateEvery 次上传重复一张之前的图片，
+ * 最后打印存储里多出来的对象数，重复图片的投机上传应该全部被删掉。
+ * <p>
+ * 用法: {@code UploadLatencyBenchmark [uploads] [storageLatencyMillis] [dbLatencyMillis] [duplicateEvery] [imageSize]}
+ */
+public class UploadLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int storageLatency = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int dbLatency = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int duplicateEvery = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int imageSize = args.length > 4 ? Integer.parseInt(args[4]) : 256;
+
+        Random random = new Random(42);
+        List<byte[]> images = new ArrayList<>(uploads);
+        for (int i = 0; i < uploads; i++) {
+            images.add(i > 0 && i % duplicateEvery == 0 ? images.get(random.nextInt(i)) : png(random, imageSize));
+        }
+        long unique = images.stream().distinct().count();
+        System.out.printf(
+            "%d uploads (%d unique) of %dx%d png, storage %dms, db %dms per query%n",
+            uploads,
+            unique,
+            imageSize,
+            imageSize,
+            storageLatency,
+            dbLatency);
+
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            for (boolean structured : new boolean[] {false, true}) {
+                try (BulkStorageBenchmark.FakeObjectStore server = new BulkStorageBenchmark.FakeObjectStore(storageLatency)) {
+                    MediaContentServiceImpl service = service(BulkStorageBenchmark.resilient(server.storage(), 8), dbLatency);
+                    service.structuredUpload = structured;
+                    long[] latencies = new long[uploads];
+                    for (int i = 0; i < uploads; i++) {
+                        long begin = System.nanoTime();
+                        service.storeStreamSubmission(new ByteArrayInputStream(images.get(i)), "image/png");
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    // 被取消的上传完成后才删除，等它们落地
+                    Thread.sleep(storageLatency * 5L);
+                    if (round == 1) {
+                        report(structured ? "structured" : "sequential", latencies, server.objectCount() - unique);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void report(String name, long[] latencies, long leftover) {
+        Arrays.sort(latencies);
+        System.out
+            .printf(
+                "%-10s p50 %.2fms, p99 %.2fms, max %.2fms, leftover objects %d%n",
+                name,
+                latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6,
+                latencies[latencies.length - 1] / 1e6,
+                leftover);
+    }
+
+    private static byte[] png(Random random, int size) throws Exception {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        int base = random.nextInt();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, base + x * 31 + y * 17 + random.nextInt(16));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static MediaContentServiceImpl service(StorageService storage, int dbLatency) {
+        MediaMapper mediaMapper = mediaMapper(dbLatency);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageVariantService variants = new ImageVariantService(storage, mediaMapper, List.of(240), 1, 1, registry) {
+            @Override
+            public void submit(Long mediaId, String mime, String key) {
+                // 缩略图在后台生成，不计入上传延迟
+            }
+        };
+        return new MediaContentServiceImpl(
+            mediaMapper,
+            null,
+            storage,
+            new ModerationStatistic(mediaMapper),
+            new NearDuplicateIndex(mediaMapper, registry),
+            new ChecksumFilter(mediaMapper, 1000, 0.01, registry),
+            variants,
+            new DirectUploadService(storage, "", Duration.ofMinutes(10), DataSize.ofMegabytes(50)));
+    }
+
+    /**
+     * 只实现上传用到的按 checksum 查询和插入
+     */
+    private static MediaMapper mediaMapper(int dbLatency) {
+        Map<String, MediaContent> rows = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        return (MediaMapper) Proxy
+            .newProxyInstance(MediaMapper.class.getClassLoader(), new Class<?>[] {MediaMapper.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "selectOne" -> {
+                        Thread.sleep(dbLatency);
+                        QueryWrapper<?> wrapper = (QueryWrapper<?>) args[0];
+                        // 参数在生成 SQL 片段时才放进 paramNameValuePairs
+                        wrapper.getSqlSegment();
+                        Object checksum = wrapper.getParamNameValuePairs().values().iterator().next();
+                        return rows.get((String) checksum);
+                    }
+                    case "insert" -> {
+                        Thread.sleep(dbLatency);
+                        MediaContent content = (MediaContent) args[0];
+                        content.setId(ids.incrementAndGet());
+                        rows.put(content.getChecksum(), content);
+                        return 1;
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,119 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.memes.exception.AppException;
+
+class ArchiveWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tarEntriesArePaddedAndChecksummed() throws Exception {
+        byte[] file = new byte[1000];
+        Arrays.fill(file, (byte) 7);
+        Files.write(dir.resolve("in.png"), file);
+        Path tar = dir.resolve("out.tar");
+        try (ArchiveWriter archive = ArchiveWriter
+            .open(ArchiveWriter.Format.TAR, FileChannel.open(tar, StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+            archive.write("media/1.png", dir.resolve("in.png"));
+            assertThrows(NoSuchFileException.class, () -> archive.write("media/2.png", dir.resolve("missing.png")));
+            archive.write("manifest.json", "[]".getBytes(StandardCharsets.UTF_8), 0);
+        }
+
+        byte[] bytes = Files.readAllBytes(tar);
+        // 两个条目各一个头，1000 字节补齐到 1024，2 字节补齐到 512，末尾两个空块
+        assertEquals(512 + 1024 + 512 + 512 + 1024, bytes.length);
+        Map<String, byte[]> entries = readTar(bytes);
+        assertEquals(2, entries.size());
+        assertArrayEquals(file, entries.get("media/1.png"));
+        assertArrayEquals("[]".getBytes(StandardCharsets.UTF_8), entries.get("manifest.json"));
+        assertArrayEquals(new byte[1024], Arrays.copyOfRange(bytes, bytes.length - 1024, bytes.length));
+    }
+
+    @Test
+    void tarRejectsLongNames() throws Exception {
+        try (ArchiveWriter archive = ArchiveWriter.open(ArchiveWriter.Format.TAR, Channels.newChannel(new ByteArrayOutputStream()))) {
+            assertThrows(IOException.class, () -> archive.write("x".repeat(101), new byte[1], 0));
+        }
+    }
+
+    @Test
+    void zipEntriesAreStored() throws Exception {
+        Files.write(dir.resolve("in.gif"), new byte[] {1, 2, 3});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ArchiveWriter archive = ArchiveWriter.open(ArchiveWriter.Format.ZIP, Channels.newChannel(out))) {
+            archive.write("media/1.gif", dir.resolve("in.gif"));
+            archive.write("text/2.md", "# hi".getBytes(StandardCharsets.UTF_8), 1_700_000_000_000L);
+        }
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry = zip.getNextEntry();
+            assertEquals("media/1.gif", entry.getName());
+            assertArrayEquals(new byte[] {1, 2, 3}, zip.readAllBytes());
+            entry = zip.getNextEntry();
+            assertEquals("text/2.md", entry.getName());
+            assertEquals("# hi", new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            assertNull(zip.getNextEntry());
+        }
+    }
+
+    @Test
+    void formatByExtension() {
+        assertEquals(ArchiveWriter.Format.ZIP, ArchiveWriter.Format.of("ZIP"));
+        assertEquals("application/x-tar", ArchiveWriter.Format.of("tar").contentType());
+        assertThrows(AppException.class, () -> ArchiveWriter.Format.of("rar"));
+    }
+
+    private static Map<String, byte[]> readTar(byte[] bytes) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        int offset = 0;
+        while (bytes[offset] != 0) {
+            byte[] header = Arrays.copyOfRange(bytes, offset, offset + 512);
+            String name = field(header, 0, 100);
+            int size = Integer.parseInt(field(header, 124, 12), 8);
+            long checksum = Long.parseLong(field(header, 148, 7), 8);
+            Arrays.fill(header, 148, 156, (byte) ' ');
+            long sum = 0;
+            for (byte b : header) {
+                sum += b & 0xff;
+            }
+            assertEquals(sum, checksum, name);
+            assertEquals("ustar", field(header, 257, 6));
+            entries.put(name, Arrays.copyOfRange(bytes, offset + 512, offset + 512 + size));
+            offset += 512 + (size + 511) / 512 * 512;
+        }
+        return entries;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.US_ASCII);
+    }
+}
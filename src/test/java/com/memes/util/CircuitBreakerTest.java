@@ -0,0 +1,75 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(30), now::get);
+    }
+
+    @Test
+    void opensWhenFailureRateReached() {
+        CircuitBreaker breaker = breaker();
+        // 调用数不够 minCalls 时不熔断
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void staysClosedBelowThreshold() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(breaker.tryAcquire());
+            if (i % 3 == 2) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbe() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        // 探测失败重新熔断
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        // 恢复后窗口清空，一次失败不会再熔断
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+}
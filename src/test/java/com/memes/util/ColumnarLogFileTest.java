@@ -0,0 +1,53 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.memes.model.pojo.RequestLog;
+
+public class ColumnarLogFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndRead() throws IOException {
+        List<RequestLog> logs = RequestLogTestUtil.generateRequestLogs(3000);
+        logs.get(3).setUuid(null);
+        logs.get(5).setRefer(logs.get(6).getRefer());
+
+        ColumnarLogFile.Builder builder = ColumnarLogFile.builder();
+        logs.forEach(builder::add);
+        ColumnarLogFile written = builder.build();
+        Path path = dir.resolve("2024-01-01.rlc");
+        written.write(path);
+
+        ColumnarLogFile read = ColumnarLogFile.read(path);
+        assertEquals(3000, read.getRows());
+        assertArrayEquals(written.getTimestamps(), read.getTimestamps());
+        assertArrayEquals(written.getTimecosts(), read.getTimecosts());
+        assertArrayEquals(written.getMethods(), read.getMethods());
+        assertArrayEquals(written.getUrlDict(), read.getUrlDict());
+        assertArrayEquals(written.getReferIds(), read.getReferIds());
+        assertEquals(ColumnarLogFile.NULL_ID, read.getUuidIds()[3]);
+        assertEquals(read.getReferIds()[5], read.getReferIds()[6]);
+        for (int i = 0; i < logs.size(); i++) {
+            assertEquals(logs.get(i).getUrl(), read.getUrlDict()[read.getUrlIds()[i]]);
+            assertEquals(logs.get(i).getMethod().ordinal(), read.getMethods()[i]);
+        }
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        Path path = dir.resolve("empty.rlc");
+        ColumnarLogFile.builder().build().write(path);
+        assertEquals(0, ColumnarLogFile.read(path).getRows());
+    }
+}
@@ -0,0 +1,85 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DiskLruCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsLeastRecentlyUsed() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 30);
+        cache.put("a", new byte[10]);
+        cache.put("b", new byte[10]);
+        cache.put("c", new byte[10]);
+        assertNotNull(cache.get("a"));
+        cache.put("d", new byte[10]);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(30, cache.size());
+        assertEquals(1, cache.evictions());
+
+        // 比整个容量还大的不缓存
+        cache.put("huge", new byte[31]);
+        assertNull(cache.get("huge"));
+        assertEquals(3, cache.count());
+    }
+
+    @Test
+    void replaceAndRemove() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        cache.put("key", new byte[] {1, 2, 3});
+        cache.put("key", new byte[] {4, 5});
+        assertArrayEquals(new byte[] {4, 5}, cache.get("key"));
+        assertEquals(2, cache.size());
+        cache.remove("key");
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void recoversAfterRestart() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        cache.put("memes/1.png", new byte[] {1, 2, 3});
+        cache.put("memes/2.png", new byte[40]);
+        // 模拟写到一半崩溃留下的临时文件
+        Files.write(dir.resolve(".tmp").resolve("partial"), new byte[50]);
+
+        DiskLruCache reopened = new DiskLruCache(dir, 100);
+        assertArrayEquals(new byte[] {1, 2, 3}, reopened.get("memes/1.png"));
+        assertEquals(43, reopened.size());
+        assertEquals(2, reopened.count());
+        assertFalse(Files.exists(dir.resolve(".tmp").resolve("partial")));
+
+        // 容量调小后重启会先淘汰到新容量以内
+        DiskLruCache smaller = new DiskLruCache(dir, 40);
+        assertEquals(1, smaller.count());
+    }
+
+    @Test
+    void externallyDeletedFileIsAMiss() throws IOException {
+        DiskLruCache cache = new DiskLruCache(dir, 100);
+        cache.put("key", new byte[] {1});
+        try (var shards = Files.walk(dir)) {
+            for (Path file : shards.filter(Files::isRegularFile).toList()) {
+                Files.delete(file);
+            }
+        }
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.memes.util.GradientConcurrencyLimiter.Priority;
+
+public class GradientConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 占满 inflight 个名额后以相同耗时全部释放，模拟一个窗口
+     */
+    private static void window(GradientConcurrencyLimiter limiter, int inflight, long rttNanos) {
+        int acquired = 0;
+        while (acquired < inflight && limiter.tryAcquire(Priority.ADMIN)) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+
+    @Test
+    void priorityClassesShareTheLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 10, 10, 1000);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire(Priority.DEFAULT));
+        }
+        assertFalse(limiter.tryAcquire(Priority.DEFAULT));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertFalse(limiter.tryAcquire(Priority.HIGH));
+        assertTrue(limiter.tryAcquire(Priority.ADMIN));
+        assertTrue(limiter.tryAcquire(Priority.ADMIN));
+        assertFalse(limiter.tryAcquire(Priority.ADMIN));
+        assertEquals(12, limiter.getInFlight());
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsStableAndShrinksWhenItRises() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(50, 10, 500, 0);
+        for (int i = 0; i < 20; i++) {
+            window(limiter, limiter.getLimit(), 10 * MILLIS);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 50, "limit should probe upwards, got " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            window(limiter, limiter.getLimit(), 100 * MILLIS);
+        }
+        assertTrue(limiter.getLimit() < grown / 2, "limit should back off, got " + limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void lowUtilizationDoesNotMoveTheLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(100, 10, 500, 0);
+        for (int i = 0; i < 20; i++) {
+            window(limiter, 20, i % 2 == 0 ? MILLIS : 100 * MILLIS);
+        }
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void slowOutliersDoNotShrinkTheLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(50, 10, 500, 0);
+        for (int i = 0; i < 20; i++) {
+            int acquired = 0;
+            while (acquired < limiter.getLimit() && limiter.tryAcquire(Priority.ADMIN)) {
+                acquired++;
+            }
+            // 每个窗口有一个持续 30 秒的上传，平均耗时会被拉高几十倍
+            limiter.release(30_000 * MILLIS);
+            for (int j = 1; j < acquired; j++) {
+                limiter.release(10 * MILLIS);
+            }
+        }
+        assertTrue(limiter.getLimit() > 50, "limit should keep probing, got " + limiter.getLimit());
+    }
+
+    @Test
+    void histogramBucketsAreMonotonic() {
+        for (long nanos : new long[] {0, 1, 3, 4, 7, 8, 1000, MILLIS, 10 * MILLIS, 30_000 * MILLIS}) {
+            int bucket = GradientConcurrencyLimiter.bucketOf(nanos);
+            assertTrue(GradientConcurrencyLimiter.lowerBoundOf(bucket) <= nanos, String.valueOf(nanos));
+            assertTrue(GradientConcurrencyLimiter.lowerBoundOf(bucket + 1) > nanos, String.valueOf(nanos));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.memes.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 近似重复索引的构建耗时和查询延迟分布。
+ * <p>
+ * 用法: {@code HammingIndexBenchmark [entries] [queries] [maxDistance]}
+ */
+public class HammingIndexBenchmark {
+
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int maxDistance = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        Random random = new Random(42);
+        long[] hashes = new long[entries];
+
+        HammingIndex index = new HammingIndex();
+        long start = System.nanoTime();
+        for (int i = 0; i < entries; i++) {
+            hashes[i] = random.nextLong();
+            index.add(i, hashes[i]);
+        }
+        System.out.printf("build: %d entries in %.2fs%n", entries, (System.nanoTime() - start) / 1e9);
+
+        long[] latencies = new long[queries];
+        int found = 0;
+        for (int round = 0; round < 2; round++) {
+            found = 0;
+            for (int i = 0; i < queries; i++) {
+                // 一半查询是已有条目的近似副本，一半是全新的哈希
+                long query = i % 2 == 0 ? hashes[random.nextInt(entries)] ^ (1L << random.nextInt(64)) : random.nextLong();
+                long begin = System.nanoTime();
+                if (index.nearest(query, maxDistance) != null) {
+                    found++;
+                }
+                latencies[i] = System.nanoTime() - begin;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out
+            .printf(
+                "query: %d queries, found %d, p50 %.1fus, p99 %.1fus, max %.1fus%n",
+                queries,
+                found,
+                latencies[queries / 2] / 1e3,
+                latencies[queries * 99 / 100] / 1e3,
+                latencies[queries - 1] / 1e3);
+    }
+}
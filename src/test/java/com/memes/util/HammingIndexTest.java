@@ -0,0 +1,54 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class HammingIndexTest {
+
+    private static long flipBits(long hash, int bits, Random random) {
+        long result = hash;
+        while (Long.bitCount(result ^ hash) < bits) {
+            result ^= 1L << random.nextInt(64);
+        }
+        return result;
+    }
+
+    @Test
+    void findsNearestWithinDistance() {
+        Random random = new Random(7);
+        HammingIndex index = new HammingIndex();
+        long[] hashes = new long[10_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            index.add(i, hashes[i]);
+        }
+        for (int bits = 0; bits <= HammingIndex.MAX_DISTANCE; bits++) {
+            int target = random.nextInt(hashes.length);
+            HammingIndex.Match match = index.nearest(flipBits(hashes[target], bits, random), HammingIndex.MAX_DISTANCE);
+            assertNotNull(match, "distance " + bits);
+            assertEquals(target, match.id());
+            assertEquals(bits, match.distance());
+        }
+    }
+
+    @Test
+    void ignoresEntriesBeyondDistance() {
+        HammingIndex index = new HammingIndex();
+        index.add(1, 0L);
+        assertNull(index.nearest(0xFFL, 7));
+        assertEquals(8, index.nearest(0xFFL, 8).distance());
+    }
+
+    @Test
+    void prefersCloserEntry() {
+        HammingIndex index = new HammingIndex();
+        index.add(1, 0b111L);
+        index.add(2, 0b1L);
+        assertEquals(2, index.nearest(0L, 6).id());
+    }
+}
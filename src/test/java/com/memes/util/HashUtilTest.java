@@ -2,9 +2,11 @@ package com.memes.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.util.ResourceUtils;
@@ -22,6 +24,15 @@ public class HashUtilTest {
         assertEquals(expectedSha256, HashUtil.strToHex(input, HashUtil.HashAlgorithm.SHA_256));
     }
 
+    @Test
+    public void testStreamToHex() {
+        byte[] bytes = new byte[20_000];
+        new Random(1).nextBytes(bytes);
+        assertEquals(
+            HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.MD5),
+            HashUtil.streamToHex(new ByteArrayInputStream(bytes), HashUtil.HashAlgorithm.MD5));
+    }
+
     @Test
     public void testFileToHex() throws Exception {
         // 准备一个测试文件（假设 resources 目录下有一个名为 test.txt 的文件）
@@ -0,0 +1,84 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+public class ImageCodecTest {
+
+    private static BufferedImage gradient(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        for (int x = 0; x < width; x++) {
+            g.setColor(new Color(x * 255 / width, 128, 255 - x * 255 / width));
+            g.drawLine(x, 0, x, height);
+        }
+        g.dispose();
+        return image;
+    }
+
+    @Test
+    void resizeKeepsAspectRatio() {
+        BufferedImage resized = ImageCodec.resizeToWidth(gradient(1920, 1080, BufferedImage.TYPE_INT_RGB), 480);
+        assertEquals(480, resized.getWidth());
+        assertEquals(270, resized.getHeight());
+    }
+
+    @Test
+    void jpegRoundTrip() throws IOException {
+        BufferedImage image = gradient(640, 480, BufferedImage.TYPE_INT_RGB);
+        byte[] small = ImageCodec.encodeJpeg(image, 0.5f);
+        byte[] large = ImageCodec.encodeJpeg(image, 0.95f);
+        assertTrue(small.length < large.length);
+        BufferedImage decoded = ImageCodec.decode(small);
+        assertNotNull(decoded);
+        assertEquals(640, decoded.getWidth());
+        assertFalse(ImageCodec.hasAlpha(decoded));
+    }
+
+    @Test
+    void pngKeepsAlpha() throws IOException {
+        BufferedImage image = ImageCodec.resizeToWidth(gradient(400, 200, BufferedImage.TYPE_INT_ARGB), 100);
+        BufferedImage decoded = ImageCodec.decode(ImageCodec.encodePng(image));
+        assertNotNull(decoded);
+        assertTrue(ImageCodec.hasAlpha(decoded));
+        assertEquals(50, decoded.getHeight());
+    }
+
+    @Test
+    void subsampledDecodeKeepsAspectRatio() throws IOException {
+        byte[] png = ImageCodec.encodePng(gradient(2000, 1000, BufferedImage.TYPE_INT_RGB));
+        BufferedImage decoded = ImageCodec.decode(png, 480, 1);
+        assertEquals(500, decoded.getWidth());
+        assertEquals(250, decoded.getHeight());
+        // 原图比要求的小时按原样解码
+        assertEquals(2000, ImageCodec.decode(png, 4000, 4000).getWidth());
+    }
+
+    @Test
+    void fullDecodeRejectsLargeImagesFromTheHeader() throws IOException {
+        byte[] png = ImageCodec.encodePng(gradient(16, 16, BufferedImage.TYPE_INT_RGB));
+        // IHDR 中的宽高改为 6000x6000，超过整幅解码的像素上限
+        for (int offset : new int[] {16, 20}) {
+            png[offset] = 0;
+            png[offset + 1] = 0;
+            png[offset + 2] = (byte) 0x17;
+            png[offset + 3] = (byte) 0x70;
+        }
+        assertNull(ImageCodec.decode(png));
+    }
+
+    @Test
+    void decodeInvalidBytes() {
+        assertNull(ImageCodec.decode(new byte[] {1, 2, 3}));
+    }
+}
@@ -0,0 +1,125 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ImageOptimizerTest {
+
+    private static BufferedImage screenshot(int type) {
+        Random random = new Random(42);
+        BufferedImage image = new BufferedImage(400, 300, type);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 400, 300);
+        for (int i = 0; i < 30; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillRect(random.nextInt(400), random.nextInt(300), 60, 20);
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * 用最低压缩级别编码，模拟体积偏大的截图
+     */
+    private static byte[] uncompressedPng(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(1f);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void losslessPng() throws IOException {
+        BufferedImage image = screenshot(BufferedImage.TYPE_INT_RGB);
+        byte[] original = uncompressedPng(image);
+        ImageOptimizer.Result result = ImageOptimizer.optimize(original, ImageCodec.PNG, 0);
+        assertNotNull(result);
+        assertFalse(result.lossy());
+        assertEquals(ImageCodec.PNG, result.mime());
+        assertTrue(result.bytes().length < original.length);
+        assertEquals(1.0, ImageCodec.ssim(image, ImageCodec.decode(result.bytes())), 1e-9);
+    }
+
+    private static BufferedImage photo() {
+        Random random = new Random(7);
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 300; y++) {
+            for (int x = 0; x < 400; x++) {
+                int noise = random.nextInt(9) - 4;
+                image.setRGB(x, y, new Color(Math.clamp(x * 255 / 400 + noise, 0, 255), Math.clamp(y * 255 / 300 + noise, 0, 255), 128).getRGB());
+            }
+        }
+        return image;
+    }
+
+    @Test
+    void lossyRespectsSsim() throws IOException {
+        BufferedImage image = photo();
+        byte[] original = uncompressedPng(image);
+        ImageOptimizer.Result result = ImageOptimizer.optimize(original, ImageCodec.PNG, 0.9);
+        assertNotNull(result);
+        assertTrue(result.lossy());
+        assertEquals(ImageCodec.JPEG, result.mime());
+        assertTrue(result.ssim() >= 0.9);
+        assertTrue(ImageCodec.ssim(image, ImageCodec.decode(result.bytes())) >= 0.9);
+
+        // 阈值达不到时退回无损结果
+        ImageOptimizer.Result strict = ImageOptimizer.optimize(original, ImageCodec.PNG, 0.9999);
+        assertNotNull(strict);
+        assertFalse(strict.lossy());
+    }
+
+    @Test
+    void alphaStaysLossless() throws IOException {
+        byte[] original = uncompressedPng(screenshot(BufferedImage.TYPE_INT_ARGB));
+        ImageOptimizer.Result result = ImageOptimizer.optimize(original, ImageCodec.PNG, 0.5);
+        assertNotNull(result);
+        assertFalse(result.lossy());
+    }
+
+    @Test
+    void originalsAboveThePixelCapAreSkipped() throws IOException {
+        byte[] original = uncompressedPng(screenshot(BufferedImage.TYPE_INT_RGB));
+        // IHDR 中的宽高改为 6000x6000，从文件头判断后跳过，不分配整幅像素
+        for (int offset : new int[] {16, 20}) {
+            original[offset] = 0;
+            original[offset + 1] = 0;
+            original[offset + 2] = (byte) 0x17;
+            original[offset + 3] = (byte) 0x70;
+        }
+        assertNull(ImageOptimizer.optimize(original, ImageCodec.PNG, 0.9));
+    }
+
+    @Test
+    void unsupported() throws IOException {
+        assertNull(ImageOptimizer.optimize(new byte[] {1, 2, 3}, "image/gif", 0.9));
+        assertNull(ImageOptimizer.optimize(new byte[] {1, 2, 3}, ImageCodec.PNG, 0.9));
+    }
+}
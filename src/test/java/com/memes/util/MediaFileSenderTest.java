@@ -0,0 +1,120 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class MediaFileSenderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path video() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return Files.write(dir.resolve("clip.mp4"), bytes);
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MediaFileSender.send(request, response, video(), "abc");
+        return response;
+    }
+
+    @Test
+    void parseRanges() {
+        assertEquals(List.of(new ByteRange(0, 99)), ByteRange.parse("bytes=0-99", 1000));
+        assertEquals(List.of(new ByteRange(900, 999)), ByteRange.parse("bytes=900-", 1000));
+        assertEquals(List.of(new ByteRange(950, 999)), ByteRange.parse("bytes=-50", 1000));
+        assertEquals(List.of(new ByteRange(990, 999)), ByteRange.parse("bytes=990-5000", 1000));
+        assertEquals(List.of(new ByteRange(0, 0), new ByteRange(10, 19)), ByteRange.parse("bytes=0-0, 10-19", 1000));
+        assertEquals(List.of(), ByteRange.parse("bytes=1000-", 1000));
+        assertNull(ByteRange.parse("bytes=5-1", 1000));
+        assertNull(ByteRange.parse("items=0-1", 1000));
+        assertNull(ByteRange.parse(null, 1000));
+    }
+
+    @Test
+    void fullFile() throws IOException {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("GET", "/media/clip.mp4"));
+        assertEquals(200, response.getStatus());
+        assertEquals("video/mp4", response.getContentType());
+        assertEquals("\"abc\"", response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void singleRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        request.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse response = send(request);
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(100, body.length);
+        assertEquals((byte) 100, body[0]);
+    }
+
+    @Test
+    void multipleRanges() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        request.addHeader("Range", "bytes=0-9,-10");
+        MockHttpServletResponse response = send(request);
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        assertEquals(response.getContentLengthLong(), response.getContentAsByteArray().length);
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-9/1000"));
+        assertTrue(body.contains("Content-Range: bytes 990-999/1000"));
+    }
+
+    @Test
+    void conditionalRequests() throws IOException {
+        MockHttpServletRequest notModified = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        notModified.addHeader("If-None-Match", "\"abc\"");
+        assertEquals(304, send(notModified).getStatus());
+
+        MockHttpServletRequest staleRange = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        staleRange.addHeader("Range", "bytes=0-9");
+        staleRange.addHeader("If-Range", "\"old\"");
+        assertEquals(200, send(staleRange).getStatus());
+
+        MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/media/clip.mp4");
+        unsatisfiable.addHeader("Range", "bytes=2000-");
+        MockHttpServletResponse response = send(unsatisfiable);
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void sendfileWhenSupported() throws IOException {
+        byte[] bytes = new byte[100 * 1024];
+        Arrays.fill(bytes, (byte) 1);
+        Path file = Files.write(dir.resolve("large.mp4"), bytes);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media/large.mp4");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=1024-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MediaFileSender.send(request, response, file, "large");
+        // 数据由 Tomcat 发送，响应体为空
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1024L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) bytes.length, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertArrayEquals(new byte[0], response.getContentAsByteArray());
+    }
+}
@@ -0,0 +1,171 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+public class MediaProbeTest {
+
+    private static BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void pngAndJpeg() throws IOException {
+        BufferedImage image = solid(640, 360, new Color(0x33, 0x66, 0x99));
+        image.getGraphics().fillRect(0, 0, 10, 10);
+
+        Map<String, Object> png = MediaProbe.probe(encode(image, "png"));
+        assertEquals("image/png", png.get(MediaProbe.MIME));
+        assertEquals(640, png.get(MediaProbe.WIDTH));
+        assertEquals(360, png.get(MediaProbe.HEIGHT));
+        assertEquals("#336699", png.get(MediaProbe.DOMINANT_COLOR));
+        assertTrue(((String) png.get(MediaProbe.BLURHASH)).length() >= 20);
+
+        Map<String, Object> jpeg = MediaProbe.probe(encode(image, "jpg"));
+        assertEquals("image/jpeg", jpeg.get(MediaProbe.MIME));
+        assertEquals(640, jpeg.get(MediaProbe.WIDTH));
+    }
+
+    @Test
+    void animatedGif() throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (Color color : new Color[] {Color.RED, Color.GREEN, Color.BLUE}) {
+                BufferedImage frame = solid(120, 80, color);
+                IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(frame), null);
+                String format = metadata.getNativeMetadataFormatName();
+                IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+                IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+                control.setAttribute("disposalMethod", "none");
+                control.setAttribute("userInputFlag", "FALSE");
+                control.setAttribute("transparentColorFlag", "FALSE");
+                control.setAttribute("delayTime", "50");
+                control.setAttribute("transparentColorIndex", "0");
+                root.appendChild(control);
+                metadata.setFromTree(format, root);
+                writer.writeToSequence(new IIOImage(frame, null, metadata), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+
+        Map<String, Object> gif = MediaProbe.probe(out.toByteArray());
+        assertEquals("image/gif", gif.get(MediaProbe.MIME));
+        assertEquals(120, gif.get(MediaProbe.WIDTH));
+        assertEquals(80, gif.get(MediaProbe.HEIGHT));
+        assertEquals(3, gif.get(MediaProbe.FRAMES));
+        assertEquals(1500L, gif.get(MediaProbe.DURATION_MS));
+    }
+
+    private static byte[] box(String type, byte[]... children) {
+        int size = 8;
+        for (byte[] child : children) {
+            size += child.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).putInt(size).put(type.getBytes(StandardCharsets.US_ASCII));
+        for (byte[] child : children) {
+            buffer.put(child);
+        }
+        return buffer.array();
+    }
+
+    @Test
+    void mp4() {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[4]);
+        // mvhd v0: timescale 1000, duration 4500
+        byte[] mvhd = box("mvhd", ByteBuffer.allocate(100).putInt(12, 1000).putInt(16, 4500).array());
+        // tkhd v0: 宽高在第 76 字节起，16.16 定点数
+        byte[] tkhd = box("tkhd", ByteBuffer.allocate(84).putInt(76, 1280 << 16).putInt(80, 720 << 16).array());
+        byte[] mp4 = ByteBuffer
+            .allocate(ftyp.length + 8 + mvhd.length + 8 + tkhd.length)
+            .put(ftyp)
+            .put(box("moov", mvhd, box("trak", tkhd)))
+            .array();
+
+        Map<String, Object> video = MediaProbe.probe(mp4);
+        assertEquals("video/mp4", video.get(MediaProbe.MIME));
+        assertEquals(1280, video.get(MediaProbe.WIDTH));
+        assertEquals(720, video.get(MediaProbe.HEIGHT));
+        assertEquals(4500L, video.get(MediaProbe.DURATION_MS));
+    }
+
+    @Test
+    void malformedRiffChunkSizesTerminate() {
+        // VP8X 画布 100x50，后面是长度为 -8 和 -1000 的块，按有符号数读会原地打转或往回走
+        ByteBuffer webp = ByteBuffer.allocate(12 + 18 + 8 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        webp.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(0).put("WEBP".getBytes(StandardCharsets.US_ASCII));
+        webp.put("VP8X".getBytes(StandardCharsets.US_ASCII)).putInt(10).putInt(0).put(new byte[] {99, 0, 0, 49, 0, 0});
+        webp.put("ANMF".getBytes(StandardCharsets.US_ASCII)).putInt(-8);
+        webp.put("ANMF".getBytes(StandardCharsets.US_ASCII)).putInt(-1000);
+
+        Map<String, Object> image = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> MediaProbe.probe(webp.array()));
+        assertEquals("image/webp", image.get(MediaProbe.MIME));
+        assertEquals(100, image.get(MediaProbe.WIDTH));
+        assertEquals(50, image.get(MediaProbe.HEIGHT));
+    }
+
+    @Test
+    void deeplyNestedBoxesDoNotOverflowTheStack() {
+        // 100000 层 moov/trak，每层只有 8 字节的头
+        int levels = 100_000;
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[4]);
+        ByteBuffer mp4 = ByteBuffer.allocate(ftyp.length + 8 * levels).put(ftyp);
+        for (int i = 0; i < levels; i++) {
+            mp4.putInt(8 * (levels - i)).put((i % 2 == 0 ? "moov" : "trak").getBytes(StandardCharsets.US_ASCII));
+        }
+        assertEquals("video/mp4", MediaProbe.probe(mp4.array()).get(MediaProbe.MIME));
+    }
+
+    @Test
+    void unknown() {
+        assertTrue(MediaProbe.probe(new byte[] {1, 2, 3}).isEmpty());
+        assertNull(MediaProbe.sniffMime("plain text content".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void blurHashOfSolidColor() {
+        String hash = BlurHash.encode(solid(32, 32, Color.WHITE), 4, 3);
+        assertEquals(4 + 2 * 4 * 3, hash.length());
+        assertEquals("L", hash.substring(0, 1));
+        // DC 是 0xFFFFFF 的 base83 编码
+        assertEquals("TSUA", hash.substring(2, 6));
+    }
+}
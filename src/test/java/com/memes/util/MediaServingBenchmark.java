@@ -0,0 +1,147 @@
+package com.memes.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 大视频文件下载吞吐：MediaFileSender（sendfile / transferTo）对比 Spring 的静态资源处理器。两者跑在同一个内嵌 Tomcat 上，客户端在同一进程内。
+ * <p>
+ * 用法: {@code MediaServingBenchmark [fileMb] [downloads] [rangeRequests]}
+ */
+public class MediaServingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int fileMb = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int downloads = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rangeRequests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        Path dir = Files.createTempDirectory("serving-bench");
+        Path video = dir.resolve("video.mp4");
+        byte[] chunk = new byte[1 << 20];
+        new Random(42).nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(video)) {
+            for (int i = 0; i < fileMb; i++) {
+                out.write(chunk);
+            }
+        }
+        long size = Files.size(video);
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setPort(0);
+        tomcat.setBaseDir(dir.resolve("tomcat").toString());
+        Context context = tomcat.addContext("", dir.toAbsolutePath().toString());
+        Tomcat.addServlet(context, "sender", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                MediaFileSender.send(request, response, dir.resolve(request.getPathInfo().substring(1)), "bench");
+            }
+        });
+        context.addServletMappingDecoded("/media/*", "sender");
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setLocations(List.of(new FileSystemResource(dir.toAbsolutePath() + File.separator)));
+        handler.afterPropertiesSet();
+        Tomcat.addServlet(context, "static", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, request.getPathInfo().substring(1));
+                try {
+                    handler.handleRequest(request, response);
+                } catch (ServletException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        context.addServletMappingDecoded("/static/*", "static");
+        tomcat.getConnector();
+        tomcat.start();
+        int port = tomcat.getConnector().getLocalPort();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        System.out.printf("file %d MB, %d downloads, %d range requests%n", fileMb, downloads, rangeRequests);
+        for (int round = 0; round < 2; round++) {
+            // 第一轮预热
+            boolean print = round == 1;
+            for (String prefix : new String[] {"static", "media"}) {
+                URI uri = URI.create("http://localhost:%d/%s/video.mp4".formatted(port, prefix));
+                download(client, uri, size, downloads, print);
+                ranges(client, uri, size, rangeRequests, print);
+            }
+        }
+        tomcat.stop();
+        tomcat.destroy();
+        Files.delete(video);
+    }
+
+    private static void download(HttpClient client, URI uri, long size, int downloads, boolean print) throws Exception {
+        long cpuStart = cpuNanos();
+        long start = System.nanoTime();
+        for (int i = 0; i < downloads; i++) {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("unexpected status " + response.statusCode());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double cpuSeconds = (cpuNanos() - cpuStart) / 1e9;
+        if (print) {
+            System.out
+                .printf(
+                    "%-6s full: %.0f MB/s, process cpu %.2fs per GB%n",
+                    uri.getPath().split("/")[1],
+                    size * downloads / 1e6 / seconds,
+                    cpuSeconds / (size * downloads / 1e9));
+        }
+    }
+
+    private static void ranges(HttpClient client, URI uri, long size, int requests, boolean print) throws Exception {
+        Random random = new Random(7);
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long offset = (long) (random.nextDouble() * (size - (1 << 20)));
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Range", "bytes=%d-%d".formatted(offset, offset + (1 << 20) - 1)).build();
+            long begin = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies[i] = System.nanoTime() - begin;
+            if (response.statusCode() != 206) {
+                throw new IllegalStateException("unexpected status " + response.statusCode());
+            }
+        }
+        Arrays.sort(latencies);
+        if (print) {
+            System.out
+                .printf(
+                    "%-6s 1MB range: p50 %.2fms, p99 %.2fms%n",
+                    uri.getPath().split("/")[1],
+                    latencies[requests / 2] / 1e6,
+                    latencies[requests * 99 / 100] / 1e6);
+        }
+    }
+
+    private static long cpuNanos() {
+        return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
@@ -0,0 +1,77 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MultipartUploaderTest {
+
+    @Test
+    void split() {
+        List<MultipartUploader.Part> parts = MultipartUploader.split(25, 10);
+        assertEquals(List.of(new MultipartUploader.Part(1, 0, 10), new MultipartUploader.Part(2, 10, 10), new MultipartUploader.Part(3, 20, 5)), parts);
+        assertEquals(1, MultipartUploader.split(10, 10).size());
+    }
+
+    @Test
+    void retriesOnlyTheFailedPart() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MultipartUploader uploader = new MultipartUploader(10, 2, 3, registry, "test");
+        byte[] data = new byte[45];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        byte[] received = new byte[data.length];
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<MultipartUploader.UploadedPart> parts = uploader.upload(data.length, part -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+                if (part.number() == 3 && attempts.computeIfAbsent(3, k -> new AtomicInteger()).incrementAndGet() < 3) {
+                    throw new IOException("connection reset");
+                }
+                System.arraycopy(data, part.offset(), received, part.offset(), part.length());
+                return "etag-" + part.number();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        assertEquals(5, parts.size());
+        assertEquals("etag-3", parts.get(2).etag());
+        assertArrayEquals(data, received);
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals(2, registry.counter("memes.storage.upload.part.retries", "provider", "test").count());
+        assertEquals(5, registry.timer("memes.storage.upload.part", "provider", "test", "result", "success").count());
+    }
+
+    @Test
+    void failsAfterMaxAttempts() {
+        MultipartUploader uploader = new MultipartUploader(10, 4, 2, new SimpleMeterRegistry(), "test");
+        AtomicInteger calls = new AtomicInteger();
+        IOException error = assertThrows(IOException.class, () -> uploader.upload(20, part -> {
+            calls.incrementAndGet();
+            if (part.number() == 2) {
+                throw new IllegalStateException("bad part");
+            }
+            return "ok";
+        }));
+        assertTrue(error.getMessage().contains("bad part"));
+        assertEquals(3, calls.get());
+    }
+}
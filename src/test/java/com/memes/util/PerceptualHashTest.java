@@ -0,0 +1,80 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+public class PerceptualHashTest {
+
+    private static BufferedImage randomShapes(long seed, int width, int height) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        for (int i = 0; i < 12; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), width / 3, height / 3);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return resized;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void resizedAndRecompressedCopiesStayClose() throws IOException {
+        BufferedImage original = randomShapes(1, 800, 600);
+        Long hash = PerceptualHash.dHash(encode(original, "png"));
+        Long copy = PerceptualHash.dHash(encode(resize(original, 320, 240), "jpg"));
+        Long other = PerceptualHash.dHash(encode(randomShapes(2, 800, 600), "png"));
+        assertNotNull(hash);
+        assertNotNull(copy);
+        assertNotNull(other);
+        assertTrue(PerceptualHash.distance(hash, copy) <= 6, "distance of resized copy: " + PerceptualHash.distance(hash, copy));
+        assertTrue(PerceptualHash.distance(hash, other) > 12, "distance of unrelated image: " + PerceptualHash.distance(hash, other));
+    }
+
+    @Test
+    void undecodableContentHasNoHash() {
+        assertNull(PerceptualHash.dHash("not an image".getBytes()));
+    }
+
+    @Test
+    void oversizedImageIsRejectedFromItsHeader() throws IOException {
+        byte[] png = encode(randomShapes(3, 16, 16), "png");
+        // IHDR 中的宽高改为 100000x100000，只读文件头就应当放弃，不会尝试分配 40GB 的像素
+        for (int offset : new int[] {16, 20}) {
+            png[offset] = 0;
+            png[offset + 1] = 1;
+            png[offset + 2] = (byte) 0x86;
+            png[offset + 3] = (byte) 0xA0;
+        }
+        assertNull(PerceptualHash.dHash(png));
+    }
+}
@@ -0,0 +1,117 @@
+package com.memes.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+
+import com.memes.model.pojo.RequestLog;
+import com.memes.service.RequestLogAnalyticsService;
+
+/**
+ * 列式归档扫描与数据库 GROUP BY 的对比基准。沙箱里没有 MySQL，这里用内存模式的 H2 作为等价 SQL 的参照。
+ * <p>
+ * 用法: {@code RequestLogAnalyticsBenchmark [days] [rowsPerDay]}
+ */
+public class RequestLogAnalyticsBenchmark {
+
+    private static final String[] ROUTES = new String[24];
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    public static void main(String[] args) throws Exception {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 90;
+        int rowsPerDay = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        for (int i = 0; i < ROUTES.length; i++) {
+            ROUTES[i] = "http://localhost:8080/api/route/%d".formatted(i);
+        }
+        Path dir = Files.createTempDirectory("analytics-bench");
+        Random random = new Random(42);
+        LocalDate first = LocalDate.of(2024, 1, 1);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:bench;MODE=MySQL;QUERY_CACHE_SIZE=0", "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement
+                    .execute(
+                        "create table request_log (url varchar(2048), method varchar(10), refer varchar(512), uuid char(36), "
+                            + "timecost int, timestamp bigint, created_at timestamp)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into request_log values (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int day = 0; day < days; day++) {
+                    LocalDate date = first.plusDays(day);
+                    long dayStart = date.atStartOfDay(ZONE).toInstant().toEpochMilli();
+                    ColumnarLogFile.Builder builder = ColumnarLogFile.builder();
+                    for (int row = 0; row < rowsPerDay; row++) {
+                        RequestLog log = RequestLog
+                            .builder()
+                            .url(ROUTES[random.nextInt(ROUTES.length)])
+                            .method(RequestLog.HttpMethod.values()[random.nextInt(2)])
+                            .refer("https://referrer.com/%d".formatted(random.nextInt(200)))
+                            .uuid("uuid-%d".formatted(random.nextInt(20_000)))
+                            .timecost(random.nextInt(500))
+                            .timestamp(dayStart + random.nextInt(86_400_000))
+                            .build();
+                        builder.add(log);
+                        insert.setString(1, log.getUrl());
+                        insert.setString(2, log.getMethod().name());
+                        insert.setString(3, log.getRefer());
+                        insert.setString(4, log.getUuid());
+                        insert.setInt(5, log.getTimecost());
+                        insert.setLong(6, log.getTimestamp());
+                        insert.setObject(7, date.atStartOfDay());
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                    builder.build().write(dir.resolve(date + ".rlc"));
+                }
+            }
+            long archiveBytes = FileUtils.sizeOfDirectory(dir.toFile());
+            System.out.printf("data: %d days x %d rows, archive size %.1f MB%n", days, rowsPerDay, archiveBytes / 1e6);
+
+            String from = first.toString();
+            String to = first.plusDays(days - 1).toString();
+            RequestLogAnalyticsService service = new RequestLogAnalyticsService(null, dir.toString());
+            // 预热一次，把文件读入缓存并让 JIT 编译扫描循环
+            service.routeLatency(from, to);
+
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                int groups = service.routeLatency(from, to).size();
+                double columnar = (System.nanoTime() - start) / 1e6;
+
+                start = System.nanoTime();
+                int sqlGroups = 0;
+                try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement
+                        .executeQuery(
+                            "select cast(created_at as date), method, url, count(*), avg(timecost), max(timecost) "
+                                + "from request_log group by cast(created_at as date), method, url")) {
+                    while (resultSet.next()) {
+                        sqlGroups++;
+                    }
+                }
+                double sql = (System.nanoTime() - start) / 1e6;
+                System.out.printf("route latency: columnar %.1f ms (%d groups), GROUP BY %.1f ms (%d groups)%n", columnar, groups, sql, sqlGroups);
+            }
+
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                int referers = service.refererBreakdown(from, to, 50).size();
+                double referer = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                int retention = service.uuidRetention(from, to).size();
+                double uuid = (System.nanoTime() - start) / 1e6;
+                System.out.printf("referer breakdown %.1f ms (%d rows), uuid retention %.1f ms (%d days)%n", referer, referers, uuid, retention);
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RotatingBloomFilterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rejectsRepeatedElements() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.001, Duration.ofDays(1));
+        assertTrue(filter.add("uuid-1:42"));
+        assertFalse(filter.add("uuid-1:42"));
+        assertTrue(filter.add("uuid-2:42"));
+        assertTrue(filter.mightContain("uuid-2:42"));
+    }
+
+    @Test
+    void remembersElementsForOneMoreGeneration() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(100, 0.001, Duration.ofDays(1));
+        filter.add("first");
+        for (int i = 0; i < 150; i++) {
+            filter.add("filler-" + i);
+        }
+        // 已经轮换过一次，first 在上一代中
+        assertFalse(filter.add("first"));
+        for (int i = 0; i < 250; i++) {
+            filter.add("more-" + i);
+        }
+        // 再轮换一次后 first 所在的代被丢弃
+        assertTrue(filter.add("first"));
+    }
+
+    @Test
+    void expiresByAge() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(100, 0.001, Duration.ofMillis(10));
+        filter.add("a");
+        long now = System.currentTimeMillis();
+        filter.rotateIfNeeded(now + 20);
+        assertTrue(filter.mightContain("a"));
+        filter.rotateIfNeeded(now + 40);
+        assertFalse(filter.mightContain("a"));
+    }
+
+    @Test
+    void survivesRestart() throws IOException {
+        Path file = dir.resolve("votes.bloom");
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01, Duration.ofDays(1));
+        for (int i = 0; i < 1000; i++) {
+            filter.add("vote-" + i);
+        }
+        filter.writeTo(file);
+
+        RotatingBloomFilter restored = new RotatingBloomFilter(10_000, 0.01, Duration.ofDays(1));
+        assertTrue(restored.readFrom(file));
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(restored.add("vote-" + i));
+        }
+        assertEquals(filter.approximateElementCount(), restored.approximateElementCount());
+
+        // 参数变化后不使用旧文件
+        assertFalse(new RotatingBloomFilter(10_000, 0.001, Duration.ofDays(1)).readFrom(file));
+    }
+}
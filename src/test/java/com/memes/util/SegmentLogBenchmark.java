@@ -0,0 +1,88 @@
+package com.memes.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.memes.model.pojo.RequestLog;
+import com.memes.model.transport.RequestLogRecord;
+
+/**
+ * 审计日志段文件的简单基准：追加吞吐量，以及崩溃后重新扫描全部段的恢复耗时。
+ * <p>
+ * 用法: {@code SegmentLogBenchmark [records] [segmentSize]}
+ */
+public class SegmentLogBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int segmentSize = args.length > 1 ? Integer.parseInt(args[1]) : 16 * 1024 * 1024;
+        Path dir = Files.createTempDirectory("segment-log-bench");
+        try {
+            byte[][] payloads = RequestLogTestUtil
+                .generateRequestLogs(1024)
+                .stream()
+                .map(SegmentLogBenchmark::toRecord)
+                .toArray(byte[][]::new);
+
+            // 追加吞吐量
+            SegmentLog segmentLog = new SegmentLog(dir, segmentSize);
+            long bytes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                byte[] payload = payloads[i & 1023];
+                segmentLog.append(payload);
+                bytes += payload.length + SegmentLog.HEADER_SIZE;
+            }
+            double appendSeconds = (System.nanoTime() - start) / 1e9;
+            System.out
+                .printf(
+                    "append: %d records, %.1f MB in %.2fs -> %.0f records/s, %.1f MB/s%n",
+                    records,
+                    bytes / 1e6,
+                    appendSeconds,
+                    records / appendSeconds,
+                    bytes / 1e6 / appendSeconds);
+
+            // 模拟崩溃: 不关闭直接重新打开，然后扫描所有段
+            start = System.nanoTime();
+            SegmentLog reopened = new SegmentLog(dir, segmentSize);
+            List<Path> segments = reopened.sealedSegments();
+            long recovered = 0;
+            for (Path segment : segments) {
+                recovered += SegmentLog.read(segment, 0, (payload, next) -> RequestLogRecord.parseFrom(payload));
+            }
+            double recoverySeconds = (System.nanoTime() - start) / 1e9;
+            System.out
+                .printf(
+                    "recovery: %d records from %d segments in %.2fs -> %.0f records/s%n",
+                    recovered,
+                    segments.size(),
+                    recoverySeconds,
+                    recovered / recoverySeconds);
+            reopened.close();
+            segmentLog.close();
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+
+    private static byte[] toRecord(RequestLog log) {
+        return RequestLogRecord
+            .newBuilder()
+            .setUrl(log.getUrl())
+            .setMethod(log.getMethod().name())
+            .setIp(log.getIp())
+            .setUserAgent(log.getUserAgent())
+            .setRefer(log.getRefer())
+            .setParameterMap(log.getParameterMap())
+            .setUuid(log.getUuid())
+            .setTimecost(log.getTimecost())
+            .setTimestamp(log.getTimestamp())
+            .setInstanceUuid(log.getInstanceUuid())
+            .build()
+            .toByteArray();
+    }
+}
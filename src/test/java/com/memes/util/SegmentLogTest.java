@@ -0,0 +1,115 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SegmentLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendRollAndRead() throws IOException {
+        try (SegmentLog segmentLog = new SegmentLog(dir, 64)) {
+            for (int i = 0; i < 10; i++) {
+                segmentLog.append("record-%d".formatted(i).getBytes(StandardCharsets.UTF_8));
+            }
+            segmentLog.roll();
+
+            List<String> records = new ArrayList<>();
+            List<Path> segments = segmentLog.sealedSegments();
+            assertTrue(segments.size() > 1, "small segments should have rolled");
+            for (Path segment : segments) {
+                SegmentLog.read(segment, 0, (payload, next) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+            }
+            assertEquals(10, records.size());
+            assertEquals("record-0", records.getFirst());
+            assertEquals("record-9", records.getLast());
+        }
+    }
+
+    @Test
+    void resumeFromOffset() throws IOException {
+        try (SegmentLog segmentLog = new SegmentLog(dir, 4096)) {
+            segmentLog.append("a".getBytes(StandardCharsets.UTF_8));
+            segmentLog.append("b".getBytes(StandardCharsets.UTF_8));
+            segmentLog.roll();
+            Path segment = segmentLog.sealedSegments().getFirst();
+
+            int[] firstNext = new int[1];
+            SegmentLog.read(segment, 0, (payload, next) -> {
+                if (firstNext[0] == 0) {
+                    firstNext[0] = next;
+                }
+            });
+            List<String> rest = new ArrayList<>();
+            SegmentLog.read(segment, firstNext[0], (payload, next) -> rest.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(List.of("b"), rest);
+        }
+    }
+
+    @Test
+    void unclosedSegmentIsSealedOnRestart() throws IOException {
+        SegmentLog crashed = new SegmentLog(dir, 4096);
+        crashed.append("before crash".getBytes(StandardCharsets.UTF_8));
+        // 模拟崩溃: 不调用 close
+
+        try (SegmentLog reopened = new SegmentLog(dir, 4096)) {
+            List<Path> segments = reopened.sealedSegments();
+            assertEquals(1, segments.size());
+            assertEquals(1, SegmentLog.read(segments.getFirst(), 0, (payload, next) -> {
+            }));
+        }
+        crashed.close();
+    }
+
+    @Test
+    void corruptedTailIsDropped() throws IOException {
+        Path segment;
+        try (SegmentLog segmentLog = new SegmentLog(dir, 4096)) {
+            segmentLog.append("good".getBytes(StandardCharsets.UTF_8));
+            segmentLog.append("torn".getBytes(StandardCharsets.UTF_8));
+            segmentLog.roll();
+            segment = segmentLog.sealedSegments().getFirst();
+        }
+        // 破坏第二条记录的内容，使其校验失败
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'x'}), SegmentLog.HEADER_SIZE * 2 + 4);
+        }
+        List<String> records = new ArrayList<>();
+        SegmentLog.read(segment, 0, (payload, next) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        assertEquals(List.of("good"), records);
+    }
+
+    @Test
+    void rollIfOlderThan() throws IOException {
+        try (SegmentLog segmentLog = new SegmentLog(dir, 4096)) {
+            segmentLog.rollIfOlderThan(Duration.ZERO);
+            assertTrue(segmentLog.sealedSegments().isEmpty(), "empty segment should not be sealed");
+            segmentLog.append(new byte[]{1});
+            segmentLog.rollIfOlderThan(Duration.ZERO);
+            assertEquals(1, segmentLog.sealedSegments().size());
+        }
+    }
+
+    @Test
+    void oversizedRecordIsRejected() throws IOException {
+        try (SegmentLog segmentLog = new SegmentLog(dir, 64)) {
+            assertThrows(IllegalArgumentException.class, () -> segmentLog.append(new byte[64]));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.memes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 平铺布局（memes/&lt;millis&gt;-&lt;uuid&gt;.&lt;ext&gt;）与分片布局（ab/cd/&lt;sha256&gt;.&lt;ext&gt;）在大量文件下的写入、查找和列目录耗时。
+ * <p>
+ * 用法: {@code ShardedFileStoreBenchmark [files] [dir]}，dir 中会创建两份各 files 个小文件，结束后不会删除
+ */
+public class ShardedFileStoreBenchmark {
+
+    private static final int LOOKUPS = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("layout-bench");
+        Path flatRoot = Files.createDirectories(dir.resolve("flat"));
+        Path shardedRoot = Files.createDirectories(dir.resolve("sharded"));
+        System.out.printf("%d files under %s%n", files, dir);
+
+        String[] flatKeys = new String[files];
+        long start = System.nanoTime();
+        for (int i = 0; i < files; i++) {
+            flatKeys[i] = "%d-%s.jpeg".formatted(System.currentTimeMillis(), UUID.randomUUID());
+            Files.write(flatRoot.resolve(flatKeys[i]), content(i));
+        }
+        report("flat write", files, System.nanoTime() - start);
+
+        ShardedFileStore store = new ShardedFileStore(shardedRoot);
+        String[] shardedKeys = new String[files];
+        start = System.nanoTime();
+        for (int i = 0; i < files; i++) {
+            shardedKeys[i] = store.put(content(i), "jpeg");
+        }
+        report("sharded write", files, System.nanoTime() - start);
+
+        lookups("flat lookup", flatRoot, flatKeys);
+        lookups("sharded lookup", shardedRoot, shardedKeys);
+
+        start = System.nanoTime();
+        long listed;
+        try (Stream<Path> list = Files.list(flatRoot)) {
+            listed = list.count();
+        }
+        System.out.printf("flat list root: %d entries in %.1fms%n", listed, (System.nanoTime() - start) / 1e6);
+        Path shard = shardedRoot.resolve(shardedKeys[0]).getParent();
+        start = System.nanoTime();
+        try (Stream<Path> list = Files.list(shard)) {
+            listed = list.count();
+        }
+        System.out.printf("sharded list one shard: %d entries in %.3fms%n", listed, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static byte[] content(int i) {
+        return ByteBuffer.allocate(64).putInt(i).putLong(i * 0x9E3779B97F4A7C15L).array();
+    }
+
+    private static void lookups(String name, Path root, String[] keys) throws IOException {
+        Random random = new Random(42);
+        long[] latencies = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String key = keys[random.nextInt(keys.length)];
+            long begin = System.nanoTime();
+            Files.size(root.resolve(key));
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        System.out
+            .printf(
+                "%s: p50 %.1fus, p99 %.1fus, max %.1fus%n",
+                name,
+                latencies[LOOKUPS / 2] / 1e3,
+                latencies[LOOKUPS * 99 / 100] / 1e3,
+                latencies[LOOKUPS - 1] / 1e3);
+    }
+
+    private static void report(String name, int files, long nanos) {
+        System.out.printf("%s: %.2fs, %.0f files/s%n", name, nanos / 1e9, files / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,66 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ShardedFileStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void contentAddressedLayout() throws IOException {
+        ShardedFileStore store = new ShardedFileStore(root);
+        byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+        String key = store.put(bytes, "png");
+        String sha = HashUtil.bytesToHex(bytes, HashUtil.HashAlgorithm.SHA_256);
+        assertEquals("%s/%s/%s.png".formatted(sha.substring(0, 2), sha.substring(2, 4), sha), key);
+        assertArrayEquals(bytes, Files.readAllBytes(store.resolve(key)));
+        // 临时文件已经清理
+        try (var tmp = Files.list(root.resolve(".tmp"))) {
+            assertEquals(0, tmp.count());
+        }
+    }
+
+    @Test
+    void duplicatesShareData() throws IOException {
+        ShardedFileStore store = new ShardedFileStore(root);
+        store.setFsync(true);
+        byte[] bytes = "same content".getBytes(StandardCharsets.UTF_8);
+        String first = store.put(bytes, "jpeg");
+        String second = store.put(bytes, "jpeg");
+        assertNotEquals(first, second);
+        assertTrue(Files.isSameFile(store.resolve(first), store.resolve(second)));
+        assertEquals(2, Files.getAttribute(store.resolve(first), "unix:nlink"));
+
+        // 每个 key 独立删除
+        Files.delete(store.resolve(first));
+        assertArrayEquals(bytes, Files.readAllBytes(store.resolve(second)));
+        // 规范路径删除后再写入相同内容会重新占用规范路径
+        assertEquals(first, store.put(bytes, "jpeg"));
+    }
+
+    @Test
+    void adoptFlatFile() throws IOException {
+        ShardedFileStore store = new ShardedFileStore(root);
+        byte[] bytes = "legacy".getBytes(StandardCharsets.UTF_8);
+        Files.write(root.resolve("1700000000000-abc.gif"), bytes);
+        String key = store.adopt("1700000000000-abc.gif");
+        assertTrue(key.endsWith(".gif") && key.contains("/"));
+        assertTrue(Files.isSameFile(root.resolve("1700000000000-abc.gif"), store.resolve(key)));
+        assertNull(store.adopt("missing.gif"));
+        assertFalse(Files.exists(store.resolve("missing.gif")));
+    }
+}
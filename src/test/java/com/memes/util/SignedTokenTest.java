@@ -0,0 +1,31 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class SignedTokenTest {
+
+    private final SignedToken signer = new SignedToken("secret".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void roundTrip() {
+        String token = signer.sign("memes/a.png\nimage/png\n100\n1700000000000");
+        assertEquals("memes/a.png\nimage/png\n100\n1700000000000", signer.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedOrForeignTokens() {
+        String token = signer.sign("key-1");
+        String forged = new SignedToken("other".getBytes(StandardCharsets.UTF_8)).sign("key-1");
+        String swapped = signer.sign("key-2").split("\\.")[0] + "." + token.split("\\.")[1];
+        assertNull(signer.verify(forged));
+        assertNull(signer.verify(swapped));
+        assertNull(signer.verify("not a token"));
+        assertNull(signer.verify("a.b!"));
+        assertNull(signer.verify(null));
+    }
+}
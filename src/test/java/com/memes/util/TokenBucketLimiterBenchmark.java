@@ -0,0 +1,73 @@
+package com.memes.util;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流器单次判定的开销，目标是每次请求远低于 1 微秒。
+ * <p>
+ * 用法: {@code TokenBucketLimiterBenchmark [threads] [keys] [iterations]}
+ */
+public class TokenBucketLimiterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5_000_000;
+        String[] uuids = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            uuids[i] = "media:u:" + UUID.randomUUID();
+        }
+        TokenBucketLimiter limiter = new TokenBucketLimiter(200_000);
+
+        // 预热
+        run(limiter, uuids, 1, iterations);
+        for (int round = 0; round < 3; round++) {
+            AtomicLong rejected = new AtomicLong();
+            long start = System.nanoTime();
+            run(limiter, uuids, threads, iterations, rejected);
+            long elapsed = System.nanoTime() - start;
+            long total = (long) threads * iterations;
+            System.out
+                .printf(
+                    "threads=%d keys=%d: %d calls in %.2fs -> %.1f ns/call per thread, %.1f M calls/s, rejected %.1f%%%n",
+                    threads,
+                    keys,
+                    total,
+                    elapsed / 1e9,
+                    (double) elapsed * threads / total,
+                    total / (elapsed / 1e3),
+                    rejected.get() * 100.0 / total);
+        }
+    }
+
+    private static void run(TokenBucketLimiter limiter, String[] uuids, int threads, int iterations) throws InterruptedException {
+        run(limiter, uuids, threads, iterations, new AtomicLong());
+    }
+
+    private static void run(TokenBucketLimiter limiter, String[] uuids, int threads, int iterations, AtomicLong rejected)
+        throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                executor.execute(() -> {
+                    long localRejected = 0;
+                    int index = seed * 7919;
+                    for (int i = 0; i < iterations; i++) {
+                        index = (index + 31) % uuids.length;
+                        if (limiter.tryAcquire(uuids[index], 60, 20) > 0) {
+                            localRejected++;
+                        }
+                    }
+                    rejected.addAndGet(localRejected);
+                    done.countDown();
+                });
+            }
+            done.await();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.memes.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100);
+        long now = 1_000 * SECOND;
+        // 每分钟 6 次，即每 10 秒一个令牌，突发 3 次
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("u", 6, 3, now));
+        }
+        long wait = limiter.tryAcquire("u", 6, 3, now);
+        assertEquals(10 * SECOND, wait);
+        assertTrue(limiter.tryAcquire("u", 6, 3, now + 9 * SECOND) > 0);
+        assertEquals(0, limiter.tryAcquire("u", 6, 3, now + 10 * SECOND));
+        // 其他键不受影响
+        assertEquals(0, limiter.tryAcquire("v", 6, 3, now));
+    }
+
+    @Test
+    void zeroRateDisablesLimiting() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.tryAcquire("u", 0, 1, 0));
+        }
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void sweepDropsIdleKeysAndCapsMemory() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("key-" + i, 60, 1, now));
+        }
+        // 满了以后新键被拒绝，而不是不受限制地放行
+        for (int i = 10; i < 50; i++) {
+            assertEquals(SECOND, limiter.tryAcquire("key-" + i, 60, 1, now));
+        }
+        assertEquals(10, limiter.size());
+        // 已有的键不受影响
+        assertEquals(0, limiter.tryAcquire("key-0", 60, 1, now + SECOND));
+
+        // 一分钟后这些键的桶都已经回满，清理后全部删除
+        limiter.sweep(now + 60 * SECOND);
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void fullMapSweepsAtMostOncePerSecond() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1);
+        long now = 1_000 * SECOND;
+        assertEquals(0, limiter.tryAcquire("a", 60, 1, now));
+        // a 的桶一秒后回满；同一秒内再来新键不会重复清理
+        assertTrue(limiter.tryAcquire("b", 60, 1, now) > 0);
+        assertTrue(limiter.tryAcquire("c", 60, 1, now + SECOND - 1) > 0);
+        assertEquals(1, limiter.size());
+        assertEquals(0, limiter.tryAcquire("d", 60, 1, now + 2 * SECOND));
+    }
+}
@@ -24,6 +24,7 @@ CREATE TABLE media_content
     data_content          CLOB,
     user_id               VARCHAR(255),
     checksum              VARCHAR(64),
+    phash                 BIGINT,
     llm_description       TEXT,
     llm_moderation_status VARCHAR(10) DEFAULT 'PENDING' CHECK (llm_moderation_status IN ('PENDING', 'APPROVED', 'REJECTED', 'FLAGGED')),
     rejection_reason      TEXT,
@@ -36,6 +37,9 @@ CREATE TABLE media_content
 );
 
 CREATE INDEX idx_media_content_id ON media_content (id);
+CREATE UNIQUE INDEX uk_media_content_checksum ON media_content (checksum);
+CREATE INDEX idx_media_content_created_at ON media_content (created_at);
+CREATE INDEX idx_media_content_updated_at ON media_content (updated_at, id);
 
 
 drop table IF EXISTS request_log;